@@ -47,7 +47,7 @@ import org.zkoss.ganttz.data.Position;
 import org.zkoss.ganttz.data.Task;
 import org.zkoss.ganttz.data.TaskContainer;
 import org.zkoss.ganttz.data.TaskLeaf;
-import org.zkoss.ganttz.data.criticalpath.CriticalPathCalculator;
+import org.zkoss.ganttz.data.criticalpath.CriticalPathNetwork;
 import org.zkoss.ganttz.extensions.IContext;
 import org.zkoss.ganttz.timetracker.TimeTracker;
 import org.zkoss.ganttz.timetracker.zoom.IDetailItemModifier;
@@ -187,6 +187,8 @@ public class FunctionalityExposedForExtensions<T> implements IContext<T> {
 
     private final PlannerConfiguration<T> configuration;
 
+    private CriticalPathNetwork<Task> criticalPathNetwork;
+
     public FunctionalityExposedForExtensions(
             Planner planner, PlannerConfiguration<T> configuration, GanttZKDiagramGraph diagramGraph) {
 
@@ -420,16 +422,30 @@ public class FunctionalityExposedForExtensions<T> implements IContext<T> {
 
     @Override
     public void showCriticalPath() {
-        CriticalPathCalculator<Task, Dependency> criticalPathCalculator =
-                CriticalPathCalculator.create(configuration.isDependenciesConstraintsHavePriority());
-
-        List<Task> criticalPath = criticalPathCalculator.calculateCriticalPath(diagramGraph);
+        List<Task> criticalPath = getCriticalPathNetwork().getTasksOnCriticalPath();
 
         for (Task task : diagramGraph.getTasks()) {
             task.setInCriticalPath(isInCriticalPath(criticalPath, task));
         }
     }
 
+    /**
+     * The network is kept while the tasks and dependencies don't change, and
+     * its dates are recalculated only after the positions of the tasks change.
+     */
+    private CriticalPathNetwork<Task> getCriticalPathNetwork() {
+        if ( criticalPathNetwork == null ) {
+            CriticalPathNetwork<Task> network =
+                    CriticalPathNetwork.create(diagramGraph, configuration.isDependenciesConstraintsHavePriority());
+
+            diagramGraph.addStructureChangeListener(network::structureChanged);
+            diagramGraph.addPostGraphChangeListener(network::datesChanged);
+            criticalPathNetwork = network;
+        }
+
+        return criticalPathNetwork;
+    }
+
     private boolean isInCriticalPath(List<Task> criticalPath, Task task) {
         if ( task.isContainer() ) {
             List<Task> allTaskLeafs = task.getAllTaskLeafs();
@@ -444,16 +460,35 @@ public class FunctionalityExposedForExtensions<T> implements IContext<T> {
     public List<T> getCriticalPath() {
         List<T> result = new ArrayList<>();
 
-        CriticalPathCalculator<Task, Dependency> criticalPathCalculator =
-                CriticalPathCalculator.create(configuration.isDependenciesConstraintsHavePriority());
-
-        for (Task each : criticalPathCalculator.calculateCriticalPath(diagramGraph)) {
+        for (Task each : getCriticalPathNetwork().getTasksOnCriticalPath()) {
             result.add(mapper.findAssociatedDomainObject(each));
         }
 
         return result;
     }
 
+    @Override
+    public int getTotalSlack(T domainObject) {
+        CriticalPathNetwork<Task> network = getCriticalPathNetwork();
+        int result = CriticalPathNetwork.NO_SLACK;
+        for (Task each : mapper.findAssociatedBean(domainObject).getAllTaskLeafs()) {
+            result = Math.min(result, network.getTotalSlack(each));
+        }
+
+        return result;
+    }
+
+    @Override
+    public int getFreeSlack(T domainObject) {
+        CriticalPathNetwork<Task> network = getCriticalPathNetwork();
+        int result = CriticalPathNetwork.NO_SLACK;
+        for (Task each : mapper.findAssociatedBean(domainObject).getAllTaskLeafs()) {
+            result = Math.min(result, network.getFreeSlack(each));
+        }
+
+        return result;
+    }
+
     @Override
     public void hideCriticalPath() {
         for (Task task : diagramGraph.getTasks()) {
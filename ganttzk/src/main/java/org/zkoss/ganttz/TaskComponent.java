@@ -92,6 +92,8 @@ public class TaskComponent extends Div implements AfterCompose {
 
     private transient PropertyChangeListener propertiesListener;
 
+    private boolean listenersAdded = false;
+
     private String progressType;
 
     public static TaskComponent asTaskComponent(Task task,
@@ -259,6 +261,17 @@ public class TaskComponent extends Div implements AfterCompose {
 
     public final void afterCompose() {
         updateProperties();
+
+        // The component can be attached again after being removed, the listeners must be added only once
+        if ( !listenersAdded ) {
+            addListeners();
+            listenersAdded = true;
+        }
+
+        updateClass();
+    }
+
+    private void addListeners() {
         if ( propertiesListener == null ) {
 
             propertiesListener = new PropertyChangeListener() {
@@ -325,8 +338,6 @@ public class TaskComponent extends Div implements AfterCompose {
         }
 
         this.task.addCriticalPathPropertyChangeListener(criticalPathPropertyListener);
-
-        updateClass();
     }
 
     /**
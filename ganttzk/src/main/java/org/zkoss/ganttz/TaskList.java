@@ -38,10 +38,16 @@ import org.zkoss.ganttz.timetracker.zoom.IZoomLevelChangedListener;
 import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
 import org.zkoss.ganttz.util.Interval;
 import org.zkoss.ganttz.util.MenuBuilder;
+import org.zkoss.zk.au.AuRequest;
+import org.zkoss.zk.mesg.MZk;
+import org.zkoss.zk.ui.UiException;
 import org.zkoss.zk.ui.ext.AfterCompose;
+import org.zkoss.zk.ui.sys.ContentRenderer;
+import org.zkoss.zk.ui.util.Clients;
 import org.zkoss.zul.Menupopup;
 import org.zkoss.zul.impl.XulElement;
 
+import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ArrayList;
@@ -59,6 +65,15 @@ import java.util.Collections;
  */
 public class TaskList extends XulElement implements AfterCompose {
 
+    /**
+     * Rows rendered in windowed mode before the client reports its viewport.
+     */
+    private static final int INITIAL_ROWS = 50;
+
+    private static final int BUFFER_ROWS = 20;
+
+    private static final int BUFFER_PIXELS = 600;
+
     private transient IZoomLevelChangedListener zoomLevelChangedListener;
 
     private List<Task> currentTotalTasks;
@@ -79,7 +94,23 @@ public class TaskList extends XulElement implements AfterCompose {
 
     private Map<TaskContainer, IExpandListener> autoRemovedListers = new WeakHashMap<>();
 
-    private Map<TaskComponent, Menupopup> contextMenus = new HashMap<>();
+    /**
+     * The tasks accepting the same commands share the context menu.
+     */
+    private Map<List<CommandOnTaskContextualized<?>>, Menupopup> contextMenus = new HashMap<>();
+
+    private Set<TaskComponent> componentsWithListeners = new HashSet<>();
+
+    private String progressType;
+
+    /**
+     * Area rendered when the windowed rendering is enabled, <code>null</code> otherwise.
+     */
+    private TaskListViewport viewport;
+
+    private List<Task> shownRows = new ArrayList<>();
+
+    private Set<Task> tasksInViewport;
 
     public TaskList(
             FunctionalityExposedForExtensions<?> context,
@@ -95,9 +126,33 @@ public class TaskList extends XulElement implements AfterCompose {
         this.commandsOnTasksContextualized = commandsOnTasksContextualized;
         this.disabilityConfiguration = disabilityConfiguration;
         this.predicate = predicate;
+
+        if ( disabilityConfiguration.isWindowedRenderingEnabled() ) {
+            this.viewport = TaskListViewport.rows(0, INITIAL_ROWS - 1);
+            setAuService((request, everError) -> {
+                if ( !"onViewportChange".equals(request.getCommand()) ) {
+                    return false;
+                }
+                viewportChanged(TaskListViewport.create(
+                        toInteger(request, "firstRow"), toInteger(request, "lastRow"),
+                        toInteger(request, "left"), toInteger(request, "right")));
+
+                return true;
+            });
+        }
+    }
+
+    private int toInteger(AuRequest request, String key) {
+        Object value = request.getData().get(key);
+        if ( !(value instanceof Number) ) {
+            throw new UiException(MZk.ILLEGAL_REQUEST_WRONG_DATA, new Object[] { key, this });
+        }
+
+        return ((Number) value).intValue();
     }
 
     public void updateCompletion(String progressType) {
+        this.progressType = progressType;
         for (TaskComponent task: getTaskComponents()) {
             task.updateCompletion(progressType);
             task.updateCompletionReportedHours();
@@ -145,9 +200,17 @@ public class TaskList extends XulElement implements AfterCompose {
 
         insertBefore(taskComponent.getRow(), beforeThis);
         addContextMenu(taskComponent);
-        addListenerForTaskComponentEditForm(taskComponent);
+
+        if ( componentsWithListeners.add(taskComponent) ) {
+            addListenerForTaskComponentEditForm(taskComponent);
+        }
         taskComponent.afterCompose();
 
+        if ( progressType != null ) {
+            taskComponent.updateCompletion(progressType);
+            taskComponent.updateTooltipText(progressType);
+        }
+
         if ( relocate ) {
             getGanttPanel().adjustZoomColumnsHeight();
         }
@@ -214,7 +277,7 @@ public class TaskList extends XulElement implements AfterCompose {
     }
 
     public int getTasksNumber() {
-        return getTaskComponents().size();
+        return isWindowed() ? shownRows.size() : getTaskComponents().size();
     }
 
     @Override
@@ -276,6 +339,12 @@ public class TaskList extends XulElement implements AfterCompose {
                     for (TaskComponent taskComponent : getTaskComponents()) {
                         taskComponent.zoomChanged();
                     }
+
+                    if ( isWindowed() ) {
+                        // The pixels have changed, the client will report its new viewport
+                        viewport = viewport.withoutHorizontalBounds();
+                        reload(false);
+                    }
                     adjustZoomPositionScroll();
                 }
             };
@@ -289,7 +358,14 @@ public class TaskList extends XulElement implements AfterCompose {
     }
 
     private Menupopup getContextMenuFor(TaskComponent taskComponent) {
-        if ( contextMenus.get(taskComponent) == null ) {
+        List<CommandOnTaskContextualized<?>> acceptedCommands = new ArrayList<>();
+        for (CommandOnTaskContextualized<?> command : commandsOnTasksContextualized) {
+            if ( command.accepts(taskComponent) ) {
+                acceptedCommands.add(command);
+            }
+        }
+
+        if ( contextMenus.get(acceptedCommands) == null ) {
             MenuBuilder<TaskComponent> menuBuilder = MenuBuilder.on(getPage(), getTaskComponents());
 
             if ( disabilityConfiguration.isAddingDependenciesEnabled() ) {
@@ -299,19 +375,17 @@ public class TaskList extends XulElement implements AfterCompose {
                         (chosen, event) -> chosen.addDependency());
             }
 
-            for (CommandOnTaskContextualized<?> command : commandsOnTasksContextualized) {
-                if ( command.accepts(taskComponent) ) {
-                    menuBuilder.item(command.getName(), command.getIcon(), command.toItemAction());
-                }
+            for (CommandOnTaskContextualized<?> command : acceptedCommands) {
+                menuBuilder.item(command.getName(), command.getIcon(), command.toItemAction());
             }
 
             Menupopup result = menuBuilder.createWithoutSettingContext();
-            contextMenus.put(taskComponent, result);
+            contextMenus.put(acceptedCommands, result);
 
             return result;
         }
 
-        return contextMenus.get(taskComponent);
+        return contextMenus.get(acceptedCommands);
     }
 
     GanttPanel getGanttPanel() {
@@ -345,13 +419,78 @@ public class TaskList extends XulElement implements AfterCompose {
         return disabilityConfiguration;
     }
 
+    private boolean isWindowed() {
+        return viewport != null;
+    }
+
+    private void viewportChanged(TaskListViewport visible) {
+        if ( viewport.contains(visible) ) {
+            return;
+        }
+        viewport = visible.withBuffer(BUFFER_ROWS, BUFFER_PIXELS);
+        reload(false);
+        Clients.evalJavaScript("ganttz.TaskList.getInstance().refreshTooltips();");
+    }
+
     private void reload(boolean relocate) {
+        if ( isWindowed() ) {
+            calculateTasksInViewport();
+        }
+
         ArrayList<Task> tasksPendingToAdd = new ArrayList<>();
         reload(currentTotalTasks, tasksPendingToAdd, relocate);
         addPendingTasks(tasksPendingToAdd, null, relocate);
+
+        if ( isWindowed() ) {
+            updateRowIndexes();
+        }
         getGanttPanel().getDependencyList().redrawDependencies();
     }
 
+    private void calculateTasksInViewport() {
+        int previousRowsNumber = shownRows.size();
+        shownRows = new ArrayList<>();
+        collectShownRows(currentTotalTasks, shownRows);
+
+        tasksInViewport = viewport.tasksToRender(
+                shownRows, context.getDiagramGraph().getVisibleDependencies(), getMapper());
+
+        if ( previousRowsNumber != shownRows.size() ) {
+            smartUpdate("rowsNumber", shownRows.size());
+        }
+        smartUpdate("renderedFirstRow", viewport.getFirstRow());
+        smartUpdate("renderedLastRow", viewport.getLastRow());
+        smartUpdate("renderedLeft", viewport.getLeft());
+        smartUpdate("renderedRight", viewport.getRight());
+    }
+
+    private void collectShownRows(List<Task> tasks, List<Task> result) {
+        for (Task task : tasks) {
+            if ( predicate.accepts(task) ) {
+                result.add(task);
+            }
+
+            if ( task instanceof TaskContainer ) {
+                collectShownRows(task.getTasks(), result);
+            }
+        }
+    }
+
+    private void updateRowIndexes() {
+        Map<Task, Integer> indexByTask = new HashMap<>();
+        for (int i = 0; i < shownRows.size(); i++) {
+            indexByTask.put(shownRows.get(i), i);
+        }
+
+        for (TaskComponent each : getTaskComponents()) {
+            each.getRow().setIndex(indexByTask.get(each.getTask()));
+        }
+    }
+
+    private boolean mustBeShown(Task task) {
+        return predicate.accepts(task) && (!isWindowed() || tasksInViewport.contains(task));
+    }
+
     private void reload(List<Task> tasks, List<Task> tasksPendingToAdd, boolean relocate) {
         for (Task task : tasks) {
             if ( visibleTasks.contains(task) ) {
@@ -360,7 +499,7 @@ public class TaskList extends XulElement implements AfterCompose {
 
             final boolean isShown = visibleTasks.contains(task);
 
-            if ( predicate.accepts(task) != isShown ) {
+            if ( mustBeShown(task) != isShown ) {
                 if ( isShown ) {
                     makeDisappear(task);
                 } else {
@@ -404,4 +543,18 @@ public class TaskList extends XulElement implements AfterCompose {
         reload(false);
     }
 
+    @Override
+    protected void renderProperties(ContentRenderer renderer) throws IOException {
+        super.renderProperties(renderer);
+
+        if ( isWindowed() ) {
+            render(renderer, "_windowed", true);
+            render(renderer, "_rowsNumber", shownRows.size());
+            render(renderer, "_renderedFirstRow", viewport.getFirstRow());
+            render(renderer, "_renderedLastRow", viewport.getLastRow());
+            render(renderer, "_renderedLeft", viewport.getLeft());
+            render(renderer, "_renderedRight", viewport.getRight());
+        }
+    }
+
 }
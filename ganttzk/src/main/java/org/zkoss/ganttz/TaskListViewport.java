@@ -0,0 +1,209 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.zkoss.ganttz;
+
+import org.apache.commons.lang3.Validate;
+import org.zkoss.ganttz.data.Dependency;
+import org.zkoss.ganttz.data.Task;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Area of the {@link TaskList} that is rendered when the windowed rendering is enabled.
+ * <p>
+ * It is delimited by a range of rows and a range of horizontal pixels. Only the tasks whose bar lies in it, plus the
+ * endpoints of the dependencies that cross it, are rendered.
+ */
+public class TaskListViewport {
+
+    private static final int UNBOUNDED_LEFT = Integer.MIN_VALUE;
+
+    private static final int UNBOUNDED_RIGHT = Integer.MAX_VALUE;
+
+    public static TaskListViewport rows(int firstRow, int lastRow) {
+        return new TaskListViewport(firstRow, lastRow, UNBOUNDED_LEFT, UNBOUNDED_RIGHT);
+    }
+
+    public static TaskListViewport create(int firstRow, int lastRow, int left, int right) {
+        Validate.isTrue(left <= right, "left cannot be after right");
+
+        return new TaskListViewport(firstRow, lastRow, left, right);
+    }
+
+    private final int firstRow;
+
+    private final int lastRow;
+
+    private final int left;
+
+    private final int right;
+
+    private TaskListViewport(int firstRow, int lastRow, int left, int right) {
+        Validate.isTrue(firstRow <= lastRow, "firstRow cannot be after lastRow");
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+        this.left = left;
+        this.right = right;
+    }
+
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public boolean isHorizontallyBounded() {
+        return left != UNBOUNDED_LEFT || right != UNBOUNDED_RIGHT;
+    }
+
+    public TaskListViewport withoutHorizontalBounds() {
+        return rows(firstRow, lastRow);
+    }
+
+    /**
+     * @return a viewport enlarged by the given number of rows and pixels in every direction, so small scrolls don't
+     *         require rendering again
+     */
+    public TaskListViewport withBuffer(int rows, int pixels) {
+        if ( !isHorizontallyBounded() ) {
+            return rows(Math.max(0, firstRow - rows), lastRow + rows);
+        }
+
+        return new TaskListViewport(Math.max(0, firstRow - rows), lastRow + rows, left - pixels, right + pixels);
+    }
+
+    /**
+     * @param rows
+     *            the shown tasks in the order they are laid out
+     * @param dependencies
+     *            the dependencies among the tasks; the ones with some task not in rows are ignored
+     * @return the tasks that must be rendered for this viewport
+     */
+    public Set<Task> tasksToRender(List<Task> rows, Collection<? extends Dependency> dependencies,
+                                   IDatesMapper mapper) {
+        Set<Task> result = new HashSet<>();
+        int last = Math.min(lastRow, rows.size() - 1);
+
+        for (int i = Math.max(0, firstRow); i <= last; i++) {
+            Task each = rows.get(i);
+            if ( crossesHorizontally(leftOf(each, mapper), rightOf(each, mapper)) ) {
+                result.add(each);
+            }
+        }
+
+        if ( dependencies.isEmpty() ) {
+            return result;
+        }
+
+        Map<Task, Integer> rowByTask = new HashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            rowByTask.put(rows.get(i), i);
+        }
+
+        for (Dependency each : dependencies) {
+            Integer sourceRow = rowByTask.get(each.getSource());
+            Integer destinationRow = rowByTask.get(each.getDestination());
+
+            if ( sourceRow == null || destinationRow == null ) {
+                continue;
+            }
+
+            if ( crosses(each, sourceRow, destinationRow, mapper) ) {
+                result.add(each.getSource());
+                result.add(each.getDestination());
+            }
+        }
+
+        return result;
+    }
+
+    private boolean crosses(Dependency dependency, int sourceRow, int destinationRow, IDatesMapper mapper) {
+        boolean crossesRows = Math.min(sourceRow, destinationRow) <= lastRow &&
+                Math.max(sourceRow, destinationRow) >= firstRow;
+
+        if ( !crossesRows ) {
+            return false;
+        }
+
+        if ( !isHorizontallyBounded() ) {
+            return true;
+        }
+
+        Task source = dependency.getSource();
+        Task destination = dependency.getDestination();
+
+        return crossesHorizontally(
+                Math.min(leftOf(source, mapper), leftOf(destination, mapper)),
+                Math.max(rightOf(source, mapper), rightOf(destination, mapper)));
+    }
+
+    private boolean crossesHorizontally(int start, int end) {
+        return start <= right && end >= left;
+    }
+
+    private int leftOf(Task task, IDatesMapper mapper) {
+        return isHorizontallyBounded() ? task.getBeginDate().toPixels(mapper) : 0;
+    }
+
+    private int rightOf(Task task, IDatesMapper mapper) {
+        return isHorizontallyBounded() ? task.getEndDate().toPixels(mapper) : 0;
+    }
+
+    public boolean contains(TaskListViewport other) {
+        return firstRow <= other.firstRow && other.lastRow <= lastRow && left <= other.left && other.right <= right;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if ( !(obj instanceof TaskListViewport) ) {
+            return false;
+        }
+        TaskListViewport other = (TaskListViewport) obj;
+
+        return firstRow == other.firstRow && lastRow == other.lastRow && left == other.left && right == other.right;
+    }
+
+    @Override
+    public int hashCode() {
+        return ((firstRow * 31 + lastRow) * 31 + left) * 31 + right;
+    }
+
+    @Override
+    public String toString() {
+        return "rows [" + firstRow + ", " + lastRow + "], pixels [" + left + ", " + right + "]";
+    }
+
+}
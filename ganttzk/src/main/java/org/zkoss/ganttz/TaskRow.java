@@ -20,14 +20,19 @@
  */
 package org.zkoss.ganttz;
 
+import org.zkoss.zk.ui.sys.ContentRenderer;
 import org.zkoss.zul.impl.XulElement;
 
+import java.io.IOException;
+
 /**
  * @author Óscar González Fernández <ogonzalez@igalia.com>
  *
  */
 public class TaskRow extends XulElement {
 
+    private int index = -1;
+
     public static <T extends TaskComponent> T wrapInRow(T taskComponent) {
         TaskRow parent = new TaskRow();
         parent.appendChild(taskComponent);
@@ -43,4 +48,23 @@ public class TaskRow extends XulElement {
         return (TaskComponent) getChildren().get(0);
     }
 
+    /**
+     * Position of the row in the list. It's only used when the windowed rendering is enabled, since then the rows
+     * aren't laid out one after the other.
+     */
+    void setIndex(int index) {
+        if ( this.index != index ) {
+            this.index = index;
+            smartUpdate("index", index);
+        }
+    }
+
+    @Override
+    protected void renderProperties(ContentRenderer renderer) throws IOException {
+        super.renderProperties(renderer);
+        if ( index >= 0 ) {
+            render(renderer, "_index", index);
+        }
+    }
+
 }
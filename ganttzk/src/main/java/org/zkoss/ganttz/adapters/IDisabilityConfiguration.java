@@ -54,4 +54,10 @@ public interface IDisabilityConfiguration {
 
     public boolean isTreeEditable();
 
+    /**
+     * When enabled only the tasks in the scrolled viewport, plus a buffer around it, are rendered in the Gantt
+     * diagram.
+     */
+    public boolean isWindowedRenderingEnabled();
+
 }
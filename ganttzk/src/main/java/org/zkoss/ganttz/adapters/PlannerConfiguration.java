@@ -167,6 +167,8 @@ public class PlannerConfiguration<T> implements IDisabilityConfiguration {
 
     private boolean treeEditable = true;
 
+    private boolean windowedRenderingEnabled = false;
+
     private IDetailItemModifier firstLevelModifiers = SeveralModifiers.empty();
 
     private IDetailItemModifier secondLevelModifiers = SeveralModifiers.empty();
@@ -391,6 +393,15 @@ public class PlannerConfiguration<T> implements IDisabilityConfiguration {
         return renamingTasksEnabled;
     }
 
+    public void setWindowedRenderingEnabled(boolean windowedRenderingEnabled) {
+        this.windowedRenderingEnabled = windowedRenderingEnabled;
+    }
+
+    @Override
+    public boolean isWindowedRenderingEnabled() {
+        return windowedRenderingEnabled;
+    }
+
     public IDetailItemModifier getSecondLevelModifiers() {
         return secondLevelModifiers;
     }
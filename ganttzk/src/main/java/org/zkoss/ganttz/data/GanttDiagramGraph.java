@@ -24,12 +24,14 @@ package org.zkoss.ganttz.data;
 import static java.util.Arrays.asList;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
@@ -54,6 +56,8 @@ import org.zkoss.ganttz.data.constraint.ConstraintOnComparableValues.ComparisonT
 import org.zkoss.ganttz.data.criticalpath.ICriticalPathCalculable;
 import org.zkoss.ganttz.util.IAction;
 import org.zkoss.ganttz.util.PreAndPostNotReentrantActionsWrapper;
+import org.zkoss.ganttz.util.ProfilingMetrics;
+import org.zkoss.ganttz.util.ProfilingMetrics.ITiming;
 import org.zkoss.ganttz.util.ReentranceGuard;
 import org.zkoss.ganttz.util.ReentranceGuard.IReentranceCases;
 
@@ -335,6 +339,19 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         postGraphChangeListeners.remove(postGraphChangeListener);
     }
 
+    /**
+     * Listeners called when tasks or dependencies are added or removed
+     */
+    private List<IGraphChangeListener> structureChangeListeners = new ArrayList<>();
+
+    public void addStructureChangeListener(IGraphChangeListener structureChangeListener) {
+        structureChangeListeners.add(structureChangeListener);
+    }
+
+    public void removeStructureChangeListener(IGraphChangeListener structureChangeListener) {
+        structureChangeListeners.remove(structureChangeListener);
+    }
+
     public void addPreChangeListeners(Collection<? extends IGraphChangeListener> preChangeListeners) {
         for (IGraphChangeListener each : preChangeListeners) {
             addPreGraphChangeListener(each);
@@ -427,8 +444,22 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
      */
     class TopologicalSorter {
 
+        /**
+         * Plans are kept only for the most recently modified tasks, as a plan can be as big as the graph.
+         */
+        private static final int MAX_PLANS_CACHED = 64;
+
         private Map<TaskPoint, Integer> taskPointsByDepthCached = null;
 
+        private final Map<V, RecalculationPlan> plansCached =
+                new LinkedHashMap<V, RecalculationPlan>(16, 0.75f, true) {
+
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<V, RecalculationPlan> eldest) {
+                        return size() > MAX_PLANS_CACHED;
+                    }
+                };
+
         /**
          * This method is used to place each node on appropriate level.
          *
@@ -503,6 +534,25 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
 
         public void recalculationNeeded() {
             taskPointsByDepthCached = null;
+            plansCached.clear();
+
+            for (IGraphChangeListener each : structureChangeListeners) {
+                each.execute();
+            }
+        }
+
+        /**
+         * The plan only depends on the tasks and dependencies of the graph,
+         * so it's reused until {@link #recalculationNeeded()} is called.
+         */
+        RecalculationPlan planFrom(V task) {
+            RecalculationPlan result = plansCached.get(task);
+            if ( result == null ) {
+                result = createRecalculationPlanFrom(task);
+                plansCached.put(task, result);
+            }
+
+            return result;
         }
 
         public List<Recalculation> sort(Collection<? extends Recalculation> recalculationsToBeSorted) {
@@ -925,24 +975,25 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         }
 
         void enforceRestrictionsOn(Collection<? extends V> tasks) {
-            List<Recalculation> allRecalculations = new ArrayList<>();
+            List<RecalculationPlan> plans = new ArrayList<>();
             for (V each : tasks) {
-                allRecalculations.addAll(getRecalculationsNeededFrom(each));
+                plans.add(getRecalculationPlanFrom(each));
             }
-            enforceRestrictionsOn(allRecalculations, tasks);
+            enforceRestrictionsOn(plans, tasks);
         }
 
         void enforceRestrictionsOn(V task) {
-            enforceRestrictionsOn(getRecalculationsNeededFrom(task), Collections.singleton(task));
+            enforceRestrictionsOn(Collections.singletonList(getRecalculationPlanFrom(task)),
+                    Collections.singleton(task));
         }
 
-        void enforceRestrictionsOn(final List<Recalculation> recalculations,
+        void enforceRestrictionsOn(final List<RecalculationPlan> plans,
                                    final Collection<? extends V> initiallyModified) {
 
             executeWithPreAndPostActionsOnlyIfNewEntrance(new IAction() {
                 @Override
                 public void doAction() {
-                    doRecalculations(recalculations, initiallyModified);
+                    doRecalculations(plans, initiallyModified);
                 }
             });
         }
@@ -967,7 +1018,9 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
          * listeners must be notified.
          */
         private void onNewEntrance(final IAction action) {
-            preAndPostActions.doAction(decorateWithNotifications(action));
+            try (ITiming timing = ProfilingMetrics.time("gantt.enforcement")) {
+                preAndPostActions.doAction(decorateWithNotifications(action));
+            }
         }
 
         /**
@@ -1026,28 +1079,23 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
             executeWithPreAndPostActionsOnlyIfNewEntrance(new IAction() {
                 @Override
                 public void doAction() {
-                    List<Recalculation> recalculationsNeededFrom = getRecalculationsNeededFrom(task);
-                    doRecalculations(recalculationsNeededFrom, Collections.singletonList(task));
+                    RecalculationPlan plan = getRecalculationPlanFrom(task);
+                    doRecalculations(Collections.singletonList(plan), Collections.singletonList(task));
                 }
             });
         }
 
-        private void doRecalculations(List<Recalculation> recalculationsNeeded,
-                                      Collection<? extends V> initiallyModified) {
-
+        private void doRecalculations(List<RecalculationPlan> plans, Collection<? extends V> initiallyModified) {
             Set<V> allModified = new HashSet<>();
             allModified.addAll(initiallyModified);
 
-            for (Recalculation each : recalculationsNeeded) {
-                boolean modified = each.doRecalculation();
-                if ( modified ) {
-                    allModified.add(each.taskPoint.task);
-                }
+            for (RecalculationPlan each : plans) {
+                each.execute(allModified);
             }
 
             List<V> shrunkContainers = shrunkContainersOfModified(allModified);
             for (V each : getTaskAffectedByShrinking(shrunkContainers)) {
-                doRecalculations(getRecalculationsNeededFrom(each),
+                doRecalculations(Collections.singletonList(getRecalculationPlanFrom(each)),
                         Collections.singletonList(each));
             }
         }
@@ -1162,7 +1210,11 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
         }
     }
 
-    List<Recalculation> getRecalculationsNeededFrom(V task) {
+    RecalculationPlan getRecalculationPlanFrom(V task) {
+        return topologicalSorter.planFrom(task);
+    }
+
+    private RecalculationPlan createRecalculationPlanFrom(V task) {
         List<Recalculation> result = new ArrayList<>();
         Set<Recalculation> parentRecalculationsAlreadyDone = new HashSet<>();
         Recalculation first = recalculationFor(allPointsPotentiallyModified(task));
@@ -1199,7 +1251,105 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
             }
         }
 
-        return topologicalSorter.sort(result);
+        return new RecalculationPlan(topologicalSorter.sort(result), first);
+    }
+
+    /**
+     * The recalculations needed when a task is modified, sorted topologically, along with which ones could be
+     * affected by each of them. It's kept by {@link TopologicalSorter} and reused until the graph changes.
+     * <p>
+     * When executed, a recalculation is done only if it has no predecessors or some predecessor has modified its
+     * task. So the changes are pushed forward only through the successors that are actually moved and the rest of
+     * the plan is skipped without being visited.
+     * </p>
+     */
+    private class RecalculationPlan {
+
+        private final List<TaskPoint> taskPoints;
+
+        private final boolean[] parentRecalculations;
+
+        private final int[][] successors;
+
+        private final int firstPosition;
+
+        /**
+         * The positions to recalculate regardless of the outcome of the other ones.
+         */
+        private final BitSet alwaysRecalculated = new BitSet();
+
+        RecalculationPlan(List<Recalculation> sorted, Recalculation first) {
+            int size = sorted.size();
+            this.taskPoints = new ArrayList<>(size);
+            this.parentRecalculations = new boolean[size];
+            this.successors = new int[size][];
+
+            Map<Recalculation, Integer> positions = new IdentityHashMap<>();
+            for (int i = 0; i < size; i++) {
+                positions.put(sorted.get(i), i);
+            }
+
+            List<List<Integer>> successorsByPosition = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                successorsByPosition.add(new ArrayList<Integer>());
+            }
+
+            for (int i = 0; i < size; i++) {
+                Recalculation each = sorted.get(i);
+                taskPoints.add(each.taskPoint);
+                parentRecalculations[i] = each.parentRecalculation;
+
+                if ( each.recalculationsCouldAffectThis.isEmpty() ) {
+                    alwaysRecalculated.set(i);
+                }
+                for (Recalculation predecessor : each.recalculationsCouldAffectThis) {
+                    successorsByPosition.get(positions.get(predecessor)).add(i);
+                }
+            }
+
+            for (int i = 0; i < size; i++) {
+                successors[i] = asArray(successorsByPosition.get(i));
+            }
+
+            this.firstPosition = positions.get(first);
+
+            // the first one could have been modified beforehand, so its successors are always recalculated
+            for (int each : successors[firstPosition]) {
+                alwaysRecalculated.set(each);
+            }
+        }
+
+        private int[] asArray(List<Integer> list) {
+            int[] result = new int[list.size()];
+            for (int i = 0; i < result.length; i++) {
+                result[i] = list.get(i);
+            }
+
+            return result;
+        }
+
+        void execute(Set<V> modifiedTasks) {
+            BitSet pending = (BitSet) alwaysRecalculated.clone();
+
+            for (int i = pending.nextSetBit(0); i >= 0; i = pending.nextSetBit(i + 1)) {
+                Recalculation recalculation = new Recalculation(taskPoints.get(i), parentRecalculations[i]);
+                if ( i == firstPosition ) {
+                    recalculation.couldHaveBeenModifiedBeforehand();
+                }
+
+                if ( recalculation.doRecalculation() ) {
+                    modifiedTasks.add(taskPoints.get(i).task);
+
+                    // the successors already passed were not affected, as happens when their depth is unknown
+                    for (int each : successors[i]) {
+                        if ( each > i ) {
+                            pending.set(each);
+                        }
+                    }
+                }
+            }
+        }
+
     }
 
     private Recalculation getRecalcualtionToAdd(TaskPoint taskPoint, Map<Recalculation, Recalculation> alreadyVisited) {
@@ -2068,6 +2218,7 @@ public class GanttDiagramGraph<V, D extends IDependency<V>> implements ICritical
     }
 
     public void childrenAddedTo(V task) {
+        topologicalSorter.recalculationNeeded();
         enforcer.enforceRestrictionsOn(task);
     }
 
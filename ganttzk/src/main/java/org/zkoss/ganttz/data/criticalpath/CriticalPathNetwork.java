@@ -0,0 +1,728 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.zkoss.ganttz.data.criticalpath;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.zkoss.ganttz.data.DependencyType;
+import org.zkoss.ganttz.data.GanttDate;
+import org.zkoss.ganttz.data.IDependency;
+import org.zkoss.ganttz.data.constraint.Constraint;
+
+/**
+ * Critical path method network of a {@link ICriticalPathCalculable} graph,
+ * with the earliest and latest dates and the slack of every task. <br />
+ *
+ * The tasks that are not containers are the nodes of the network. The
+ * dependencies of the containers become dependencies between the tasks they
+ * contain. The nodes are identified by an index and their dependencies are
+ * kept in arrays, together with the order in which the forward and backward
+ * passes visit them. A node is only visited once all the nodes before it have
+ * been visited. <br />
+ *
+ * Building the network needs all the tasks and dependencies of the graph, so
+ * it is kept until {@link #structureChanged()} is called. When only the
+ * positions of the tasks change, {@link #datesChanged()} makes the next query
+ * read the dates again and repeat the passes over the same arrays. The dates
+ * are expressed in days since the earliest start of all the tasks.
+ *
+ * @param <T>
+ *            the type of the tasks
+ */
+public class CriticalPathNetwork<T> {
+
+    private static final byte END_START = 0;
+
+    private static final byte START_START = 1;
+
+    private static final byte END_END = 2;
+
+    /**
+     * Value of {@link #getTotalSlack(Object)} and {@link #getFreeSlack(Object)} for the tasks that are not reached by
+     * the backward pass
+     */
+    public static final int NO_SLACK = Integer.MAX_VALUE;
+
+    public static <T> CriticalPathNetwork<T> create(ICriticalPathCalculable<T> graph,
+                                                    boolean dependenciesConstraintsHavePriority) {
+        return new CriticalPathNetwork<>(graph, dependenciesConstraintsHavePriority);
+    }
+
+    private final ICriticalPathCalculable<T> graph;
+
+    private final boolean dependenciesConstraintsHavePriority;
+
+    private Structure structure;
+
+    private Dates dates;
+
+    private CriticalPathNetwork(ICriticalPathCalculable<T> graph, boolean dependenciesConstraintsHavePriority) {
+        this.graph = graph;
+        this.dependenciesConstraintsHavePriority = dependenciesConstraintsHavePriority;
+    }
+
+    /**
+     * The tasks or the dependencies of the graph have changed
+     */
+    public void structureChanged() {
+        structure = null;
+        dates = null;
+    }
+
+    /**
+     * The positions of some tasks of the graph have changed
+     */
+    public void datesChanged() {
+        dates = null;
+    }
+
+    private Structure getStructure() {
+        if ( structure == null ) {
+            structure = new Structure();
+        }
+        return structure;
+    }
+
+    private Dates getDates() {
+        if ( dates == null ) {
+            dates = new Dates(getStructure());
+        }
+        return dates;
+    }
+
+    /**
+     * @return the tasks without slack, in the order of the tasks of the graph
+     */
+    public List<T> getTasksOnCriticalPath() {
+        return getTasksWithTotalSlackUpTo(0);
+    }
+
+    /**
+     * @return the tasks with a total slack not bigger than the given days, in
+     *         the order of the tasks of the graph. With a few days it gives
+     *         the tasks in the paths near to the critical one
+     */
+    public List<T> getTasksWithTotalSlackUpTo(int days) {
+        Structure structure = getStructure();
+        Dates dates = getDates();
+
+        List<T> result = new ArrayList<>();
+        for (int i = 0; i < structure.tasks.size(); i++) {
+            if ( dates.hasLatest[i] && dates.latestStart(i) - dates.earliestStart[i] <= days ) {
+                result.add(structure.tasks.get(i));
+            }
+        }
+        return result;
+    }
+
+    public boolean contains(T task) {
+        return getStructure().indexes.containsKey(task);
+    }
+
+    public int getEarliestStart(T task) {
+        return getDates().earliestStart[indexOf(task)];
+    }
+
+    public int getEarliestFinish(T task) {
+        return getDates().earliestFinish(indexOf(task));
+    }
+
+    /**
+     * @return the latest start, or {@link #NO_SLACK} if the task is not
+     *         reached by the backward pass
+     */
+    public int getLatestStart(T task) {
+        int index = indexOf(task);
+        Dates dates = getDates();
+        return dates.hasLatest[index] ? dates.latestStart(index) : NO_SLACK;
+    }
+
+    /**
+     * @return the latest finish, or {@link #NO_SLACK} if the task is not
+     *         reached by the backward pass
+     */
+    public int getLatestFinish(T task) {
+        int index = indexOf(task);
+        Dates dates = getDates();
+        return dates.hasLatest[index] ? dates.latestFinish[index] : NO_SLACK;
+    }
+
+    /**
+     * @return the days the task can be delayed without delaying the end of
+     *         the project, or {@link #NO_SLACK} if the task is not reached by
+     *         the backward pass
+     */
+    public int getTotalSlack(T task) {
+        int index = indexOf(task);
+        Dates dates = getDates();
+        return dates.hasLatest[index] ? dates.latestStart(index) - dates.earliestStart[index] : NO_SLACK;
+    }
+
+    /**
+     * @return the days the task can be delayed without delaying the earliest
+     *         start of any task after it, nor the end of the project if it is
+     *         one of the last tasks
+     */
+    public int getFreeSlack(T task) {
+        return getDates().freeSlack(indexOf(task));
+    }
+
+    private int indexOf(T task) {
+        Integer result = getStructure().indexes.get(task);
+        if ( result == null ) {
+            throw new IllegalArgumentException("the task " + task + " is not a task of the network");
+        }
+        return result;
+    }
+
+    /**
+     * The nodes and dependencies of the network, that only depend on the tasks and dependencies of the graph
+     */
+    private class Structure {
+
+        private final List<T> tasks = new ArrayList<>();
+
+        private final Map<T, Integer> indexes = new HashMap<>();
+
+        /**
+         * The tasks after the node <code>i</code> are the ones between <code>nextStart[i]</code>, inclusive, and
+         * <code>nextStart[i + 1]</code>, exclusive
+         */
+        private int[] nextStart;
+
+        private int[] next;
+
+        private byte[] nextTypes;
+
+        private int[] previousStart;
+
+        private int[] previous;
+
+        private byte[] previousTypes;
+
+        /**
+         * The nodes after the beginning of the project
+         */
+        private int[] initial;
+
+        /**
+         * The nodes before the end of the project
+         */
+        private int[] latest;
+
+        /**
+         * The nodes visited by the forward pass, each one after all the nodes before it
+         */
+        private int[] forwardOrder;
+
+        /**
+         * The nodes visited by the backward pass, each one after all the nodes after it
+         */
+        private int[] backwardOrder;
+
+        private Structure() {
+            for (T each : graph.getTasks()) {
+                if ( !graph.isContainer(each) ) {
+                    indexes.put(each, tasks.size());
+                    tasks.add(each);
+                }
+            }
+
+            List<Set<T>> nextTasks = new ArrayList<>();
+            List<Set<T>> previousTasks = new ArrayList<>();
+            for (T each : tasks) {
+                previousTasks.add(withoutContainers(graph.getIncomingTasksFor(each)));
+                nextTasks.add(withoutContainers(graph.getOutgoingTasksFor(each)));
+            }
+            Map<T, Map<T, DependencyType>> containersDependencies = addContainersDependencies(
+                    nextTasks, previousTasks);
+
+            int size = tasks.size();
+            nextStart = new int[size + 1];
+            previousStart = new int[size + 1];
+            List<Integer> nextList = new ArrayList<>();
+            List<Integer> previousList = new ArrayList<>();
+            List<Byte> nextTypesList = new ArrayList<>();
+            List<Byte> previousTypesList = new ArrayList<>();
+
+            // A task outside the network is kept as -1, so the ones after it are never visited
+            for (int i = 0; i < size; i++) {
+                for (T each : nextTasks.get(i)) {
+                    nextList.add(indexOrMissing(each));
+                    nextTypesList.add(typeOf(tasks.get(i), each, containersDependencies));
+                }
+                nextStart[i + 1] = nextList.size();
+
+                for (T each : previousTasks.get(i)) {
+                    previousList.add(indexOrMissing(each));
+                    previousTypesList.add(typeOf(each, tasks.get(i), containersDependencies));
+                }
+                previousStart[i + 1] = previousList.size();
+            }
+            next = toIntArray(nextList);
+            nextTypes = toByteArray(nextTypesList);
+            previous = toIntArray(previousList);
+            previousTypes = toByteArray(previousTypesList);
+
+            initial = toIndexes(withoutVisibleIncomingDependencies(removeContainers(graph.getInitialTasks())));
+            latest = toIndexes(withoutVisibleOutgoingDependencies(removeContainers(graph.getLatestTasks())));
+
+            forwardOrder = visitingOrder(initial, previousStart, previous, nextStart, next);
+            backwardOrder = visitingOrder(latest, nextStart, next, previousStart, previous);
+        }
+
+        private int indexOrMissing(T task) {
+            Integer result = indexes.get(task);
+            return result != null ? result : -1;
+        }
+
+        private Set<T> withoutContainers(Set<T> tasks) {
+            Set<T> result = new HashSet<>();
+            for (T each : tasks) {
+                if ( !graph.isContainer(each) ) {
+                    result.add(each);
+                }
+            }
+            return result;
+        }
+
+        private Collection<T> removeContainers(Collection<T> tasks) {
+            if ( tasks == null ) {
+                return Collections.emptyList();
+            }
+
+            List<T> result = new ArrayList<>();
+            for (T each : tasks) {
+                if ( graph.isContainer(each) ) {
+                    result.addAll(removeContainers(graph.getChildren(each)));
+                } else {
+                    result.add(each);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * The dependencies of a container apply to all the tasks inside it
+         *
+         * @return the type of the dependencies added
+         */
+        private Map<T, Map<T, DependencyType>> addContainersDependencies(List<Set<T>> nextTasks,
+                                                                         List<Set<T>> previousTasks) {
+            Map<T, Map<T, DependencyType>> result = new HashMap<>();
+
+            for (T container : graph.getTasks()) {
+                if ( !graph.isContainer(container) ) {
+                    continue;
+                }
+                Collection<T> allChildren = removeContainers(Collections.singletonList(container));
+
+                for (T each : removeChildrenAndParents(container, graph.getIncomingTasksFor(container))) {
+                    addDependencies(removeContainers(Collections.singletonList(each)), allChildren,
+                            typeOrEndStart(graph.getDependencyFrom(each, container)),
+                            nextTasks, previousTasks, result);
+                }
+
+                for (T each : removeChildrenAndParents(container, graph.getOutgoingTasksFor(container))) {
+                    addDependencies(allChildren, removeContainers(Collections.singletonList(each)),
+                            typeOrEndStart(graph.getDependencyFrom(container, each)),
+                            nextTasks, previousTasks, result);
+                }
+            }
+
+            return result;
+        }
+
+        private DependencyType typeOrEndStart(IDependency<T> dependency) {
+            return dependency != null ? dependency.getType() : DependencyType.END_START;
+        }
+
+        private Set<T> removeChildrenAndParents(T container, Set<T> tasks) {
+            Set<T> result = new HashSet<>();
+            for (T each : tasks) {
+                if ( !graph.contains(container, each) && !graph.contains(each, container) ) {
+                    result.add(each);
+                }
+            }
+            return result;
+        }
+
+        private void addDependencies(Collection<T> origins, Collection<T> destinations, DependencyType type,
+                                     List<Set<T>> nextTasks, List<Set<T>> previousTasks,
+                                     Map<T, Map<T, DependencyType>> types) {
+            for (T origin : origins) {
+                for (T destination : destinations) {
+                    nextTasks.get(indexes.get(origin)).add(destination);
+                    previousTasks.get(indexes.get(destination)).add(origin);
+
+                    Map<T, DependencyType> destinationTypes = types.get(origin);
+                    if ( destinationTypes == null ) {
+                        destinationTypes = new HashMap<>();
+                        types.put(origin, destinationTypes);
+                    }
+                    destinationTypes.put(destination, type);
+                }
+            }
+        }
+
+        private byte typeOf(T from, T to, Map<T, Map<T, DependencyType>> containersDependencies) {
+            IDependency<T> dependency = graph.getDependencyFrom(from, to);
+            DependencyType type = null;
+            if ( dependency != null ) {
+                type = dependency.getType();
+            } else if ( containersDependencies.containsKey(from) ) {
+                type = containersDependencies.get(from).get(to);
+            }
+            return toCode(type);
+        }
+
+        private byte toCode(DependencyType type) {
+            if ( type == DependencyType.START_START ) {
+                return START_START;
+            }
+            if ( type == DependencyType.END_END ) {
+                return END_END;
+            }
+            return END_START;
+        }
+
+        private Set<T> withoutVisibleIncomingDependencies(Collection<T> tasks) {
+            Set<T> result = new HashSet<>();
+            for (T each : tasks) {
+                if ( !graph.hasVisibleIncomingDependencies(each) ) {
+                    result.add(each);
+                }
+            }
+            return result;
+        }
+
+        private Set<T> withoutVisibleOutgoingDependencies(Collection<T> tasks) {
+            Set<T> result = new HashSet<>();
+            for (T each : tasks) {
+                if ( !graph.hasVisibleOutcomingDependencies(each) ) {
+                    result.add(each);
+                }
+            }
+            return result;
+        }
+
+        private int[] toIndexes(Set<T> tasks) {
+            List<Integer> result = new ArrayList<>();
+            for (T each : tasks) {
+                Integer index = indexes.get(each);
+                if ( index != null ) {
+                    result.add(index);
+                }
+            }
+            return toIntArray(result);
+        }
+
+        /**
+         * A node is visited once all the nodes it waits for have been visited
+         * and it has been reached from the start or from one of them.
+         */
+        private int[] visitingOrder(int[] fromStart,
+                                    int[] waitedStart, int[] waited,
+                                    int[] reachedStart, int[] reached) {
+            int size = tasks.size();
+            int[] pending = new int[size];
+            boolean[] blocked = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                pending[i] = waitedStart[i + 1] - waitedStart[i];
+                for (int k = waitedStart[i]; k < waitedStart[i + 1]; k++) {
+                    blocked[i] |= waited[k] == -1;
+                }
+            }
+
+            boolean[] visited = new boolean[size];
+            int[] result = new int[size];
+            int added = 0;
+            for (int each : fromStart) {
+                if ( pending[each] == 0 && !blocked[each] && !visited[each] ) {
+                    visited[each] = true;
+                    result[added++] = each;
+                }
+            }
+            for (int current = 0; current < added; current++) {
+                int node = result[current];
+                for (int k = reachedStart[node]; k < reachedStart[node + 1]; k++) {
+                    int each = reached[k];
+                    if ( each != -1 && waits(each, node, waitedStart, waited) && --pending[each] == 0 &&
+                            !blocked[each] && !visited[each] ) {
+
+                        visited[each] = true;
+                        result[added++] = each;
+                    }
+                }
+            }
+            return Arrays.copyOf(result, added);
+        }
+
+        private boolean waits(int node, int waitedNode, int[] waitedStart, int[] waited) {
+            for (int k = waitedStart[node]; k < waitedStart[node + 1]; k++) {
+                if ( waited[k] == waitedNode ) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * The result of the forward and backward passes for the current positions of the tasks
+     */
+    private class Dates {
+
+        private final Structure structure;
+
+        private final LocalDate initDate;
+
+        private final int[] duration;
+
+        private final List<Constraint<GanttDate>> constraints = new ArrayList<>();
+
+        private final int[] earliestStart;
+
+        private final int[] latestFinish;
+
+        private final boolean[] hasLatest;
+
+        private int endOfProject = 0;
+
+        private Dates(Structure structure) {
+            this.structure = structure;
+            int size = structure.tasks.size();
+            initDate = calculateInitDate();
+            duration = new int[size];
+            earliestStart = new int[size];
+            latestFinish = new int[size];
+            hasLatest = new boolean[size];
+
+            for (int i = 0; i < size; i++) {
+                T task = structure.tasks.get(i);
+                duration[i] = durationOf(task);
+                constraints.add(getDateConstraints(task));
+            }
+
+            forward();
+            backward();
+        }
+
+        private LocalDate calculateInitDate() {
+            if ( graph.getTasks().isEmpty() ) {
+                return null;
+            }
+
+            List<GanttDate> startDates = new ArrayList<>();
+            for (T each : graph.getTasks()) {
+                startDates.add(graph.getStartDate(each));
+            }
+            return LocalDate.fromDateFields(Collections.min(startDates).toDayRoundedDate());
+        }
+
+        private int durationOf(T task) {
+            LocalDate start = new LocalDate(graph.getStartDate(task).toDayRoundedDate());
+            LocalDate end = new LocalDate(graph.getEndDateFor(task).toDayRoundedDate());
+            return Days.daysBetween(start, end).getDays();
+        }
+
+        private Constraint<GanttDate> getDateConstraints(T task) {
+            if ( dependenciesConstraintsHavePriority ) {
+                return null;
+            }
+
+            List<Constraint<GanttDate>> startConstraints = graph.getStartConstraintsFor(task);
+            List<Constraint<GanttDate>> endConstraints = graph.getEndConstraintsFor(task);
+            boolean noStartConstraints = startConstraints == null || startConstraints.isEmpty();
+            boolean noEndConstraints = endConstraints == null || endConstraints.isEmpty();
+            if ( noStartConstraints && noEndConstraints ) {
+                return null;
+            }
+            if ( noStartConstraints ) {
+                return Constraint.coalesce(endConstraints);
+            }
+            if ( noEndConstraints ) {
+                return Constraint.coalesce(startConstraints);
+            }
+
+            List<Constraint<GanttDate>> all = new ArrayList<>(startConstraints);
+            all.addAll(endConstraints);
+            return Constraint.coalesce(all);
+        }
+
+        private int earliestFinish(int node) {
+            return earliestStart[node] + duration[node];
+        }
+
+        private int latestStart(int node) {
+            return latestFinish[node] - duration[node];
+        }
+
+        private int applyConstraint(int node, int day) {
+            Constraint<GanttDate> constraint = constraints.get(node);
+            if ( constraint == null ) {
+                return day;
+            }
+
+            GanttDate date = constraint.applyTo(GanttDate.createFrom(initDate.plusDays(day)));
+            return Days.daysBetween(initDate, LocalDate.fromDateFields(date.toDayRoundedDate())).getDays();
+        }
+
+        private void setEarliestStart(int node, int candidate) {
+            earliestStart[node] = Math.max(earliestStart[node], applyConstraint(node, candidate));
+        }
+
+        private void setLatestFinish(int node, int candidate) {
+            int value = applyConstraint(node, candidate - duration[node]) + duration[node];
+            if ( !hasLatest[node] || value < latestFinish[node] ) {
+                latestFinish[node] = value;
+                hasLatest[node] = true;
+            }
+        }
+
+        private void forward() {
+            for (int each : structure.initial) {
+                setEarliestStart(each, 0);
+            }
+
+            for (int node : structure.forwardOrder) {
+                int startStart = 0;
+                for (int k = structure.nextStart[node]; k < structure.nextStart[node + 1]; k++) {
+                    int each = structure.next[k];
+                    if ( each == -1 ) {
+                        continue;
+                    }
+
+                    switch (structure.nextTypes[k]) {
+
+                        case START_START:
+                            setEarliestStart(each, earliestStart[node]);
+                            startStart++;
+                            break;
+
+                        case END_END:
+                            setEarliestStart(each, earliestFinish(node) - duration[each]);
+                            break;
+
+                        default:
+                            setEarliestStart(each, earliestFinish(node));
+                            break;
+                    }
+                }
+
+                if ( startStart == structure.nextStart[node + 1] - structure.nextStart[node] ) {
+                    endOfProject = Math.max(endOfProject, earliestFinish(node));
+                }
+            }
+        }
+
+        private void backward() {
+            for (int each : structure.latest) {
+                setLatestFinish(each, endOfProject);
+            }
+
+            for (int node : structure.backwardOrder) {
+                for (int k = structure.previousStart[node]; k < structure.previousStart[node + 1]; k++) {
+                    int each = structure.previous[k];
+                    if ( each == -1 ) {
+                        continue;
+                    }
+
+                    switch (structure.previousTypes[k]) {
+
+                        case START_START:
+                            setLatestFinish(each, latestStart(node) + duration[each]);
+                            break;
+
+                        case END_END:
+                            setLatestFinish(each, latestFinish[node]);
+                            break;
+
+                        default:
+                            setLatestFinish(each, latestStart(node));
+                            break;
+                    }
+                }
+            }
+        }
+
+        private int freeSlack(int node) {
+            int result = NO_SLACK;
+            int startStart = 0;
+            for (int k = structure.nextStart[node]; k < structure.nextStart[node + 1]; k++) {
+                int each = structure.next[k];
+                if ( each == -1 ) {
+                    continue;
+                }
+
+                switch (structure.nextTypes[k]) {
+
+                    case START_START:
+                        result = Math.min(result, earliestStart[each] - earliestStart[node]);
+                        startStart++;
+                        break;
+
+                    case END_END:
+                        result = Math.min(result, earliestFinish(each) - earliestFinish(node));
+                        break;
+
+                    default:
+                        result = Math.min(result, earliestStart[each] - earliestFinish(node));
+                        break;
+                }
+            }
+
+            if ( startStart == structure.nextStart[node + 1] - structure.nextStart[node] ) {
+                result = Math.min(result, endOfProject - earliestFinish(node));
+            }
+            return result;
+        }
+
+    }
+
+    private static int[] toIntArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+    private static byte[] toByteArray(List<Byte> values) {
+        byte[] result = new byte[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+        return result;
+    }
+
+}
@@ -130,6 +130,16 @@ public class ContextRelativeToOtherComponent<T> implements IContext<T> {
         return context.getCriticalPath();
     }
 
+    @Override
+    public int getTotalSlack(T domainObject) {
+        return context.getTotalSlack(domainObject);
+    }
+
+    @Override
+    public int getFreeSlack(T domainObject) {
+        return context.getFreeSlack(domainObject);
+    }
+
     @Override
     public void hideAdvances() {
         context.hideAdvances();
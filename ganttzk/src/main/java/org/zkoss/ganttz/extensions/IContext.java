@@ -118,6 +118,20 @@ public interface IContext<T> {
     /** Returns list of Task that conform the critical path */
     List<T> getCriticalPath();
 
+    /**
+     * Returns the days the task associated to domainObject can be delayed
+     * without delaying the end of the project. For a container it's the
+     * lowest slack of the tasks inside it.
+     */
+    int getTotalSlack(T domainObject);
+
+    /**
+     * Returns the days the task associated to domainObject can be delayed
+     * without delaying any task after it. For a container it's the lowest
+     * slack of the tasks inside it.
+     */
+    int getFreeSlack(T domainObject);
+
     /**
      * Shows the critical path in the planner.
      */
@@ -23,6 +23,7 @@ import org.apache.commons.logging.LogFactory;
 
 /**
  * Equivalent to {@link LogFactory}. Use when logging profiling information.
+ * Aggregated numbers are kept by {@link ProfilingMetrics}.
  *
  * @author Óscar González Fernández <ogonzalez@igalia.com>
  */
@@ -0,0 +1,430 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
+
+/**
+ * Registry of the metrics used for profiling: counters, histograms and timers.
+ * <p>
+ * It is disabled by default and then updating a metric only costs reading a
+ * flag. It's enabled at startup if the {@value #ENABLED_PROPERTY} system
+ * property is <code>true</code> or the profiling log of this class, see
+ * {@link ProfilingLogFactory}, is at debug level. It can be switched at runtime
+ * through JMX.
+ */
+public class ProfilingMetrics {
+
+    public static final String ENABLED_PROPERTY = "libreplan.profiling.metrics";
+
+    public static final String OBJECT_NAME = "org.libreplan:type=ProfilingMetrics";
+
+    private static final Log PROFILING_LOG = ProfilingLogFactory.getLog(ProfilingMetrics.class);
+
+    private static final ConcurrentMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = Boolean.getBoolean(ENABLED_PROPERTY) || PROFILING_LOG.isDebugEnabled();
+
+    /**
+     * A measurement in progress. It's meant to be used in a try with resources
+     * block.
+     */
+    public interface ITiming extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static final ITiming NO_TIMING = () -> {
+    };
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ProfilingMetrics.enabled = enabled;
+    }
+
+    /**
+     * Starts measuring with the timer of the given name. If the registry is
+     * disabled nothing is measured.
+     */
+    public static ITiming time(String timerName) {
+        return enabled ? timer(timerName).start() : NO_TIMING;
+    }
+
+    public static void count(String counterName) {
+        if ( enabled ) {
+            counter(counterName).increment();
+        }
+    }
+
+    public static void record(String histogramName, long value) {
+        if ( enabled ) {
+            histogram(histogramName).update(value);
+        }
+    }
+
+    public static Counter counter(String name) {
+        return get(name, Counter.class, each -> new Counter());
+    }
+
+    public static Histogram histogram(String name) {
+        return get(name, Histogram.class, each -> new Histogram());
+    }
+
+    public static Timer timer(String name) {
+        return get(name, Timer.class, each -> new Timer());
+    }
+
+    private static <M extends Metric> M get(String name, Class<M> type, Function<String, M> creation) {
+        Validate.notEmpty(name);
+        Metric result = metrics.computeIfAbsent(name, creation);
+        if ( !type.isInstance(result) ) {
+            throw new IllegalArgumentException(name + " is not a " + type.getSimpleName());
+        }
+
+        return type.cast(result);
+    }
+
+    public static SortedMap<String, MetricValues> getValues() {
+        SortedMap<String, MetricValues> result = new TreeMap<>();
+        for (Map.Entry<String, Metric> each : metrics.entrySet()) {
+            result.put(each.getKey(), each.getValue().getValues());
+        }
+
+        return result;
+    }
+
+    /**
+     * @return the values of all the metrics as plain text, one metric per line
+     */
+    public static String getReport() {
+        StringBuilder result = new StringBuilder();
+        for (Map.Entry<String, MetricValues> each : getValues().entrySet()) {
+            result.append(each.getKey()).append(' ').append(each.getValue()).append('\n');
+        }
+
+        return result.toString();
+    }
+
+    public static void reset() {
+        metrics.clear();
+    }
+
+    public static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if ( !server.isRegistered(name) ) {
+                server.registerMBean(new MBean(), name);
+            }
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static void unregisterMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if ( server.isRegistered(name) ) {
+                server.unregisterMBean(name);
+            }
+        } catch (JMException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ProfilingMetrics() {
+    }
+
+    public abstract static class Metric {
+
+        private Metric() {
+        }
+
+        public abstract MetricValues getValues();
+    }
+
+    public static class Counter extends Metric {
+
+        private final LongAdder count = new LongAdder();
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long value) {
+            count.add(value);
+        }
+
+        @Override
+        public MetricValues getValues() {
+            long value = count.sum();
+            return new MetricValues("counter", value, value, value, value, value, value, value);
+        }
+    }
+
+    /**
+     * Distribution of the recorded values. The percentiles are approximated,
+     * the values are kept in buckets with four divisions per power of two, so
+     * the error is below 25%.
+     */
+    public static class Histogram extends Metric {
+
+        private static final int BUCKETS = 248;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder sum = new LongAdder();
+
+        private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+
+        private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        public void update(long value) {
+            long recorded = Math.max(0, value);
+            count.increment();
+            sum.add(recorded);
+            min.accumulate(recorded);
+            max.accumulate(recorded);
+            buckets.incrementAndGet(bucketOf(recorded));
+        }
+
+        static int bucketOf(long value) {
+            if ( value < 4 ) {
+                return (int) value;
+            }
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+
+            return 4 * (exponent - 1) + (int) (value >> (exponent - 2)) - 4;
+        }
+
+        static long upperBoundOf(int bucket) {
+            if ( bucket < 4 ) {
+                return bucket;
+            }
+            int exponent = bucket / 4 + 1;
+            long lower = (long) (4 + bucket % 4) << (exponent - 2);
+
+            return lower + (1L << (exponent - 2)) - 1;
+        }
+
+        long percentile(double fraction) {
+            long total = count.sum();
+            if ( total == 0 ) {
+                return 0;
+            }
+            long target = (long) Math.ceil(fraction * total);
+            long accumulated = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                accumulated += buckets.get(i);
+                if ( accumulated >= target ) {
+                    return Math.min(upperBoundOf(i), max.get());
+                }
+            }
+
+            return max.get();
+        }
+
+        @Override
+        public MetricValues getValues() {
+            return valuesScaledBy("histogram", 1);
+        }
+
+        MetricValues valuesScaledBy(String type, double divisor) {
+            long total = count.sum();
+            if ( total == 0 ) {
+                return new MetricValues(type, 0, 0, 0, 0, 0, 0, 0);
+            }
+
+            return new MetricValues(type, total,
+                    sum.sum() / (double) total / divisor,
+                    min.get() / divisor,
+                    percentile(0.5) / divisor,
+                    percentile(0.95) / divisor,
+                    percentile(0.99) / divisor,
+                    max.get() / divisor);
+        }
+    }
+
+    /**
+     * Histogram of durations. They are measured in nanoseconds and reported in
+     * milliseconds.
+     */
+    public static class Timer extends Metric {
+
+        private static final double NANOS_PER_MILLISECOND = 1000000;
+
+        private final Histogram durations = new Histogram();
+
+        public ITiming start() {
+            final long start = System.nanoTime();
+            return () -> update(System.nanoTime() - start);
+        }
+
+        public void update(long nanoseconds) {
+            durations.update(nanoseconds);
+        }
+
+        @Override
+        public MetricValues getValues() {
+            return durations.valuesScaledBy("timer", NANOS_PER_MILLISECOND);
+        }
+    }
+
+    /**
+     * Values of a metric at some moment. For timers they are in milliseconds.
+     */
+    public static class MetricValues {
+
+        private final String type;
+
+        private final long count;
+
+        private final double mean;
+
+        private final double min;
+
+        private final double median;
+
+        private final double percentile95;
+
+        private final double percentile99;
+
+        private final double max;
+
+        MetricValues(String type, long count, double mean, double min, double median,
+                     double percentile95, double percentile99, double max) {
+            this.type = type;
+            this.count = count;
+            this.mean = mean;
+            this.min = min;
+            this.median = median;
+            this.percentile95 = percentile95;
+            this.percentile99 = percentile99;
+            this.max = max;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public double getMedian() {
+            return median;
+        }
+
+        public double getPercentile95() {
+            return percentile95;
+        }
+
+        public double getPercentile99() {
+            return percentile99;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            if ( "counter".equals(type) ) {
+                return type + " count=" + count;
+            }
+
+            return String.format("%s count=%d mean=%.3f min=%.3f p50=%.3f p95=%.3f p99=%.3f max=%.3f",
+                    type, count, mean, min, median, percentile95, percentile99, max);
+        }
+    }
+
+    public interface ProfilingMetricsMXBean {
+
+        boolean isEnabled();
+
+        void setEnabled(boolean enabled);
+
+        Map<String, MetricValues> getMetrics();
+
+        String getReport();
+
+        void reset();
+    }
+
+    private static class MBean implements ProfilingMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return ProfilingMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            ProfilingMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public Map<String, MetricValues> getMetrics() {
+            return ProfilingMetrics.getValues();
+        }
+
+        @Override
+        public String getReport() {
+            return ProfilingMetrics.getReport();
+        }
+
+        @Override
+        public void reset() {
+            ProfilingMetrics.reset();
+        }
+    }
+
+}
@@ -59,6 +59,8 @@ ganttz.GanttPanel = zk.$extends(
             this._taskdetails.css("top", "-" + this._rightPanelLayout.scrollTop() + "px");
             this._plannergraph.scrollLeft( this._rightPanelLayout.scrollLeft() );
             this.timeplotContainerRescroll();
+            if (ganttz.TaskList.getInstance())
+                ganttz.TaskList.getInstance().viewportScrolled(this._rightPanelLayout);
         },
         
         /*
@@ -3,11 +3,116 @@ zk.$package("ganttz");
 ganttz.TaskList = zk.$extends(
     zk.Widget,
     {
+        /*
+         * The properties related to the windowed rendering. In that mode only the rows in the rendered area exist and
+         * they are positioned by their index. When the rendered area changes it's checked again if it covers what is
+         * shown.
+         */
+        $define : {
+            windowed : null,
+            rowsNumber : function() {
+                this._adjustHeight();
+                this._checkViewportLater();
+            },
+            renderedFirstRow : function() {
+                this._checkViewportLater();
+            },
+            renderedLastRow : function() {
+                this._checkViewportLater();
+            },
+            renderedLeft : function() {
+                this._checkViewportLater();
+            },
+            renderedRight : function() {
+                this._checkViewportLater();
+            }
+        },
+
         $init : function() {
             this.$supers('$init', arguments);
             this.$class.setInstance(this);
         },
 
+        bind_ : function() {
+            this.$supers('bind_', arguments);
+            if (this._windowed) {
+                this._measureRows();
+                this._adjustHeight();
+                for (var child = this.firstChild; child; child = child.nextSibling)
+                    child.position();
+                this._checkViewportLater();
+            }
+        },
+
+        unbind_ : function() {
+            clearTimeout(this._viewportTimeout);
+            this.$supers('unbind_', arguments);
+        },
+
+        /*
+         * The pitch and the offset of the rows are taken from two rows laid out as usual, so the positioned rows look
+         * the same as the not windowed ones.
+         */
+        _measureRows : function() {
+            var probes = jq('<div class="row"></div><div class="row"></div>').prependTo('#listtasks');
+            var first = probes.get(0);
+            this._rowPitch = probes.get(1).offsetTop - first.offsetTop;
+            this._rowOffset = first.offsetTop - (parseInt(jq(first).css('margin-top'), 10) || 0);
+            probes.remove();
+        },
+
+        topOfRow : function(index) {
+            return this._rowOffset + index * this._rowPitch;
+        },
+
+        isPositioningRows : function() {
+            return this._windowed && this._rowPitch;
+        },
+
+        _adjustHeight : function() {
+            if (this.isPositioningRows())
+                jq('#listtasks').height(this.topOfRow(this._rowsNumber));
+        },
+
+        viewportScrolled : function(container) {
+            this._container = container;
+            this._checkViewportLater();
+        },
+
+        /*
+         * Waiting till the scroll stops, so the server is not asked while the rows are passing by.
+         */
+        _checkViewportLater : function() {
+            if (!this._windowed || !this.desktop)
+                return;
+
+            clearTimeout(this._viewportTimeout);
+            this._viewportTimeout = setTimeout(this.proxy(this._checkViewport), 150);
+        },
+
+        _checkViewport : function() {
+            var container = this._container || jq('.rightpanel-layout div:first');
+            var listtasks = jq('#listtasks');
+            if (!this.isPositioningRows() || !container.length || !listtasks.length)
+                return;
+
+            var top = container.offset().top - listtasks.offset().top;
+            var left = container.offset().left - listtasks.offset().left;
+            var firstRow = Math.max(0, Math.floor((top - this._rowOffset) / this._rowPitch));
+            var lastRow = Math.ceil((top + container.height() - this._rowOffset) / this._rowPitch);
+            var viewport = {
+                firstRow : firstRow,
+                lastRow : Math.max(firstRow, Math.min(lastRow, this._rowsNumber - 1)),
+                left : Math.floor(left),
+                right : Math.ceil(left + container.width())
+            };
+
+            if (viewport.firstRow < this._renderedFirstRow || viewport.lastRow > this._renderedLastRow
+                    || viewport.left < this._renderedLeft || viewport.right > this._renderedRight) {
+                zAu.send(new zk.Event(this, 'onViewportChange', viewport));
+            }
+        },
+
         showAllTaskLabels : function() {
             for (var child = this.firstChild; child; child = child.nextSibling)
                 child.showLabels();
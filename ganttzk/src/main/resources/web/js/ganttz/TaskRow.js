@@ -2,6 +2,27 @@ zk.$package("ganttz");
 
 ganttz.TaskRow = zk.$extends(zk.Widget, {
 
+    $define : {
+        index : function() {
+            this.position();
+        }
+    },
+
+    bind_ : function() {
+        this.$supers('bind_', arguments);
+        this.position();
+    },
+
+    /*
+     * In windowed rendering the rows before this one could not exist, so it's placed by its index.
+     */
+    position : function() {
+        var taskList = this.parent;
+        if (this.desktop && taskList && taskList.isPositioningRows()) {
+            jq(this.$n()).css({ position : 'absolute', width : '100%', top : taskList.topOfRow(this._index) + 'px' });
+        }
+    },
+
     _labelsHidden : true,
 
     showLabels : function() {
@@ -0,0 +1,119 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.zkoss.ganttz;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.zkoss.ganttz.data.DefaultFundamentalProperties;
+import org.zkoss.ganttz.data.Dependency;
+import org.zkoss.ganttz.data.DependencyType;
+import org.zkoss.ganttz.data.Task;
+import org.zkoss.ganttz.data.TaskLeaf;
+import org.zkoss.ganttz.util.Interval;
+
+public class TaskListViewportTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    private static final long DAY_MILLISECONDS = 24L * 60 * 60 * 1000;
+
+    /**
+     * Ten pixels per day.
+     */
+    private static final IDatesMapper MAPPER = new DatesMapperOnInterval(1000, new Interval(START, START.plusDays(100)));
+
+    private static Task task(String name, int startDay, int lengthInDays) {
+        return new TaskLeaf(new DefaultFundamentalProperties(name, START.plusDays(startDay).toDate(),
+                lengthInDays * DAY_MILLISECONDS, "", START.toDate(), START.toDate(), START.toDate(),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    private final Task first = task("first", 0, 5);
+
+    private final Task second = task("second", 10, 5);
+
+    private final Task third = task("third", 60, 5);
+
+    private final Task fourth = task("fourth", 80, 5);
+
+    private final List<Task> rows = Arrays.asList(first, second, third, fourth);
+
+    @Test
+    public void onlyTheRowsInsideAreRendered() {
+        Set<Task> result = TaskListViewport.rows(1, 2)
+                .tasksToRender(rows, Collections.<Dependency> emptyList(), MAPPER);
+
+        assertThat(result, equalTo(set(second, third)));
+    }
+
+    @Test
+    public void theRowsBeyondTheLastOneAreIgnored() {
+        Set<Task> result = TaskListViewport.rows(3, 100)
+                .tasksToRender(rows, Collections.<Dependency> emptyList(), MAPPER);
+
+        assertThat(result, equalTo(set(fourth)));
+    }
+
+    @Test
+    public void theTasksOutsideTheHorizontalBoundsAreNotRendered() {
+        Set<Task> result = TaskListViewport.create(0, 3, 0, 200)
+                .tasksToRender(rows, Collections.<Dependency> emptyList(), MAPPER);
+
+        assertThat(result, equalTo(set(first, second)));
+    }
+
+    @Test
+    public void theEndpointsOfTheDependenciesCrossingTheViewportAreRendered() {
+        Dependency crossing = new Dependency(first, fourth, DependencyType.END_START);
+        Dependency outside = new Dependency(first, second, DependencyType.END_START);
+
+        Set<Task> result = TaskListViewport.create(1, 2, 550, 700)
+                .tasksToRender(rows, Arrays.asList(crossing, outside), MAPPER);
+
+        assertThat(result, equalTo(set(first, third, fourth)));
+    }
+
+    @Test
+    public void theBufferEnlargesTheViewportWithoutGoingBeforeTheFirstRow() {
+        TaskListViewport viewport = TaskListViewport.create(5, 10, 100, 200).withBuffer(10, 50);
+
+        assertThat(viewport, equalTo(TaskListViewport.create(0, 20, 50, 250)));
+        assertTrue(viewport.contains(TaskListViewport.create(0, 20, 60, 240)));
+        assertFalse(viewport.contains(TaskListViewport.create(0, 21, 60, 240)));
+    }
+
+    private static Set<Task> set(Task... tasks) {
+        return new HashSet<>(Arrays.asList(tasks));
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.data;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.zkoss.ganttz.data.GanttDiagramGraph.GanttZKDiagramGraph;
+import org.zkoss.ganttz.data.ITaskFundamentalProperties.IModifications;
+import org.zkoss.ganttz.data.ITaskFundamentalProperties.IUpdatablePosition;
+import org.zkoss.ganttz.data.constraint.Constraint;
+
+public class GanttDiagramGraphTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    private static final long DAY_MILLISECONDS = 24L * 60 * 60 * 1000;
+
+    private static TaskLeaf task(String name, int startDay, int lengthInDays) {
+        return new TaskLeaf(new DefaultFundamentalProperties(name, START.plusDays(startDay).toDate(),
+                lengthInDays * DAY_MILLISECONDS, "", START.toDate(), START.toDate(), START.toDate(),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    private static GanttZKDiagramGraph graph(boolean scheduleBackwards) {
+        return GanttDiagramGraph.create(scheduleBackwards, Collections.<Constraint<GanttDate>> emptyList(),
+                Collections.<Constraint<GanttDate>> emptyList(), true);
+    }
+
+    private static void moveTo(Task task, int day) {
+        final GanttDate date = GanttDate.createFrom(START.plusDays(day));
+        task.doPositionModifications(new IModifications() {
+            @Override
+            public void doIt(IUpdatablePosition position) {
+                position.moveTo(date);
+            }
+        });
+    }
+
+    private static LocalDate startOf(Task task) {
+        return task.getBeginDate().toLocalDate();
+    }
+
+    private static List<LocalDate> startsOf(List<TaskLeaf> tasks) {
+        List<LocalDate> result = new ArrayList<>();
+        for (Task each : tasks) {
+            result.add(startOf(each));
+        }
+        return result;
+    }
+
+    /**
+     * Builds a graph with three chains joining at the last task:
+     * <code>0 -> 1 -> 2 -> 6</code>, <code>3 -> 4 -> 6</code> and <code>5 -> 6</code>.
+     */
+    private static List<TaskLeaf> createTasks(int... startDays) {
+        List<TaskLeaf> result = new ArrayList<>();
+        for (int i = 0; i < startDays.length; i++) {
+            result.add(task("task" + i, startDays[i], 2));
+        }
+        return result;
+    }
+
+    private static GanttZKDiagramGraph withDependencies(boolean scheduleBackwards, List<TaskLeaf> tasks) {
+        GanttZKDiagramGraph result = graph(scheduleBackwards);
+        result.addTopLevel(tasks);
+        int[][] dependencies = { { 0, 1 }, { 1, 2 }, { 2, 6 }, { 3, 4 }, { 4, 6 }, { 5, 6 } };
+        for (int[] each : dependencies) {
+            result.addWithoutEnforcingConstraints(
+                    new Dependency(tasks.get(each[0]), tasks.get(each[1]), DependencyType.END_START));
+        }
+        return result;
+    }
+
+    @Test
+    public void movingATaskPushesItsSuccessors() {
+        List<TaskLeaf> tasks = createTasks(0, 2, 4, 0, 2, 0, 6);
+        GanttZKDiagramGraph graph = withDependencies(false, tasks);
+        graph.enforceAllRestrictions();
+
+        moveTo(tasks.get(0), 3);
+
+        assertThat(startOf(tasks.get(1)), equalTo(START.plusDays(5)));
+        assertThat(startOf(tasks.get(2)), equalTo(START.plusDays(7)));
+        assertThat(startOf(tasks.get(6)), equalTo(START.plusDays(9)));
+        assertThat(startOf(tasks.get(4)), equalTo(START.plusDays(2)));
+    }
+
+    @Test
+    public void theResultIsTheSameAsEnforcingAllRestrictions() {
+        for (boolean scheduleBackwards : new boolean[] { false, true }) {
+            List<TaskLeaf> tasks = createTasks(0, 2, 4, 0, 2, 0, 6);
+            GanttZKDiagramGraph graph = withDependencies(scheduleBackwards, tasks);
+            graph.enforceAllRestrictions();
+
+            int[][] moves = { { 0, 3 }, { 5, 12 }, { 3, 1 }, { 0, 0 }, { 6, 20 }, { 2, 10 } };
+            for (int[] each : moves) {
+                moveTo(tasks.get(each[0]), each[1]);
+
+                List<TaskLeaf> fresh = createTasks(asStartDays(tasks));
+                withDependencies(scheduleBackwards, fresh).enforceAllRestrictions();
+
+                assertThat(startsOf(tasks), equalTo(startsOf(fresh)));
+            }
+        }
+    }
+
+    @Test
+    public void addingADependencyIsTakenIntoAccountByLaterModifications() {
+        List<TaskLeaf> tasks = createTasks(0, 2, 4, 0, 2, 0, 6);
+        GanttZKDiagramGraph graph = withDependencies(false, tasks);
+        graph.enforceAllRestrictions();
+        moveTo(tasks.get(5), 1);
+
+        graph.add(new Dependency(tasks.get(5), tasks.get(3), DependencyType.END_START));
+        moveTo(tasks.get(5), 4);
+
+        assertThat(startOf(tasks.get(3)), equalTo(START.plusDays(6)));
+        assertThat(startOf(tasks.get(4)), equalTo(START.plusDays(8)));
+        assertThat(startOf(tasks.get(6)), equalTo(START.plusDays(10)));
+    }
+
+    private static int[] asStartDays(List<TaskLeaf> tasks) {
+        int[] result = new int[tasks.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = Days.daysBetween(START, startOf(tasks.get(i))).getDays();
+        }
+        return result;
+    }
+
+}
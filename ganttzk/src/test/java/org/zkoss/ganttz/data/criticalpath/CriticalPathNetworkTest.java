@@ -0,0 +1,166 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.zkoss.ganttz.data.criticalpath;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.zkoss.ganttz.data.DefaultFundamentalProperties;
+import org.zkoss.ganttz.data.Dependency;
+import org.zkoss.ganttz.data.DependencyType;
+import org.zkoss.ganttz.data.GanttDate;
+import org.zkoss.ganttz.data.GanttDiagramGraph;
+import org.zkoss.ganttz.data.GanttDiagramGraph.GanttZKDiagramGraph;
+import org.zkoss.ganttz.data.ITaskFundamentalProperties.IModifications;
+import org.zkoss.ganttz.data.ITaskFundamentalProperties.IUpdatablePosition;
+import org.zkoss.ganttz.data.Task;
+import org.zkoss.ganttz.data.TaskLeaf;
+import org.zkoss.ganttz.data.constraint.Constraint;
+
+/**
+ * Tests for {@link CriticalPathNetwork}.
+ */
+public class CriticalPathNetworkTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    private static final long DAY_MILLISECONDS = 24L * 60 * 60 * 1000;
+
+    private GanttZKDiagramGraph graph;
+
+    private CriticalPathNetwork<Task> network;
+
+    private TaskLeaf a;
+
+    private TaskLeaf b;
+
+    private TaskLeaf c;
+
+    private static TaskLeaf task(String name, int lengthInDays) {
+        return new TaskLeaf(new DefaultFundamentalProperties(name, START.toDate(),
+                lengthInDays * DAY_MILLISECONDS, "", START.toDate(), START.toDate(), START.toDate(),
+                BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    private static void resizeTo(Task task, int day) {
+        final GanttDate date = GanttDate.createFrom(START.plusDays(day));
+        task.doPositionModifications(new IModifications() {
+            @Override
+            public void doIt(IUpdatablePosition position) {
+                position.resizeTo(date);
+            }
+        });
+    }
+
+    /**
+     * Builds <code>a (3 days) -> c (2 days)</code> and <code>b (1 day) -> c</code>.
+     */
+    @Before
+    public void createGraph() {
+        graph = GanttDiagramGraph.create(false, Collections.<Constraint<GanttDate>> emptyList(),
+                Collections.<Constraint<GanttDate>> emptyList(), true);
+
+        a = task("a", 3);
+        b = task("b", 1);
+        c = task("c", 2);
+        graph.addTopLevel(asList(a, b, c));
+        graph.add(new Dependency(a, c, DependencyType.END_START));
+        graph.add(new Dependency(b, c, DependencyType.END_START));
+
+        network = CriticalPathNetwork.create(graph, false);
+        graph.addStructureChangeListener(network::structureChanged);
+        graph.addPostGraphChangeListener(network::datesChanged);
+    }
+
+    @Test
+    public void theEarliestAndLatestDatesAreCalculated() {
+        assertThat(network.getEarliestStart(c), equalTo(3));
+        assertThat(network.getEarliestFinish(c), equalTo(5));
+        assertThat(network.getLatestStart(b), equalTo(2));
+        assertThat(network.getLatestFinish(b), equalTo(3));
+    }
+
+    @Test
+    public void theTasksWithoutSlackAreInTheCriticalPath() {
+        assertThat(network.getTotalSlack(a), equalTo(0));
+        assertThat(network.getTotalSlack(b), equalTo(2));
+        assertThat(network.getTotalSlack(c), equalTo(0));
+        assertThat(network.getTasksOnCriticalPath(), equalTo(asList((Task) a, c)));
+    }
+
+    @Test
+    public void theNearCriticalTasksCanBeFound() {
+        assertThat(network.getTasksWithTotalSlackUpTo(1), equalTo(asList((Task) a, c)));
+        assertThat(network.getTasksWithTotalSlackUpTo(2), equalTo(asList((Task) a, b, c)));
+    }
+
+    @Test
+    public void theFreeSlackIsTheDelayAllowedByTheNextTasks() {
+        assertThat(network.getFreeSlack(a), equalTo(0));
+        assertThat(network.getFreeSlack(b), equalTo(2));
+        assertThat(network.getFreeSlack(c), equalTo(0));
+    }
+
+    @Test
+    public void theDatesAreUpdatedWhenATaskChanges() {
+        assertThat(network.getTotalSlack(b), equalTo(2));
+
+        resizeTo(b, 5);
+
+        assertThat(network.getEarliestStart(c), equalTo(5));
+        assertThat(network.getTotalSlack(a), equalTo(2));
+        assertThat(network.getTasksOnCriticalPath(), equalTo(asList((Task) b, c)));
+    }
+
+    @Test
+    public void theNetworkIsRebuiltWhenADependencyIsAdded() {
+        assertThat(network.getTotalSlack(b), equalTo(2));
+
+        graph.add(new Dependency(b, a, DependencyType.END_START));
+
+        assertThat(network.getEarliestStart(a), equalTo(1));
+        assertThat(network.getEarliestStart(c), equalTo(4));
+        assertThat(network.getTasksOnCriticalPath(), equalTo(asList((Task) a, b, c)));
+    }
+
+    @Test
+    public void aStartStartDependencyOnlyWaitsForTheStart() {
+        graph.add(new Dependency(b, a, DependencyType.START_START));
+
+        assertThat(network.getEarliestStart(a), equalTo(0));
+        assertThat(network.getEarliestStart(c), equalTo(3));
+        assertThat(network.getTotalSlack(b), equalTo(0));
+        assertThat(network.getFreeSlack(b), equalTo(0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theTasksMustBeInTheNetwork() {
+        network.getTotalSlack(task("other", 1));
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.zkoss.ganttz.util;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.zkoss.ganttz.util.ProfilingMetrics.Histogram;
+import org.zkoss.ganttz.util.ProfilingMetrics.ITiming;
+import org.zkoss.ganttz.util.ProfilingMetrics.MetricValues;
+
+public class ProfilingMetricsTest {
+
+    private boolean previouslyEnabled;
+
+    @Before
+    public void enable() {
+        previouslyEnabled = ProfilingMetrics.isEnabled();
+        ProfilingMetrics.reset();
+        ProfilingMetrics.setEnabled(true);
+    }
+
+    @After
+    public void restore() {
+        ProfilingMetrics.setEnabled(previouslyEnabled);
+        ProfilingMetrics.reset();
+    }
+
+    @Test
+    public void nothingIsRecordedWhenDisabled() {
+        ProfilingMetrics.setEnabled(false);
+
+        try (ITiming timing = ProfilingMetrics.time("disabled.timer")) {
+            ProfilingMetrics.count("disabled.counter");
+            ProfilingMetrics.record("disabled.histogram", 10);
+        }
+
+        assertTrue(ProfilingMetrics.getValues().isEmpty());
+    }
+
+    @Test
+    public void theCountersAccumulate() {
+        ProfilingMetrics.count("a.counter");
+        ProfilingMetrics.count("a.counter");
+        ProfilingMetrics.counter("a.counter").add(3);
+
+        assertThat(ProfilingMetrics.getValues().get("a.counter").getCount(), equalTo(5L));
+    }
+
+    @Test
+    public void theTimersCountTheMeasurements() {
+        for (int i = 0; i < 3; i++) {
+            try (ITiming timing = ProfilingMetrics.time("a.timer")) {
+                ProfilingMetrics.count("inside");
+            }
+        }
+
+        MetricValues values = ProfilingMetrics.getValues().get("a.timer");
+        assertThat(values.getType(), equalTo("timer"));
+        assertThat(values.getCount(), equalTo(3L));
+        assertTrue(values.getMin() <= values.getMax());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aNameCannotBeUsedForDifferentKindsOfMetrics() {
+        ProfilingMetrics.count("some.metric");
+        ProfilingMetrics.record("some.metric", 1);
+    }
+
+    @Test
+    public void thePercentilesHaveAnErrorBelowAQuarter() {
+        for (int i = 1; i <= 1000; i++) {
+            ProfilingMetrics.record("values", i);
+        }
+
+        MetricValues values = ProfilingMetrics.getValues().get("values");
+        assertThat(values.getMin(), equalTo(1.0));
+        assertThat(values.getMax(), equalTo(1000.0));
+        assertThat(values.getMean(), equalTo(500.5));
+        assertWithinAQuarter(values.getMedian(), 500);
+        assertWithinAQuarter(values.getPercentile95(), 950);
+        assertWithinAQuarter(values.getPercentile99(), 990);
+    }
+
+    private static void assertWithinAQuarter(double actual, double expected) {
+        assertTrue(actual + " is not close to " + expected, actual >= expected && actual <= expected * 1.25);
+    }
+
+    @Test
+    public void eachBucketStartsAfterThePreviousOne() {
+        for (int i = 1; i < 200; i++) {
+            assertThat(Histogram.bucketOf(Histogram.upperBoundOf(i - 1) + 1), equalTo(i));
+            assertThat(Histogram.bucketOf(Histogram.upperBoundOf(i)), equalTo(i));
+        }
+        assertThat(Histogram.bucketOf(Long.MAX_VALUE), equalTo(247));
+    }
+
+    @Test
+    public void theReportHasALinePerMetric() {
+        ProfilingMetrics.count("b.counter");
+        ProfilingMetrics.record("a.histogram", 7);
+
+        String report = ProfilingMetrics.getReport();
+
+        assertThat(report, containsString("a.histogram histogram count=1"));
+        assertThat(report, containsString("b.counter counter count=1"));
+        assertTrue(report.indexOf("a.histogram") < report.indexOf("b.counter"));
+    }
+
+    @Test
+    public void theMetricsAreExportedThroughJMX() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(ProfilingMetrics.OBJECT_NAME);
+        ProfilingMetrics.registerMBean();
+        try {
+            ProfilingMetrics.count("exported");
+
+            assertThat((Boolean) server.getAttribute(name, "Enabled"), equalTo(true));
+            assertThat((String) server.getAttribute(name, "Report"), containsString("exported counter count=1"));
+
+            server.invoke(name, "reset", new Object[0], new String[0]);
+            assertTrue(ProfilingMetrics.getValues().isEmpty());
+        } finally {
+            ProfilingMetrics.unregisterMBean();
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+}
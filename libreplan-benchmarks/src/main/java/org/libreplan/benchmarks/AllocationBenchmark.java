@@ -0,0 +1,81 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.libreplan.business.planner.entities.allocationalgorithms.ResourcesPerDayModification;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Allocation of several specific resources along the whole length of a task.
+ * New allocations are created before each invocation so every one of them
+ * does the same work.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AllocationBenchmark {
+
+    @Param({ "1", "10", "50" })
+    public int resources;
+
+    @Param({ "30", "365" })
+    public int days;
+
+    @Param({ "0.05" })
+    public double exceptionDensity;
+
+    private SyntheticAllocationPlan plan;
+
+    private List<ResourcesPerDayModification> allocations;
+
+    @Setup(Level.Trial)
+    public void createPlan() {
+        plan = SyntheticAllocationPlan.create(resources, days, exceptionDensity, 1L);
+    }
+
+    @Setup(Level.Invocation)
+    public void createAllocations() {
+        allocations = plan.createAllocations();
+    }
+
+    @Benchmark
+    public List<ResourcesPerDayModification> allocateUntil() {
+        plan.allocate(allocations);
+        return allocations;
+    }
+
+}
@@ -0,0 +1,70 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.benchmarks;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar.
+ * <p>
+ * It accepts the same options as the JMH runner but, unless other format or
+ * file is requested, the results are also written as JSON to
+ * {@value #DEFAULT_RESULTS_FILE} so they can be compared between runs.
+ * </p>
+ */
+public class BenchmarksRunner {
+
+    public static final String DEFAULT_RESULTS_FILE = "benchmark-results.json";
+
+    private static final List<String> INFORMATIVE_OPTIONS = Arrays.asList("-h", "-l", "-lp", "-lrf", "-lprof");
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        for (String each : args) {
+            if (INFORMATIVE_OPTIONS.contains(each)) {
+                org.openjdk.jmh.Main.main(args);
+                return;
+            }
+        }
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder builder = new OptionsBuilder();
+        builder.parent(commandLine);
+        if (!commandLine.getResultFormat().hasValue() && !commandLine.getResult().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON).result(DEFAULT_RESULTS_FILE);
+        }
+        Options options = builder.build();
+
+        new Runner(options).run();
+    }
+
+    private BenchmarksRunner() {
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Capacity queries over a calendar of one year, the basic operation done
+ * for every day by the allocation algorithms and the resource load charts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalendarBenchmark {
+
+    private static final int DAYS = 365;
+
+    @Param({ "0", "0.05", "0.2" })
+    public double exceptionDensity;
+
+    private BaseCalendar calendar;
+
+    @Setup
+    public void setUp() {
+        calendar = SyntheticCalendars.create(DAYS, exceptionDensity, 1L);
+    }
+
+    @Benchmark
+    public void capacityOfEachDay(Blackhole blackhole) {
+        LocalDate day = SyntheticCalendars.START;
+        for (int i = 0; i < DAYS; i++) {
+            blackhole.consume(calendar.getCapacityOn(PartialDay.wholeDay(day)));
+            day = day.plusDays(1);
+        }
+    }
+
+    @Benchmark
+    public int[] capacitiesOfTheWholeYear() {
+        return calendar.getCapacitiesBetween(SyntheticCalendars.START, SyntheticCalendars.START.plusDays(DAYS));
+    }
+
+    @Benchmark
+    public EffortDuration capacityOfOneDay() {
+        return calendar.getCapacityOn(PartialDay.wholeDay(SyntheticCalendars.START.plusDays(DAYS / 2)));
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zkoss.ganttz.data.Dependency;
+import org.zkoss.ganttz.data.Task;
+import org.zkoss.ganttz.data.criticalpath.CriticalPathCalculator;
+
+/**
+ * Calculation of the critical path of a Gantt diagram graph whose
+ * restrictions have already been enforced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriticalPathBenchmark {
+
+    @Param({ "500", "5000" })
+    public int tasks;
+
+    @Param({ "1", "3" })
+    public int dependenciesPerTask;
+
+    private SyntheticGanttPlan plan;
+
+    @Setup
+    public void createPlan() {
+        plan = SyntheticGanttPlan.create(tasks, dependenciesPerTask, 1L);
+        plan.getGraph().enforceAllRestrictions();
+    }
+
+    @Benchmark
+    public List<Task> calculateCriticalPath() {
+        CriticalPathCalculator<Task, Dependency> calculator = CriticalPathCalculator.create(true);
+        return calculator.calculateCriticalPath(plan.getGraph());
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.benchmarks;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.isA;
+import static org.easymock.EasyMock.replay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.planner.entities.ResourceAllocation;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.allocationalgorithms.ResourcesPerDayModification;
+import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate;
+import org.libreplan.business.workingday.ResourcesPerDay;
+
+/**
+ * Generates a task with a set of specific allocations ready to be allocated.
+ * <p>
+ * The task and the workers are mocks, since the real entities need the
+ * database and the scenarios machinery, but their calendars are real ones so
+ * the allocation goes through the same calendar code used in production.
+ * </p>
+ */
+public class SyntheticAllocationPlan {
+
+    public static SyntheticAllocationPlan create(int resources, int days, double exceptionDensity, long seed) {
+        return new SyntheticAllocationPlan(resources, days, exceptionDensity, seed);
+    }
+
+    private final Task task;
+
+    private final List<Worker> workers = new ArrayList<>();
+
+    private final IntraDayDate end;
+
+    private SyntheticAllocationPlan(int resources, int days, double exceptionDensity, long seed) {
+        BaseCalendar calendar = SyntheticCalendars.create(days, exceptionDensity, seed);
+        IntraDayDate start = IntraDayDate.startOfDay(SyntheticCalendars.START);
+        end = IntraDayDate.startOfDay(SyntheticCalendars.START.plusDays(days));
+
+        task = createNiceMock(Task.class);
+        expect(task.getCalendar()).andReturn(calendar).anyTimes();
+        expect(task.getStartDate()).andReturn(start.toDateTimeAtStartOfDay().toDate()).anyTimes();
+        expect(task.getIntraDayStartDate()).andReturn(start).anyTimes();
+        expect(task.getEndDate()).andReturn(end.toDateTimeAtStartOfDay().toDate()).anyTimes();
+        expect(task.getIntraDayEndDate()).andReturn(end).anyTimes();
+        expect(task.getFirstDayNotConsolidated()).andReturn(start).anyTimes();
+        expect(task.getCriterions()).andReturn(Collections.<Criterion> emptySet()).anyTimes();
+        replay(task);
+
+        for (int i = 0; i < resources; i++) {
+            workers.add(createWorker(calendar.newDerivedResourceCalendar()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Worker createWorker(ResourceCalendar calendar) {
+        Worker result = createNiceMock(Worker.class);
+        expect(result.getCalendar()).andReturn(calendar).anyTimes();
+        expect(result.getAssignedDurationDiscounting(isA(Map.class), isA(LocalDate.class)))
+                .andReturn(EffortDuration.zero()).anyTimes();
+        replay(result);
+        return result;
+    }
+
+    /**
+     * @return new allocations, one per worker, of one resource per day each
+     */
+    public List<ResourcesPerDayModification> createAllocations() {
+        List<ResourcesPerDayModification> result = new ArrayList<>();
+        for (Worker each : workers) {
+            SpecificResourceAllocation allocation = SpecificResourceAllocation.create(task);
+            allocation.setResource(each);
+            result.add(ResourcesPerDayModification.create(allocation, ResourcesPerDay.amount(1)));
+        }
+        return result;
+    }
+
+    /**
+     * Allocates the given allocations until the end of the task.
+     */
+    public void allocate(List<ResourcesPerDayModification> allocations) {
+        ResourceAllocation.allocating(allocations).allocateUntil(end);
+    }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.benchmarks;
+
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.CalendarException;
+import org.libreplan.business.calendars.entities.CalendarExceptionType;
+import org.libreplan.business.calendars.entities.CalendarExceptionTypeColor;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * Generates in memory calendars with a reproducible set of exceptions.
+ */
+public class SyntheticCalendars {
+
+    public static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    /**
+     * Creates a calendar with the default eight hours working weekdays where
+     * the given fraction of the days between {@link #START} and
+     * <code>START + days</code> are exceptions. Half of the exceptions are
+     * holidays, the other half are reduced four hours working days.
+     */
+    public static BaseCalendar create(int days, double exceptionDensity, long seed) {
+        BaseCalendar result = BaseCalendar.createBasicCalendar();
+        CalendarExceptionType holiday = CalendarExceptionType.create("holiday",
+                CalendarExceptionTypeColor.DEFAULT, true);
+        CalendarExceptionType reduced = CalendarExceptionType.create("reduced",
+                CalendarExceptionTypeColor.GREEN, false);
+
+        Random random = new Random(seed);
+        for (int i = 0; i < days; i++) {
+            if (random.nextDouble() >= exceptionDensity) {
+                continue;
+            }
+            LocalDate day = START.plusDays(i);
+            if (random.nextBoolean()) {
+                result.addExceptionDay(CalendarException.create(day, EffortDuration.zero(), holiday));
+            } else {
+                result.addExceptionDay(CalendarException.create(day, EffortDuration.hours(4), reduced));
+            }
+        }
+        return result;
+    }
+
+    private SyntheticCalendars() {
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.benchmarks;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.zkoss.ganttz.data.DefaultFundamentalProperties;
+import org.zkoss.ganttz.data.Dependency;
+import org.zkoss.ganttz.data.DependencyType;
+import org.zkoss.ganttz.data.GanttDate;
+import org.zkoss.ganttz.data.GanttDiagramGraph;
+import org.zkoss.ganttz.data.GanttDiagramGraph.GanttZKDiagramGraph;
+import org.zkoss.ganttz.data.ITaskFundamentalProperties.IModifications;
+import org.zkoss.ganttz.data.ITaskFundamentalProperties.IUpdatablePosition;
+import org.zkoss.ganttz.data.TaskLeaf;
+import org.zkoss.ganttz.data.constraint.Constraint;
+
+/**
+ * Generates in memory Gantt diagram graphs with a reproducible shape.
+ * <p>
+ * The tasks are laid out in order and every task depends on
+ * <code>dependenciesPerTask</code> random predecessors chosen among the
+ * {@link #WINDOW} tasks before it, so the resulting graph is acyclic and its
+ * depth grows with the number of tasks as it happens on real projects.
+ * </p>
+ */
+public class SyntheticGanttPlan {
+
+    public static final int WINDOW = 50;
+
+    private static final long DAY_MILLISECONDS = 24L * 60 * 60 * 1000;
+
+    public static SyntheticGanttPlan create(int tasks, int dependenciesPerTask, long seed) {
+        return new SyntheticGanttPlan(tasks, dependenciesPerTask, seed);
+    }
+
+    private final List<TaskLeaf> tasks = new ArrayList<>();
+
+    private final GanttZKDiagramGraph graph;
+
+    private SyntheticGanttPlan(int numberOfTasks, int dependenciesPerTask, long seed) {
+        Random random = new Random(seed);
+        for (int i = 0; i < numberOfTasks; i++) {
+            tasks.add(task("task" + i, random.nextInt(WINDOW), 1 + random.nextInt(10)));
+        }
+
+        graph = GanttDiagramGraph.create(false, Collections.<Constraint<GanttDate>> emptyList(),
+                Collections.<Constraint<GanttDate>> emptyList(), true);
+        graph.addTopLevel(tasks);
+
+        for (int i = 1; i < numberOfTasks; i++) {
+            int window = Math.min(i, WINDOW);
+            for (int j = 0; j < Math.min(window, dependenciesPerTask); j++) {
+                TaskLeaf origin = tasks.get(i - 1 - random.nextInt(window));
+                Dependency dependency = new Dependency(origin, tasks.get(i), DependencyType.END_START);
+                if (!graph.contains(dependency)) {
+                    graph.addWithoutEnforcingConstraints(dependency);
+                }
+            }
+        }
+    }
+
+    private static TaskLeaf task(String name, int startDay, int lengthInDays) {
+        return new TaskLeaf(new DefaultFundamentalProperties(name,
+                SyntheticCalendars.START.plusDays(startDay).toDate(), lengthInDays * DAY_MILLISECONDS, "",
+                SyntheticCalendars.START.toDate(), SyntheticCalendars.START.toDate(),
+                SyntheticCalendars.START.toDate(), BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO));
+    }
+
+    public GanttZKDiagramGraph getGraph() {
+        return graph;
+    }
+
+    public List<TaskLeaf> getTasks() {
+        return tasks;
+    }
+
+    /**
+     * Moves the task so the dependencies starting from it are enforced.
+     */
+    public void moveTo(TaskLeaf task, LocalDate date) {
+        final GanttDate newStart = GanttDate.createFrom(date);
+        task.doPositionModifications(new IModifications() {
+            @Override
+            public void doIt(IUpdatablePosition position) {
+                position.moveTo(newStart);
+            }
+        });
+    }
+
+}
@@ -21,6 +21,7 @@
 
 package org.libreplan.business.calendars.entities;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
@@ -31,6 +32,8 @@ import java.util.Objects;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import javax.validation.constraints.AssertTrue;
+import org.hibernate.Session;
+import org.hibernate.classic.Lifecycle;
 import org.hibernate.validator.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.Valid;
@@ -44,8 +47,7 @@ import org.libreplan.business.common.entities.EntitySequence;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.resources.entities.VirtualWorker;
 import org.libreplan.business.workingday.EffortDuration;
-import org.libreplan.business.workingday.EffortDuration.IEffortFrom;
-import org.libreplan.business.workingday.IntraDayDate;
+import org.libreplan.business.workingday.EpochDays;
 import org.libreplan.business.workingday.IntraDayDate.PartialDay;
 import org.libreplan.business.workingday.ResourcesPerDay;
 
@@ -57,7 +59,8 @@ import org.libreplan.business.workingday.ResourcesPerDay;
  *
  * @author Manuel Rego Casasnovas <mrego@igalia.com>
  */
-public class BaseCalendar extends IntegrationEntity implements ICalendar, IHumanIdentifiable, Comparable<BaseCalendar> {
+public class BaseCalendar extends IntegrationEntity
+        implements ICalendar, IHumanIdentifiable, Comparable<BaseCalendar>, Lifecycle {
 
     private static final Capacity DEFAULT_VALUE = Capacity.zero().overAssignableWithoutLimit();
 
@@ -74,6 +77,10 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
 
     private Integer lastSequenceCode = 0;
 
+    private transient CalendarCapacityIndex capacityIndex;
+
+    private transient long capacityModifications = 0;
+
     /**
      * Constructor for hibernate. Do not use!
      */
@@ -129,6 +136,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
 
         if ((calendarDataVersions != null) && (!calendarDataVersions.isEmpty())) {
             baseCalendar.calendarDataVersions = calendarDataVersions;
+            baseCalendar.capacityModified();
         }
 
         if (parent != null) {
@@ -239,6 +247,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         }
 
         exceptions.add(day);
+        capacityModified();
     }
 
     public void removeExceptionDay(LocalDate date) {
@@ -249,6 +258,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         }
 
         exceptions.remove(day);
+        capacityModified();
     }
 
     public void updateExceptionDay(LocalDate date, Capacity capacity, CalendarExceptionType type) {
@@ -268,13 +278,51 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
     }
 
     public CalendarException getExceptionDay(LocalDate date) {
-        for (CalendarException exceptionDay : getExceptions(date)) {
-            if (exceptionDay.getDate().equals(date)) {
-                return exceptionDay;
-            }
-        }
+        return getCapacityIndex().exceptionAt(date);
+    }
 
-        return null;
+    /**
+     * Returns the compiled capacity information of this calendar, building it again if this calendar or some of
+     * its parents have been modified since it was built.
+     */
+    CalendarCapacityIndex getCapacityIndex() {
+        capacityIndex = CalendarCapacityIndex.validOrNew(capacityIndex, this, DEFAULT_VALUE);
+        return capacityIndex;
+    }
+
+    /**
+     * It must be called whenever some information affecting the capacities of this calendar is modified.
+     */
+    void capacityModified() {
+        capacityModifications++;
+    }
+
+    long getCapacityModifications() {
+        return capacityModifications;
+    }
+
+    @Override
+    public boolean onSave(Session session) {
+        return NO_VETO;
+    }
+
+    @Override
+    public boolean onUpdate(Session session) {
+        return NO_VETO;
+    }
+
+    @Override
+    public boolean onDelete(Session session) {
+        return NO_VETO;
+    }
+
+    /**
+     * Hibernate sets the fields directly when the calendar is loaded or refreshed, so the index is discarded.
+     */
+    @Override
+    public void onLoad(Session session, Serializable id) {
+        capacityIndex = null;
+        capacityModified();
     }
 
     @Override
@@ -289,42 +337,28 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         return multiplyByCalendarUnits(findCapacityAt(day));
     }
 
-    private Capacity findCapacityAt(LocalDate date) {
-        if (!isActive(date)) {
-            return Capacity.zero();
-        }
-
-        CalendarException exceptionDay = getExceptionDay(date);
-        if (exceptionDay != null) {
-            return exceptionDay.getCapacity();
-        }
-
-        return getCapacityConsideringCalendarDataOn(date, getDayFrom(date));
-    }
+    @Override
+    public int[] getCapacitiesBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        int[] result = new int[EpochDays.daysBetween(startInclusive, endExclusive)];
+        getCapacityIndex().fillCapacities(startInclusive, result, null, getCalendarUnits());
 
-    private Days getDayFrom(LocalDate date) {
-        return Days.values()[date.getDayOfWeek() - 1];
+        return result;
     }
 
-    public Capacity getCapacityConsideringCalendarDataOn(LocalDate date, Days day) {
-        CalendarData calendarData = getCalendarData(date);
-
-        Capacity capacity = calendarData.getCapacityOn(day);
-        BaseCalendar parent = getParent(date);
-
-        if (capacity == null && parent != null) {
-            return parent.getCapacityConsideringCalendarDataOn(date, day);
-        }
+    @Override
+    public int[] getAllowedExtraEffortsBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        int[] result = new int[EpochDays.daysBetween(startInclusive, endExclusive)];
+        getCapacityIndex().fillCapacities(startInclusive, null, result, getCalendarUnits());
 
-        return valueIfNotNullElseDefaultValue(capacity);
+        return result;
     }
 
-    private Capacity valueIfNotNullElseDefaultValue(Capacity capacity) {
-        if (capacity == null) {
-            return DEFAULT_VALUE;
-        }
+    private Capacity findCapacityAt(LocalDate date) {
+        return getCapacityIndex().capacityAt(date);
+    }
 
-        return capacity;
+    public Capacity getCapacityConsideringCalendarDataOn(LocalDate date, Days day) {
+        return getCapacityIndex().capacityConsideringCalendarDataAt(date, day.ordinal());
     }
 
     /**
@@ -346,17 +380,16 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
      * @return Duration of work
      */
     public EffortDuration getWorkableDuration(LocalDate init, LocalDate endInclusive) {
+        if (endInclusive.isBefore(init)) {
+            return EffortDuration.zero();
+        }
 
-        Iterable<PartialDay> daysBetween =
-                IntraDayDate.startOfDay(init).daysUntil(IntraDayDate.startOfDay(endInclusive).nextDayAtStart());
-
-        return EffortDuration.sum(daysBetween, new IEffortFrom<PartialDay>() {
-            @Override
-            public EffortDuration from(PartialDay each) {
-                return getCapacityOn(each);
-            }
+        long seconds = 0;
+        for (int each : getCapacitiesBetween(init, endInclusive.plusDays(1))) {
+            seconds += each;
+        }
 
-        });
+        return EffortDuration.seconds(seconds);
     }
 
     /**
@@ -444,6 +477,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
                         }
 
                         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+                        capacityModified();
 
                         return newCalendarData;
                     }
@@ -491,6 +525,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         CalendarData newCalendarData = CalendarData.create();
         calendarDataVersions.add(newCalendarData);
         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+        capacityModified();
 
         return newCalendarData;
     }
@@ -508,6 +543,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         newCalendarData.setExpiringDate(expiringDate);
         calendarDataVersions.add(newCalendarData);
         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+        capacityModified();
 
         return newCalendarData;
     }
@@ -561,6 +597,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
             else{
                 calendarDataVersions.add(version);
                 Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
+                capacityModified();
                 return;
             }
         }
@@ -583,6 +620,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
                 }
 
                 calendarDataVersions.add(i, version);
+                capacityModified();
 
                 return;
             }
@@ -590,7 +628,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
 
         calendarDataVersions.add(version);
         Collections.sort(calendarDataVersions, CalendarData.BY_EXPIRING_DATE_COMPARATOR);
-
+        capacityModified();
     }
 
     public BaseCalendar newCopy() {
@@ -623,17 +661,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
     }
 
     public CalendarData getCalendarData(LocalDate date) {
-        for (CalendarData calendarData : calendarDataVersions) {
-            if (calendarData.getExpiringDate() == null) {
-                return calendarData;
-            } else {
-                if (date.compareTo(calendarData.getExpiringDate()) < 0) {
-                    return calendarData;
-                }
-            }
-        }
-
-        throw new RuntimeException("Some work week should not be expired");
+        return getCapacityIndex().versionAt(date);
     }
 
     public CalendarData getLastCalendarData() {
@@ -813,6 +841,7 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         } else {
             calendarDataVersions.remove(calendarData);
         }
+        capacityModified();
     }
 
     public LocalDate getValidFrom(CalendarData calendarData) {
@@ -867,25 +896,17 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
                 }
             }
             calendarAvailabilities.add(calendarAvailability);
+            capacityModified();
         }
     }
 
     public void removeCalendarAvailability(CalendarAvailability calendarAvailability) {
         calendarAvailabilities.remove(calendarAvailability);
+        capacityModified();
     }
 
     public boolean isActive(LocalDate date) {
-        if (getCalendarAvailabilities().isEmpty()) {
-            return true;
-        }
-
-        for (CalendarAvailability calendarAvailability : getCalendarAvailabilities()) {
-            if (calendarAvailability.isActive(date)) {
-                return true;
-            }
-        }
-
-        return false;
+        return getCapacityIndex().isActive(date);
     }
 
     public boolean isActiveBetween(LocalDate startDate, LocalDate endDate) {
@@ -984,6 +1005,14 @@ public class BaseCalendar extends IntegrationEntity implements ICalendar, IHuman
         return capacity;
     }
 
+    /**
+     * The number of units used by {@link #multiplyByCalendarUnits(Capacity)}.
+     * It must be overridden along with it.
+     */
+    protected int getCalendarUnits() {
+        return 1;
+    }
+
     @Override
     public boolean thereAreCapacityFor(AvailabilityTimeLine availability,
                                        ResourcesPerDay resourcesPerDay,
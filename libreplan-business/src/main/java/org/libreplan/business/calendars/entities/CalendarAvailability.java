@@ -46,6 +46,11 @@ public class CalendarAvailability extends IntegrationEntity {
 
     private LocalDate endDate;
 
+    /**
+     * Calendar notified of the modifications, once it has indexed this availability
+     */
+    private transient BaseCalendar capacityOwner;
+
     /**
      * Constructor for hibernate. Do not use!
      */
@@ -81,6 +86,7 @@ public class CalendarAvailability extends IntegrationEntity {
         }
 
         this.startDate = startDate;
+        capacityModified();
     }
 
     public LocalDate getEndDate() {
@@ -92,6 +98,7 @@ public class CalendarAvailability extends IntegrationEntity {
             throw new IllegalArgumentException("End date must be greater or equal than start date");
         }
         this.endDate = endDate;
+        capacityModified();
     }
 
     public boolean isActive(LocalDate date) {
@@ -135,4 +142,14 @@ public class CalendarAvailability extends IntegrationEntity {
         return filterPeriod.overlaps(activationPeriod);
     }
 
+    void setCapacityOwner(BaseCalendar calendar) {
+        this.capacityOwner = calendar;
+    }
+
+    private void capacityModified() {
+        if (capacityOwner != null) {
+            capacityOwner.capacityModified();
+        }
+    }
+
 }
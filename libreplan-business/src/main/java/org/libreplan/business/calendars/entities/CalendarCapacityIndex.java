@@ -0,0 +1,472 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.calendars.entities;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.CalendarData.Days;
+import org.libreplan.business.workingday.EpochDays;
+
+/**
+ * Compiled, read only view of the capacity information of a {@link BaseCalendar}.
+ * <p>
+ * Exceptions are keyed by date, already merged with the ones coming from the parents,
+ * work week versions are searched by binary search
+ * and the capacities per day of the week are flattened along the parent chain.
+ * So {@link #capacityAt(LocalDate)} does not need to walk collections nor parents.
+ * All the dates are stored as days since the epoch,
+ * so {@link #fillCapacities(LocalDate, int[], int[], int)} can go through a range of days without allocating.
+ * </p>
+ * <p>
+ * The index is built lazily by {@link BaseCalendar} and it is discarded when the calendar is modified
+ * (see {@link BaseCalendar#capacityModified()}), loaded or refreshed.
+ * As derived calendars flatten the information of their parents,
+ * the index also keeps the indexes of the parents it was built from
+ * and it is discarded when some of them is no longer the current one.
+ * </p>
+ */
+final class CalendarCapacityIndex {
+
+    private static final int NO_END = Integer.MAX_VALUE;
+
+    private static final Capacity NOT_ACTIVE = Capacity.zero();
+
+    static CalendarCapacityIndex validOrNew(CalendarCapacityIndex current, BaseCalendar calendar,
+                                            Capacity defaultValue) {
+        if (current != null && current.isValidFor(calendar)) {
+            return current;
+        }
+
+        return new CalendarCapacityIndex(calendar, defaultValue);
+    }
+
+    private static int epochDay(LocalDate date) {
+        return EpochDays.of(date);
+    }
+
+    /**
+     * @return the {@link Days#ordinal()} of the day, 1970-01-01 was a Thursday
+     */
+    private static int dayOfWeekOrdinal(int epochDay) {
+        return Math.floorMod(epochDay + Days.THURSDAY.ordinal(), 7);
+    }
+
+    private static int epochDayOrNoEnd(LocalDate date) {
+        return date == null ? NO_END : epochDay(date);
+    }
+
+    private final long calendarModifications;
+
+    /**
+     * Indexes of the parents used to build this one
+     */
+    private final Map<BaseCalendar, CalendarCapacityIndex> parentIndexes = new IdentityHashMap<>();
+
+    /**
+     * Merged activation periods: starts inclusive, ends exclusive.
+     * <code>null</code> if the calendar is always active.
+     */
+    private final int[] activeStarts;
+
+    private final int[] activeEnds;
+
+    /**
+     * Reachable work week versions with their exclusive end.
+     */
+    private final CalendarData[] versions;
+
+    private final int[] versionEnds;
+
+    /**
+     * For each reachable version, exceptions of this calendar merged with the ones of the version's parent,
+     * sorted by day.
+     */
+    private final int[][] exceptionDaysByVersion;
+
+    private final CalendarException[][] exceptionsByVersion;
+
+    /**
+     * Own exceptions merged with the ones of the last parent, as {@link BaseCalendar#getExceptions()} does.
+     */
+    private final Map<LocalDate, CalendarException> exceptions;
+
+    /**
+     * Capacity per {@link Days#ordinal()} already resolved against the parents.
+     * Each segment ends at the corresponding position of {@link #segmentEnds}, exclusive.
+     * A <code>null</code> segment means that the parent has no work week for those days.
+     */
+    private final int[] segmentEnds;
+
+    private final Capacity[][] segmentCapacities;
+
+    private CalendarCapacityIndex(BaseCalendar calendar, Capacity defaultValue) {
+        this.calendarModifications = calendar.getCapacityModifications();
+        notifyModificationsTo(calendar);
+
+        List<int[]> active = mergeAvailabilities(calendar.getCalendarAvailabilities());
+        if (active == null) {
+            this.activeStarts = null;
+            this.activeEnds = null;
+        } else {
+            this.activeStarts = new int[active.size()];
+            this.activeEnds = new int[active.size()];
+            for (int i = 0; i < active.size(); i++) {
+                activeStarts[i] = active.get(i)[0];
+                activeEnds[i] = active.get(i)[1];
+            }
+        }
+
+        List<CalendarData> reachable = new ArrayList<>();
+        List<Integer> ends = new ArrayList<>();
+        for (CalendarData each : calendar.getCalendarDataVersions()) {
+            int end = epochDayOrNoEnd(each.getExpiringDate());
+            if (ends.isEmpty() || end > ends.get(ends.size() - 1)) {
+                reachable.add(each);
+                ends.add(end);
+            }
+            if (end == NO_END) {
+                break;
+            }
+        }
+        this.versions = reachable.toArray(new CalendarData[reachable.size()]);
+        this.versionEnds = toArray(ends);
+
+        Map<LocalDate, CalendarException> own = new HashMap<>();
+        for (CalendarException each : calendar.getOwnExceptions()) {
+            own.put(each.getDate(), each);
+        }
+
+        CalendarData last = calendar.getLastCalendarData();
+        this.exceptions = withParentExceptions(own, last == null ? null : last.getParent());
+        this.exceptionDaysByVersion = new int[versions.length][];
+        this.exceptionsByVersion = new CalendarException[versions.length][];
+        for (int i = 0; i < versions.length; i++) {
+            List<Entry<LocalDate, CalendarException>> sorted =
+                    new ArrayList<>(withParentExceptions(own, versions[i].getParent()).entrySet());
+            Collections.sort(sorted, (a, b) -> a.getKey().compareTo(b.getKey()));
+
+            exceptionDaysByVersion[i] = new int[sorted.size()];
+            exceptionsByVersion[i] = new CalendarException[sorted.size()];
+            for (int j = 0; j < sorted.size(); j++) {
+                exceptionDaysByVersion[i][j] = epochDay(sorted.get(j).getKey());
+                exceptionsByVersion[i][j] = sorted.get(j).getValue();
+            }
+        }
+
+        List<Integer> resultEnds = new ArrayList<>();
+        List<Capacity[]> resultCapacities = new ArrayList<>();
+        int versionStart = Integer.MIN_VALUE;
+        for (int i = 0; i < versions.length; i++) {
+            flatten(versions[i], versionStart, versionEnds[i], defaultValue, resultEnds, resultCapacities);
+            versionStart = versionEnds[i];
+        }
+        this.segmentEnds = toArray(resultEnds);
+        this.segmentCapacities = resultCapacities.toArray(new Capacity[resultCapacities.size()][]);
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        int[] result = new int[values.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = values.get(i);
+        }
+
+        return result;
+    }
+
+    private static List<int[]> mergeAvailabilities(List<CalendarAvailability> availabilities) {
+        if (availabilities.isEmpty()) {
+            return null;
+        }
+
+        List<CalendarAvailability> sorted = new ArrayList<>(availabilities);
+        Collections.sort(sorted, CalendarAvailability.BY_START_DATE_COMPARATOR);
+
+        List<int[]> result = new ArrayList<>();
+        int[] current = null;
+        for (CalendarAvailability each : sorted) {
+            int start = epochDay(each.getStartDate());
+            // CalendarAvailability's end is inclusive
+            int end = each.getEndDate() == null ? NO_END : epochDay(each.getEndDate()) + 1;
+            if (current != null && start <= current[1]) {
+                current[1] = Math.max(current[1], end);
+            } else {
+                current = new int[] { start, end };
+                result.add(current);
+            }
+        }
+
+        return result;
+    }
+
+    private static void notifyModificationsTo(BaseCalendar calendar) {
+        for (CalendarData each : calendar.getCalendarDataVersions()) {
+            each.setCapacityOwner(calendar);
+        }
+        for (CalendarException each : calendar.getOwnExceptions()) {
+            each.setCapacityOwner(calendar);
+        }
+        for (CalendarAvailability each : calendar.getCalendarAvailabilities()) {
+            each.setCapacityOwner(calendar);
+        }
+    }
+
+    private CalendarCapacityIndex indexOf(BaseCalendar parent) {
+        CalendarCapacityIndex result = parentIndexes.get(parent);
+        if (result == null) {
+            result = parent.getCapacityIndex();
+            parentIndexes.put(parent, result);
+        }
+
+        return result;
+    }
+
+    private boolean isValidFor(BaseCalendar calendar) {
+        if (calendarModifications != calendar.getCapacityModifications()) {
+            return false;
+        }
+        for (Entry<BaseCalendar, CalendarCapacityIndex> each : parentIndexes.entrySet()) {
+            if (each.getKey().getCapacityIndex() != each.getValue()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private Map<LocalDate, CalendarException> withParentExceptions(Map<LocalDate, CalendarException> own,
+                                                                 BaseCalendar parent) {
+        if (parent == null) {
+            return own;
+        }
+
+        Map<LocalDate, CalendarException> result = new HashMap<>(indexOf(parent).exceptions);
+        result.putAll(own);
+
+        return result;
+    }
+
+    private void flatten(CalendarData version,
+                         int start,
+                         int end,
+                         Capacity defaultValue,
+                         List<Integer> resultEnds,
+                         List<Capacity[]> resultCapacities) {
+
+        Capacity[] own = new Capacity[Days.values().length];
+        boolean complete = true;
+        for (Days day : Days.values()) {
+            own[day.ordinal()] = version.getCapacityOn(day);
+            complete = complete && own[day.ordinal()] != null;
+        }
+
+        BaseCalendar parent = version.getParent();
+        if (complete || parent == null) {
+            resultEnds.add(end);
+            resultCapacities.add(withDefaults(own, defaultValue));
+            return;
+        }
+
+        CalendarCapacityIndex parentIndex = indexOf(parent);
+        int[] parentEnds = parentIndex.segmentEnds;
+        int i = parentIndex.segmentAt(start);
+        if (i < 0) {
+            // parent versions are expired from here, so the lookups would fail in the parent
+            resultEnds.add(end);
+            resultCapacities.add(null);
+            return;
+        }
+        for (; i < parentEnds.length; i++) {
+            boolean lastOne = end <= parentEnds[i];
+            resultEnds.add(lastOne ? end : parentEnds[i]);
+            resultCapacities.add(combine(own, parentIndex.segmentCapacities[i]));
+            if (lastOne) {
+                return;
+            }
+        }
+        resultEnds.add(end);
+        resultCapacities.add(null);
+    }
+
+    private static Capacity[] withDefaults(Capacity[] own, Capacity defaultValue) {
+        Capacity[] result = new Capacity[own.length];
+        for (int i = 0; i < own.length; i++) {
+            result[i] = own[i] == null ? defaultValue : own[i];
+        }
+
+        return result;
+    }
+
+    private static Capacity[] combine(Capacity[] own, Capacity[] fromParent) {
+        if (fromParent == null) {
+            return null;
+        }
+
+        Capacity[] result = new Capacity[own.length];
+        for (int i = 0; i < own.length; i++) {
+            result[i] = own[i] == null ? fromParent[i] : own[i];
+        }
+
+        return result;
+    }
+
+    boolean isActive(LocalDate date) {
+        return isActive(epochDay(date));
+    }
+
+    private boolean isActive(int day) {
+        if (activeStarts == null) {
+            return true;
+        }
+
+        int low = 0;
+        int high = activeStarts.length - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (activeStarts[middle] <= day) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return found >= 0 && day < activeEnds[found];
+    }
+
+    CalendarData versionAt(LocalDate date) {
+        return versions[versionPositionAt(epochDay(date))];
+    }
+
+    private int versionPositionAt(int day) {
+        int position = firstEndingAfter(versionEnds, day);
+        if (position < 0) {
+            throw new RuntimeException("Some work week should not be expired");
+        }
+
+        return position;
+    }
+
+    private int segmentAt(int day) {
+        return firstEndingAfter(segmentEnds, day);
+    }
+
+    /**
+     * Binary search over sorted exclusive ends.
+     *
+     * @return the position of the first end after <code>day</code> or -1 if there is none
+     */
+    private static int firstEndingAfter(int[] ends, int day) {
+        int low = 0;
+        int high = ends.length - 1;
+        int result = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (day < ends[middle]) {
+                result = middle;
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        return result;
+    }
+
+    CalendarException exceptionAt(LocalDate date) {
+        return exceptionAt(epochDay(date));
+    }
+
+    private CalendarException exceptionAt(int day) {
+        int version = versionPositionAt(day);
+        int position = Arrays.binarySearch(exceptionDaysByVersion[version], day);
+
+        return position < 0 ? null : exceptionsByVersion[version][position];
+    }
+
+    /**
+     * Capacity without considering {@link BaseCalendar#multiplyByCalendarUnits(Capacity)}.
+     */
+    Capacity capacityAt(LocalDate date) {
+        return capacityAt(epochDay(date));
+    }
+
+    private Capacity capacityAt(int day) {
+        if (!isActive(day)) {
+            return NOT_ACTIVE;
+        }
+
+        CalendarException exception = exceptionAt(day);
+        if (exception != null) {
+            return exception.getCapacity();
+        }
+
+        return capacityConsideringCalendarDataAt(day, dayOfWeekOrdinal(day));
+    }
+
+    Capacity capacityConsideringCalendarDataAt(LocalDate date, int dayOrdinal) {
+        return capacityConsideringCalendarDataAt(epochDay(date), dayOrdinal);
+    }
+
+    private Capacity capacityConsideringCalendarDataAt(int day, int dayOrdinal) {
+        int position = segmentAt(day);
+        Capacity[] capacities = position < 0 ? null : segmentCapacities[position];
+        if (capacities == null) {
+            throw new RuntimeException("Some work week should not be expired");
+        }
+
+        return capacities[dayOrdinal];
+    }
+
+    /**
+     * Fills the capacities of consecutive days starting at <code>start</code>, multiplied by
+     * <code>calendarUnits</code>. Any of the arrays can be <code>null</code> if it is not needed.
+     *
+     * @param standard
+     *            receives the standard effort in seconds of each day
+     * @param allowedExtra
+     *            receives the allowed extra effort in seconds of each day or
+     *            {@link ICalendar#NO_EXTRA_EFFORT_LIMIT}
+     */
+    void fillCapacities(LocalDate start, int[] standard, int[] allowedExtra, int calendarUnits) {
+        int length = standard != null ? standard.length : allowedExtra.length;
+        int first = epochDay(start);
+        for (int i = 0; i < length; i++) {
+            Capacity capacity = capacityAt(first + i);
+            if (standard != null) {
+                standard[i] = capacity.getStandardEffort().getSeconds() * calendarUnits;
+            }
+            if (allowedExtra != null) {
+                allowedExtra[i] = capacity.isOverAssignableWithoutLimit()
+                        ? ICalendar.NO_EXTRA_EFFORT_LIMIT
+                        : capacity.getAllowedExtraEffort().getSeconds() * calendarUnits;
+            }
+        }
+    }
+
+}
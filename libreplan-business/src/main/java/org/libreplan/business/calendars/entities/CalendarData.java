@@ -76,6 +76,7 @@ public class CalendarData extends IntegrationEntity {
         if (parent != null) {
             this.parent = parent;
         }
+        capacityModified();
     }
 
     public void updateCapacitiesPerDay(Map<Integer, Capacity> capacityPerDay) throws IllegalArgumentException {
@@ -96,6 +97,11 @@ public class CalendarData extends IntegrationEntity {
 
     private BaseCalendar parent;
 
+    /**
+     * Calendar notified of the modifications, once it has indexed this work week
+     */
+    private transient BaseCalendar capacityOwner;
+
     public enum Days {
         MONDAY(Calendar.MONDAY),
         TUESDAY(Calendar.TUESDAY),
@@ -126,7 +132,7 @@ public class CalendarData extends IntegrationEntity {
     public CalendarData() {
         capacityPerDay = new HashMap<>();
         for (Days each : Days.values()) {
-            setCapacityAt(each, null);
+            capacityPerDay.put(each.ordinal(), null);
         }
     }
 
@@ -160,6 +166,7 @@ public class CalendarData extends IntegrationEntity {
 
     public void setCapacityAt(Days day, Capacity capacity) {
         capacityPerDay.put(day.ordinal(), capacity);
+        capacityModified();
     }
 
 
@@ -181,6 +188,7 @@ public class CalendarData extends IntegrationEntity {
 
     public void setExpiringDate(LocalDate expiringDate) {
         this.expiringDate = expiringDate;
+        capacityModified();
     }
 
     public CalendarData copy() {
@@ -198,10 +206,12 @@ public class CalendarData extends IntegrationEntity {
 
     public void setParent(BaseCalendar parent) {
         this.parent = parent;
+        capacityModified();
     }
 
     public void removeExpiringDate() {
         this.expiringDate = null;
+        capacityModified();
     }
 
     public boolean isPosteriorTo(LocalDate date) {
@@ -249,4 +259,14 @@ public class CalendarData extends IntegrationEntity {
         calendar.setCapacityAt(Days.SUNDAY, Capacity.zero());
     }
 
+    void setCapacityOwner(BaseCalendar calendar) {
+        this.capacityOwner = calendar;
+    }
+
+    private void capacityModified() {
+        if (capacityOwner != null) {
+            capacityOwner.capacityModified();
+        }
+    }
+
 }
@@ -82,6 +82,7 @@ public class CalendarException extends IntegrationEntity {
         if (type != null) {
             this.type = type;
         }
+        capacityModified();
     }
 
     private LocalDate date;
@@ -90,6 +91,11 @@ public class CalendarException extends IntegrationEntity {
 
     private CalendarExceptionType type;
 
+    /**
+     * Calendar notified of the modifications, once it has indexed this exception
+     */
+    private transient BaseCalendar capacityOwner;
+
     /**
      * Constructor for hibernate. Do not use!
      */
@@ -129,4 +135,14 @@ public class CalendarException extends IntegrationEntity {
         return Registry.getCalendarExceptionDAO();
     }
 
+    void setCapacityOwner(BaseCalendar calendar) {
+        this.capacityOwner = calendar;
+    }
+
+    private void capacityModified() {
+        if (capacityOwner != null) {
+            capacityOwner.capacityModified();
+        }
+    }
+
 }
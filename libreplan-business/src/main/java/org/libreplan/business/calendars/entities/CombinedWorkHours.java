@@ -103,6 +103,32 @@ public abstract class CombinedWorkHours implements ICalendar {
         return result;
     }
 
+    @Override
+    public int[] getCapacitiesBetween(LocalDate startInclusive,
+            LocalDate endExclusive) {
+        int[] result = null;
+        for (ICalendar each : calendars) {
+            int[] current = each.getCapacitiesBetween(startInclusive,
+                    endExclusive);
+            result = result == null ? current : updateCapacities(result,
+                    current);
+        }
+        return result;
+    }
+
+    @Override
+    public int[] getAllowedExtraEffortsBetween(LocalDate startInclusive,
+            LocalDate endExclusive) {
+        int[] result = null;
+        for (ICalendar each : calendars) {
+            int[] current = each.getAllowedExtraEffortsBetween(
+                    startInclusive, endExclusive);
+            result = result == null ? current : updateCapacities(result,
+                    current);
+        }
+        return result;
+    }
+
     @Override
     public AvailabilityTimeLine getAvailability() {
         AvailabilityTimeLine result = AvailabilityTimeLine.allValid();
@@ -123,6 +149,15 @@ public abstract class CombinedWorkHours implements ICalendar {
 
     protected abstract Capacity updateCapacity(Capacity a, Capacity current);
 
+    /**
+     * Combines in place the values in seconds of each day.
+     * {@link ICalendar#NO_EXTRA_EFFORT_LIMIT} is the biggest possible value so
+     * it's combined properly too.
+     *
+     * @return <code>accumulated</code> with the combined values
+     */
+    protected abstract int[] updateCapacities(int[] accumulated, int[] each);
+
     @Override
     public boolean thereAreCapacityFor(AvailabilityTimeLine availability,
             ResourcesPerDay resourcesPerDay, EffortDuration durationToAllocate) {
@@ -161,6 +196,14 @@ class Min extends CombinedWorkHours {
         return Capacity.min(accumulated, current);
     }
 
+    @Override
+    protected int[] updateCapacities(int[] accumulated, int[] each) {
+        for (int i = 0; i < accumulated.length; i++) {
+            accumulated[i] = Math.min(accumulated[i], each[i]);
+        }
+        return accumulated;
+    }
+
 }
 
 class Max extends CombinedWorkHours {
@@ -191,4 +234,12 @@ class Max extends CombinedWorkHours {
     protected Capacity updateCapacity(Capacity accumulated, Capacity current) {
         return Capacity.max(accumulated, current);
     }
+
+    @Override
+    protected int[] updateCapacities(int[] accumulated, int[] each) {
+        for (int i = 0; i < accumulated.length; i++) {
+            accumulated[i] = Math.max(accumulated[i], each[i]);
+        }
+        return accumulated;
+    }
 }
@@ -28,6 +28,12 @@ import org.libreplan.business.workingday.ResourcesPerDay;
 
 public interface ICalendar {
 
+    /**
+     * Value used by {@link #getAllowedExtraEffortsBetween(LocalDate, LocalDate)} for the days that are
+     * {@link Capacity#isOverAssignableWithoutLimit()}.
+     */
+    int NO_EXTRA_EFFORT_LIMIT = Integer.MAX_VALUE;
+
     /**
      * Translates the received amount into the corresponding duration at the given date.
      * It takes into account the partial capacity of the day.
@@ -59,6 +65,34 @@ public interface ICalendar {
      */
     Capacity getCapacityWithOvertime(LocalDate date);
 
+    /**
+     * Calculates the capacity of all the days of an interval at once.
+     * The value of each day is the same as <code>getCapacityOn(PartialDay.wholeDay(day))</code> in seconds,
+     * but no {@link EffortDuration} is created for each day.
+     *
+     * @param startInclusive
+     *            the first day of the interval
+     * @param endExclusive
+     *            the day after the last day of the interval
+     * @return a new array with the capacity in seconds of each day, starting at <code>startInclusive</code>
+     */
+    int[] getCapacitiesBetween(LocalDate startInclusive, LocalDate endExclusive);
+
+    /**
+     * Calculates the overtime allowed for all the days of an interval at once.
+     * The value of each day is the {@link Capacity#getAllowedExtraEffort()} of
+     * {@link #getCapacityWithOvertime(LocalDate)} in seconds or {@link #NO_EXTRA_EFFORT_LIMIT}
+     * if there is no limit.
+     *
+     * @param startInclusive
+     *            the first day of the interval
+     * @param endExclusive
+     *            the day after the last day of the interval
+     * @return a new array with the allowed extra effort in seconds of each day, starting at
+     *         <code>startInclusive</code>
+     */
+    int[] getAllowedExtraEffortsBetween(LocalDate startInclusive, LocalDate endExclusive);
+
     AvailabilityTimeLine getAvailability();
 
     boolean thereAreCapacityFor(AvailabilityTimeLine availability,
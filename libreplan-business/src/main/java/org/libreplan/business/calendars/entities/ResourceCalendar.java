@@ -68,7 +68,12 @@ public class ResourceCalendar extends BaseCalendar {
 
     @Override
     protected Capacity multiplyByCalendarUnits(Capacity capacity) {
-        return capacity.multiplyBy(getCapacity());
+        return capacity.multiplyBy(getCalendarUnits());
+    }
+
+    @Override
+    protected int getCalendarUnits() {
+        return getCapacity();
     }
 
     @AssertTrue(message = "Capacity must be a positive integer number")
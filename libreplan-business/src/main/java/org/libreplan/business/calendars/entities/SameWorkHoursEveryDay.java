@@ -21,7 +21,10 @@
 
 package org.libreplan.business.calendars.entities;
 
+import java.util.Arrays;
+
 import org.apache.commons.lang3.Validate;
+import org.joda.time.Days;
 import org.joda.time.LocalDate;
 import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workingday.IntraDayDate.PartialDay;
@@ -71,4 +74,26 @@ public class SameWorkHoursEveryDay implements ICalendar {
                 .overAssignableWithoutLimit();
     }
 
+    @Override
+    public int[] getCapacitiesBetween(LocalDate startInclusive,
+            LocalDate endExclusive) {
+        return filledWith(startInclusive, endExclusive,
+                EffortDuration.hours(hours).getSeconds());
+    }
+
+    @Override
+    public int[] getAllowedExtraEffortsBetween(LocalDate startInclusive,
+            LocalDate endExclusive) {
+        return filledWith(startInclusive, endExclusive, NO_EXTRA_EFFORT_LIMIT);
+    }
+
+    private static int[] filledWith(LocalDate startInclusive,
+            LocalDate endExclusive, int value) {
+        Validate.isTrue(!endExclusive.isBefore(startInclusive));
+        int[] result = new int[Days.daysBetween(startInclusive, endExclusive)
+                .getDays()];
+        Arrays.fill(result, value);
+        return result;
+    }
+
 }
@@ -0,0 +1,39 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.common;
+
+import java.util.Date;
+
+/**
+ * Interface for entities that keep the moment of their last modification, so
+ * integrations can ask only for the entities modified since a given date.
+ * <br />
+ *
+ * The date is kept up to date by {@link LastModificationDateListener} every
+ * time the entity is inserted or updated.
+ */
+public interface ILastModificationDateTracked {
+
+    Date getLastModificationDate();
+
+    void setLastModificationDate(Date lastModificationDate);
+
+}
@@ -0,0 +1,239 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.common;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+
+import org.apache.commons.lang3.ArrayUtils;
+import org.hibernate.SessionFactory;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AutoFlushEvent;
+import org.hibernate.event.spi.AutoFlushEventListener;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.FlushEvent;
+import org.hibernate.event.spi.FlushEventListener;
+import org.hibernate.event.spi.PreInsertEvent;
+import org.hibernate.event.spi.PreInsertEventListener;
+import org.hibernate.event.spi.PreUpdateEvent;
+import org.hibernate.event.spi.PreUpdateEventListener;
+import org.hibernate.internal.SessionFactoryImpl;
+import org.hibernate.internal.util.collections.IdentityMap;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.libreplan.business.advance.entities.AdvanceAssignment;
+import org.libreplan.business.advance.entities.AdvanceMeasurement;
+import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
+import org.libreplan.business.materials.entities.MaterialAssignment;
+import org.libreplan.business.orders.entities.HoursGroup;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.requirements.entities.CriterionRequirement;
+import org.libreplan.business.resources.entities.CriterionSatisfaction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sets the last modification date of the {@link ILastModificationDateTracked}
+ * entities just before they are inserted or updated.
+ * <br />
+ *
+ * The entities they contain, like the elements of the tree of an order or the
+ * criterion satisfactions of a resource, are exported with them, so inserting,
+ * updating or deleting them, or changing their collections, modifies the
+ * tracked entity too. These changes are looked for before each flush starts,
+ * so the tracked entities they modify are dirty and the same flush writes
+ * their new date.
+ */
+@Component
+public class LastModificationDateListener implements PreInsertEventListener, PreUpdateEventListener,
+        FlushEventListener, AutoFlushEventListener {
+
+    private static final String PROPERTY = "lastModificationDate";
+
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @PostConstruct
+    private void registerHibernateListeners() {
+        SessionFactoryImpl impl = (SessionFactoryImpl) sessionFactory;
+        EventListenerRegistry registry = impl.getServiceRegistry().getService(EventListenerRegistry.class);
+
+        registry.appendListeners(EventType.PRE_INSERT, this);
+        registry.appendListeners(EventType.PRE_UPDATE, this);
+        /* Before the default listeners, which do the flush */
+        registry.prependListeners(EventType.FLUSH, this);
+        registry.prependListeners(EventType.AUTO_FLUSH, this);
+    }
+
+    @Override
+    public boolean onPreInsert(PreInsertEvent event) {
+        touch(event.getEntity(), event.getPersister(), event.getState());
+        return false;
+    }
+
+    @Override
+    public boolean onPreUpdate(PreUpdateEvent event) {
+        touch(event.getEntity(), event.getPersister(), event.getState());
+        return false;
+    }
+
+    @Override
+    public void onFlush(FlushEvent event) {
+        touchRootsOfModifiedContents(event.getSession());
+    }
+
+    /**
+     * If the automatic flush does not write anything, the tracked entities
+     * touched are written by the next flush, as they are dirty.
+     */
+    @Override
+    public void onAutoFlush(AutoFlushEvent event) {
+        touchRootsOfModifiedContents(event.getSession());
+    }
+
+    /**
+     * The state is the one that is going to be written, so it must be changed
+     * too besides the entity.
+     */
+    private void touch(Object entity, EntityPersister persister, Object[] state) {
+        if ( !(entity instanceof ILastModificationDateTracked) ) {
+            return;
+        }
+        Date now = new Date();
+        ((ILastModificationDateTracked) entity).setLastModificationDate(now);
+
+        int index = ArrayUtils.indexOf(persister.getPropertyNames(), PROPERTY);
+        if ( index != ArrayUtils.INDEX_NOT_FOUND ) {
+            state[index] = now;
+        }
+    }
+
+    /**
+     * The contents modified are the ones deleted, the ones saved but not
+     * inserted yet, the ones with some property changed and the owners of the
+     * collections changed. The tracked entities themselves are touched when
+     * they are written.
+     */
+    @SuppressWarnings("unchecked")
+    private void touchRootsOfModifiedContents(EventSource session) {
+        PersistenceContext context = session.getPersistenceContext();
+        Set<ILastModificationDateTracked> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        Date now = new Date();
+
+        for (Map.Entry<Object, EntityEntry> each : context.reentrantSafeEntityEntries()) {
+            Object entity = each.getKey();
+            ILastModificationDateTracked root = trackedRootOf(entity);
+            if ( root != null && root != entity && isModified(session, entity, each.getValue()) ) {
+                touchRoot(context, unproxy(root), now, touched);
+            }
+        }
+
+        Map<PersistentCollection, CollectionEntry> collections = context.getCollectionEntries();
+        for (Map.Entry<PersistentCollection, CollectionEntry> each : IdentityMap.concurrentEntries(collections)) {
+            if ( each.getKey().isDirty() ) {
+                ILastModificationDateTracked root = trackedRootOf(each.getKey().getOwner());
+                if ( root != null ) {
+                    touchRoot(context, unproxy(root), now, touched);
+                }
+            }
+        }
+    }
+
+    private static boolean isModified(EventSource session, Object entity, EntityEntry entry) {
+        if ( entry.getStatus() == Status.DELETED ) {
+            return true;
+        }
+        if ( entry.getStatus() != Status.MANAGED || entry.getLoadedState() == null ) {
+            return false;
+        }
+        if ( !entry.isExistsInDatabase() ) {
+            return true;
+        }
+        EntityPersister persister = entry.getPersister();
+        return persister.findDirty(persister.getPropertyValues(entity), entry.getLoadedState(), entity, session) != null;
+    }
+
+    private static void touchRoot(PersistenceContext context, ILastModificationDateTracked root, Date now,
+                                  Set<ILastModificationDateTracked> touched) {
+        EntityEntry entry = context.getEntry(root);
+        if ( entry != null && entry.getStatus() == Status.MANAGED && touched.add(root) ) {
+            root.setLastModificationDate(now);
+        }
+    }
+
+    private static ILastModificationDateTracked unproxy(ILastModificationDateTracked entity) {
+        if ( entity instanceof HibernateProxy ) {
+            return (ILastModificationDateTracked) ((HibernateProxy) entity).getHibernateLazyInitializer()
+                    .getImplementation();
+        }
+        return entity;
+    }
+
+    /**
+     * @return the tracked entity exported with <code>entity</code>, which is
+     *         itself if it is tracked, or <code>null</code> if there is none
+     */
+    static ILastModificationDateTracked trackedRootOf(Object entity) {
+        if ( entity instanceof ILastModificationDateTracked ) {
+            return (ILastModificationDateTracked) entity;
+        }
+        if ( entity instanceof OrderElement ) {
+            return ((OrderElement) entity).getOrder();
+        }
+        if ( entity instanceof HoursGroup ) {
+            return trackedRootOf(((HoursGroup) entity).getParentOrderLine());
+        }
+        if ( entity instanceof CriterionRequirement ) {
+            CriterionRequirement requirement = (CriterionRequirement) entity;
+            return trackedRootOf(requirement.getOrderElement() != null
+                    ? requirement.getOrderElement()
+                    : requirement.getHoursGroup());
+        }
+        if ( entity instanceof AdvanceAssignment ) {
+            return trackedRootOf(((AdvanceAssignment) entity).getOrderElement());
+        }
+        if ( entity instanceof AdvanceMeasurement ) {
+            return trackedRootOf(((AdvanceMeasurement) entity).getAdvanceAssignment());
+        }
+        if ( entity instanceof MaterialAssignment ) {
+            return trackedRootOf(((MaterialAssignment) entity).getOrderElement());
+        }
+        if ( entity instanceof CriterionSatisfaction ) {
+            return ((CriterionSatisfaction) entity).getResource();
+        }
+        if ( entity instanceof ResourcesCostCategoryAssignment ) {
+            return ((ResourcesCostCategoryAssignment) entity).getResource();
+        }
+        return null;
+    }
+
+}
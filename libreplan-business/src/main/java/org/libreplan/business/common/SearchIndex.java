@@ -0,0 +1,282 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Immutable index to search the entries whose texts contain some text, like
+ * the finders do, without checking all of them.
+ * <p>
+ * The texts are split in trigrams and each trigram points to the entries
+ * having it, so only the entries having all the trigrams of the searched text
+ * are checked. Texts shorter than a trigram are checked against all the
+ * entries. The matching ignores case and the surrounding whitespace of the
+ * searched text, and a match cannot span two texts of the same entry.
+ * </p>
+ * <p>
+ * The entries where the text is found at the beginning of a word come first,
+ * the rest keep the order in which they were provided.
+ * </p>
+ *
+ * @param <E> the type of the entries
+ */
+public class SearchIndex<E> {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private static final char TEXTS_SEPARATOR = '\u0000';
+
+    public static <E> SearchIndex<E> create(Collection<? extends E> entries,
+                                            Function<? super E, ? extends Collection<String>> texts) {
+        Validate.notNull(entries);
+        Validate.notNull(texts);
+
+        return new SearchIndex<>(new ArrayList<>(entries), texts);
+    }
+
+    /**
+     * Checks one entry with the same matching the index does
+     */
+    public static boolean matches(Collection<String> texts, String text) {
+        String searched = normalize(text);
+        for (String each : texts) {
+            if ( each != null && each.toLowerCase().contains(searched) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase();
+    }
+
+    private final List<E> entries;
+
+    private final String[] texts;
+
+    private final Map<String, int[]> entriesByGram;
+
+    private SearchIndex(List<E> entries, Function<? super E, ? extends Collection<String>> textsOf) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.texts = new String[entries.size()];
+
+        Map<String, Positions> positionsByGram = new HashMap<>();
+        for (int i = 0; i < texts.length; i++) {
+            StringBuilder text = new StringBuilder();
+            for (String each : textsOf.apply(entries.get(i))) {
+                if ( each == null ) {
+                    continue;
+                }
+                String lowerCase = each.toLowerCase();
+                addGrams(positionsByGram, lowerCase, i);
+                text.append(TEXTS_SEPARATOR).append(lowerCase);
+            }
+            texts[i] = text.toString();
+        }
+
+        entriesByGram = new HashMap<>();
+        for (Entry<String, Positions> each : positionsByGram.entrySet()) {
+            entriesByGram.put(each.getKey(), each.getValue().toArray());
+        }
+    }
+
+    private static void addGrams(Map<String, Positions> positionsByGram, String text, int position) {
+        for (String each : gramsOf(text)) {
+            Positions positions = positionsByGram.get(each);
+            if ( positions == null ) {
+                positions = new Positions();
+                positionsByGram.put(each, positions);
+            }
+            positions.add(position);
+        }
+    }
+
+    private static Set<String> gramsOf(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            result.add(text.substring(i, i + GRAM_LENGTH));
+        }
+
+        return result;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the entries matching the text, all of them if it's empty. The
+     *         returned list is a view on the index, so the entries are only
+     *         retrieved when they are accessed, e.g. page by page
+     */
+    public List<E> search(String text) {
+        String searched = normalize(text);
+        if ( searched.isEmpty() ) {
+            return entries;
+        }
+
+        Positions atWordStart = new Positions();
+        Positions elsewhere = new Positions();
+        for (int each : candidatesFor(searched)) {
+            int index = texts[each].indexOf(searched);
+            if ( index < 0 ) {
+                continue;
+            }
+            if ( isAtWordStart(texts[each], searched, index) ) {
+                atWordStart.add(each);
+            } else {
+                elsewhere.add(each);
+            }
+        }
+
+        return new Matches(atWordStart.append(elsewhere).toArray());
+    }
+
+    private int[] candidatesFor(String searched) {
+        if ( searched.length() < GRAM_LENGTH ) {
+            return allPositions();
+        }
+
+        List<int[]> postings = new ArrayList<>();
+        for (String each : gramsOf(searched)) {
+            int[] positions = entriesByGram.get(each);
+            if ( positions == null ) {
+                return new int[0];
+            }
+            postings.add(positions);
+        }
+
+        postings.sort(Comparator.comparingInt(positions -> positions.length));
+        int[] result = postings.get(0);
+        for (int i = 1; i < postings.size() && result.length > 0; i++) {
+            result = intersection(result, postings.get(i));
+        }
+
+        return result;
+    }
+
+    private int[] allPositions() {
+        int[] result = new int[entries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = i;
+        }
+
+        return result;
+    }
+
+    private static int[] intersection(int[] ascending, int[] otherAscending) {
+        int[] result = new int[Math.min(ascending.length, otherAscending.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < ascending.length && j < otherAscending.length) {
+            if ( ascending[i] < otherAscending[j] ) {
+                i++;
+            } else if ( ascending[i] > otherAscending[j] ) {
+                j++;
+            } else {
+                result[size++] = ascending[i];
+                i++;
+                j++;
+            }
+        }
+
+        return Arrays.copyOf(result, size);
+    }
+
+    private static boolean isAtWordStart(String text, String searched, int firstIndex) {
+        for (int index = firstIndex; index >= 0; index = text.indexOf(searched, index + 1)) {
+            if ( index == 0 || !Character.isLetterOrDigit(text.charAt(index - 1)) ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private class Matches extends AbstractList<E> {
+
+        private final int[] positions;
+
+        Matches(int[] positions) {
+            this.positions = positions;
+        }
+
+        @Override
+        public E get(int index) {
+            return entries.get(positions[index]);
+        }
+
+        @Override
+        public int size() {
+            return positions.length;
+        }
+    }
+
+    /**
+     * Growing list of positions, adding again the last one does nothing
+     */
+    private static class Positions {
+
+        private int[] values = new int[4];
+
+        private int size = 0;
+
+        void add(int position) {
+            if ( size > 0 && values[size - 1] == position ) {
+                return;
+            }
+            if ( size == values.length ) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = position;
+        }
+
+        Positions append(Positions other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+
+            return this;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+}
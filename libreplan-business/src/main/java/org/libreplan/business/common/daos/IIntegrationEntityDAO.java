@@ -21,8 +21,11 @@
 
 package org.libreplan.business.common.daos;
 
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 
+import org.libreplan.business.common.ILastModificationDateTracked;
 import org.libreplan.business.common.IntegrationEntity;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 
@@ -63,6 +66,31 @@ public interface IIntegrationEntityDAO<E extends IntegrationEntity>
 
     public E findExistingEntityByCode(String code);
 
+    /**
+     * It returns the entities with any of the <code>codes</code>, compared
+     * like in {@link #findByCode(String)}. It does a query for every
+     * {@link IntegrationEntityDAO#MAX_CODES_PER_QUERY} codes instead of one
+     * query per code. Blank codes are ignored.
+     */
+    public List<E> findByCodes(Collection<String> codes);
+
+    /**
+     * It returns up to <code>maxResults</code> entities with a code after
+     * <code>afterCode</code>, ordered by ascending code like
+     * {@link #findAll()}, so all of them can be walked in pages passing the
+     * code of the last entity of the previous page. If <code>afterCode</code>
+     * is blank it starts from the first one. If <code>modifiedSince</code> is
+     * not <code>null</code> only the entities modified since that moment are
+     * returned, which is only possible for entities implementing
+     * {@link ILastModificationDateTracked}. The entities without a last
+     * modification date are returned too.
+     *
+     * @throws IllegalArgumentException
+     *             if <code>modifiedSince</code> is specified for entities not
+     *             tracking their last modification date
+     */
+    public List<E> findAfterCode(String afterCode, Date modifiedSince, int maxResults);
+
     /**
      * It returns all entities ordered by ascending code.
      */
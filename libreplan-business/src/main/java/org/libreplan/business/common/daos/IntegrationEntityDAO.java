@@ -21,11 +21,19 @@
 
 package org.libreplan.business.common.daos;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.hibernate.Criteria;
 import org.hibernate.criterion.Order;
 import org.hibernate.criterion.Restrictions;
+import org.libreplan.business.common.ILastModificationDateTracked;
 import org.libreplan.business.common.IntegrationEntity;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.springframework.transaction.annotation.Propagation;
@@ -41,6 +49,12 @@ public class IntegrationEntityDAO<E extends IntegrationEntity>
         extends GenericDAOHibernate<E, Long>
         implements IIntegrationEntityDAO<E> {
 
+    /**
+     * Maximum number of codes sent in the same <code>IN</code> clause by
+     * {@link #findByCodes(Collection)}.
+     */
+    public static final int MAX_CODES_PER_QUERY = 500;
+
     @Override
     public boolean existsByCode(String code) {
         try {
@@ -94,6 +108,63 @@ public class IntegrationEntityDAO<E extends IntegrationEntity>
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<E> findByCodes(Collection<String> codes) {
+        Set<String> lowerCaseCodes = new LinkedHashSet<>();
+        for (String each : codes) {
+            if (!StringUtils.isBlank(each)) {
+                lowerCaseCodes.add(each.trim().toLowerCase());
+            }
+        }
+
+        List<E> result = new ArrayList<>();
+        List<String> pending = new ArrayList<>(lowerCaseCodes);
+        for (int i = 0; i < pending.size(); i += MAX_CODES_PER_QUERY) {
+            result.addAll(findByLowerCaseCodes(
+                    pending.subList(i, Math.min(i + MAX_CODES_PER_QUERY, pending.size()))));
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<E> findByLowerCaseCodes(List<String> lowerCaseCodes) {
+        return getSession()
+                .createQuery("FROM " + getEntityClass().getName() + " e " +
+                        "WHERE lower(e." + getCodeProperty() + ") IN (:codes)")
+                .setParameterList("codes", lowerCaseCodes)
+                .list();
+    }
+
+    /**
+     * @return the path of the code of the entity used in queries
+     */
+    protected String getCodeProperty() {
+        return "code";
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    @Transactional(readOnly = true)
+    public List<E> findAfterCode(String afterCode, Date modifiedSince, int maxResults) {
+        Validate.isTrue(maxResults > 0, "maxResults must be positive");
+        Validate.isTrue(modifiedSince == null || ILastModificationDateTracked.class.isAssignableFrom(getEntityClass()),
+                getEntityClass().getSimpleName() + " does not track its last modification date");
+
+        Criteria criteria = getSession().createCriteria(getEntityClass());
+        if ( !StringUtils.isBlank(afterCode) ) {
+            criteria.add(Restrictions.gt(getCodeProperty(), afterCode.trim()));
+        }
+        if ( modifiedSince != null ) {
+            /* Without a date it is not known when it was modified, so it is always included */
+            criteria.add(Restrictions.or(
+                    Restrictions.ge("lastModificationDate", modifiedSince),
+                    Restrictions.isNull("lastModificationDate")));
+        }
+
+        return criteria.addOrder(Order.asc(getCodeProperty())).setMaxResults(maxResults).list();
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<E> findAll() {
@@ -21,7 +21,6 @@
 
 package org.libreplan.business.costcategories.daos;
 
-import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,13 +28,9 @@ import org.apache.commons.lang3.Validate;
 import org.hibernate.Criteria;
 import org.hibernate.criterion.MatchMode;
 import org.hibernate.criterion.Restrictions;
-import org.joda.time.LocalDate;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.costcategories.entities.CostCategory;
-import org.libreplan.business.costcategories.entities.HourCost;
-import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
-import org.libreplan.business.resources.entities.Resource;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Repository;
@@ -95,25 +90,6 @@ public class CostCategoryDAO extends IntegrationEntityDAO<CostCategory>
 
     }
 
-    @Transactional(readOnly = true)
-    public static BigDecimal getPriceByResourceDateAndHourType(
-            Resource resource,
-            LocalDate date, String type) {
-
-        for (ResourcesCostCategoryAssignment each : resource
-                .getResourcesCostCategoryAssignments()) {
-            if (each.isActiveAtDate(date)) {
-                for (HourCost hourCost : each.getCostCategory().getHourCosts()) {
-                    if (hourCost.isActiveAtDate(date)
-                            && hourCost.getType().getCode().equals(type)) {
-                        return hourCost.getPriceCost();
-                    }
-                }
-            }
-        }
-        return null;
-    }
-
     @Override
     @Transactional(readOnly=true)
     public CostCategory findByNameCaseInsensitive(String name)
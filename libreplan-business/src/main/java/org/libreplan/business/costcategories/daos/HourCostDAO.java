@@ -22,6 +22,7 @@
 package org.libreplan.business.costcategories.daos;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 import org.hibernate.Query;
 import org.joda.time.LocalDate;
@@ -29,6 +30,7 @@ import org.libreplan.business.common.daos.IntegrationEntityDAO;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.costcategories.entities.CostCategory;
 import org.libreplan.business.costcategories.entities.HourCost;
+import org.libreplan.business.costcategories.entities.HourCostRateTable;
 import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
 import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.Resource;
@@ -94,4 +96,30 @@ public class HourCostDAO extends IntegrationEntityDAO<HourCost> implements
         return (BigDecimal) query.uniqueResult();
     }
 
-}
\ No newline at end of file
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public HourCostRateTable getRateTable() {
+        HourCostRateTable result = HourCostRateTable.create();
+
+        List<Object[]> rates = getSession().createQuery(
+                "SELECT rcca.resource.id, rcca.initDate, rcca.endDate, "
+                        + "hc.type.code, hc.initDate, hc.endDate, hc.priceCost "
+                        + "FROM ResourcesCostCategoryAssignment rcca, HourCost hc "
+                        + "WHERE rcca.costCategory = hc.category").list();
+
+        for (Object[] each : rates) {
+            result.addRate((Long) each[0], (LocalDate) each[1], (LocalDate) each[2],
+                    (String) each[3], (LocalDate) each[4], (LocalDate) each[5], (BigDecimal) each[6]);
+        }
+
+        List<Object[]> defaultPrices = getSession().createQuery(
+                "SELECT t.code, t.defaultPrice FROM TypeOfWorkHours t").list();
+
+        for (Object[] each : defaultPrices) {
+            result.addDefaultPrice((String) each[0], (BigDecimal) each[1]);
+        }
+        return result;
+    }
+
+}
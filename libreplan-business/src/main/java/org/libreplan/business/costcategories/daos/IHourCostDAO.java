@@ -28,6 +28,7 @@ import org.libreplan.business.common.daos.IIntegrationEntityDAO;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.costcategories.entities.CostCategory;
 import org.libreplan.business.costcategories.entities.HourCost;
+import org.libreplan.business.costcategories.entities.HourCostRateTable;
 import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
 import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
 import org.libreplan.business.resources.entities.Resource;
@@ -62,4 +63,16 @@ public interface IHourCostDAO extends IIntegrationEntityDAO<HourCost> {
 
     public BigDecimal getPriceCostFromCriterionAndType(
             CostCategory category, TypeOfWorkHours type);
+
+    /**
+     * Returns the prices of the {@link HourCost HourCosts} of all the
+     * resources and the default prices of all the {@link TypeOfWorkHours},
+     * loaded with two queries.<br />
+     *
+     * It's meant to be built once for a calculation or report that needs the
+     * price of many lines, instead of calling
+     * {@link #getPriceCostFromResourceDateAndType(Resource, LocalDate, TypeOfWorkHours)}
+     * for each of them.
+     */
+    HourCostRateTable getRateTable();
 }
@@ -0,0 +1,155 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.costcategories.entities;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+import org.libreplan.business.resources.entities.Resource;
+
+/**
+ * Prices of the {@link HourCost HourCosts} resolved for each {@link Resource}.<br />
+ *
+ * For every resource and {@link TypeOfWorkHours} it keeps the intervals of
+ * dates in which the resource is assigned to a {@link CostCategory} defining a
+ * price for that type of hours, so the price for a date is found with a single
+ * lookup instead of walking all the {@link ResourcesCostCategoryAssignment
+ * ResourcesCostCategoryAssignments} and their hour costs.<br />
+ *
+ * It also keeps the default price of each type of hours. The types of hours
+ * are identified by their code.
+ */
+public class HourCostRateTable {
+
+    public static HourCostRateTable create() {
+        return new HourCostRateTable();
+    }
+
+    private static class Rate {
+
+        private final LocalDate endInclusive;
+
+        private final BigDecimal price;
+
+        private Rate(LocalDate endInclusive, BigDecimal price) {
+            this.endInclusive = endInclusive;
+            this.price = price;
+        }
+
+        private boolean includes(LocalDate date) {
+            return endInclusive == null || !date.isAfter(endInclusive);
+        }
+
+    }
+
+    private final Map<Long, Map<String, TreeMap<LocalDate, Rate>>> ratesByResource = new HashMap<>();
+
+    private final Map<String, BigDecimal> defaultPrices = new HashMap<>();
+
+    private HourCostRateTable() {
+    }
+
+    /**
+     * Adds the price of an {@link HourCost} of the {@link CostCategory}
+     * assigned to a resource. Only the dates in which both the assignment and
+     * the hour cost are active are taken into account. The end dates are
+     * inclusive and <code>null</code> when open.
+     */
+    public void addRate(Long resourceId, LocalDate assignmentStart, LocalDate assignmentEnd, String typeCode,
+                        LocalDate hourCostStart, LocalDate hourCostEnd, BigDecimal price) {
+
+        Validate.notNull(resourceId);
+        Validate.notNull(typeCode);
+        if ( assignmentStart == null || hourCostStart == null ) {
+            return;
+        }
+
+        LocalDate start = max(assignmentStart, hourCostStart);
+        LocalDate end = min(assignmentEnd, hourCostEnd);
+        if ( end != null && end.isBefore(start) ) {
+            return;
+        }
+
+        Map<String, TreeMap<LocalDate, Rate>> byType =
+                ratesByResource.computeIfAbsent(resourceId, k -> new HashMap<>());
+
+        byType.computeIfAbsent(typeCode, k -> new TreeMap<>()).putIfAbsent(start, new Rate(end, price));
+    }
+
+    public void addDefaultPrice(String typeCode, BigDecimal defaultPrice) {
+        Validate.notNull(typeCode);
+        defaultPrices.put(typeCode, defaultPrice);
+    }
+
+    /**
+     * @return the price of the type of hours for the resource at the date
+     *         according to its cost category, or <code>null</code> if there is
+     *         none
+     */
+    public BigDecimal getPrice(Long resourceId, String typeCode, LocalDate date) {
+        Validate.notNull(date);
+        Map<String, TreeMap<LocalDate, Rate>> byType = ratesByResource.get(resourceId);
+        if ( byType == null ) {
+            return null;
+        }
+
+        TreeMap<LocalDate, Rate> rates = byType.get(typeCode);
+        if ( rates == null ) {
+            return null;
+        }
+
+        Entry<LocalDate, Rate> candidate = rates.floorEntry(date);
+        return candidate != null && candidate.getValue().includes(date) ? candidate.getValue().price : null;
+    }
+
+    /**
+     * Like {@link #getPrice(Long, String, LocalDate)} but falling back to the
+     * default price of the type of hours.
+     */
+    public BigDecimal getPriceOrDefault(Long resourceId, String typeCode, LocalDate date) {
+        BigDecimal result = getPrice(resourceId, typeCode, date);
+        return result != null ? result : getDefaultPrice(typeCode);
+    }
+
+    public BigDecimal getDefaultPrice(String typeCode) {
+        return defaultPrices.get(typeCode);
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        if ( a == null ) {
+            return b;
+        }
+        if ( b == null ) {
+            return a;
+        }
+        return a.isBefore(b) ? a : b;
+    }
+
+}
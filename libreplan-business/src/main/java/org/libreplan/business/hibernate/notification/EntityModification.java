@@ -0,0 +1,87 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import java.io.Serializable;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * A committed insertion, update or deletion of an entity, as notified to the
+ * snapshots interested on its class.
+ */
+public class EntityModification {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE
+    }
+
+    public static EntityModification inserted(Class<?> entityClass, Serializable id) {
+        return new EntityModification(Type.INSERT, entityClass, id);
+    }
+
+    public static EntityModification updated(Class<?> entityClass, Serializable id) {
+        return new EntityModification(Type.UPDATE, entityClass, id);
+    }
+
+    public static EntityModification deleted(Class<?> entityClass, Serializable id) {
+        return new EntityModification(Type.DELETE, entityClass, id);
+    }
+
+    private final Type type;
+
+    private final Class<?> entityClass;
+
+    private final Serializable id;
+
+    private EntityModification(Type type, Class<?> entityClass, Serializable id) {
+        Validate.notNull(type);
+        Validate.notNull(entityClass);
+        this.type = type;
+        this.entityClass = entityClass;
+        this.id = id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return the identifier of the modified entity. It can be
+     *         <code>null</code> if Hibernate didn't provide it
+     */
+    public Serializable getId() {
+        return id;
+    }
+
+    public boolean isDeletion() {
+        return type == Type.DELETE;
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + entityClass.getSimpleName() + "[id: " + id + "]";
+    }
+
+}
@@ -21,22 +21,24 @@
 package org.libreplan.business.hibernate.notification;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.transaction.Status;
 import javax.transaction.Synchronization;
 
+import org.apache.commons.lang3.Validate;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.hibernate.SessionFactory;
@@ -68,26 +70,44 @@ public class HibernateDatabaseModificationsListener implements
 
     private static final Log LOG = LogFactory.getLog(HibernateDatabaseModificationsListener.class);
 
-    private final ExecutorService executor = Executors.newFixedThreadPool(3);
+    private final SnapshotReloadScheduler scheduler = SnapshotReloadScheduler.sizedToAvailableCores();
 
     private final ConcurrentMap<Class<?>, BlockingQueue<NotBlockingAutoUpdatedSnapshot<?>>> interested;
 
     private ConcurrentMap<Transaction, Dispatcher> pending = new ConcurrentHashMap<>();
 
-    private Set<NotBlockingAutoUpdatedSnapshot<?>> snapshotsInterestedOn(Class<?> entityClass) {
-        List<Class<?>> list = new ArrayList<>(1);
-        list.add(entityClass);
+    private final List<ISnapshotExecutionListener> executionListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong dataVersion = new AtomicLong();
+
+    private Map<NotBlockingAutoUpdatedSnapshot<?>, List<EntityModification>> snapshotsInterestedOn(
+            EntityModification modification) {
+
+        List<EntityModification> list = new ArrayList<>(1);
+        list.add(modification);
 
         return snapshotsInterestedOn(list);
     }
 
-    private Set<NotBlockingAutoUpdatedSnapshot<?>> snapshotsInterestedOn(Collection<? extends Class<?>> classesList) {
-        Set<NotBlockingAutoUpdatedSnapshot<?>> result = new HashSet<>();
+    /**
+     * @return the modifications each snapshot is interested on, keeping the
+     *         order in which they were done
+     */
+    private Map<NotBlockingAutoUpdatedSnapshot<?>, List<EntityModification>> snapshotsInterestedOn(
+            List<EntityModification> modifications) {
 
-        for (Class<?> each : new HashSet<>(classesList)) {
-            BlockingQueue<NotBlockingAutoUpdatedSnapshot<?>> queue = interested.get(each);
-            if ( queue != null ) {
-                result.addAll(queue);
+        Map<NotBlockingAutoUpdatedSnapshot<?>, List<EntityModification>> result = new LinkedHashMap<>();
+
+        for (EntityModification each : modifications) {
+            BlockingQueue<NotBlockingAutoUpdatedSnapshot<?>> queue = interested.get(each.getEntityClass());
+            if ( queue == null ) {
+                continue;
+            }
+            for (NotBlockingAutoUpdatedSnapshot<?> snapshot : queue) {
+                if ( !result.containsKey(snapshot) ) {
+                    result.put(snapshot, new ArrayList<>());
+                }
+                result.get(snapshot).add(each);
             }
         }
 
@@ -96,16 +116,16 @@ public class HibernateDatabaseModificationsListener implements
 
     private final class Dispatcher implements Synchronization {
 
-        private BlockingQueue<Class<?>> classes = new LinkedBlockingQueue<>();
+        private BlockingQueue<EntityModification> modifications = new LinkedBlockingQueue<>();
         private final Transaction transaction;
 
-        public Dispatcher(Transaction transaction, Class<?> entityClass) {
-            classes.offer(entityClass);
+        public Dispatcher(Transaction transaction, EntityModification modification) {
+            modifications.offer(modification);
             this.transaction = transaction;
         }
 
-        public void add(Class<?> entityClass) {
-            classes.offer(entityClass);
+        public void add(EntityModification modification) {
+            modifications.offer(modification);
         }
 
         @Override
@@ -118,13 +138,18 @@ public class HibernateDatabaseModificationsListener implements
             pending.remove(transaction);
 
             if ( isProbablySucessful(status) ) {
-                List<Class<?>> list = new ArrayList<>();
-                classes.drainTo(list);
+                List<EntityModification> list = new ArrayList<>();
+                modifications.drainTo(list);
                 LOG.debug(list.size() + " modification events recorded");
-                Set<NotBlockingAutoUpdatedSnapshot<?>> toDispatch = snapshotsInterestedOn(list);
+                if ( !list.isEmpty() ) {
+                    dataVersion.incrementAndGet();
+                }
 
-                LOG.debug(
-                        "dispatching " + toDispatch + " snapshots to reload due to transaction successful completion");
+                Map<NotBlockingAutoUpdatedSnapshot<?>, List<EntityModification>> toDispatch =
+                        snapshotsInterestedOn(list);
+
+                LOG.debug("dispatching " + toDispatch.keySet() +
+                        " snapshots to reload due to transaction successful completion");
 
                 dispatch(toDispatch);
             }
@@ -157,6 +182,11 @@ public class HibernateDatabaseModificationsListener implements
         hibernateListenersRegistered = true;
     }
 
+    @PreDestroy
+    private void shutdownScheduler() {
+        scheduler.shutdown();
+    }
+
     @Override
     public boolean requiresPostCommitHanding(EntityPersister persister) {
         return false;
@@ -164,17 +194,23 @@ public class HibernateDatabaseModificationsListener implements
 
     @Override
     public void onPostDelete(PostDeleteEvent event) {
-        modificationOn(inferTransaction(event), inferEntityClass(getEntityObject(event)));
+        modificationOn(
+                inferTransaction(event),
+                EntityModification.deleted(inferEntityClass(getEntityObject(event)), event.getId()));
     }
 
     @Override
     public void onPostUpdate(PostUpdateEvent event) {
-        modificationOn(inferTransaction(event), inferEntityClass(getEntityObject(event)));
+        modificationOn(
+                inferTransaction(event),
+                EntityModification.updated(inferEntityClass(getEntityObject(event)), event.getId()));
     }
 
     @Override
     public void onPostInsert(PostInsertEvent event) {
-        modificationOn(inferTransaction(event), inferEntityClass(getEntityObject(event)));
+        modificationOn(
+                inferTransaction(event),
+                EntityModification.inserted(inferEntityClass(getEntityObject(event)), event.getId()));
     }
 
 
@@ -204,41 +240,46 @@ public class HibernateDatabaseModificationsListener implements
         return entity.getClass();
     }
 
-    void modificationOn(Transaction transaction, Class<?> entityClass) {
+    void modificationOn(Transaction transaction, EntityModification modification) {
         if ( transaction == null ) {
-            dispatch(snapshotsInterestedOn(entityClass));
+            dataVersion.incrementAndGet();
+            dispatch(snapshotsInterestedOn(modification));
 
             return;
         }
-        Dispatcher newDispatcher = new Dispatcher(transaction, entityClass);
+        Dispatcher newDispatcher = new Dispatcher(transaction, modification);
         Dispatcher previous;
         previous = pending.putIfAbsent(transaction, newDispatcher);
 
         boolean dispatcherAlreadyExisted = previous != null;
         if ( dispatcherAlreadyExisted ) {
-            previous.add(entityClass);
+            previous.add(modification);
         } else {
             transaction.registerSynchronization(newDispatcher);
         }
     }
 
-    private void dispatch(Set<NotBlockingAutoUpdatedSnapshot<?>> toBeDispatched) {
-        toBeDispatched.forEach(this::dispatch);
+    private void dispatch(Map<NotBlockingAutoUpdatedSnapshot<?>, List<EntityModification>> toBeDispatched) {
+        for (Entry<NotBlockingAutoUpdatedSnapshot<?>, List<EntityModification>> each : toBeDispatched.entrySet()) {
+            scheduler.reloadNeeded(each.getKey(), each.getValue());
+        }
     }
 
-    private void dispatch(NotBlockingAutoUpdatedSnapshot<?> each) {
-        each.reloadNeeded(executor);
+    @Override
+    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable, ReloadOn reloadOn) {
+        return takeSnapshot(name, callable, null, reloadOn);
     }
 
     @Override
-    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable, ReloadOn reloadOn) {
+    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable, ISnapshotDelta<T> delta,
+                                                    ReloadOn reloadOn) {
         if ( !hibernateListenersRegistered ) {
             throw new IllegalStateException(
                     "The hibernate listeners has not been registered. There is some configuration problem.");
         }
 
         final NotBlockingAutoUpdatedSnapshot<T> result;
-        result = new NotBlockingAutoUpdatedSnapshot<>(name, callable);
+        result = new NotBlockingAutoUpdatedSnapshot<>(name, callable, delta, this::notifyExecution);
 
         for (Class<?> each : reloadOn.getClassesOnWhichToReload()) {
             interested.putIfAbsent(each, emptyQueue());
@@ -246,11 +287,29 @@ public class HibernateDatabaseModificationsListener implements
             boolean success = queue.add(result);
             assert success : "the type of queue used must not have restricted capacity";
         }
-        result.ensureFirstLoad(executor);
+        scheduler.register(result, reloadOn.isHeavy());
+        scheduler.ensureFirstLoad(result);
 
         return result;
     }
 
+    @Override
+    public void addExecutionListener(ISnapshotExecutionListener listener) {
+        Validate.notNull(listener);
+        executionListeners.add(listener);
+    }
+
+    @Override
+    public long getDataVersion() {
+        return dataVersion.get();
+    }
+
+    private void notifyExecution(String snapshotName, long msWaiting, long msExecuting, boolean failed) {
+        for (ISnapshotExecutionListener each : executionListeners) {
+            each.executed(snapshotName, msWaiting, msExecuting, failed);
+        }
+    }
+
     private BlockingQueue<NotBlockingAutoUpdatedSnapshot<?>> emptyQueue() {
         return new LinkedBlockingQueue<>();
     }
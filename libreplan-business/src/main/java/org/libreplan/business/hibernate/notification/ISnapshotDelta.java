@@ -0,0 +1,50 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import java.util.List;
+
+/**
+ * Updates the value of a snapshot from the modifications done since it was
+ * calculated, so it's not needed to recalculate it from scratch.
+ * <p>
+ * The previous value can be shared with other threads so it must not be
+ * modified, a new value must be returned instead. Besides, the previous value
+ * could already include some of the modifications, so applying them must
+ * be idempotent: for example an insertion or an update replaces the entity
+ * with the same id if there is one.
+ * </p>
+ *
+ * @param <T> the type of the value of the snapshot
+ */
+public interface ISnapshotDelta<T> {
+
+    /**
+     * @param previous
+     *            the last value calculated for the snapshot
+     * @param modifications
+     *            the modifications, in the order they were done, of the
+     *            entities the snapshot is interested on
+     * @return the new value or <code>null</code> if the modifications cannot
+     *         be applied and the snapshot must be fully reloaded
+     */
+    T apply(T previous, List<EntityModification> modifications) throws Exception;
+
+}
@@ -0,0 +1,41 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.hibernate.notification;
+
+/**
+ * Notified each time a snapshot finishes a reload, for example to keep
+ * statistics about them.
+ */
+public interface ISnapshotExecutionListener {
+
+    /**
+     * @param snapshotName
+     *            the name given when taking the snapshot
+     * @param msWaiting
+     *            the time since the reload was requested until it started
+     * @param msExecuting
+     *            the time the reload took
+     * @param failed
+     *            if the reload threw an exception
+     */
+    void executed(String snapshotName, long msWaiting, long msExecuting, boolean failed);
+
+}
@@ -30,4 +30,26 @@ public interface ISnapshotRefresherService {
 
     public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable, ReloadOn reloadOn);
 
+    /**
+     * Like {@link #takeSnapshot(String, Callable, ReloadOn)} but the
+     * modifications are applied to the previous value using the provided
+     * delta. The callable is still used for the first load and as fallback
+     * when the delta cannot be applied.
+     */
+    public <T> IAutoUpdatedSnapshot<T> takeSnapshot(String name, Callable<T> callable, ISnapshotDelta<T> delta,
+            ReloadOn reloadOn);
+
+    /**
+     * The listener is notified of the executions of all the snapshots, the
+     * ones already taken included.
+     */
+    public void addExecutionListener(ISnapshotExecutionListener listener);
+
+    /**
+     * A number increased each time a transaction modifying some entity is
+     * committed, so the values computed from the database can be tagged with
+     * it and discarded when it changes.
+     */
+    public long getDataVersion();
+
 }
@@ -20,9 +20,13 @@
  */
 package org.libreplan.business.hibernate.notification;
 
+import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.lang3.Validate;
@@ -40,19 +44,42 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
 
     private final Callable<T> callable;
 
+    private final ISnapshotDelta<T> delta;
+
     private final AtomicReference<State> currentState;
 
     private final String name;
 
+    private final String snapshotName;
+
     private final ExecutionsReport executionsReport;
 
+    private final ISnapshotExecutionListener executionListener;
+
     private abstract class State {
         abstract T getValue();
 
+        /**
+         * Waits for the ongoing calculation, if any, to be finished
+         *
+         * @return the value calculated
+         * @throws ExecutionException
+         *             if the calculation failed
+         * @throws CancellationException
+         *             if the calculation was cancelled
+         */
+        abstract T waitForValue() throws InterruptedException, ExecutionException;
+
+        /**
+         * @return a future completed, without blocking any thread, when the
+         *         ongoing calculation, if any, is finished
+         */
+        abstract CompletableFuture<T> completion();
+
         void cancel() {
         }
 
-        State nextState(Future<T> future) {
+        State nextState(Calculation future) {
             return new PreviousValueAndOngoingCalculation(this, future);
         }
 
@@ -69,7 +96,17 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         }
 
         @Override
-        State nextState(Future<T> future) {
+        T waitForValue() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        CompletableFuture<T> completion() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        State nextState(Calculation future) {
             return new FirstCalculation(future);
         }
 
@@ -91,15 +128,25 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         T getValue() {
             return value;
         }
+
+        @Override
+        T waitForValue() {
+            return value;
+        }
+
+        @Override
+        CompletableFuture<T> completion() {
+            return CompletableFuture.completedFuture(value);
+        }
     }
 
     private class PreviousValueAndOngoingCalculation extends State {
         private final State previousValue;
 
-        private final Future<T> ongoingCalculation;
+        private final Calculation ongoingCalculation;
 
         private PreviousValueAndOngoingCalculation(State value,
-                Future<T> ongoingCalculation) {
+                Calculation ongoingCalculation) {
             Validate.notNull(value);
             Validate.notNull(ongoingCalculation);
             this.previousValue = value;
@@ -120,6 +167,16 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
             return previousValue.getValue();
         }
 
+        @Override
+        T waitForValue() throws InterruptedException, ExecutionException {
+            return ongoingCalculation.get();
+        }
+
+        @Override
+        CompletableFuture<T> completion() {
+            return ongoingCalculation.completion;
+        }
+
         private T getValueFromFuture() {
             try {
                 return ongoingCalculation.get();
@@ -145,9 +202,9 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
     }
 
     private class FirstCalculation extends State {
-        private final Future<T> ongoingCalculation;
+        private final Calculation ongoingCalculation;
 
-        private FirstCalculation(Future<T> ongoingCalculation) {
+        private FirstCalculation(Calculation ongoingCalculation) {
             this.ongoingCalculation = ongoingCalculation;
         }
 
@@ -160,6 +217,16 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
             }
         }
 
+        @Override
+        T waitForValue() throws InterruptedException, ExecutionException {
+            return ongoingCalculation.get();
+        }
+
+        @Override
+        CompletableFuture<T> completion() {
+            return ongoingCalculation.completion;
+        }
+
         @Override
         void cancel() {
             ongoingCalculation.cancel(true);
@@ -167,11 +234,63 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
 
     }
 
+    /**
+     * Calculation run by the executor that completes a
+     * {@link CompletableFuture} once it is finished, so other calculations can
+     * be chained to it instead of waiting for it in a thread of the executor.
+     * Unlike {@link CompletableFuture} it can be interrupted when cancelled.
+     */
+    private class Calculation extends FutureTask<T> {
+
+        private final CompletableFuture<T> completion = new CompletableFuture<T>();
+
+        private Calculation(Callable<T> callable) {
+            super(callable);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                completion.cancel(false);
+                return;
+            }
+            try {
+                completion.complete(get());
+            } catch (ExecutionException e) {
+                completion.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                completion.completeExceptionally(e);
+            }
+        }
+    }
+
     public NotBlockingAutoUpdatedSnapshot(String name, Callable<T> callable) {
+        this(name, callable, null);
+    }
+
+    /**
+     * @param delta
+     *            used to apply the modifications to the previous value. If it
+     *            is <code>null</code> the snapshot is always fully reloaded
+     */
+    public NotBlockingAutoUpdatedSnapshot(String name, Callable<T> callable, ISnapshotDelta<T> delta) {
+        this(name, callable, delta, null);
+    }
+
+    /**
+     * @param executionListener
+     *            notified after each execution, it can be <code>null</code>
+     */
+    public NotBlockingAutoUpdatedSnapshot(String name, Callable<T> callable, ISnapshotDelta<T> delta,
+            ISnapshotExecutionListener executionListener) {
         Validate.notNull(callable);
         Validate.notNull(name);
         this.name = "*" + name + "*";
+        this.snapshotName = name;
         this.callable = callable;
+        this.delta = delta;
+        this.executionListener = executionListener;
         this.currentState = new AtomicReference<State>(new NotLaunchState());
         this.executionsReport = new ExecutionsReport();
     }
@@ -181,9 +300,24 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         return currentState.get().getValue();
     }
 
+    /**
+     * Waits for the ongoing calculation, if any, to be finished
+     *
+     * @throws UnsupportedOperationException
+     *             if the first calculation has not been launched
+     */
+    T waitForValue() throws InterruptedException, ExecutionException {
+        return currentState.get().waitForValue();
+    }
+
     public void reloadNeeded(ExecutorService executorService) {
-        Future<T> future = executorService
-                .submit(callableDecoratedWithStatistics());
+        reloadNeeded(executorService, System.currentTimeMillis());
+    }
+
+    private void reloadNeeded(ExecutorService executorService, long requestTime) {
+        Calculation future = new Calculation(
+                callableDecoratedWithStatistics(callable, requestTime));
+        executorService.execute(future);
         State previousState;
         State newState = null;
         do {
@@ -196,12 +330,94 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         previousState.cancel();
     }
 
+    /**
+     * Updates the snapshot due to the provided modifications. If there is a
+     * delta they are applied to the last value, once its calculation is
+     * finished, without cancelling it. The delta is only given to the executor
+     * then, so no thread of the executor waits for the previous calculation.
+     * Otherwise the snapshot is fully reloaded.
+     */
+    public void reloadNeeded(ExecutorService executorService,
+            List<EntityModification> modifications) {
+        reloadNeeded(executorService, modifications,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * @param requestTime
+     *            when the reload was first requested, in milliseconds. The
+     *            time waiting is measured from it
+     */
+    public void reloadNeeded(ExecutorService executorService,
+            List<EntityModification> modifications, long requestTime) {
+        if (delta == null || modifications.isEmpty()
+                || !hasBeenInitialized()) {
+            reloadNeeded(executorService, requestTime);
+            return;
+        }
+        State previousState;
+        State newState;
+        Calculation future;
+        do {
+            previousState = currentState.get();
+            future = new Calculation(
+                    callableDecoratedWithStatistics(deltaOn(previousState,
+                            modifications), requestTime));
+            newState = previousState.nextState(future);
+        } while (!currentState.compareAndSet(previousState, newState));
+        final Calculation delta = future;
+        previousState.completion().whenComplete(
+                (value, error) -> executorService.execute(delta));
+    }
+
+    private Callable<T> deltaOn(final State base,
+            final List<EntityModification> modifications) {
+        return new Callable<T>() {
+
+            @Override
+            public T call() throws Exception {
+                T result = applyDelta(base, modifications);
+                return result != null ? result : callable.call();
+            }
+        };
+    }
+
+    /**
+     * @param base
+     *            its calculation is already finished, so its value is
+     *            available without waiting
+     */
+    private T applyDelta(State base, List<EntityModification> modifications)
+            throws InterruptedException {
+        T previous;
+        try {
+            previous = base.waitForValue();
+        } catch (ExecutionException | CancellationException e) {
+            LOG.debug(name + " previous value not available, reloading it");
+            return null;
+        }
+        try {
+            T result = delta.apply(previous, modifications);
+            if (result == null) {
+                LOG.debug(name + " cannot apply " + modifications.size()
+                        + " modifications, reloading it");
+            }
+            return result;
+        } catch (Exception e) {
+            LOG.error("error applying modifications to " + name
+                    + ", reloading it", e);
+            return null;
+        }
+    }
+
     public void ensureFirstLoad(ExecutorService executorService) {
         if (hasBeenInitialized()) {
             return;
         }
-        Future<T> future = executorService
-                .submit(callableDecoratedWithStatistics());
+        Calculation future = new Calculation(
+                callableDecoratedWithStatistics(callable,
+                        System.currentTimeMillis()));
+        executorService.execute(future);
         State previous = currentState.get();
         State newState = previous.nextState(future);
         boolean compareAndSet = currentState.compareAndSet(previous, newState);
@@ -219,8 +435,8 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
         return currentState.get().hasBeenInitialized();
     }
 
-    private Callable<T> callableDecoratedWithStatistics() {
-        final long requestTime = System.currentTimeMillis();
+    private Callable<T> callableDecoratedWithStatistics(
+            final Callable<T> callable, final long requestTime) {
         return new Callable<T>() {
 
             @Override
@@ -279,6 +495,10 @@ class NotBlockingAutoUpdatedSnapshot<T> implements IAutoUpdatedSnapshot<T> {
                         possibleError);
             } while (!data.compareAndSet(previousData, newData));
             report(timeWaiting, timeExecuting, newData, possibleError);
+            if (executionListener != null) {
+                executionListener.executed(snapshotName, timeWaiting,
+                        timeExecuting, possibleError != null);
+            }
         }
 
         private void report(long timeWaiting, long timeExecuting, Data data,
@@ -22,13 +22,17 @@ package org.libreplan.business.hibernate.notification;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.concurrent.Callable;
+import java.util.function.Function;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -38,7 +42,10 @@ import org.libreplan.business.calendars.entities.CalendarAvailability;
 import org.libreplan.business.calendars.entities.CalendarData;
 import org.libreplan.business.calendars.entities.CalendarException;
 import org.libreplan.business.common.AdHocTransactionService;
+import org.libreplan.business.common.BaseEntity;
 import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.daos.IGenericDAO;
+import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.costcategories.daos.ICostCategoryDAO;
 import org.libreplan.business.costcategories.entities.CostCategory;
 import org.libreplan.business.externalcompanies.daos.IExternalCompanyDAO;
@@ -225,13 +232,14 @@ public class PredefinedDatabaseSnapshots {
         snapshotsRegistered = true;
         criterionsMap = snapshot("criterions map", calculateCriterionsMap(), CriterionType.class, Criterion.class);
         labelsMap = snapshot("labels map", calculateLabelsMap(), LabelType.class, Label.class);
-        listWorkers = snapshot("workers", calculateWorkers(), Worker.class);
+        listWorkers = snapshot("workers", calculateWorkers(), reloadingModifiedEntities(workerDAO), Worker.class);
         listCostCategories = snapshot("list cost categories", calculateListCostCategories(), CostCategory.class);
         listCriterion = snapshot("list criterions", calculateListCriterion(), Criterion.class);
 
         mapResources = snapshot(
                 "map resources",
                 calculateMapResources(),
+                mapResourcesDelta(),
                 Resource.class,
                 Worker.class,
                 Machine.class,
@@ -244,36 +252,59 @@ public class PredefinedDatabaseSnapshots {
         resourceLoadChartData = snapshot(
                 "resource load grouped by date",
                 calculateResourceLoadChartData(),
-                CalendarAvailability.class,
-                CalendarException.class,
-                CalendarData.class,
-                TaskElement.class,
-                SpecificResourceAllocation.class,
-                GenericResourceAllocation.class,
-                ResourceAllocation.class);
-
-        workReportLines = snapshot("work report lines", calculateWorkReportLines(), WorkReportLine.class);
+                ReloadOn.onChangeOf(
+                        CalendarAvailability.class,
+                        CalendarException.class,
+                        CalendarData.class,
+                        TaskElement.class,
+                        SpecificResourceAllocation.class,
+                        GenericResourceAllocation.class,
+                        ResourceAllocation.class).heavy());
+
+        workReportLines = snapshot(
+                "work report lines",
+                calculateWorkReportLines(),
+                reloadingModifiedEntities(workReportLineDAO),
+                WorkReportLine.class);
 
         estimatedCostPerTask = snapshot(
                 "estimated cost per task",
                 calculateEstimatedCostPerTask(),
-                TaskElement.class,
-                Task.class,
-                TaskGroup.class,
-                DayAssignment.class);
+                costPerTaskDelta(hoursCostCalculator::getEstimatedCost),
+                ReloadOn.onChangeOf(TaskElement.class, Task.class, TaskGroup.class, DayAssignment.class).heavy());
 
         advanceCostPerTask = snapshot(
                 "advance cost per task",
                 calculateAdvanceCostPerTask(),
-                TaskElement.class,
-                Task.class,
-                TaskGroup.class,
-                DirectAdvanceAssignment.class);
+                costPerTaskDelta(hoursCostCalculator::getAdvanceCost),
+                ReloadOn.onChangeOf(
+                        TaskElement.class, Task.class, TaskGroup.class, DirectAdvanceAssignment.class).heavy());
     }
 
     private <T> IAutoUpdatedSnapshot<T> snapshot(String name, Callable<T> callable, Class<?>... reloadOnChangesOf) {
-        return snapshotRefresherService
-                .takeSnapshot(name, callableOnReadOnlyTransaction(callable), ReloadOn.onChangeOf(reloadOnChangesOf));
+        return snapshot(name, callable, ReloadOn.onChangeOf(reloadOnChangesOf));
+    }
+
+    private <T> IAutoUpdatedSnapshot<T> snapshot(String name, Callable<T> callable, ReloadOn reloadOn) {
+        return snapshotRefresherService.takeSnapshot(name, callableOnReadOnlyTransaction(callable), reloadOn);
+    }
+
+    private <T> IAutoUpdatedSnapshot<T> snapshot(String name,
+                                                 Callable<T> callable,
+                                                 ISnapshotDelta<T> delta,
+                                                 Class<?>... reloadOnChangesOf) {
+        return snapshot(name, callable, delta, ReloadOn.onChangeOf(reloadOnChangesOf));
+    }
+
+    private <T> IAutoUpdatedSnapshot<T> snapshot(String name,
+                                                 Callable<T> callable,
+                                                 ISnapshotDelta<T> delta,
+                                                 ReloadOn reloadOn) {
+        return snapshotRefresherService.takeSnapshot(
+                name,
+                callableOnReadOnlyTransaction(callable),
+                deltaOnReadOnlyTransaction(delta),
+                reloadOn);
     }
 
     @SuppressWarnings("unchecked")
@@ -281,6 +312,83 @@ public class PredefinedDatabaseSnapshots {
         return AdHocTransactionService.readOnlyProxy(transactionService, Callable.class, callable);
     }
 
+    @SuppressWarnings("unchecked")
+    private <T> ISnapshotDelta<T> deltaOnReadOnlyTransaction(ISnapshotDelta<T> delta) {
+        return AdHocTransactionService.readOnlyProxy(transactionService, ISnapshotDelta.class, delta);
+    }
+
+    /**
+     * @return the last modification of each entity, in the order they were
+     *         first modified, or <code>null</code> if the id of some of them
+     *         is unknown
+     */
+    private static Map<Long, EntityModification> lastModificationById(List<EntityModification> modifications) {
+        Map<Long, EntityModification> result = new LinkedHashMap<>();
+        for (EntityModification each : modifications) {
+            if ( !(each.getId() instanceof Long) ) {
+                return null;
+            }
+            result.put((Long) each.getId(), each);
+        }
+        return result;
+    }
+
+    private static <E extends BaseEntity> E findIfExists(IGenericDAO<E, Long> dao, Long id) {
+        try {
+            return dao.find(id);
+        } catch (InstanceNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static <E extends BaseEntity> List<E> withoutIds(List<E> entities, Map<Long, ?> ids) {
+        List<E> result = new ArrayList<>();
+        for (E each : entities) {
+            if ( !ids.containsKey(each.getId()) ) {
+                result.add(each);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Delta for the snapshots that are a list of all the entities of a type.
+     * The modified entities still existing are loaded again in the same
+     * position, the removed ones are dropped and the new ones are added at the
+     * end by id, keeping the order of the list as a full reload would.
+     */
+    private <E extends BaseEntity> ISnapshotDelta<List<E>> reloadingModifiedEntities(IGenericDAO<E, Long> dao) {
+        return (previous, modifications) -> {
+            Map<Long, EntityModification> modified = lastModificationById(modifications);
+            if ( modified == null ) {
+                return null;
+            }
+
+            Map<Long, E> reloaded = new HashMap<>();
+            for (Entry<Long, EntityModification> each : modified.entrySet()) {
+                E entity = each.getValue().isDeletion() ? null : findIfExists(dao, each.getKey());
+                if ( entity != null ) {
+                    reloaded.put(each.getKey(), entity);
+                }
+            }
+
+            List<E> result = new ArrayList<>(previous.size() + reloaded.size());
+            for (E each : previous) {
+                if ( !modified.containsKey(each.getId()) ) {
+                    result.add(each);
+                } else if ( reloaded.containsKey(each.getId()) ) {
+                    result.add(reloaded.remove(each.getId()));
+                }
+            }
+            List<Long> added = new ArrayList<>(reloaded.keySet());
+            Collections.sort(added);
+            for (Long each : added) {
+                result.add(reloaded.get(each));
+            }
+            return result;
+        };
+    }
+
     private Callable<SortedMap<CriterionType, List<Criterion>>> calculateCriterionsMap() {
         return () -> {
             SortedMap<CriterionType, List<Criterion>> result = new TreeMap<>(getComparatorByName());
@@ -336,6 +444,37 @@ public class PredefinedDatabaseSnapshots {
         };
     }
 
+    private ISnapshotDelta<Map<Class<?>, List<Resource>>> mapResourcesDelta() {
+        return (previous, modifications) -> {
+            Map<Long, EntityModification> modified = lastModificationById(modifications);
+            if ( modified == null ) {
+                return null;
+            }
+
+            Map<Class<?>, List<Resource>> result = new HashMap<>();
+            for (Entry<Class<?>, List<Resource>> each : previous.entrySet()) {
+                result.put(each.getKey(), withoutIds(each.getValue(), modified));
+            }
+            for (Entry<Long, EntityModification> each : modified.entrySet()) {
+                Resource resource = each.getValue().isDeletion() ? null : findIfExists(resourceDAO, each.getKey());
+                if ( resource != null ) {
+                    result.get(groupOf(resource)).add(resource);
+                }
+            }
+            for (List<Resource> each : result.values()) {
+                Resource.sortByName(each);
+            }
+            return result;
+        };
+    }
+
+    private static Class<?> groupOf(Resource resource) {
+        if ( resource instanceof Machine ) {
+            return Machine.class;
+        }
+        return resource.isVirtual() ? VirtualWorker.class : Worker.class;
+    }
+
     private Callable<List<ExternalCompany>> calculateExternalCompanies() {
         return () -> externalCompanyDAO.getExternalCompaniesAreClient();
     }
@@ -389,6 +528,41 @@ public class PredefinedDatabaseSnapshots {
         };
     }
 
+    /**
+     * Delta for the cost maps. Only the modifications of task elements can be
+     * applied, the cost of each modified task is calculated again. The
+     * modifications of the day assignments or the advances don't tell which
+     * task they belong to, so they cause a full reload.
+     */
+    private ISnapshotDelta<Map<TaskElement, SortedMap<LocalDate, BigDecimal>>> costPerTaskDelta(
+            Function<Task, SortedMap<LocalDate, BigDecimal>> costCalculation) {
+
+        return (previous, modifications) -> {
+            for (EntityModification each : modifications) {
+                if ( !TaskElement.class.isAssignableFrom(each.getEntityClass()) ) {
+                    return null;
+                }
+            }
+            Map<Long, EntityModification> modified = lastModificationById(modifications);
+            if ( modified == null ) {
+                return null;
+            }
+
+            Map<TaskElement, SortedMap<LocalDate, BigDecimal>> result = new HashMap<>(previous);
+            result.keySet().removeIf(each -> modified.containsKey(each.getId()));
+            for (Entry<Long, EntityModification> each : modified.entrySet()) {
+                TaskElement taskElement = each.getValue().isDeletion()
+                        ? null
+                        : findIfExists(taskElementDAO, each.getKey());
+
+                if ( taskElement instanceof Task ) {
+                    result.put(taskElement, costCalculation.apply((Task) taskElement));
+                }
+            }
+            return result;
+        };
+    }
+
     private Callable<Map<TaskElement, SortedMap<LocalDate, BigDecimal>>> calculateAdvanceCostPerTask() {
         return () -> {
             Map<TaskElement, SortedMap<LocalDate, BigDecimal>> map = new HashMap<>();
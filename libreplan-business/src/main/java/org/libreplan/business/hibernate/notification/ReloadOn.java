@@ -41,11 +41,30 @@ public class ReloadOn {
 
     private final List<Class<?>> classes;
 
+    private final boolean heavy;
+
     private ReloadOn(Collection<? extends Class<?>> classes) {
+        this(classes, false);
+    }
+
+    private ReloadOn(Collection<? extends Class<?>> classes, boolean heavy) {
         this.classes = new ArrayList<Class<?>>(classes);
+        this.heavy = heavy;
+    }
+
+    /**
+     * Marks the snapshot as expensive to reload. The heavy snapshots are
+     * reloaded apart from the rest, so they don't delay the cheap ones.
+     */
+    public ReloadOn heavy() {
+        return new ReloadOn(classes, true);
     }
 
     public List<Class<?>> getClassesOnWhichToReload() {
         return classes;
     }
+
+    public boolean isHeavy() {
+        return heavy;
+    }
 }
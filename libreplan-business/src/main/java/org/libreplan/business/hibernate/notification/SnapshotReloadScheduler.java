@@ -0,0 +1,177 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.hibernate.notification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * Decides when and where the snapshots are reloaded.
+ * <p>
+ * The heavy snapshots are reloaded in their own lane of threads, so a burst of
+ * modifications doesn't leave the cheap ones waiting behind them. Besides, the
+ * reloads requested for a snapshot during the debounce window are coalesced
+ * into a single one with all the modifications. The time waiting reported by
+ * the snapshots is measured from the first of the coalesced requests.
+ * </p>
+ */
+class SnapshotReloadScheduler {
+
+    private static final Log LOG = LogFactory.getLog(SnapshotReloadScheduler.class);
+
+    static final long DEFAULT_DEBOUNCE_MS = 100;
+
+    static SnapshotReloadScheduler sizedToAvailableCores() {
+        int halfOfCores = Runtime.getRuntime().availableProcessors() / 2;
+
+        return new SnapshotReloadScheduler(Math.max(2, halfOfCores), Math.max(1, halfOfCores), DEFAULT_DEBOUNCE_MS);
+    }
+
+    private static class PendingReload {
+
+        private final long requestTime;
+
+        private final List<EntityModification> modifications = new ArrayList<>();
+
+        private boolean fullReload = false;
+
+        private int requests = 0;
+
+        private PendingReload(long requestTime) {
+            this.requestTime = requestTime;
+        }
+
+        private void add(List<EntityModification> newModifications) {
+            requests++;
+            if ( newModifications.isEmpty() ) {
+                fullReload = true;
+            }
+            modifications.addAll(newModifications);
+        }
+
+        private List<EntityModification> getModifications() {
+            // An empty list makes the snapshot reload fully
+            return fullReload ? new ArrayList<>() : modifications;
+        }
+    }
+
+    private final ExecutorService cheapLane;
+
+    private final ExecutorService heavyLane;
+
+    private final ScheduledExecutorService debouncer;
+
+    private final long debounceMs;
+
+    private final ConcurrentMap<NotBlockingAutoUpdatedSnapshot<?>, ExecutorService> laneBySnapshot =
+            new ConcurrentHashMap<>();
+
+    private final Map<NotBlockingAutoUpdatedSnapshot<?>, PendingReload> pending = new HashMap<>();
+
+    SnapshotReloadScheduler(int cheapLaneSize, int heavyLaneSize, long debounceMs) {
+        Validate.isTrue(cheapLaneSize > 0 && heavyLaneSize > 0, "the lanes must have some thread");
+        Validate.isTrue(debounceMs >= 0, "debounceMs cannot be negative");
+        this.cheapLane = Executors.newFixedThreadPool(cheapLaneSize, daemonThreads("snapshots-cheap"));
+        this.heavyLane = Executors.newFixedThreadPool(heavyLaneSize, daemonThreads("snapshots-heavy"));
+        this.debouncer = Executors.newSingleThreadScheduledExecutor(daemonThreads("snapshots-debouncer"));
+        this.debounceMs = debounceMs;
+    }
+
+    private static ThreadFactory daemonThreads(final String prefix) {
+        final AtomicInteger counter = new AtomicInteger();
+
+        return runnable -> {
+            Thread result = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            result.setDaemon(true);
+
+            return result;
+        };
+    }
+
+    void register(NotBlockingAutoUpdatedSnapshot<?> snapshot, boolean heavy) {
+        laneBySnapshot.put(snapshot, heavy ? heavyLane : cheapLane);
+    }
+
+    void ensureFirstLoad(NotBlockingAutoUpdatedSnapshot<?> snapshot) {
+        snapshot.ensureFirstLoad(laneOf(snapshot));
+    }
+
+    /**
+     * @param modifications
+     *            the modifications that make the reload needed. If it's empty
+     *            the snapshot is fully reloaded
+     */
+    void reloadNeeded(final NotBlockingAutoUpdatedSnapshot<?> snapshot, List<EntityModification> modifications) {
+        boolean newReload;
+        synchronized (pending) {
+            PendingReload reload = pending.get(snapshot);
+            newReload = reload == null;
+            if ( newReload ) {
+                reload = new PendingReload(System.currentTimeMillis());
+                pending.put(snapshot, reload);
+            }
+            reload.add(modifications);
+        }
+
+        if ( newReload ) {
+            debouncer.schedule(() -> dispatch(snapshot), debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void dispatch(NotBlockingAutoUpdatedSnapshot<?> snapshot) {
+        PendingReload reload;
+        synchronized (pending) {
+            reload = pending.remove(snapshot);
+        }
+
+        if ( reload.requests > 1 ) {
+            LOG.debug(snapshot + " coalesced " + reload.requests + " reload requests");
+        }
+        snapshot.reloadNeeded(laneOf(snapshot), reload.getModifications(), reload.requestTime);
+    }
+
+    private ExecutorService laneOf(NotBlockingAutoUpdatedSnapshot<?> snapshot) {
+        ExecutorService result = laneBySnapshot.get(snapshot);
+
+        return result != null ? result : cheapLane;
+    }
+
+    void shutdown() {
+        debouncer.shutdownNow();
+        cheapLane.shutdownNow();
+        heavyLane.shutdownNow();
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.orders.daos;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.lang3.Validate;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.SumChargedEffort;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+
+/**
+ * Accumulates the changes that several {@link WorkReportLine WorkReportLines}
+ * make to the {@link SumChargedEffort} of their order elements, so each
+ * {@link SumChargedEffort} is updated once with the net change.
+ * <p>
+ * The effort charged directly to an order element is charged indirectly to all
+ * its ancestors, and the timesheet dates of the lines widen the ones of the
+ * order element and its ancestors. Narrowing them is not possible without
+ * querying the remaining lines, so it's left to
+ * {@link ISumChargedEffortDAO#recalculateTimesheetData(Set)}.
+ * </p>
+ */
+public class ChargedEffortChanges {
+
+    private final Set<OrderElement> affected = new LinkedHashSet<>();
+
+    private final Map<OrderElement, Integer> directSeconds = new HashMap<>();
+
+    private final Map<OrderElement, Integer> indirectSeconds = new HashMap<>();
+
+    private final Map<OrderElement, Date> firstDates = new LinkedHashMap<>();
+
+    private final Map<OrderElement, Date> lastDates = new LinkedHashMap<>();
+
+    private final Set<OrderElement> finished = new HashSet<>();
+
+    public void add(OrderElement orderElement, EffortDuration effort, Date date, boolean finishesOrderElement) {
+        Validate.notNull(orderElement);
+        Validate.notNull(effort);
+
+        charge(orderElement, effort.getSeconds());
+        if ( date != null ) {
+            for (OrderElement each = orderElement; each != null; each = each.getParent()) {
+                firstDates.merge(each, date, ChargedEffortChanges::earliest);
+                lastDates.merge(each, date, ChargedEffortChanges::latest);
+            }
+        }
+        if ( finishesOrderElement ) {
+            finished.add(orderElement);
+        }
+    }
+
+    public void subtract(OrderElement orderElement, EffortDuration effort) {
+        Validate.notNull(orderElement);
+        Validate.notNull(effort);
+
+        charge(orderElement, -effort.getSeconds());
+    }
+
+    private void charge(OrderElement orderElement, int seconds) {
+        affected.add(orderElement);
+        directSeconds.merge(orderElement, seconds, Integer::sum);
+
+        for (OrderElement each = orderElement.getParent(); each != null; each = each.getParent()) {
+            affected.add(each);
+            indirectSeconds.merge(each, seconds, Integer::sum);
+        }
+    }
+
+    /**
+     * @return the order elements whose {@link SumChargedEffort} changes
+     */
+    public Set<OrderElement> getAffectedOrderElements() {
+        return Collections.unmodifiableSet(affected);
+    }
+
+    public boolean isEmpty() {
+        return affected.isEmpty();
+    }
+
+    public void applyTo(OrderElement orderElement, SumChargedEffort sumChargedEffort) {
+        int direct = directSeconds.getOrDefault(orderElement, 0);
+        if ( direct > 0 ) {
+            sumChargedEffort.addDirectChargedEffort(EffortDuration.seconds(direct));
+        } else if ( direct < 0 ) {
+            sumChargedEffort.subtractDirectChargedEffort(EffortDuration.seconds(-direct));
+        }
+
+        int indirect = indirectSeconds.getOrDefault(orderElement, 0);
+        if ( indirect > 0 ) {
+            sumChargedEffort.addIndirectChargedEffort(EffortDuration.seconds(indirect));
+        } else if ( indirect < 0 ) {
+            sumChargedEffort.subtractIndirectChargedEffort(EffortDuration.seconds(-indirect));
+        }
+
+        if ( firstDates.containsKey(orderElement) ) {
+            sumChargedEffort.setTimesheetDates(
+                    earliest(sumChargedEffort.getFirstTimesheetDate(), firstDates.get(orderElement)),
+                    latest(sumChargedEffort.getLastTimesheetDate(), lastDates.get(orderElement)));
+        }
+
+        if ( finished.contains(orderElement) ) {
+            sumChargedEffort.setFinishedTimesheets(true);
+        }
+    }
+
+    private static Date earliest(Date current, Date date) {
+        return current == null || date.getTime() < current.getTime() ? date : current;
+    }
+
+    private static Date latest(Date current, Date date) {
+        return current == null || date.getTime() > current.getTime() ? date : current;
+    }
+
+}
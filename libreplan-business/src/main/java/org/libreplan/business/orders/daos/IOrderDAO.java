@@ -59,10 +59,14 @@ public interface IOrderDAO extends IIntegrationEntityDAO<Order> {
     /**
      * Builds contents for OrderCostsPerResource report.
      *
+     * The lines are filtered in the database by the elements of the orders, the
+     * dates, the criteria of the generic allocations of their tasks and the
+     * labels, that are inherited from the ancestors.
+     *
      * @return A {@link List} of {@link OrderCostsPerResourceDTO} objects for reporting
      */
     List<OrderCostsPerResourceDTO> getOrderCostsPerResource(
-            List<Order> orders, Date startingDate, Date endingDate, List<Criterion> criterions);
+            List<Order> orders, Date startingDate, Date endingDate, List<Criterion> criterions, List<Label> labels);
 
     /**
      * Returns a list of orders filtered by the read authorizations of the indicated user.
@@ -110,8 +114,12 @@ public interface IOrderDAO extends IIntegrationEntityDAO<Order> {
 
     List<Order> getActiveOrders();
 
+    /**
+     * Builds contents for the expenses of the OrderCostsPerResource report,
+     * with the same filters as {@link #getOrderCostsPerResource}.
+     */
     List<CostExpenseSheetDTO> getCostExpenseSheet(
-            List<Order> orders, Date startingDate, Date endingDate, List<Criterion> criterions);
+            List<Order> orders, Date startingDate, Date endingDate, List<Criterion> criterions, List<Label> labels);
 
     /**
      * Get {@link Order} where {@link Order#getCustomerReference()} is not NULL and not equals empty {@link String}.
@@ -79,6 +79,11 @@ public interface ISumChargedEffortDAO extends
      * any change taking into account the lines in the report and the ones to be
      * removed.
      *
+     * The new dates and finished lines are applied incrementally when the
+     * {@link SumChargedEffort} objects are updated, so only the order elements
+     * that lose the line with their first or last timesheet date or a finished
+     * line are returned.
+     *
      * Usually you call this method to get the set before saving the work
      * report. After saving the work report you call
      * {@link ISumChargedEffortDAO#recalculateTimesheetData(Set)} with the
@@ -22,22 +22,30 @@ package org.libreplan.business.orders.daos;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang3.StringUtils;
 import org.hibernate.Criteria;
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
 import org.hibernate.criterion.Restrictions;
 import org.joda.time.LocalDate;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.daos.IntegrationEntityDAO;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
-import org.libreplan.business.costcategories.daos.CostCategoryDAO;
-import org.libreplan.business.costcategories.daos.ITypeOfWorkHoursDAO;
-import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.costcategories.daos.IHourCostDAO;
+import org.libreplan.business.costcategories.entities.HourCostRateTable;
+import org.libreplan.business.expensesheet.entities.ExpenseSheetLine;
 import org.libreplan.business.externalcompanies.entities.ExternalCompany;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.entities.Order;
@@ -49,13 +57,13 @@ import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.reports.dtos.CostExpenseSheetDTO;
 import org.libreplan.business.reports.dtos.OrderCostsPerResourceDTO;
 import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.Worker;
 import org.libreplan.business.scenarios.entities.Scenario;
-import org.libreplan.business.users.daos.IOrderAuthorizationDAO;
 import org.libreplan.business.users.daos.IUserDAO;
-import org.libreplan.business.users.entities.OrderAuthorization;
 import org.libreplan.business.users.entities.OrderAuthorizationType;
 import org.libreplan.business.users.entities.User;
 import org.libreplan.business.users.entities.UserRole;
+import org.libreplan.business.workreports.entities.WorkReportLine;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -78,10 +86,7 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
     private ITaskSourceDAO taskSourceDAO;
 
     @Autowired
-    private ITypeOfWorkHoursDAO typeOfWorkHoursDAO;
-
-    @Autowired
-    private IOrderAuthorizationDAO orderAuthorizationDAO;
+    private IHourCostDAO hourCostDAO;
 
     @Autowired
     private IUserDAO userDAO;
@@ -91,6 +96,22 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
 
     private String STATE_PARAMETER = "state";
 
+    private static final String IN_SCENARIO =
+            "EXISTS (SELECT s.id FROM Scenario s WHERE s = :scenario AND o IN indices(s.orders))";
+
+    private static final String ORDER_BY_INIT_DATE = "ORDER BY o.initDate DESC, o.infoComponent.name ASC, o.id ASC";
+
+    /**
+     * Keeps the <code>IN</code> lists of the queries in a size every database
+     * accepts
+     */
+    private static final int MAX_ELEMENTS_PER_QUERY = 1000;
+
+    /**
+     * Rows fetched at once when scrolling the lines of the reports
+     */
+    private static final int FETCH_SIZE = 500;
+
     @Override
     public List<Order> getOrders() {
         return list(Order.class);
@@ -103,38 +124,107 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
         super.remove(id);
     }
 
-    private boolean isOrderContained(Order order, List<Order> orders) {
+    /**
+     * Order of each element in the trees of the orders. The trees are walked
+     * down with a query per level. If there are labels, only the elements
+     * having any of them, directly or inherited from an ancestor, are kept.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<Long, Order> findOrderOfElements(List<Order> orders, List<Label> labels) {
+        Set<Long> labelled = (labels == null || labels.isEmpty()) ? null : findOrderElementsWithAnyLabel(labels);
+        Set<Long> inheritingLabels = new HashSet<>();
+
+        Map<Long, Order> current = new HashMap<>();
         for (Order each : orders) {
-            if (each.getId().equals(order.getId())) {
-                return true;
+            if (each.getId() != null) {
+                current.put(each.getId(), each);
+                if (labelled != null && labelled.contains(each.getId())) {
+                    inheritingLabels.add(each.getId());
+                }
+            }
+        }
+
+        Map<Long, Order> result = new HashMap<>();
+        while (!current.isEmpty()) {
+            result.putAll(current);
+
+            Map<Long, Order> children = new HashMap<>();
+            for (List<Long> chunk : inChunks(current.keySet())) {
+                List<Object[]> rows = getSession()
+                        .createQuery("SELECT e.id, e.parent.id FROM OrderElement e WHERE e.parent.id IN (:parents)")
+                        .setParameterList("parents", chunk)
+                        .list();
+
+                for (Object[] each : rows) {
+                    Long child = (Long) each[0];
+                    Long parent = (Long) each[1];
+                    children.put(child, current.get(parent));
+                    if (labelled != null && (inheritingLabels.contains(parent) || labelled.contains(child))) {
+                        inheritingLabels.add(child);
+                    }
+                }
             }
+            current = children;
+        }
+
+        if (labelled != null) {
+            result.keySet().retainAll(inheritingLabels);
         }
-        return false;
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Long> findOrderElementsWithAnyLabel(List<Label> labels) {
+        return new HashSet<>(getSession()
+                .createQuery("SELECT DISTINCT e.id FROM OrderElement e JOIN e.labels label WHERE label IN (:labels)")
+                .setParameterList("labels", labels)
+                .list());
     }
 
-    private boolean matchFilterCriterion(OrderElement orderElement, List<Criterion> criterions) {
-        if ((criterions != null) && (!criterions.isEmpty())) {
+    private static List<List<Long>> inChunks(Collection<Long> ids) {
+        List<Long> all = new ArrayList<>(ids);
+        List<List<Long>> result = new ArrayList<>();
+        for (int i = 0; i < all.size(); i += MAX_ELEMENTS_PER_QUERY) {
+            result.add(all.subList(i, Math.min(all.size(), i + MAX_ELEMENTS_PER_QUERY)));
+        }
+        return result;
+    }
 
-            List<OrderElement> orderElements = new ArrayList<>();
-            orderElements.add(orderElement);
-            List<Task> tasks = this.getFilteredTask(orderElements, criterions);
+    /**
+     * Condition keeping the rows whose order element has a task with a generic
+     * allocation satisfying some of the criteria
+     */
+    private static String criterionsCondition(String orderElementId, List<Criterion> criterions) {
+        if (criterions == null || criterions.isEmpty()) {
+            return "";
+        }
+        return "AND EXISTS (SELECT taskSource.id " +
+                "FROM TaskSource taskSource, GenericResourceAllocation generic JOIN generic.criterions criterion " +
+                "WHERE taskSource.schedulingData.orderElement.id = " + orderElementId + " " +
+                "AND generic.task.id = taskSource.task.id AND criterion IN (:criterions)) ";
+    }
 
-            return !tasks.isEmpty();
+    private static void setCriterions(Query query, List<Criterion> criterions) {
+        if (criterions != null && !criterions.isEmpty()) {
+            query.setParameterList("criterions", Criterion.withAllDescendants(criterions));
         }
-        return true;
     }
 
+    @Override
     @Transactional(readOnly = true)
     public List<OrderCostsPerResourceDTO> getOrderCostsPerResource(
             List<Order> orders,
             Date startingDate,
             Date endingDate,
-            List<Criterion> criterions) {
+            List<Criterion> criterions,
+            List<Label> labels) {
+
+        Map<Long, Order> orderOfElements = findOrderOfElements(orders, labels);
 
-        String strQuery = "SELECT new org.libreplan.business.reports.dtos.OrderCostsPerResourceDTO(worker, wrl) " +
+        String strQuery = "SELECT worker, wrl " +
                 "FROM Worker worker, WorkReportLine wrl " +
-                "LEFT OUTER JOIN wrl.resource resource " +
-                "WHERE resource.id = worker.id ";
+                "WHERE wrl.resource.id = worker.id " +
+                "AND wrl.orderElement.id IN (:orderElements) ";
 
         // Set date range
         if (startingDate != null && endingDate != null) {
@@ -149,83 +239,89 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
             strQuery += "AND wrl.date <= :endingDate ";
         }
 
+        strQuery += criterionsCondition("wrl.orderElement.id", criterions);
+
         // Order by
         strQuery += "ORDER BY worker.id, wrl.date";
 
-        Query query = getSession().createQuery(strQuery);
-
-        if (startingDate != null) {
-            query.setParameter("startingDate", startingDate);
-        }
+        HourCostRateTable rateTable = hourCostDAO.getRateTable();
 
-        if (endingDate != null) {
-            query.setParameter("endingDate", endingDate);
-        }
+        List<OrderCostsPerResourceDTO> result = new ArrayList<>();
+        for (List<Long> chunk : inChunks(orderOfElements.keySet())) {
+            Query query = getSession().createQuery(strQuery);
+            query.setParameterList("orderElements", chunk);
 
-        List<OrderCostsPerResourceDTO> list = query.list();
+            if (startingDate != null) {
+                query.setParameter("startingDate", startingDate);
+            }
 
-        List<OrderCostsPerResourceDTO> filteredList = new ArrayList<>();
-        for (OrderCostsPerResourceDTO each : list) {
+            if (endingDate != null) {
+                query.setParameter("endingDate", endingDate);
+            }
 
-            Order order = loadOrderAvoidingProxyFor(each.getOrderElement());
+            setCriterions(query, criterions);
 
-            // Apply filtering
-            if (matchFilterCriterion(each.getOrderElement(), criterions) && isOrderContained(order, orders)) {
+            ScrollableResults rows = query.setReadOnly(true).setFetchSize(FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    Worker worker = (Worker) rows.get(0);
+                    WorkReportLine line = (WorkReportLine) rows.get(1);
+                    OrderCostsPerResourceDTO each = new OrderCostsPerResourceDTO(worker, line);
 
-                // Attach orderName value
-                each.setOrderName(order.getName());
-                each.setOrderCode(order.getCode());
+                    // Attach orderName value
+                    Order order = orderOfElements.get(line.getOrderElement().getId());
+                    each.setOrderName(order.getName());
+                    each.setOrderCode(order.getCode());
 
-                // Attach calculated pricePerHour
-                BigDecimal pricePerHour = CostCategoryDAO.getPriceByResourceDateAndHourType(
-                        each.getWorker(), new LocalDate(each.getDate()), each.getHoursTypeCode());
+                    // Attach calculated pricePerHour, the default one of the type if not defined via CostCategory
+                    BigDecimal pricePerHour = rateTable.getPriceOrDefault(
+                            worker.getId(), each.getHoursTypeCode(), new LocalDate(each.getDate()));
 
-                if (pricePerHour == null) {
-                    for (TypeOfWorkHours defaultprice : typeOfWorkHoursDAO.list(TypeOfWorkHours.class)) {
-                        if (defaultprice.getCode().equals(each.getHoursTypeCode())) {
-                            pricePerHour = defaultprice.getDefaultPrice();
-                        }
-                    }
+                    each.setCostPerHour(pricePerHour);
+                    each.setCost(each.getCostPerHour().multiply(each.getNumHours()));
+                    result.add(each);
                 }
-
-                each.setCostPerHour(pricePerHour);
-                each.setCost(each.getCostPerHour().multiply(each.getNumHours()));
-                filteredList.add(each);
+            } finally {
+                rows.close();
             }
         }
-        return filteredList;
+        return result;
     }
 
     @Override
     public List<Order> getOrdersByReadAuthorization(User user) {
-        if (user.isInRole(UserRole.ROLE_SUPERUSER) ||
-                user.isInRole(UserRole.ROLE_READ_ALL_PROJECTS) ||
-                user.isInRole(UserRole.ROLE_EDIT_ALL_PROJECTS)) {
+        return findOrders(AuthorizationFilter.read(user), null);
+    }
 
-            return getOrders();
-        }
-        else {
-            List<Order> orders = new ArrayList<>();
-            List<OrderAuthorization> authorizations = orderAuthorizationDAO.listByUserAndItsProfiles(user);
-            for(OrderAuthorization authorization : authorizations) {
+    @Override
+    public List<Order> getOrdersByWriteAuthorization(User user) {
+        return findOrders(AuthorizationFilter.write(user), null);
+    }
 
-                if (authorization.getAuthorizationType() == OrderAuthorizationType.READ_AUTHORIZATION ||
-                        authorization.getAuthorizationType() == OrderAuthorizationType.WRITE_AUTHORIZATION) {
+    /**
+     * Lists the orders with a single query, filtering them by the
+     * authorizations of the user and the scenario inside the database.
+     */
+    private List<Order> findOrders(AuthorizationFilter authorization, Scenario scenario) {
 
-                    Order order = authorization.getOrder();
-                    if (!orders.contains(order)) {
-                        // These lines forces the load of the basic attributes of the order
-                        order.getName();
-                        orders.add(order);
-                    }
-                }
-            }
-            return orders;
+        List<String> conditions = new ArrayList<>();
+        authorization.addCondition(conditions);
+        if (scenario != null) {
+            conditions.add(IN_SCENARIO);
         }
+
+        Query query = getSession().createQuery("SELECT o FROM Order o " + where(conditions) + ORDER_BY_INIT_DATE);
+        authorization.setParameters(query);
+        if (scenario != null) {
+            query.setParameter("scenario", scenario);
+        }
+
+        return query.list();
     }
 
     private List<Order> getOrdersByReadAuthorizationBetweenDatesByLabelsCriteriaCustomerAndState(
             User user,
+            Scenario scenario,
             Date startDate,
             Date endDate,
             List<Label> labels,
@@ -233,106 +329,84 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
             ExternalCompany customer,
             OrderStatusEnum state) {
 
-        List<Long> ordersIdsFiltered = getOrdersIdsFiltered(user, labels, criteria, customer, state);
-        if (ordersIdsFiltered != null && ordersIdsFiltered.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Long> ordersIdsByDates = getOrdersIdsByDates(startDate, endDate);
-        if (ordersIdsByDates != null && ordersIdsByDates.isEmpty()) {
-            return Collections.emptyList();
-        }
-
-        List<Long> ordersIdsUnscheduled = getOrdersIdsUnscheduled(startDate, endDate);
+        AuthorizationFilter authorization = AuthorizationFilter.read(user);
+        boolean filteringByLabels = labels != null && !labels.isEmpty();
+        boolean filteringByCriteria = criteria != null && !criteria.isEmpty();
+        boolean filteringByDates = startDate != null || endDate != null;
 
-        Criteria c = getSession().createCriteria(Order.class);
+        /*
+         * As it has always been done, the unscheduled orders starting between the dates are only
+         * included when neither the authorizations nor the other filters restrict the orders.
+         */
+        boolean includingUnscheduled = filteringByDates && authorization.isUnrestricted() &&
+                !filteringByLabels && !filteringByCriteria && customer == null && state == null;
 
-        if (ordersIdsFiltered != null && ordersIdsByDates != null) {
+        List<String> conditions = new ArrayList<>();
+        authorization.addCondition(conditions);
+        conditions.add(IN_SCENARIO);
 
-            org.hibernate.criterion.Criterion and = Restrictions.and(
-                    Restrictions.in("id", ordersIdsFiltered),
-                    Restrictions.in("id", ordersIdsByDates));
-
-            c.add(and);
-        } else {
-            if (ordersIdsFiltered != null) {
-                c.add(Restrictions.in("id", ordersIdsFiltered));
-            }
-
-            if (ordersIdsByDates != null) {
-                if (ordersIdsUnscheduled.isEmpty()) {
-                    c.add(Restrictions.in("id", ordersIdsByDates));
-                } else {
-                    c.add(Restrictions.or(
-                            Restrictions.in("id", ordersIdsByDates),
-                            Restrictions.in("id", ordersIdsUnscheduled)));
-                }
+        if (filteringByLabels) {
+            for (int i = 0; i < labels.size(); i++) {
+                conditions.add(":label" + i + " IN elements(o.labels)");
             }
         }
 
-        c.addOrder(org.hibernate.criterion.Order.desc("initDate"));
-        c.addOrder(org.hibernate.criterion.Order.asc("infoComponent.name"));
-
-        return c.list();
-    }
-
-    private List<Long> getOrdersIdsUnscheduled(Date startDate, Date endDate) {
-        String strQuery = "SELECT s.orderElement.id " +
-                "FROM SchedulingDataForVersion s " +
-                "WHERE s.schedulingStateType = :type";
-
-        Query query = getSession().createQuery(strQuery);
-        query.setParameter("type", SchedulingState.Type.NO_SCHEDULED);
-
-        List<Long> ordersIdsUnscheduled = query.list();
-        if (ordersIdsUnscheduled.isEmpty()) {
-            return Collections.emptyList();
+        if (filteringByCriteria) {
+            conditions.add("(SELECT count(cr.id) FROM DirectCriterionRequirement cr " +
+                    "WHERE cr.orderElement = o AND cr.criterion IN (:criteria)) = :criteriaSize");
         }
 
-        String strQueryDates = "SELECT o.id " + "FROM Order o " + "WHERE o.id IN (:ids) ";
-
-        if (startDate != null) {
-            strQueryDates += "AND o.initDate >= :startDate ";
-        }
-        if (endDate != null) {
-            strQueryDates += "AND o.initDate <= :endDate ";
+        if (customer != null) {
+            conditions.add("o.customer = :customer");
         }
 
-        Query queryDates = getSession().createQuery(strQueryDates);
-        if (startDate != null) {
-            queryDates.setParameter("startDate", startDate);
-        }
-        if (endDate != null) {
-            queryDates.setParameter("endDate", endDate);
+        if (state != null) {
+            conditions.add("o.state = :state");
+        }
+
+        if (filteringByDates) {
+            String scheduledBetweenDates = "o.id IN (SELECT t.taskSource.schedulingData.orderElement.id " +
+                    "FROM TaskElement t " +
+                    "WHERE t.parent IS NULL " +
+                    (endDate != null ? "AND t.startDate.date <= :endDate " : "") +
+                    (startDate != null ? "AND t.endDate.date >= :startDate " : "") + ")";
+
+            if (includingUnscheduled) {
+                conditions.add("(" + scheduledBetweenDates + " OR (" +
+                        "o.id IN (SELECT s.orderElement.id FROM SchedulingDataForVersion s " +
+                        "WHERE s.schedulingStateType = :unscheduled)" +
+                        (startDate != null ? " AND o.initDate >= :startDateTime" : "") +
+                        (endDate != null ? " AND o.initDate <= :endDateTime" : "") + "))");
+            } else {
+                conditions.add(scheduledBetweenDates);
+            }
         }
-        queryDates.setParameterList("ids", ordersIdsUnscheduled);
 
-        return queryDates.list();
-    }
+        Query query = getSession().createQuery("SELECT o FROM Order o " + where(conditions) + ORDER_BY_INIT_DATE);
 
-    /**
-     * If both params are <code>null</code> it returns <code>null</code>.
-     * Otherwise it filters the list of tasks to return the ones without parent between the dates.
-     */
-    private List<Long> getOrdersIdsByDates(Date startDate, Date endDate) {
-        if (startDate == null && endDate == null) {
-            /* Don't replace null with Collections.emptyList(), as the prompt says (sometimes), because it breaks logic */
-            return null;
-        }
+        authorization.setParameters(query);
+        query.setParameter("scenario", scenario);
 
-        String strQuery = "SELECT t.taskSource.schedulingData.orderElement.id "
-                + "FROM TaskElement t "
-                + "WHERE t.parent IS NULL ";
+        if (filteringByLabels) {
+            int i = 0;
+            for (Label label : labels) {
+                query.setParameter("label" + i, label);
+                i++;
+            }
+        }
 
-        if (endDate != null) {
-            strQuery += "AND t.startDate.date <= :endDate ";
+        if (filteringByCriteria) {
+            query.setParameterList("criteria", criteria);
+            query.setParameter("criteriaSize", (long) criteria.size());
         }
 
-        if (startDate != null) {
-            strQuery += "AND t.endDate.date >= :startDate ";
+        if (customer != null) {
+            query.setParameter("customer", customer);
         }
 
-        Query query = getSession().createQuery(strQuery);
+        if (state != null) {
+            query.setParameter(STATE_PARAMETER, state);
+        }
 
         if (startDate != null) {
             query.setParameter("startDate", LocalDate.fromDateFields(startDate));
@@ -342,162 +416,100 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
             query.setParameter("endDate", LocalDate.fromDateFields(endDate));
         }
 
+        if (includingUnscheduled) {
+            query.setParameter("unscheduled", SchedulingState.Type.NO_SCHEDULED);
+            if (startDate != null) {
+                query.setParameter("startDateTime", startDate);
+            }
+            if (endDate != null) {
+                query.setParameter("endDateTime", endDate);
+            }
+        }
+
         return query.list();
     }
 
+    private static String where(List<String> conditions) {
+        return conditions.isEmpty() ? "" : "WHERE " + StringUtils.join(conditions, " AND ") + " ";
+    }
+
     /**
-     * If user has permissions over all orders and not filters are passed it returns <code>null</code>.
-     * Otherwise, it returns the list of orders
-     * identifiers for which the user has read permissions and the filters pass.
+     * Restricts the orders of a query to the ones a user is authorized on,
+     * directly or through its profiles, unless some role of the user gives
+     * access to all of them.
+     *
+     * It is evaluated by the database as a subquery on
+     * <code>order_authorization</code>, which is indexed by user and by
+     * profile along with the authorization type and the order, so the orders
+     * accessible by a user are read from the indexes and they are always up to
+     * date with the authorizations.
      */
-    private List<Long> getOrdersIdsFiltered(User user,
-                                            List<Label> labels,
-                                            List<Criterion> criteria,
-                                            ExternalCompany customer,
-                                            OrderStatusEnum state) {
-
-        List<Long> ordersIdsByReadAuthorization = getOrdersIdsByReadAuthorization(user);
+    private static class AuthorizationFilter {
 
-        String strQuery = "SELECT o.id ";
-        strQuery += "FROM Order o ";
-
-        String where = "";
-        String whereFinal = "";
-        if (labels != null && !labels.isEmpty()) {
-            for (int i = 0; i < labels.size(); i++) {
-                if (where.isEmpty()) {
-                    where += "WHERE ";
-                } else {
-                    where += "AND ";
-                }
-                where += ":label" + i + " IN elements(o.labels) ";
-            }
+        static AuthorizationFilter none() {
+            return new AuthorizationFilter(null, true, Collections.emptyList());
         }
 
-        if (criteria != null && !criteria.isEmpty()) {
-            strQuery += "JOIN o.criterionRequirements cr ";
-            if (where.isEmpty()) {
-                where += "WHERE ";
-            } else {
-                where += "AND ";
-            }
-            where += "cr.criterion IN (:criteria) ";
-            where += "AND cr.class = DirectCriterionRequirement ";
-            whereFinal += "GROUP BY o.id ";
-            whereFinal += "HAVING count(o.id) = :criteriaSize ";
-        }
+        static AuthorizationFilter read(User user) {
+            boolean readsAll = user.isInRole(UserRole.ROLE_SUPERUSER) ||
+                    user.isInRole(UserRole.ROLE_READ_ALL_PROJECTS) ||
+                    user.isInRole(UserRole.ROLE_EDIT_ALL_PROJECTS);
 
-        if (customer != null) {
-            if (where.isEmpty()) {
-                where += "WHERE ";
-            } else {
-                where += "AND ";
-            }
-            where += "o.customer = :customer ";
+            /* Write authorizations are also counted, because they implicitly suppose read access */
+            return new AuthorizationFilter(user, readsAll, Arrays.asList(
+                    OrderAuthorizationType.READ_AUTHORIZATION, OrderAuthorizationType.WRITE_AUTHORIZATION));
         }
 
-        if (state != null) {
-            if (where.isEmpty()) {
-                where += "WHERE ";
-            } else {
-                where += "AND ";
-            }
-            where += "o.state = :state ";
-        }
+        static AuthorizationFilter write(User user) {
+            boolean writesAll = user.isInRole(UserRole.ROLE_SUPERUSER) ||
+                    user.isInRole(UserRole.ROLE_EDIT_ALL_PROJECTS);
 
-        // If not restrictions by labels, criteria, customer or state
-        if (where.isEmpty()) {
-            return ordersIdsByReadAuthorization;
+            return new AuthorizationFilter(user, writesAll,
+                    Collections.singletonList(OrderAuthorizationType.WRITE_AUTHORIZATION));
         }
 
-        if (ordersIdsByReadAuthorization != null && !ordersIdsByReadAuthorization.isEmpty()) {
-            if (where.isEmpty()) {
-                where += "WHERE ";
-            } else {
-                where += "AND ";
-            }
-            where += "o.id IN (:ids) ";
-        }
+        private final User user;
 
-        strQuery += where + whereFinal;
-        Query query = getSession().createQuery(strQuery);
+        private final boolean unrestricted;
 
-        if (labels != null && !labels.isEmpty()) {
-            int i = 0;
-            for (Label label : labels) {
-                query.setParameter("label" + i, label);
-                i++;
-            }
-        }
+        private final List<OrderAuthorizationType> types;
 
-        if (criteria != null && !criteria.isEmpty()) {
-            query.setParameterList("criteria", criteria);
-            query.setParameter("criteriaSize", (long) criteria.size());
+        private AuthorizationFilter(User user, boolean unrestricted, List<OrderAuthorizationType> types) {
+            this.user = user;
+            this.unrestricted = unrestricted;
+            this.types = types;
         }
 
-        if (customer != null) {
-            query.setParameter("customer", customer);
+        boolean isUnrestricted() {
+            return unrestricted;
         }
 
-        if (state != null) {
-            query.setParameter(STATE_PARAMETER, state);
-        }
+        void addCondition(List<String> conditions) {
+            if (unrestricted) {
+                return;
+            }
 
-        if (ordersIdsByReadAuthorization != null && !ordersIdsByReadAuthorization.isEmpty()) {
-            query.setParameterList("ids", ordersIdsByReadAuthorization);
+            conditions.add("o.id IN (SELECT oa.order.id FROM OrderAuthorization oa " +
+                    "WHERE (oa.user = :user" + (hasProfiles() ? " OR oa.profile IN (:profiles)" : "") + ") " +
+                    "AND oa.authorizationType IN (:authorizationTypes))");
         }
 
-        return query.list();
-    }
-
-    /**
-     * If user has permissions over all orders it returns <code>null</code>.
-     * Otherwise, it returns the list of orders identifiers for which the user has read permissions.
-     */
-    private List<Long> getOrdersIdsByReadAuthorization(User user) {
-        if (user.isInRole(UserRole.ROLE_SUPERUSER) ||
-                user.isInRole(UserRole.ROLE_READ_ALL_PROJECTS) ||
-                user.isInRole(UserRole.ROLE_EDIT_ALL_PROJECTS)) {
-
-            return null;
-        } else {
-            String strQuery = "SELECT oa.order.id " +
-                    "FROM OrderAuthorization oa " +
-                    "WHERE oa.user = :user ";
-
-            if (!user.getProfiles().isEmpty()) {
-                strQuery += "OR oa.profile IN (:profiles) ";
+        void setParameters(Query query) {
+            if (unrestricted) {
+                return;
             }
 
-            Query query = getSession().createQuery(strQuery);
             query.setParameter("user", user);
-            if (!user.getProfiles().isEmpty()) {
+            if (hasProfiles()) {
                 query.setParameterList("profiles", user.getProfiles());
             }
-
-            return query.list();
+            query.setParameterList("authorizationTypes", types);
         }
-    }
 
-    @Override
-    public List<Order> getOrdersByWriteAuthorization(User user) {
-        if (user.isInRole(UserRole.ROLE_SUPERUSER) || user.isInRole(UserRole.ROLE_EDIT_ALL_PROJECTS)) {
-            return getOrders();
-        }
-        else {
-            List<Order> orders = new ArrayList<>();
-            List<OrderAuthorization> authorizations = orderAuthorizationDAO.listByUserAndItsProfiles(user);
-            for(OrderAuthorization authorization : authorizations) {
-                if (authorization.getAuthorizationType() == OrderAuthorizationType.WRITE_AUTHORIZATION) {
-                    Order order = authorization.getOrder();
-                    if (!orders.contains(order)) {
-                        order.getName(); // this lines forces the load of the basic attributes of the order
-                        orders.add(order);
-                    }
-                }
-            }
-            return orders;
+        private boolean hasProfiles() {
+            return !user.getProfiles().isEmpty();
         }
+
     }
 
     @Override
@@ -508,6 +520,11 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
                 .list();
     }
 
+    @Override
+    protected String getCodeProperty() {
+        return "infoComponent.code";
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     @Transactional(readOnly = true)
@@ -538,7 +555,7 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
         } catch (InstanceNotFoundException e) {
             throw new RuntimeException(e);
         }
-        return existsInScenario(getOrdersByReadAuthorization(user), scenario);
+        return findOrders(AuthorizationFilter.read(user), scenario);
     }
 
     @Override
@@ -558,18 +575,8 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
         } catch (InstanceNotFoundException e) {
             throw new RuntimeException(e);
         }
-        return existsInScenario(getOrdersByReadAuthorizationBetweenDatesByLabelsCriteriaCustomerAndState(
-                user, startDate, endDate, labels, criteria, customer, state), scenario);
-    }
-
-    private List<Order> existsInScenario(List<Order> orders, Scenario scenario) {
-        List<Order> result = new ArrayList<>();
-        for (Order each : orders) {
-            if (scenario.contains(each)) {
-                result.add(each);
-            }
-        }
-        return result;
+        return getOrdersByReadAuthorizationBetweenDatesByLabelsCriteriaCustomerAndState(
+                user, scenario, startDate, endDate, labels, criteria, customer, state);
     }
 
     @Transactional(readOnly = true, propagation = Propagation.REQUIRES_NEW)
@@ -599,7 +606,7 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
 
     @Override
     public List<Order> getOrdersByScenario(Scenario scenario) {
-        return existsInScenario(getOrders(), scenario);
+        return findOrders(AuthorizationFilter.none(), scenario);
     }
 
     @Override
@@ -716,12 +723,14 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
     public List<CostExpenseSheetDTO> getCostExpenseSheet(List<Order> orders,
                                                          Date startingDate,
                                                          Date endingDate,
-                                                         List<Criterion> criterions) {
+                                                         List<Criterion> criterions,
+                                                         List<Label> labels) {
+
+        Map<Long, Order> orderOfElements = findOrderOfElements(orders, labels);
 
-        String strQuery = "SELECT new org.libreplan.business.reports.dtos.CostExpenseSheetDTO(expense) " +
-                "FROM OrderElement orderElement, ExpenseSheetLine expense " +
-                "LEFT OUTER JOIN expense.orderElement exp_ord " +
-                "WHERE orderElement.id = exp_ord.id ";
+        String strQuery = "SELECT expense " +
+                "FROM ExpenseSheetLine expense " +
+                "WHERE expense.orderElement.id IN (:orderElements) ";
 
         if (startingDate != null && endingDate != null) {
             strQuery += "AND expense.date BETWEEN :startingDate AND :endingDate ";
@@ -735,33 +744,40 @@ public class OrderDAO extends IntegrationEntityDAO<Order> implements IOrderDAO {
             strQuery += "AND expense.date <= :endingDate ";
         }
 
+        strQuery += criterionsCondition("expense.orderElement.id", criterions);
+
         // Order by date
         strQuery += "ORDER BY expense.date";
 
-        Query query = getSession().createQuery(strQuery);
-
-        // Set parameters
-        if (startingDate != null) {
-            query.setParameter("startingDate", new LocalDate(startingDate));
-        }
+        List<CostExpenseSheetDTO> result = new ArrayList<>();
+        for (List<Long> chunk : inChunks(orderOfElements.keySet())) {
+            Query query = getSession().createQuery(strQuery);
+            query.setParameterList("orderElements", chunk);
 
-        if (endingDate != null) {
-            query.setParameter("endingDate", new LocalDate(endingDate));
-        }
+            // Set parameters
+            if (startingDate != null) {
+                query.setParameter("startingDate", new LocalDate(startingDate));
+            }
 
-        List<CostExpenseSheetDTO> list = query.list();
+            if (endingDate != null) {
+                query.setParameter("endingDate", new LocalDate(endingDate));
+            }
 
-        List<CostExpenseSheetDTO> filteredList = new ArrayList<>();
-        for (CostExpenseSheetDTO each : list) {
-            Order order = loadOrderAvoidingProxyFor(each.getOrderElement());
+            setCriterions(query, criterions);
 
-            // Apply filtering
-            if (matchFilterCriterion(each.getOrderElement(), criterions) && isOrderContained(order, orders)) {
-                each.setOrder(order);
-                filteredList.add(each);
+            ScrollableResults rows = query.setReadOnly(true).setFetchSize(FETCH_SIZE).scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (rows.next()) {
+                    ExpenseSheetLine line = (ExpenseSheetLine) rows.get(0);
+                    CostExpenseSheetDTO each = new CostExpenseSheetDTO(line);
+                    each.setOrder(orderOfElements.get(line.getOrderElement().getId()));
+                    result.add(each);
+                }
+            } finally {
+                rows.close();
             }
         }
-        return filteredList;
+        return result;
     }
 
     @Override
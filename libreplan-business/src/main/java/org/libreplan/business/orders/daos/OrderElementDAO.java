@@ -187,6 +187,11 @@ public class OrderElementDAO extends IntegrationEntityDAO<OrderElement> implemen
                 .list();
     }
 
+    @Override
+    protected String getCodeProperty() {
+        return "infoComponent.code";
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     @Transactional(readOnly = true)
@@ -19,15 +19,18 @@
 
 package org.libreplan.business.orders.daos;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import org.hibernate.SessionFactory;
+import org.apache.commons.lang3.BooleanUtils;
+import org.hibernate.Query;
 import org.hibernate.criterion.Restrictions;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
@@ -35,12 +38,12 @@ import org.libreplan.business.common.daos.GenericDAOHibernate;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.orders.entities.OrderElement;
-import org.libreplan.business.orders.entities.OrderLineGroup;
 import org.libreplan.business.orders.entities.SumChargedEffort;
 import org.libreplan.business.util.Pair;
 import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
 import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workreports.valueobjects.WorkReportLinesSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
@@ -58,8 +61,11 @@ public class SumChargedEffortDAO extends
         GenericDAOHibernate<SumChargedEffort, Long> implements
         ISumChargedEffortDAO {
 
-    @Autowired
-    private SessionFactory sessionFactory;
+    /**
+     * Keeps the <code>IN</code> lists of the queries in a size every database
+     * accepts
+     */
+    private static final int MAX_ELEMENTS_PER_QUERY = 1000;
 
     @Autowired
     private IWorkReportLineDAO workReportLineDAO;
@@ -75,159 +81,135 @@ public class SumChargedEffortDAO extends
 
     private Map<OrderElement, SumChargedEffort> mapSumChargedEfforts;
 
-    @Override
-    public void updateRelatedSumChargedEffortWithWorkReportLineSet(
-            Set<WorkReportLine> workReportLineSet) {
-        resetMapSumChargedEfforts();
-
-        for (WorkReportLine workReportLine : workReportLineSet) {
-            updateRelatedSumChargedEffortWithAddedOrModifiedWorkReportLine(workReportLine);
-        }
-    }
-
-    private void updateRelatedSumChargedEffortWithAddedOrModifiedWorkReportLine(
-            final WorkReportLine workReportLine) {
-        boolean increase = true;
-        boolean sameOrderElement = true;
-        EffortDuration effort = workReportLine.getEffort();
-        OrderElement orderElement = workReportLine.getOrderElement();
-
-        EffortDuration previousEffort = null;
-        OrderElement previousOrderElement = null;
-
-        if (!workReportLine.isNewObject()) {
-            Pair<EffortDuration, OrderElement> previous = transactionService
-                    .runOnAnotherTransaction(new IOnTransaction<Pair<EffortDuration, OrderElement>>() {
-                        @Override
-                        public Pair<EffortDuration, OrderElement> execute() {
-                            try {
-                                WorkReportLine line = workReportLineDAO
-                                        .find(workReportLine.getId());
-
-                                OrderElement orderElement = line
-                                        .getOrderElement();
-                                forceLoadParents(orderElement);
-
-                                return Pair.create(line.getEffort(),
-                                        orderElement);
-                            } catch (InstanceNotFoundException e) {
-                                throw new RuntimeException(e);
-                            }
-                        }
-
-                        private void forceLoadParents(OrderElement orderElement) {
-                            OrderLineGroup parent = orderElement.getParent();
-                            if (parent != null) {
-                                forceLoadParents(parent);
-                            }
-                        }
+    /**
+     * The values of a {@link WorkReportLine} stored in the database
+     */
+    private static class PersistedLine {
 
-                    });
+        private final EffortDuration effort;
 
-            previousEffort = previous.getFirst();
-            previousOrderElement = previous.getSecond();
+        private final Long orderElementId;
 
-            sameOrderElement = orderElement.getId().equals(
-                    previousOrderElement.getId());
-        }
+        private final Date date;
 
-        if (sameOrderElement) {
-            if (previousEffort != null) {
-                if (effort.compareTo(previousEffort) >= 0) {
-                    effort = effort.minus(previousEffort);
-                } else {
-                    increase = false;
-                    effort = previousEffort.minus(effort);
-                }
-            }
+        private final boolean finished;
 
-            if (!effort.isZero()) {
-                if (increase) {
-                    addDirectChargedEffort(orderElement, effort);
-                } else {
-                    substractDirectChargedEffort(orderElement, effort);
-                }
-            }
-        } else {
-            substractDirectChargedEffort(previousOrderElement, previousEffort);
-            addDirectChargedEffort(orderElement, effort);
+        private PersistedLine(EffortDuration effort, Long orderElementId,
+                Date date, boolean finished) {
+            this.effort = effort;
+            this.orderElementId = orderElementId;
+            this.date = date;
+            this.finished = finished;
         }
-    }
-
-    private void addDirectChargedEffort(OrderElement orderElement,
-            EffortDuration effort) {
-        SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
 
-        sumChargedEffort.addDirectChargedEffort(effort);
-        save(sumChargedEffort);
-
-        addInirectChargedEffortRecursively(orderElement.getParent(), effort);
     }
 
-    private void addInirectChargedEffortRecursively(OrderElement orderElement,
-            EffortDuration effort) {
-        if (orderElement != null) {
-            SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
-
-            sumChargedEffort.addIndirectChargedEffort(effort);
-            save(sumChargedEffort);
+    @Override
+    public void updateRelatedSumChargedEffortWithWorkReportLineSet(
+            Set<WorkReportLine> workReportLineSet) {
+        Map<Long, PersistedLine> persistedLines = findPersistedLines(workReportLineSet);
 
-            addInirectChargedEffortRecursively(orderElement.getParent(), effort);
+        ChargedEffortChanges changes = new ChargedEffortChanges();
+        for (WorkReportLine workReportLine : workReportLineSet) {
+            PersistedLine previous = persistedLines.get(workReportLine.getId());
+            if (previous != null) {
+                changes.subtract(findOrderElement(previous), previous.effort);
+            }
+            changes.add(workReportLine.getOrderElement(),
+                    workReportLine.getEffort(), workReportLine.getDate(),
+                    BooleanUtils.isTrue(workReportLine.isFinished()));
         }
+        apply(changes);
     }
 
     @Override
     public void updateRelatedSumChargedEffortWithDeletedWorkReportLineSet(
             Set<WorkReportLine> workReportLineSet) {
-        resetMapSumChargedEfforts();
-
-        for (WorkReportLine workReportLine : workReportLineSet) {
-            updateRelatedSumChargedEffortWithDeletedWorkReportLine(workReportLine);
+        // The values saved in the database are the ones to subtract, the
+        // changes not saved are not useful. If the line hasn't been saved, we
+        // have nothing to update
+        Map<Long, PersistedLine> persistedLines = findPersistedLines(workReportLineSet);
+
+        ChargedEffortChanges changes = new ChargedEffortChanges();
+        for (PersistedLine each : persistedLines.values()) {
+            changes.subtract(findOrderElement(each), each.effort);
         }
+        apply(changes);
     }
 
-    private void resetMapSumChargedEfforts() {
-        mapSumChargedEfforts = new HashMap<OrderElement, SumChargedEffort>();
-    }
-
-    private void updateRelatedSumChargedEffortWithDeletedWorkReportLine(
-            WorkReportLine workReportLine) {
-        if (workReportLine.isNewObject()) {
-            // If the line hasn't been saved, we have nothing to update
-            return;
+    /**
+     * Retrieves the values stored in the database of the lines already saved
+     * with a query per chunk of lines. It's done on another transaction, so
+     * the pending changes of the lines are not flushed before.
+     */
+    private Map<Long, PersistedLine> findPersistedLines(
+            Collection<WorkReportLine> workReportLines) {
+        final List<Long> ids = new ArrayList<Long>();
+        for (WorkReportLine each : workReportLines) {
+            if (!each.isNewObject()) {
+                ids.add(each.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Collections.emptyMap();
         }
 
-        // Refresh data from database, because of changes not saved are not
-        // useful for the following operations
-        sessionFactory.getCurrentSession().refresh(workReportLine);
-
-        substractDirectChargedEffort(workReportLine.getOrderElement(),
-                workReportLine.getEffort());
+        return transactionService
+                .runOnAnotherTransaction(new IOnTransaction<Map<Long, PersistedLine>>() {
+                    @Override
+                    public Map<Long, PersistedLine> execute() {
+                        Map<Long, PersistedLine> result = new HashMap<Long, PersistedLine>();
+                        for (int i = 0; i < ids.size(); i += MAX_ELEMENTS_PER_QUERY) {
+                            Query query = getSession().createQuery(
+                                    "SELECT wrl.id, wrl.effort, wrl.orderElement.id, wrl.date, wrl.finished "
+                                            + "FROM WorkReportLine wrl WHERE wrl.id IN (:ids)");
+                            query.setParameterList("ids", ids.subList(i,
+                                    Math.min(ids.size(), i + MAX_ELEMENTS_PER_QUERY)));
+
+                            for (Object each : query.list()) {
+                                Object[] row = (Object[]) each;
+                                result.put((Long) row[0], new PersistedLine(
+                                        (EffortDuration) row[1], (Long) row[2],
+                                        (Date) row[3], BooleanUtils.isTrue((Boolean) row[4])));
+                            }
+                        }
+                        return result;
+                    }
+                });
     }
 
-    private void substractDirectChargedEffort(OrderElement orderElement,
-            EffortDuration effort) {
-        SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
-
-        sumChargedEffort.subtractDirectChargedEffort(effort);
-        save(sumChargedEffort);
-
-        substractInirectChargedEffortRecursively(orderElement.getParent(),
-                effort);
+    private OrderElement findOrderElement(PersistedLine persistedLine) {
+        try {
+            return orderElementDAO.find(persistedLine.orderElementId);
+        } catch (InstanceNotFoundException e) {
+            throw new RuntimeException(e);
+        }
     }
 
-    private void substractInirectChargedEffortRecursively(OrderElement orderElement,
-            EffortDuration effort) {
-        if (orderElement != null) {
-            SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
+    /**
+     * Updates and saves once the {@link SumChargedEffort} of each order element
+     * affected by the changes
+     */
+    private void apply(ChargedEffortChanges changes) {
+        resetMapSumChargedEfforts();
+        if (changes.isEmpty()) {
+            return;
+        }
 
-            sumChargedEffort.subtractIndirectChargedEffort(effort);
+        List<OrderElement> orderElements = new ArrayList<OrderElement>(
+                changes.getAffectedOrderElements());
+        loadSumChargedEfforts(orderElements);
+        for (OrderElement each : orderElements) {
+            SumChargedEffort sumChargedEffort = getByOrderElement(each);
+            changes.applyTo(each, sumChargedEffort);
             save(sumChargedEffort);
-
-            substractInirectChargedEffortRecursively(orderElement.getParent(), effort);
         }
     }
 
+    private void resetMapSumChargedEfforts() {
+        mapSumChargedEfforts = new HashMap<OrderElement, SumChargedEffort>();
+    }
+
     private SumChargedEffort getByOrderElement(OrderElement orderElement) {
         SumChargedEffort sumChargedEffort = mapSumChargedEfforts
                 .get(orderElement);
@@ -253,69 +235,89 @@ public class SumChargedEffortDAO extends
     public void recalculateSumChargedEfforts(Long orderId) {
         try {
             Order order = orderDAO.find(orderId);
+
+            List<OrderElement> orderElements = new ArrayList<OrderElement>();
+            orderElements.add(order);
+            orderElements.addAll(order.getAllChildren());
+
             resetMapSumChargedEfforts();
-            resetSumChargedEffort(order);
-            calculateDirectChargedEffort(order);
-            calculateTimesheetData(order);
+            loadSumChargedEfforts(orderElements);
+            recalculateBottomUp(order,
+                    workReportLineDAO.findSummariesByOrderElements(orderElements));
         } catch (InstanceNotFoundException e) {
             throw new RuntimeException(e);
         }
     }
 
-    private void resetSumChargedEffort(OrderElement orderElement) {
-        SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
-        sumChargedEffort.reset();
-
-        for (OrderElement each : orderElement.getChildren()) {
-            resetSumChargedEffort(each);
-        }
-    }
-
-    private void calculateDirectChargedEffort(OrderElement orderElement) {
-        for (OrderElement each : orderElement.getChildren()) {
-            calculateDirectChargedEffort(each);
+    /**
+     * Puts in the map the {@link SumChargedEffort} of every order element,
+     * retrieving the existent ones with a query per chunk of elements and
+     * creating the missing ones
+     */
+    @SuppressWarnings("unchecked")
+    private void loadSumChargedEfforts(List<OrderElement> orderElements) {
+        Map<Long, SumChargedEffort> existent = new HashMap<Long, SumChargedEffort>();
+        for (int i = 0; i < orderElements.size(); i += MAX_ELEMENTS_PER_QUERY) {
+            List<OrderElement> chunk = orderElements.subList(i,
+                    Math.min(orderElements.size(), i + MAX_ELEMENTS_PER_QUERY));
+
+            for (SumChargedEffort each : (List<SumChargedEffort>) getSession()
+                    .createCriteria(getEntityClass())
+                    .add(Restrictions.in("orderElement", chunk)).list()) {
+                existent.put(each.getOrderElement().getId(), each);
+            }
         }
 
-        EffortDuration effort = EffortDuration.zero();
-        for (WorkReportLine line : workReportLineDAO
-                .findByOrderElement(orderElement)) {
-            effort = effort.plus(line.getEffort());
+        for (OrderElement each : orderElements) {
+            SumChargedEffort sumChargedEffort = existent.get(each.getId());
+            mapSumChargedEfforts.put(each,
+                    sumChargedEffort != null ? sumChargedEffort
+                            : SumChargedEffort.create(each));
         }
-        addDirectChargedEffort(orderElement, effort);
     }
 
-    private void calculateTimesheetData(OrderElement orderElement) {
-        calculateTimesheetDatesAndChildren(orderElement);
-        calculateFinishedTimesheetsAndChildren(orderElement);
-    }
-
-    private Pair<Date, Date> calculateTimesheetDatesAndChildren(
-            OrderElement orderElement) {
-        Pair<Date, Date> minMax = workReportLineDAO
-                .findMinAndMaxDatesByOrderElement(orderElement);
-
+    /**
+     * Calculates the {@link SumChargedEffort} of the children before the one of
+     * their parent, that adds their totals as indirect effort and takes their
+     * timesheet dates into account. The entities are saved and the session
+     * sends the updates in JDBC batches.
+     */
+    private SumChargedEffort recalculateBottomUp(OrderElement orderElement,
+            Map<Long, WorkReportLinesSummary> summaries) {
+        WorkReportLinesSummary summary = summaries.get(orderElement.getId());
+
+        EffortDuration indirectEffort = EffortDuration.zero();
         Set<Date> minDates = new HashSet<Date>();
         Set<Date> maxDates = new HashSet<Date>();
-
-        addIfNotNull(minDates, minMax.getFirst());
-        addIfNotNull(maxDates, minMax.getSecond());
+        if (summary != null) {
+            addIfNotNull(minDates, summary.getFirstDate());
+            addIfNotNull(maxDates, summary.getLastDate());
+        }
 
         for (OrderElement child : orderElement.getChildren()) {
-            Pair<Date, Date> minMaxChild = calculateTimesheetDatesAndChildren(child);
-            addIfNotNull(minDates, minMaxChild.getFirst());
-            addIfNotNull(maxDates, minMaxChild.getSecond());
+            SumChargedEffort childSumChargedEffort = recalculateBottomUp(child,
+                    summaries);
+            indirectEffort = indirectEffort.plus(childSumChargedEffort
+                    .getTotalChargedEffort());
+            addIfNotNull(minDates,
+                    childSumChargedEffort.getFirstTimesheetDate());
+            addIfNotNull(maxDates, childSumChargedEffort.getLastTimesheetDate());
         }
 
-        Pair<Date, Date> result = Pair.create(
+        SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
+        sumChargedEffort.reset();
+        if (summary != null) {
+            sumChargedEffort.addDirectChargedEffort(summary.getEffort());
+        }
+        sumChargedEffort.addIndirectChargedEffort(indirectEffort);
+        sumChargedEffort.setTimesheetDates(
                 minDates.isEmpty() ? null : Collections.min(minDates),
                 maxDates.isEmpty() ? null : Collections.max(maxDates));
-
-        SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
-        sumChargedEffort.setTimesheetDates(result.getFirst(),
-                result.getSecond());
+        sumChargedEffort.setFinishedTimesheets(summary != null
+                && summary.isFinished());
         save(sumChargedEffort);
 
-        return result;
+        return sumChargedEffort;
     }
 
     private void addIfNotNull(Collection<Date> list, Date date) {
@@ -324,15 +326,6 @@ public class SumChargedEffortDAO extends
         }
     }
 
-    private void calculateFinishedTimesheetsAndChildren(
-            OrderElement orderElement) {
-        calculateFinishedTimesheets(orderElement);
-
-        for (OrderElement child : orderElement.getChildren()) {
-            calculateFinishedTimesheetsAndChildren(child);
-        }
-    }
-
     private void calculateFinishedTimesheets(OrderElement orderElement) {
         SumChargedEffort sumChargedEffort = getByOrderElement(orderElement);
         sumChargedEffort.setFinishedTimesheets(workReportLineDAO
@@ -345,51 +338,81 @@ public class SumChargedEffortDAO extends
     public Set<OrderElement> getOrderElementsToRecalculateTimsheetDates(
             Set<WorkReportLine> workReportLines,
             Set<WorkReportLine> deletedWorkReportLines) {
+        Set<WorkReportLine> allLines = new HashSet<WorkReportLine>();
+        if (workReportLines != null) {
+            allLines.addAll(workReportLines);
+        }
+        if (deletedWorkReportLines != null) {
+            allLines.addAll(deletedWorkReportLines);
+        }
+        Map<Long, PersistedLine> persistedLines = findPersistedLines(allLines);
+
         Set<OrderElement> orderElements = new HashSet<OrderElement>();
 
         if (workReportLines != null) {
-            for (final WorkReportLine workReportLine : workReportLines) {
-                if (!workReportLine.isNewObject()) {
-                    OrderElement previousOrderElement = transactionService
-                            .runOnAnotherTransaction(new IOnTransaction<OrderElement>() {
-                                @Override
-                                public OrderElement execute() {
-                                    try {
-                                        WorkReportLine line = workReportLineDAO
-                                                .find(workReportLine.getId());
-
-                                        return line.getOrderElement();
-                                    } catch (InstanceNotFoundException e) {
-                                        throw new RuntimeException(e);
-                                    }
-                                }
-                            });
-                    orderElements.add(previousOrderElement);
+            for (WorkReportLine workReportLine : workReportLines) {
+                PersistedLine previous = persistedLines.get(workReportLine.getId());
+                if (previous != null && leavesItsData(previous, workReportLine)) {
+                    addIfBoundaryIsRemoved(orderElements, previous);
                 }
-                orderElements.add(workReportLine.getOrderElement());
             }
         }
 
         if (deletedWorkReportLines != null) {
             for (WorkReportLine workReportLine : deletedWorkReportLines) {
-                if (workReportLine.isNewObject()) {
-                    // If the line hasn't been saved, we don't take it into
-                    // account
-                    continue;
+                PersistedLine previous = persistedLines.get(workReportLine.getId());
+                if (previous != null) {
+                    addIfBoundaryIsRemoved(orderElements, previous);
                 }
-
-                // Refresh data from database, because of changes not saved are
-                // not
-                // useful for the following operations
-                sessionFactory.getCurrentSession().refresh(workReportLine);
-
-                orderElements.add(workReportLine.getOrderElement());
             }
         }
 
         return orderElements;
     }
 
+    /**
+     * Checks if the date or finished flag that the line had in the database
+     * stop counting for its previous order element
+     */
+    private boolean leavesItsData(PersistedLine previous,
+            WorkReportLine workReportLine) {
+        return !previous.orderElementId.equals(workReportLine.getOrderElement().getId())
+                || !sameDate(previous.date, workReportLine.getDate())
+                || previous.finished && !BooleanUtils.isTrue(workReportLine.isFinished());
+    }
+
+    private static boolean sameDate(Date one, Date other) {
+        if (one == null || other == null) {
+            return one == other;
+        }
+        return one.getTime() == other.getTime();
+    }
+
+    /**
+     * The timesheet data grow incrementally with the new lines, but if the
+     * removed line has the first or last date or is finished, the lines left
+     * must be queried again
+     */
+    private void addIfBoundaryIsRemoved(Set<OrderElement> orderElements,
+            PersistedLine removed) {
+        OrderElement orderElement = findOrderElement(removed);
+        SumChargedEffort sumChargedEffort = orderElement.getSumChargedEffort();
+
+        if (sumChargedEffort == null || removed.finished
+                || isBoundary(removed.date, sumChargedEffort)) {
+            orderElements.add(orderElement);
+        }
+    }
+
+    private static boolean isBoundary(Date date, SumChargedEffort sumChargedEffort) {
+        Date first = sumChargedEffort.getFirstTimesheetDate();
+        Date last = sumChargedEffort.getLastTimesheetDate();
+
+        return date == null || first == null || last == null
+                || date.getTime() <= first.getTime()
+                || date.getTime() >= last.getTime();
+    }
+
     @Override
     @Transactional
     public void recalculateTimesheetData(Set<OrderElement> orderElements) {
@@ -43,6 +43,7 @@ import org.libreplan.business.advance.bootstrap.PredefinedAdvancedTypes;
 import org.libreplan.business.advance.entities.AdvanceType;
 import org.libreplan.business.advance.entities.DirectAdvanceAssignment;
 import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.common.ILastModificationDateTracked;
 import org.libreplan.business.common.Registry;
 import org.libreplan.business.common.entities.EntitySequence;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
@@ -73,7 +74,7 @@ import org.libreplan.business.util.deepcopy.DeepCopy;
  * @author Óscar González Fernández <ogonzalez@igalia.com>
  * @author Manuel Rego Casasnovas <rego@igalia.com>
  */
-public class Order extends OrderLineGroup implements Comparable {
+public class Order extends OrderLineGroup implements Comparable, ILastModificationDateTracked {
 
     private String responsible;
 
@@ -125,6 +126,8 @@ public class Order extends OrderLineGroup implements Comparable {
 
     private Integer budgetMargin;
 
+    private Date lastModificationDate;
+
 
     public Order() {
         /**
@@ -699,6 +702,16 @@ public class Order extends OrderLineGroup implements Comparable {
         this.budgetMargin = budgetMargin;
     }
 
+    @Override
+    public Date getLastModificationDate() {
+        return lastModificationDate;
+    }
+
+    @Override
+    public void setLastModificationDate(Date lastModificationDate) {
+        this.lastModificationDate = lastModificationDate;
+    }
+
     @Override
     public boolean isOrder() {
         return true;
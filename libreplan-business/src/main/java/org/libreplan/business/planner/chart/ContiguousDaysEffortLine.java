@@ -0,0 +1,267 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.planner.chart;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.EpochDays;
+
+/**
+ * Specialization of {@link ContiguousDaysLine} for {@link EffortDuration}
+ * values. The efforts are kept as seconds in an <code>int</code> array, so the
+ * operations between lines are plain loops over arrays that don't allocate
+ * anything.
+ * <p>
+ * The operations ending in <code>InSitu</code> modify this line. The lines
+ * returned by {@link #subInterval(LocalDate, LocalDate)} share the values with
+ * the original line, so they are cheap to obtain but a modification on one of
+ * them is seen by the other.
+ * </p>
+ */
+public class ContiguousDaysEffortLine {
+
+    public static ContiguousDaysEffortLine create(LocalDate fromInclusive, LocalDate endExclusive) {
+        if ( fromInclusive.isAfter(endExclusive) ) {
+            throw new IllegalArgumentException(
+                    "fromInclusive (" + fromInclusive + ") is after endExclusive (" + endExclusive + ")");
+        }
+        int size = EpochDays.daysBetween(fromInclusive, endExclusive);
+
+        return new ContiguousDaysEffortLine(fromInclusive, new int[size], 0, size);
+    }
+
+    /**
+     * Creates a line using the given array as storage, without copying it
+     *
+     * @param seconds
+     *            the effort in seconds of each day starting from
+     *            <code>fromInclusive</code>
+     */
+    public static ContiguousDaysEffortLine wrap(LocalDate fromInclusive, int[] seconds) {
+        Validate.notNull(fromInclusive);
+        Validate.notNull(seconds);
+
+        return new ContiguousDaysEffortLine(fromInclusive, seconds, 0, seconds.length);
+    }
+
+    /**
+     * Converts a boxed line. The days without value are considered zero.
+     */
+    public static ContiguousDaysEffortLine from(ContiguousDaysLine<EffortDuration> line) {
+        if ( line.isNotValid() ) {
+            return invalid();
+        }
+        ContiguousDaysEffortLine result = create(line.getStart(), line.getEndExclusive());
+        int i = 0;
+        for (ContiguousDaysLine.OnDay<EffortDuration> each : line) {
+            EffortDuration value = each.getValue();
+            result.seconds[i++] = value == null ? 0 : value.getSeconds();
+        }
+
+        return result;
+    }
+
+    public static ContiguousDaysEffortLine invalid() {
+        return new ContiguousDaysEffortLine(null, new int[0], 0, 0);
+    }
+
+    public static ContiguousDaysEffortLine min(ContiguousDaysEffortLine a, ContiguousDaysEffortLine b) {
+        return a.copy().minInSitu(b);
+    }
+
+    public static ContiguousDaysEffortLine sum(ContiguousDaysEffortLine a, ContiguousDaysEffortLine b) {
+        return a.copy().sumInSitu(b);
+    }
+
+    /**
+     * @see #subtractInSitu(ContiguousDaysEffortLine)
+     */
+    public static ContiguousDaysEffortLine subtract(ContiguousDaysEffortLine minuend,
+                                                    ContiguousDaysEffortLine subtrahend) {
+        return minuend.copy().subtractInSitu(subtrahend);
+    }
+
+    private final LocalDate startInclusive;
+
+    private final int startEpochDay;
+
+    private final int[] seconds;
+
+    private final int offset;
+
+    private final int size;
+
+    private ContiguousDaysEffortLine(LocalDate startInclusive, int[] seconds, int offset, int size) {
+        this.startInclusive = startInclusive;
+        this.startEpochDay = startInclusive == null ? 0 : EpochDays.of(startInclusive);
+        this.seconds = seconds;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    public boolean isNotValid() {
+        return startInclusive == null;
+    }
+
+    private void mustBeValid() {
+        if ( isNotValid() ) {
+            throw new IllegalStateException("this line is invalid");
+        }
+    }
+
+    public LocalDate getStart() {
+        mustBeValid();
+
+        return startInclusive;
+    }
+
+    public LocalDate getEndExclusive() {
+        return getStart().plusDays(size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private int indexOf(LocalDate day) {
+        Validate.notNull(day);
+        mustBeValid();
+        int result = EpochDays.of(day) - startEpochDay;
+        if ( result < 0 || result >= size ) {
+            throw new IndexOutOfBoundsException(day + " is not in [" + startInclusive + ", " + getEndExclusive() + ")");
+        }
+
+        return offset + result;
+    }
+
+    public int getSeconds(LocalDate day) throws IndexOutOfBoundsException {
+        return seconds[indexOf(day)];
+    }
+
+    public EffortDuration get(LocalDate day) throws IndexOutOfBoundsException {
+        return EffortDuration.seconds(getSeconds(day));
+    }
+
+    public void set(LocalDate day, EffortDuration value) throws IndexOutOfBoundsException {
+        Validate.notNull(value);
+        seconds[indexOf(day)] = value.getSeconds();
+    }
+
+    public void add(LocalDate day, EffortDuration value) throws IndexOutOfBoundsException {
+        Validate.notNull(value);
+        seconds[indexOf(day)] += value.getSeconds();
+    }
+
+    private void mustHaveSameDays(ContiguousDaysEffortLine other) {
+        Validate.isTrue(isNotValid() == other.isNotValid() && startEpochDay == other.startEpochDay
+                && size == other.size, "both lines must have the same days");
+    }
+
+    public ContiguousDaysEffortLine sumInSitu(ContiguousDaysEffortLine other) {
+        mustHaveSameDays(other);
+        int[] a = seconds;
+        int[] b = other.seconds;
+        int aOffset = offset;
+        int bOffset = other.offset;
+        for (int i = 0; i < size; i++) {
+            a[aOffset + i] += b[bOffset + i];
+        }
+
+        return this;
+    }
+
+    public ContiguousDaysEffortLine minInSitu(ContiguousDaysEffortLine other) {
+        mustHaveSameDays(other);
+        int[] a = seconds;
+        int[] b = other.seconds;
+        int aOffset = offset;
+        int bOffset = other.offset;
+        for (int i = 0; i < size; i++) {
+            a[aOffset + i] = Math.min(a[aOffset + i], b[bOffset + i]);
+        }
+
+        return this;
+    }
+
+    /**
+     * Subtracts the other line from this one. An effort can't be negative, so
+     * the days the subtrahend is bigger become zero.
+     */
+    public ContiguousDaysEffortLine subtractInSitu(ContiguousDaysEffortLine subtrahend) {
+        mustHaveSameDays(subtrahend);
+        int[] a = seconds;
+        int[] b = subtrahend.seconds;
+        int aOffset = offset;
+        int bOffset = subtrahend.offset;
+        for (int i = 0; i < size; i++) {
+            a[aOffset + i] = Math.max(a[aOffset + i] - b[bOffset + i], 0);
+        }
+
+        return this;
+    }
+
+    /**
+     * @return a view of the days of this line in the given interval, or an
+     *         invalid line if they don't overlap. A <code>null</code> limit
+     *         keeps the one of this line.
+     */
+    public ContiguousDaysEffortLine subInterval(LocalDate startInclusive, LocalDate endExclusive) {
+        if ( isNotValid() ) {
+            return invalid();
+        }
+        int from = startInclusive == null ? 0 : Math.max(0, EpochDays.of(startInclusive) - startEpochDay);
+        int to = endExclusive == null ? size : Math.min(size, EpochDays.of(endExclusive) - startEpochDay);
+        if ( from >= to ) {
+            return invalid();
+        }
+
+        return new ContiguousDaysEffortLine(this.startInclusive.plusDays(from), seconds, offset + from, to - from);
+    }
+
+    public ContiguousDaysEffortLine copy() {
+        return new ContiguousDaysEffortLine(startInclusive, Arrays.copyOfRange(seconds, offset, offset + size), 0, size);
+    }
+
+    /**
+     * Converts the line to the representation used by the charts. It should be
+     * done only when the values are going to be shown.
+     */
+    public SortedMap<LocalDate, EffortDuration> toSortedMap() {
+        SortedMap<LocalDate, EffortDuration> result = new TreeMap<>();
+        LocalDate day = startInclusive;
+        for (int i = 0; i < size; i++) {
+            result.put(day, EffortDuration.seconds(seconds[offset + i]));
+            day = day.plusDays(1);
+        }
+
+        return result;
+    }
+
+}
@@ -339,6 +339,25 @@ public class ContiguousDaysLine<T> implements Iterable<OnDay<T>> {
         return result;
     }
 
+    /**
+     * Like {@link #transform(IValueTransformer)} but the efforts are put
+     * directly in a {@link ContiguousDaysEffortLine}, without boxing them in
+     * an intermediate line.
+     */
+    public ContiguousDaysEffortLine toEffortLine(
+            IValueTransformer<T, EffortDuration> transformer) {
+        if (isNotValid()) {
+            return ContiguousDaysEffortLine.invalid();
+        }
+        int[] seconds = new int[values.size()];
+        int i = 0;
+        for (OnDay<T> onDay : this) {
+            seconds[i++] = transformer.transform(onDay.getDay(),
+                    onDay.getValue()).getSeconds();
+        }
+        return ContiguousDaysEffortLine.wrap(startInclusive, seconds);
+    }
+
     public ContiguousDaysLine<T> copy() {
         return transform(ContiguousDaysLine.<T> identity());
     }
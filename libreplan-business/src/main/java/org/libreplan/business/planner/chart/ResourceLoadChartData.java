@@ -22,8 +22,6 @@
 package org.libreplan.business.planner.chart;
 
 import static org.libreplan.business.planner.chart.ContiguousDaysLine.compound;
-import static org.libreplan.business.planner.chart.ContiguousDaysLine.sum;
-import static org.libreplan.business.planner.chart.ContiguousDaysLine.toSortedMap;
 import static org.libreplan.business.workingday.EffortDuration.min;
 
 import java.util.Collection;
@@ -33,7 +31,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
-import java.util.SortedMap;
 
 import org.joda.time.LocalDate;
 import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
@@ -42,6 +39,7 @@ import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workingday.EffortDuration.IEffortFrom;
+import org.libreplan.business.workingday.EpochDays;
 import org.libreplan.business.workingday.IntraDayDate.PartialDay;
 
 /**
@@ -55,11 +53,11 @@ import org.libreplan.business.workingday.IntraDayDate.PartialDay;
  */
 public class ResourceLoadChartData implements ILoadChartData {
 
-    private SortedMap<LocalDate, EffortDuration> load;
+    private ContiguousDaysEffortLine load;
 
-    private SortedMap<LocalDate, EffortDuration> overload;
+    private ContiguousDaysEffortLine overload;
 
-    private SortedMap<LocalDate, EffortDuration> availability;
+    private ContiguousDaysEffortLine availability;
 
     public ResourceLoadChartData(List<DayAssignment> dayAssignments, List<Resource> resources) {
         this(dayAssignments, resources, null, null);
@@ -76,16 +74,9 @@ public class ResourceLoadChartData implements ILoadChartData {
             assignments = assignments.subInterval(startInclusive, endExclusive);
         }
 
-        ContiguousDaysLine<EffortDuration> load = assignments.transform(extractLoad());
-
-        ContiguousDaysLine<EffortDuration> overload = assignments.transform(extractOverload());
-
-        ContiguousDaysLine<EffortDuration> availabilityOnAllResources =
-                assignments.transform(extractAvailabilityOnAllResources(resources));
-
-        this.load = toSortedMap(ContiguousDaysLine.min(load, availabilityOnAllResources));
-        this.overload = toSortedMap(sum(overload, availabilityOnAllResources));
-        this.availability = toSortedMap(availabilityOnAllResources);
+        this.availability = availabilityOnAllResources(assignments, resources);
+        this.load = assignments.toEffortLine(extractLoad()).minInSitu(availability);
+        this.overload = assignments.toEffortLine(extractOverload()).sumInSitu(availability);
     }
 
     public static IValueTransformer<List<DayAssignment>, EffortDuration> extractOverload() {
@@ -157,30 +148,55 @@ public class ResourceLoadChartData implements ILoadChartData {
         };
     }
 
-    private IValueTransformer<List<DayAssignment>, EffortDuration> extractAvailabilityOnAllResources(
-            final List<Resource> resources) {
+    /**
+     * The capacities of all the resources are calculated at once for the whole line.
+     */
+    private static ContiguousDaysEffortLine availabilityOnAllResources(
+            ContiguousDaysLine<List<DayAssignment>> line, List<Resource> resources) {
 
-        return new IValueTransformer<List<DayAssignment>, EffortDuration>() {
+        if (line.isNotValid()) {
+            return ContiguousDaysEffortLine.invalid();
+        }
 
-            @Override
-            public EffortDuration transform(LocalDate day, List<DayAssignment> previousValue) {
-                return sumCalendarCapacitiesForDay(resources, day);
+        return ContiguousDaysEffortLine.wrap(
+                line.getStart(), sumCalendarCapacitiesBetween(resources, line.getStart(), line.getEndExclusive()));
+    }
+
+    private static int[] sumCalendarCapacitiesBetween(Collection<? extends Resource> resources,
+                                                      LocalDate startInclusive,
+                                                      LocalDate endExclusive) {
+
+        long[] sums = new long[EpochDays.daysBetween(startInclusive, endExclusive)];
+        for (Resource each : resources) {
+            int[] capacities = each.getCalendarOrDefault().getCapacitiesBetween(startInclusive, endExclusive);
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += capacities[i];
             }
-        };
+        }
+
+        int[] result = new int[sums.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = EffortDuration.seconds(sums[i]).getSeconds();
+        }
+        return result;
     }
 
-    public SortedMap<LocalDate, EffortDuration> getLoad() {
+    public ContiguousDaysEffortLine getLoad() {
         return load;
     }
 
-    public SortedMap<LocalDate, EffortDuration> getOverload() {
+    public ContiguousDaysEffortLine getOverload() {
         return overload;
     }
 
-    public SortedMap<LocalDate, EffortDuration> getAvailability() {
+    public ContiguousDaysEffortLine getAvailability() {
         return availability;
     }
 
+    /**
+     * @return a view of the data between the given dates. A <code>null</code>
+     *         date doesn't limit that side
+     */
     public ILoadChartData on(final LocalDate startInclusive, final LocalDate endExclusive) {
 
         final ResourceLoadChartData original = ResourceLoadChartData.this;
@@ -192,30 +208,18 @@ public class ResourceLoadChartData implements ILoadChartData {
         return new ILoadChartData() {
 
             @Override
-            public SortedMap<LocalDate, EffortDuration> getOverload() {
-                return filter(original.getOverload());
+            public ContiguousDaysEffortLine getOverload() {
+                return original.getOverload().subInterval(startInclusive, endExclusive);
             }
 
             @Override
-            public SortedMap<LocalDate, EffortDuration> getLoad() {
-                return filter(original.getLoad());
+            public ContiguousDaysEffortLine getLoad() {
+                return original.getLoad().subInterval(startInclusive, endExclusive);
             }
 
             @Override
-            public SortedMap<LocalDate, EffortDuration> getAvailability() {
-                return filter(original.getAvailability());
-            }
-
-            private SortedMap<LocalDate, EffortDuration> filter(SortedMap<LocalDate, EffortDuration> map) {
-                if (startInclusive != null) {
-                    return map.tailMap(startInclusive);
-                }
-
-                if (endExclusive != null) {
-                    return map.headMap(endExclusive);
-                }
-
-                return map.subMap(startInclusive, endExclusive);
+            public ContiguousDaysEffortLine getAvailability() {
+                return original.getAvailability().subInterval(startInclusive, endExclusive);
             }
         };
     }
@@ -0,0 +1,158 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.planner.entities;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.EpochDays;
+
+/**
+ * Read only, columnar view of the {@link DayAssignment day assignments} of a {@link ResourceAllocation}.
+ * <p>
+ * The assignments are sorted by day once and their days, durations and consolidated flags are kept in primitive
+ * columns. Slicing an interval is done by binary search over the days and the effort of any interval is obtained
+ * from accumulated sums, so neither of them needs to go through the {@link DayAssignment} entities.
+ * </p>
+ * <p>
+ * The persisted entities are still the source of truth: the view is built from them and it must be discarded
+ * whenever they are added, removed or modified.
+ * </p>
+ */
+final class DayAssignmentsColumns<T extends DayAssignment> {
+
+    static <T extends DayAssignment> DayAssignmentsColumns<T> build(Collection<T> assignments) {
+        return new DayAssignmentsColumns<>(DayAssignment.orderedByDay(assignments));
+    }
+
+    private final List<T> ordered;
+
+    private final int[] days;
+
+    private final int[] seconds;
+
+    /**
+     * <code>accumulatedSeconds[i]</code> is the sum of the first <code>i</code> durations.
+     */
+    private final long[] accumulatedSeconds;
+
+    /**
+     * Same as {@link #accumulatedSeconds} only for consolidated assignments.
+     */
+    private final long[] accumulatedConsolidatedSeconds;
+
+    private final BitSet consolidated;
+
+    private DayAssignmentsColumns(List<T> ordered) {
+        int size = ordered.size();
+        this.ordered = ordered;
+        this.days = new int[size];
+        this.seconds = new int[size];
+        this.accumulatedSeconds = new long[size + 1];
+        this.accumulatedConsolidatedSeconds = new long[size + 1];
+        this.consolidated = new BitSet(size);
+
+        for (int i = 0; i < size; i++) {
+            T each = ordered.get(i);
+            days[i] = EpochDays.of(each.getDay());
+            seconds[i] = each.getDuration().getSeconds();
+            accumulatedSeconds[i + 1] = accumulatedSeconds[i] + seconds[i];
+            accumulatedConsolidatedSeconds[i + 1] = accumulatedConsolidatedSeconds[i];
+
+            if (each.isConsolidated()) {
+                consolidated.set(i);
+                accumulatedConsolidatedSeconds[i + 1] += seconds[i];
+            }
+        }
+    }
+
+    /**
+     * @return the assignments ordered by day
+     */
+    List<T> getOrdered() {
+        return ordered;
+    }
+
+    int size() {
+        return days.length;
+    }
+
+    boolean isEmpty() {
+        return days.length == 0;
+    }
+
+    /**
+     * @return a view of the ordered assignments included in the interval
+     */
+    List<T> getBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        int from = firstPositionAtOrAfter(EpochDays.of(startInclusive));
+        int to = Math.max(from, firstPositionAtOrAfter(EpochDays.of(endExclusive)));
+
+        return ordered.subList(from, to);
+    }
+
+    List<T> withConsolidatedValue(boolean consolidatedValue) {
+        List<T> result = new ArrayList<>();
+        int i = consolidatedValue ? consolidated.nextSetBit(0) : consolidated.nextClearBit(0);
+        while (i >= 0 && i < days.length) {
+            result.add(ordered.get(i));
+            i = consolidatedValue ? consolidated.nextSetBit(i + 1) : consolidated.nextClearBit(i + 1);
+        }
+        return result;
+    }
+
+    EffortDuration getTotalEffort() {
+        return EffortDuration.seconds(accumulatedSeconds[days.length]);
+    }
+
+    EffortDuration getConsolidatedEffort() {
+        return EffortDuration.seconds(accumulatedConsolidatedSeconds[days.length]);
+    }
+
+    EffortDuration getNonConsolidatedEffort() {
+        return EffortDuration.seconds(accumulatedSeconds[days.length] - accumulatedConsolidatedSeconds[days.length]);
+    }
+
+    EffortDuration getEffortBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        int from = firstPositionAtOrAfter(EpochDays.of(startInclusive));
+        int to = Math.max(from, firstPositionAtOrAfter(EpochDays.of(endExclusive)));
+
+        return EffortDuration.seconds(accumulatedSeconds[to] - accumulatedSeconds[from]);
+    }
+
+    private int firstPositionAtOrAfter(int epochDay) {
+        int start = 0;
+        int end = days.length - 1;
+        while (start <= end) {
+            int middle = (start + end) >>> 1;
+            if (days[middle] < epochDay) {
+                start = middle + 1;
+            } else {
+                end = middle - 1;
+            }
+        }
+        return start;
+    }
+
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.libreplan.business.costcategories.daos.IHourCostDAO;
+import org.libreplan.business.costcategories.entities.HourCostRateTable;
 import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
 import org.libreplan.business.workreports.entities.WorkReportLine;
@@ -41,7 +42,11 @@ import org.springframework.stereotype.Component;
  * the cost category of each resource in the different dates.<br />
  *
  * Money cost is stored in a map that will be cached in memeroy. This map could
- * be reseted when needed with method {@code resetMoneyCostMap}.
+ * be reseted when needed with method {@code resetMoneyCostMap}.<br />
+ *
+ * The prices of the hours are taken from a {@link HourCostRateTable} loaded
+ * when the first work report line is priced and discarded along with the
+ * cached costs.
  *
  * @author Manuel Rego Casasnovas <mrego@igalia.com>
  * @author Susana Montes Pedreira <smontes@wirelessgalicia.com>
@@ -58,6 +63,8 @@ public class MoneyCostCalculator implements IMoneyCostCalculator {
 
     private Map<OrderElement, MoneyCost> moneyCostTotalMap = new HashMap<OrderElement, MoneyCost>();
 
+    private HourCostRateTable rateTable;
+
     private class MoneyCost {
         private BigDecimal costOfHours;
         private BigDecimal costOfExpenses;
@@ -86,6 +93,14 @@ public class MoneyCostCalculator implements IMoneyCostCalculator {
     @Override
     public void resetMoneyCostMap() {
         moneyCostTotalMap = new HashMap<OrderElement, MoneyCost>();
+        rateTable = null;
+    }
+
+    private HourCostRateTable getRateTable() {
+        if (rateTable == null) {
+            rateTable = hourCostDAO.getRateTable();
+        }
+        return rateTable;
     }
 
     @Override
@@ -105,14 +120,16 @@ public class MoneyCostCalculator implements IMoneyCostCalculator {
         return result;
     }
 
+    private BigDecimal getCachedHoursMoneyCost(OrderElement orderElement) {
+        MoneyCost moneyCost = moneyCostTotalMap.get(orderElement);
+        return moneyCost != null ? moneyCost.getCostOfHours() : null;
+    }
+
     @Override
     public BigDecimal getHoursMoneyCost(OrderElement orderElement) {
-        MoneyCost moneyCost = moneyCostTotalMap.get(orderElement);
-        if (moneyCost != null) {
-            BigDecimal result = moneyCost.getCostOfHours();
-            if (result != null) {
-                return result;
-            }
+        BigDecimal cached = getCachedHoursMoneyCost(orderElement);
+        if (cached != null) {
+            return cached;
         }
 
         BigDecimal result = BigDecimal.ZERO.setScale(2);
@@ -120,9 +137,11 @@ public class MoneyCostCalculator implements IMoneyCostCalculator {
             result = result.add(getHoursMoneyCost(each));
         }
 
-        result = result.add(getMoneyCostFromOwnWorkReportLines(orderElement))
+        result = result.add(
+                getMoneyCostFromOwnWorkReportLines(orderElement))
                 .setScale(2, RoundingMode.HALF_UP);
 
+        MoneyCost moneyCost = moneyCostTotalMap.get(orderElement);
         if (moneyCost == null) {
             moneyCost = new MoneyCost();
         }
@@ -131,17 +150,17 @@ public class MoneyCostCalculator implements IMoneyCostCalculator {
         return result;
     }
 
-    private BigDecimal getMoneyCostFromOwnWorkReportLines(OrderElement orderElement) {
+    private BigDecimal getMoneyCostFromOwnWorkReportLines(
+            OrderElement orderElement) {
         List<WorkReportLine> workReportLines = workReportLineDAO
                 .findByOrderElement(orderElement);
 
         BigDecimal result = BigDecimal.ZERO.setScale(2);
         for (WorkReportLine workReportLine : workReportLines) {
-            BigDecimal priceCost = hourCostDAO
-                    .getPriceCostFromResourceDateAndType(
-                            workReportLine.getResource(),
-                            workReportLine.getLocalDate(),
-                            workReportLine.getTypeOfWorkHours());
+            BigDecimal priceCost = getRateTable().getPrice(
+                    workReportLine.getResource().getId(),
+                    workReportLine.getTypeOfWorkHours().getCode(),
+                    workReportLine.getLocalDate());
 
             // If cost undefined via CostCategory get it from type
             if (priceCost == null) {
@@ -1136,6 +1136,7 @@ public abstract class ResourceAllocation<T extends DayAssignment>
         for (T each : getAssignments()) {
             each.setConsolidated(each.getDay().isBefore(firstNotConsolidated));
         }
+        getDayAssignmentsState().clearCachedData();
     }
 
     private void resetAssignmentsFittingAllocationDatesToResultingAssignments(
@@ -1354,7 +1355,7 @@ public abstract class ResourceAllocation<T extends DayAssignment>
     }
 
     public EffortDuration getAssignedEffort() {
-        return DayAssignment.sum(getAssignments());
+        return getDayAssignmentsState().getColumns().getTotalEffort();
     }
 
     protected EffortDuration getIntendedNonConsolidatedEffort() {
@@ -1375,13 +1376,17 @@ public abstract class ResourceAllocation<T extends DayAssignment>
 
     abstract class DayAssignmentsState {
 
-        private List<T> dayAssignmentsOrdered = null;
+        private DayAssignmentsColumns<T> columns = null;
 
-        protected List<T> getOrderedDayAssignments() {
-            if ( dayAssignmentsOrdered == null ) {
-                dayAssignmentsOrdered = DayAssignment.orderedByDay(getUnorderedAssignments());
+        protected DayAssignmentsColumns<T> getColumns() {
+            if ( columns == null ) {
+                columns = DayAssignmentsColumns.build(getUnorderedAssignments());
             }
-            return dayAssignmentsOrdered;
+            return columns;
+        }
+
+        protected List<T> getOrderedDayAssignments() {
+            return getColumns().getOrdered();
         }
 
         /**
@@ -1424,7 +1429,7 @@ public abstract class ResourceAllocation<T extends DayAssignment>
         }
 
         protected void clearCachedData() {
-            dayAssignmentsOrdered = null;
+            columns = null;
         }
 
         private void setParentFor(Collection<? extends T> assignments) {
@@ -1662,7 +1667,7 @@ public abstract class ResourceAllocation<T extends DayAssignment>
     }
 
     public EffortDuration getConsolidatedEffort() {
-        return DayAssignment.sum(getConsolidatedAssignments());
+        return getDayAssignmentsState().getColumns().getConsolidatedEffort();
     }
 
     public int getNonConsolidatedHours() {
@@ -1674,7 +1679,7 @@ public abstract class ResourceAllocation<T extends DayAssignment>
     }
 
     public EffortDuration getNonConsolidatedEffort() {
-        return DayAssignment.sum(getNonConsolidatedAssignments());
+        return getDayAssignmentsState().getColumns().getNonConsolidatedEffort();
     }
 
     /**
@@ -1685,11 +1690,11 @@ public abstract class ResourceAllocation<T extends DayAssignment>
     }
 
     public List<T> getNonConsolidatedAssignments() {
-        return DayAssignment.withConsolidatedValue(getAssignments(), false);
+        return getDayAssignmentsState().getColumns().withConsolidatedValue(false);
     }
 
     public List<T> getConsolidatedAssignments() {
-        return DayAssignment.withConsolidatedValue(getAssignments(), true);
+        return getDayAssignmentsState().getColumns().withConsolidatedValue(true);
     }
 
     public ResourcesPerDay getNonConsolidatedResourcePerDay() {
@@ -1828,7 +1833,7 @@ public abstract class ResourceAllocation<T extends DayAssignment>
     }
 
     public List<DayAssignment> getAssignments(LocalDate start, LocalDate endExclusive) {
-        return new ArrayList<>(DayAssignment.getAtInterval(getAssignments(), start, endExclusive));
+        return new ArrayList<>(getDayAssignmentsState().getColumns().getBetween(start, endExclusive));
     }
 
     public int getAssignedHours(LocalDate start, LocalDate endExclusive) {
@@ -1850,7 +1855,19 @@ public abstract class ResourceAllocation<T extends DayAssignment>
     }
 
     protected EffortDuration getAssignedDuration(IntraDayDate startInclusive, IntraDayDate endExclusive) {
-        return getAssignedDuration(getAssignments(startInclusive, endExclusive), startInclusive, endExclusive);
+        LocalDate firstWholeDay = startInclusive.getDate().plusDays(1);
+        LocalDate lastDay = endExclusive.getDate();
+        if ( !firstWholeDay.isBefore(lastDay) ) {
+            return getAssignedDuration(getAssignments(startInclusive, endExclusive), startInclusive, endExclusive);
+        }
+
+        // Only the first and last days can be partial, the days in between are summed from the columns
+        DayAssignmentsColumns<T> columns = getDayAssignmentsState().getColumns();
+        List<DayAssignment> onPartialDays = new ArrayList<>(columns.getBetween(startInclusive.getDate(), firstWholeDay));
+        onPartialDays.addAll(columns.getBetween(lastDay, endExclusive.asExclusiveEnd()));
+
+        return columns.getEffortBetween(firstWholeDay, lastDay)
+                .plus(getAssignedDuration(onPartialDays, startInclusive, endExclusive));
     }
 
     private EffortDuration sumDuration(Collection<? extends DayAssignment> assignments) {
@@ -1970,7 +1987,7 @@ public abstract class ResourceAllocation<T extends DayAssignment>
     }
 
     public boolean hasAssignments() {
-        return !getAssignments().isEmpty();
+        return !getDayAssignmentsState().getColumns().isEmpty();
     }
 
     public LimitingResourceQueueElement getLimitingResourceQueueElement() {
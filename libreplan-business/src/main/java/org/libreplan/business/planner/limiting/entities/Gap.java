@@ -32,7 +32,6 @@ import java.util.Set;
 
 import org.apache.commons.lang3.Validate;
 import org.joda.time.LocalDate;
-import org.libreplan.business.calendars.entities.AvailabilityTimeLine;
 import org.libreplan.business.calendars.entities.AvailabilityTimeLine.DatePoint;
 import org.libreplan.business.calendars.entities.AvailabilityTimeLine.EndOfTime;
 import org.libreplan.business.calendars.entities.AvailabilityTimeLine.FixedPoint;
@@ -107,6 +106,15 @@ public class Gap implements Comparable<Gap> {
             return GapOnQueue.onQueue(originQueue, gap.splitIntoGapsSatisfyingCriteria(originQueue.getResource(), criteria));
         }
 
+        /**
+         * @param criteriaValidPeriods
+         *            the periods in which the resource of the queue satisfies some criteria
+         */
+        public List<GapOnQueue> splitIntoGapsSatisfyingCriteria(List<Interval> criteriaValidPeriods) {
+            return GapOnQueue.onQueue(originQueue,
+                    gap.splitIntoGapsSatisfyingCriteria(originQueue.getResource(), criteriaValidPeriods));
+        }
+
         @Override
         public String toString() {
             return "queue: " + originQueue + "; gap: " + gap;
@@ -248,6 +256,14 @@ public class Gap implements Comparable<Gap> {
         return endTime;
     }
 
+    /**
+     * @return the hours of the resource in the gap, or
+     *         {@link Integer#MAX_VALUE} if it has no end
+     */
+    public Integer getHoursInGap() {
+        return hoursInGap;
+    }
+
     /**
      * Returns true if the gap starts after earlierStartDateBecauseOfGantt and if it's big enough for fitting candidate.
      *
@@ -307,42 +323,67 @@ public class Gap implements Comparable<Gap> {
     }
 
     public List<Gap> splitIntoGapsSatisfyingCriteria(Resource resource, Set<Criterion> criteria) {
-        return splitIntoGapsSatisfyingCriteria(resource, criteria, getStartTime(), getEndTime());
+        return splitIntoGapsSatisfyingCriteria(resource, getCriteriaValidPeriods(resource, criteria));
     }
 
     /**
-     * Returns a set of {@link Gap} composed by those gaps which satisfy <em>criteria</em> within the period:
-     * <em>gapStartTime</em> till <em>gapEndTime</em>.
+     * Returns the periods in which <em>resource</em> satisfies <em>criteria</em>, ordered by start date.
+     *
+     * They can be calculated once and used for splitting all the gaps of the resource.
      *
      * @param resource
      * @param criteria
      *            criteria to be satisfied by resource
-     * @param gapStartTime
-     *            start time of gap
-     * @param gapEndTime
-     *            end time of gap
+     * @return {@link List<Interval>}
+     */
+    public static List<Interval> getCriteriaValidPeriods(Resource resource, Set<Criterion> criteria) {
+        return AvailabilityCalculator.getCriterionsAvailabilityFor(criteria, resource).getValidPeriods();
+    }
+
+    /**
+     * Returns a set of {@link Gap} composed by those parts of this gap within the periods in which <em>resource</em>
+     * satisfies some criteria.
+     *
+     * @param resource
+     * @param criteriaValidPeriods
+     *            periods in which the criteria are satisfied, as returned by
+     *            {@link #getCriteriaValidPeriods(Resource, Set)}
      * @return {@link List<Gap>}
      */
-    private static List<Gap> splitIntoGapsSatisfyingCriteria(
-            Resource resource, Set<Criterion> criteria, DateAndHour gapStartTime, DateAndHour gapEndTime) {
+    public List<Gap> splitIntoGapsSatisfyingCriteria(Resource resource, List<Interval> criteriaValidPeriods) {
+        Interval gapInterval = Interval.create(
+                startTime != null ? startTime.getDate() : null,
+                endTime != null ? endTime.getDate() : null);
 
-        AvailabilityTimeLine criterionsAvailability =
-                AvailabilityCalculator.getCriterionsAvailabilityFor(criteria, resource);
+        List<Gap> result = new ArrayList<>();
+        for (int i = firstPeriodEndingAfter(criteriaValidPeriods, gapInterval.getStart());
+             i < criteriaValidPeriods.size(); i++) {
 
-        if (gapStartTime != null) {
-            criterionsAvailability.invalidUntil(gapStartTime.getDate());
-        }
+            Interval each = criteriaValidPeriods.get(i);
+            if ( each.getStart().compareTo(gapInterval.getEnd()) >= 0 ) {
+                break;
+            }
 
-        if (gapEndTime != null) {
-            criterionsAvailability.invalidFrom(gapEndTime.getDate());
+            Interval validInGap = each.intersect(gapInterval);
+            if ( validInGap.getStart().compareTo(validInGap.getEnd()) < 0 ) {
+                result.add(createGap(resource, validInGap, startTime, endTime));
+            }
         }
+        return result;
+    }
 
-        List<Interval> validPeriods = criterionsAvailability.getValidPeriods();
-        List<Gap> result = new ArrayList<>();
-        for (Interval each : validPeriods) {
-            result.add(createGap(resource, each, gapStartTime, gapEndTime));
+    private static int firstPeriodEndingAfter(List<Interval> periods, DatePoint point) {
+        int low = 0;
+        int high = periods.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if ( periods.get(middle).getEnd().compareTo(point) > 0 ) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
         }
-        return result;
+        return low;
     }
 
     private static Gap createGap(
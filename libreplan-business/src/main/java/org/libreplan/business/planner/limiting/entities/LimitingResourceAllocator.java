@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.ListIterator;
 
 import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.AvailabilityTimeLine.Interval;
 import org.libreplan.business.calendars.entities.ResourceCalendar;
 import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.planner.entities.GenericDayAssignment;
@@ -100,6 +101,8 @@ public class LimitingResourceAllocator {
      * This case can only happen on trying to allocate an element related to a generic resource allocation.
      * It is possible that queue.resource does not hold element.criteria at any interval of time.
      *
+     * The gaps too small for the hours of the element are skipped using the index of the queue.
+     *
      * @param queue search gap inside queue
      * @param element element to fit into queue
      * @return {@link Gap}
@@ -107,40 +110,54 @@ public class LimitingResourceAllocator {
     public static Gap getFirstValidGap(LimitingResourceQueue queue, LimitingResourceQueueElement element) {
 
         final Resource resource = queue.getResource();
-        final List<LimitingResourceQueueElement> elements = new LinkedList<>(queue.getLimitingResourceQueueElements());
-        final int size = elements.size();
         final DateAndHour startTime = getStartTimeBecauseOfGantt(element);
+        final List<Interval> criteriaValidPeriods = getCriteriaValidPeriods(element, resource);
 
-        int pos = 0;
+        LimitingResourceQueueElement next = queue.getFirstElement();
 
-        // Iterate through queue elements
-        while (pos <= size) {
-            Gap gap = getGapInQueueAtPosition(resource, elements, startTime, pos++);
+        // Iterate through the gaps before each queue element and the one after the last element
+        while (true) {
+            Gap gap = getGapInQueueBefore(queue, next, startTime);
 
             if ( gap != null ) {
 
-                List<Gap> subgaps = getFittingSubgaps(element, gap, resource);
+                List<Gap> subgaps = getFittingSubgaps(element, gap, resource, criteriaValidPeriods);
 
                 if ( !subgaps.isEmpty() ) {
                     return subgaps.get(0);
                 }
             }
+
+            if ( next == null ) {
+                break;
+            }
+            next = queue.getNextElementWithGapBefore(next, element.getIntentedTotalHours());
         }
 
         // The queue cannot hold this element (queue.resource doesn't meet element.criteria)
         return null;
     }
 
+    /**
+     * The periods in which the resource satisfies the criteria are calculated once for all the gaps.
+     *
+     * @return <code>null</code> if element is not generic
+     */
+    private static List<Interval> getCriteriaValidPeriods(LimitingResourceQueueElement element, Resource resource) {
+        return isGeneric(element) ? Gap.getCriteriaValidPeriods(resource, element.getCriteria()) : null;
+    }
+
     private static List<Gap> getFittingSubgaps(LimitingResourceQueueElement element,
                                                final Gap gap,
-                                               final Resource resource) {
+                                               final Resource resource,
+                                               List<Interval> criteriaValidPeriods) {
 
         List<Gap> result = new ArrayList<>();
 
         if ( isSpecific(element) && gap.canFit(element) ) {
             result.add(gap);
         } else if ( isGeneric(element) ) {
-            final List<Gap> gaps = gap.splitIntoGapsSatisfyingCriteria(resource, element.getCriteria());
+            final List<Gap> gaps = gap.splitIntoGapsSatisfyingCriteria(resource, criteriaValidPeriods);
             for (Gap subgap : gaps) {
 
                 if ( subgap.canFit(element) ) {
@@ -167,46 +184,83 @@ public class LimitingResourceAllocator {
         List<Gap> result = new ArrayList<>();
 
         final Resource resource = queue.getResource();
-        final List<LimitingResourceQueueElement> elements = new LinkedList<>(queue.getLimitingResourceQueueElements());
-        final int size = elements.size();
+        final List<Interval> criteriaValidPeriods = getCriteriaValidPeriods(element, resource);
 
-        int pos = moveUntil(elements, since);
+        LimitingResourceQueueElement next = moveUntil(queue, since);
 
-        // Iterate through queue elements
-        while (pos <= size) {
-            Gap gap = getGapInQueueAtPosition(
-                    resource, elements, since, pos++);
+        // Iterate through the gaps before each queue element and the one after the last element
+        while (true) {
+            Gap gap = getGapInQueueBefore(queue, next, since);
 
             // The queue cannot hold this element (queue.resource doesn't meet element.criteria)
             if ( gap != null ) {
-                List<Gap> subgaps = getFittingSubgaps(element, gap, resource);
+                List<Gap> subgaps = getFittingSubgaps(element, gap, resource, criteriaValidPeriods);
                 result.addAll(subgaps);
             }
+
+            if ( next == null ) {
+                break;
+            }
+            next = queue.getNextElementWithGapBefore(next, element.getIntentedTotalHours());
         }
 
         return result;
     }
 
-    private static int moveUntil(List<LimitingResourceQueueElement> elements, DateAndHour until) {
-        int pos = 0;
+    /**
+     * Returns the first valid allocation in <code>queue</code> for the element of <code>requirements</code>,
+     * looking only at the gaps since its earliest possible start.
+     *
+     * The gaps too small for the hours of the element are skipped using the index of the queue.
+     *
+     * @return <code>null</code> if the queue cannot hold the element
+     */
+    public static AllocationSpec getFirstValidAllocation(InsertionRequirements requirements,
+                                                         LimitingResourceQueue queue) {
 
-        if ( elements.size() > 0 ) {
-            // Space between until and first element start time
-            LimitingResourceQueueElement first = elements.get(0);
-            if (until.isBefore(first.getStartTime())) {
-                return 0;
-            }
+        final LimitingResourceQueueElement element = requirements.getElement();
+        final Resource resource = queue.getResource();
+        final DateAndHour since = requirements.getEarliestPossibleStart();
+        final List<Interval> criteriaValidPeriods = getCriteriaValidPeriods(element, resource);
+
+        LimitingResourceQueueElement next = moveUntil(queue, since);
+
+        // Iterate through the gaps before each queue element and the one after the last element
+        while (true) {
+            Gap gap = getGapInQueueBefore(queue, next, since);
 
-            for (pos = 1; pos < elements.size(); pos++) {
-                final LimitingResourceQueueElement each = elements.get(pos);
-                final DateAndHour startTime = each.getStartTime();
+            if ( gap != null ) {
+                for (Gap each : getFittingSubgaps(element, gap, resource, criteriaValidPeriods)) {
+                    AllocationSpec allocation = requirements.guessValidity(each.onQueue(queue));
 
-                if ( until.isBefore(startTime) || until.isEquals(startTime) ) {
-                    return pos;
+                    if ( allocation.isValid() ) {
+                        return allocation;
+                    }
                 }
             }
+
+            if ( next == null ) {
+                return null;
+            }
+            next = queue.getNextElementWithGapBefore(next, element.getIntentedTotalHours());
+        }
+    }
+
+    /**
+     * @return the element whose previous gap is the first one to consider
+     *         since <code>until</code>, or <code>null</code> for the gap after
+     *         the last element
+     */
+    private static LimitingResourceQueueElement moveUntil(LimitingResourceQueue queue, DateAndHour until) {
+        LimitingResourceQueueElement first = queue.getFirstElement();
+
+        // Space between until and first element start time
+        if ( first == null || until.isBefore(first.getStartTime()) ) {
+            return first;
         }
-        return pos;
+
+        LimitingResourceQueueElement result = queue.getFirstElementStartingSince(until);
+        return result == first ? queue.getElementAfter(first) : result;
     }
 
     private static boolean isGeneric(LimitingResourceQueueElement element) {
@@ -227,40 +281,36 @@ public class LimitingResourceAllocator {
         return new DateAndHour(end.getDay(), end.getDuration().getHours());
     }
 
-    private static Gap getGapInQueueAtPosition(Resource resource,
-                                               List<LimitingResourceQueueElement> elements,
-                                               DateAndHour startTimeBecauseOfGantt,
-                                               int pos) {
-
-        final int size = elements.size();
+    /**
+     * @param next
+     *            the element after the gap, or <code>null</code> for the gap
+     *            after the last element
+     */
+    private static Gap getGapInQueueBefore(LimitingResourceQueue queue,
+                                           LimitingResourceQueueElement next,
+                                           DateAndHour startTimeBecauseOfGantt) {
 
-        // No elements in queue
-        if ( size == 0 ) {
-            return createLastGap(startTimeBecauseOfGantt, null, resource);
-        }
+        final Resource resource = queue.getResource();
 
-        // Last element
-        if ( pos == size ) {
-            return createLastGap(startTimeBecauseOfGantt, elements.get(size - 1), resource);
+        // Last element or no elements in queue
+        if ( next == null ) {
+            return createLastGap(startTimeBecauseOfGantt, queue.getLastElement(), resource);
         }
 
-        LimitingResourceQueueElement next = elements.get(pos);
+        LimitingResourceQueueElement previous = queue.getElementBefore(next);
 
         // First element
-        if ( pos == 0 && startTimeBecauseOfGantt.getDate().isBefore(next.getStartDate()) ) {
-            return Gap.create(resource, startTimeBecauseOfGantt, next.getStartTime());
+        if ( previous == null ) {
+            return startTimeBecauseOfGantt.getDate().isBefore(next.getStartDate())
+                    ? Gap.create(resource, startTimeBecauseOfGantt, next.getStartTime())
+                    : null;
         }
 
         // In the middle of two elements
-        if (pos > 0) {
-            LimitingResourceQueueElement previous = elements.get(pos - 1);
-            return Gap.create(resource,
-                                DateAndHour.max(previous.getEndTime(),
-                                startTimeBecauseOfGantt),
-                                next.getStartTime());
-        }
-
-        return null;
+        return Gap.create(resource,
+                            DateAndHour.max(previous.getEndTime(),
+                            startTimeBecauseOfGantt),
+                            next.getStartTime());
     }
 
     private static DateAndHour getStartTimeBecauseOfGantt(LimitingResourceQueueElement element) {
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.joda.time.Days;
 import org.joda.time.LocalDate;
 import org.libreplan.business.planner.daos.IDayAssignmentDAO;
 import org.libreplan.business.planner.entities.DayAssignment;
@@ -126,15 +127,18 @@ public class ResourceLoadRatiosCalculator implements IResourceLoadRatiosCalculat
                 totalOverload = EffortDuration.zero(),
                 totalCapacity;
 
+        int[] capacities = calculateCapacities(resource, startDate, endDate);
+
         Set<Map.Entry<LocalDate, EffortDuration>> efforts =
                 getAllEffortPerDateFor(scenario, startDate, endDate, resource).entrySet();
 
         for (Map.Entry<LocalDate, EffortDuration> each : efforts) {
             totalLoad = totalLoad.plus(each.getValue());
-            totalOverload = addOverload(totalOverload, resource, each.getValue(), each.getKey());
+            totalOverload = addOverload(
+                    totalOverload, resource, capacities, startDate, each.getValue(), each.getKey());
         }
 
-        totalCapacity = calculateTotalCapacity(resource, startDate, endDate);
+        totalCapacity = calculateTotalCapacity(capacities);
 
         return new LoadRatiosDataType(totalLoad, totalOverload, totalCapacity);
     }
@@ -160,15 +164,33 @@ public class ResourceLoadRatiosCalculator implements IResourceLoadRatiosCalculat
         return result;
     }
 
-    private EffortDuration calculateTotalCapacity(Resource resource, LocalDate startDate, LocalDate endDate) {
-        return resource.getCalendar().getWorkableDuration(startDate, endDate);
+    /**
+     * Capacities in seconds of each day from <code>startDate</code> to <code>endDate</code>, both inclusive.
+     */
+    private int[] calculateCapacities(Resource resource, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            return new int[0];
+        }
+        return resource.getCalendar().getCapacitiesBetween(startDate, endDate.plusDays(1));
+    }
+
+    private EffortDuration calculateTotalCapacity(int[] capacities) {
+        long seconds = 0;
+        for (int each : capacities) {
+            seconds += each;
+        }
+        return EffortDuration.seconds(seconds);
     }
 
-    private EffortDuration addOverload(
-            EffortDuration currentOverload, Resource resource, EffortDuration loadAtDate, LocalDate date) {
+    private EffortDuration addOverload(EffortDuration currentOverload,
+                                       Resource resource,
+                                       int[] capacities,
+                                       LocalDate startDate,
+                                       EffortDuration loadAtDate,
+                                       LocalDate date) {
 
         EffortDuration result;
-        EffortDuration capacityAtDay = getCapacityAtDate(resource, date);
+        EffortDuration capacityAtDay = getCapacityAtDate(resource, capacities, startDate, date);
 
         if (capacityAtDay.compareTo(loadAtDate) < 0) {
             result = currentOverload.plus(loadAtDate.minus(capacityAtDay));
@@ -179,7 +201,11 @@ public class ResourceLoadRatiosCalculator implements IResourceLoadRatiosCalculat
         return result;
     }
 
-    private EffortDuration getCapacityAtDate(Resource resource, LocalDate date) {
+    private EffortDuration getCapacityAtDate(Resource resource, int[] capacities, LocalDate startDate, LocalDate date) {
+        int position = Days.daysBetween(startDate, date).getDays();
+        if (position >= 0 && position < capacities.length) {
+            return EffortDuration.seconds(capacities[position]);
+        }
         return resource.getCalendar().getCapacityOn(PartialDay.wholeDay(date));
     }
 }
\ No newline at end of file
@@ -56,6 +56,8 @@ public class LimitingResourceQueue extends BaseEntity {
 
     private List<GapOnQueue> cachedGaps;
 
+    private LimitingResourceQueueElementsIndex elementsIndex;
+
     public static Collection<LimitingResourceQueue> queuesOf(
             Collection<LimitingResourceQueueElement> queueElements) {
         Set<LimitingResourceQueue> result = new HashSet<LimitingResourceQueue>();
@@ -79,20 +81,95 @@ public class LimitingResourceQueue extends BaseEntity {
 
     public void setResource(Resource resource) {
         this.resource = resource;
+        elementsIndex = null;
     }
 
     public void addLimitingResourceQueueElement(LimitingResourceQueueElement element) {
         element.setLimitingResourceQueue(this);
-        limitingResourceQueueElements.add(element);
+        boolean added = limitingResourceQueueElements.add(element);
+        if (added && elementsIndex != null) {
+            elementsIndex.add(element);
+        }
         invalidCachedGaps();
     }
 
     public void removeLimitingResourceQueueElement(LimitingResourceQueueElement element) {
         limitingResourceQueueElements.remove(element);
+        if (elementsIndex != null) {
+            elementsIndex.remove(element);
+        }
         element.detach();
         invalidCachedGaps();
     }
 
+    /**
+     * The index is built the first time it's needed, as the elements are
+     * loaded directly into the set
+     */
+    private LimitingResourceQueueElementsIndex getElementsIndex() {
+        if (elementsIndex == null) {
+            elementsIndex = new LimitingResourceQueueElementsIndex(resource,
+                    limitingResourceQueueElements);
+        }
+        return elementsIndex;
+    }
+
+    /**
+     * @return the first element of the queue or <code>null</code> if it's
+     *         empty
+     */
+    public LimitingResourceQueueElement getFirstElement() {
+        return getElementsIndex().first();
+    }
+
+    /**
+     * @return the last element of the queue or <code>null</code> if it's
+     *         empty
+     */
+    public LimitingResourceQueueElement getLastElement() {
+        return getElementsIndex().last();
+    }
+
+    /**
+     * @return the element before <code>element</code> in the queue or
+     *         <code>null</code> if it's the first one
+     */
+    public LimitingResourceQueueElement getElementBefore(
+            LimitingResourceQueueElement element) {
+        return getElementsIndex().before(element);
+    }
+
+    /**
+     * @return the element after <code>element</code> in the queue or
+     *         <code>null</code> if it's the last one
+     */
+    public LimitingResourceQueueElement getElementAfter(
+            LimitingResourceQueueElement element) {
+        return getElementsIndex().after(element);
+    }
+
+    /**
+     * @return the first element starting at <code>time</code> or after it, or
+     *         <code>null</code> if there is none
+     */
+    public LimitingResourceQueueElement getFirstElementStartingSince(
+            DateAndHour time) {
+        return getElementsIndex().firstSince(time);
+    }
+
+    /**
+     * Finds the next element preceded by a gap where <code>hours</code> could
+     * fit, skipping the smaller gaps in logarithmic time
+     *
+     * @return the first element after <code>element</code> with at least
+     *         <code>hours</code> in the gap before it, or <code>null</code> if
+     *         only the gap after the last element could hold them
+     */
+    public LimitingResourceQueueElement getNextElementWithGapBefore(
+            LimitingResourceQueueElement element, int hours) {
+        return getElementsIndex().nextWithGapBefore(element, hours);
+    }
+
     private void invalidCachedGaps() {
         cachedGaps = null;
     }
@@ -168,6 +245,9 @@ public class LimitingResourceQueue extends BaseEntity {
 
     public void queueElementMoved(
             LimitingResourceQueueElement limitingResourceQueueElement) {
+        if (elementsIndex != null) {
+            elementsIndex.moved(limitingResourceQueueElement);
+        }
         invalidCachedGaps();
     }
 
@@ -0,0 +1,410 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.resources.entities;
+
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.Gap;
+import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
+
+/**
+ * Keeps the elements of a {@link LimitingResourceQueue} in a balanced tree
+ * ordered by start time. Each node knows the hours of the gap between the
+ * previous element and its element, and the biggest of these gaps in its
+ * subtree, so the next gap big enough for some hours is found in logarithmic
+ * time. <br />
+ *
+ * The moved elements are only marked, and placed again when the index is
+ * queried, as the start and end of an element are changed one after another.
+ */
+class LimitingResourceQueueElementsIndex {
+
+    private static class Node {
+
+        private final LimitingResourceQueueElement element;
+
+        private final LocalDate startDate;
+
+        private final int startHour;
+
+        private final int priority;
+
+        private int hoursInGapBefore;
+
+        private int maxHoursInGap;
+
+        private Node parent;
+
+        private Node left;
+
+        private Node right;
+
+        private Node(LimitingResourceQueueElement element, int priority) {
+            this.element = element;
+            this.startDate = element.getStartDate();
+            this.startHour = element.getStartHour();
+            this.priority = priority;
+        }
+
+        private void updateMaxHoursInGap() {
+            maxHoursInGap = hoursInGapBefore;
+            if ( left != null ) {
+                maxHoursInGap = Math.max(maxHoursInGap, left.maxHoursInGap);
+            }
+            if ( right != null ) {
+                maxHoursInGap = Math.max(maxHoursInGap, right.maxHoursInGap);
+            }
+        }
+
+    }
+
+    private final Resource resource;
+
+    private final Map<LimitingResourceQueueElement, Node> nodes = new IdentityHashMap<>();
+
+    private final Set<LimitingResourceQueueElement> moved = new LinkedHashSet<>();
+
+    private final Random random = new Random();
+
+    private Node root;
+
+    LimitingResourceQueueElementsIndex(Resource resource, Iterable<LimitingResourceQueueElement> elements) {
+        this.resource = resource;
+        for (LimitingResourceQueueElement each : elements) {
+            add(each);
+        }
+    }
+
+    void add(LimitingResourceQueueElement element) {
+        moved.remove(element);
+        if ( nodes.containsKey(element) ) {
+            return;
+        }
+
+        Node node = new Node(element, random.nextInt());
+        nodes.put(element, node);
+        insert(node);
+
+        Node previous = previous(node);
+        Node next = next(node);
+        setHoursInGapBefore(node, previous);
+        if ( next != null ) {
+            setHoursInGapBefore(next, node);
+        }
+    }
+
+    void remove(LimitingResourceQueueElement element) {
+        moved.remove(element);
+        Node node = nodes.remove(element);
+        if ( node == null ) {
+            return;
+        }
+
+        Node previous = previous(node);
+        Node next = next(node);
+        delete(node);
+        if ( next != null ) {
+            setHoursInGapBefore(next, previous);
+        }
+    }
+
+    void moved(LimitingResourceQueueElement element) {
+        if ( nodes.containsKey(element) ) {
+            moved.add(element);
+        }
+    }
+
+    private void placeMovedElements() {
+        if ( moved.isEmpty() ) {
+            return;
+        }
+
+        LimitingResourceQueueElement[] toPlace = moved.toArray(new LimitingResourceQueueElement[moved.size()]);
+        for (LimitingResourceQueueElement each : toPlace) {
+            remove(each);
+        }
+        for (LimitingResourceQueueElement each : toPlace) {
+            add(each);
+        }
+    }
+
+    LimitingResourceQueueElement first() {
+        placeMovedElements();
+        return elementOf(root == null ? null : leftmost(root));
+    }
+
+    LimitingResourceQueueElement last() {
+        placeMovedElements();
+        return elementOf(root == null ? null : rightmost(root));
+    }
+
+    LimitingResourceQueueElement before(LimitingResourceQueueElement element) {
+        placeMovedElements();
+        return elementOf(previous(nodeOf(element)));
+    }
+
+    LimitingResourceQueueElement after(LimitingResourceQueueElement element) {
+        placeMovedElements();
+        return elementOf(next(nodeOf(element)));
+    }
+
+    /**
+     * @return the first element starting at <code>time</code> or after it
+     */
+    LimitingResourceQueueElement firstSince(DateAndHour time) {
+        placeMovedElements();
+        Node result = null;
+        Node current = root;
+        while (current != null) {
+            if ( compare(current.startDate, current.startHour, time.getDate(), time.getHour()) >= 0 ) {
+                result = current;
+                current = current.left;
+            } else {
+                current = current.right;
+            }
+        }
+        return elementOf(result);
+    }
+
+    /**
+     * @return the first element after <code>element</code> with a gap of at
+     *         least <code>hours</code> before it
+     */
+    LimitingResourceQueueElement nextWithGapBefore(LimitingResourceQueueElement element, int hours) {
+        placeMovedElements();
+        Node node = nodeOf(element);
+        if ( node.right != null && node.right.maxHoursInGap >= hours ) {
+            return firstWithGapBefore(node.right, hours).element;
+        }
+
+        Node current = node;
+        while (current.parent != null) {
+            Node parent = current.parent;
+            if ( parent.left == current ) {
+                if ( parent.hoursInGapBefore >= hours ) {
+                    return parent.element;
+                }
+                if ( parent.right != null && parent.right.maxHoursInGap >= hours ) {
+                    return firstWithGapBefore(parent.right, hours).element;
+                }
+            }
+            current = parent;
+        }
+        return null;
+    }
+
+    private Node firstWithGapBefore(Node subtree, int hours) {
+        Node current = subtree;
+        while (true) {
+            if ( current.left != null && current.left.maxHoursInGap >= hours ) {
+                current = current.left;
+            } else if ( current.hoursInGapBefore >= hours ) {
+                return current;
+            } else {
+                current = current.right;
+            }
+        }
+    }
+
+    private Node nodeOf(LimitingResourceQueueElement element) {
+        Node result = nodes.get(element);
+        if ( result == null ) {
+            throw new IllegalArgumentException("the element " + element + " is not in the queue");
+        }
+        return result;
+    }
+
+    private static LimitingResourceQueueElement elementOf(Node node) {
+        return node != null ? node.element : null;
+    }
+
+    /**
+     * The gap before the first element is not limited, as it depends on when
+     * the element to allocate can start. Overlapping elements have no gap
+     * between them.
+     */
+    private void setHoursInGapBefore(Node node, Node previous) {
+        node.hoursInGapBefore = previous == null
+                ? Integer.MAX_VALUE
+                : hoursBetween(previous.element.getEndTime(), node.element.getStartTime());
+        for (Node current = node; current != null; current = current.parent) {
+            current.updateMaxHoursInGap();
+        }
+    }
+
+    private int hoursBetween(DateAndHour start, DateAndHour end) {
+        if ( start.getDate() == null || end.getDate() == null || start.compareTo(end) >= 0 ) {
+            return 0;
+        }
+        return Gap.create(resource, start, end).getHoursInGap();
+    }
+
+    private static int compare(LocalDate date, int hour, LocalDate otherDate, int otherHour) {
+        if ( date == null || otherDate == null ) {
+            return date == otherDate ? Integer.compare(hour, otherHour) : date == null ? -1 : 1;
+        }
+        int result = date.compareTo(otherDate);
+        return result != 0 ? result : Integer.compare(hour, otherHour);
+    }
+
+    private static int compare(Node node, Node other) {
+        return compare(node.startDate, node.startHour, other.startDate, other.startHour);
+    }
+
+    private void insert(Node node) {
+        if ( root == null ) {
+            root = node;
+            node.updateMaxHoursInGap();
+            return;
+        }
+
+        Node current = root;
+        while (true) {
+            if ( compare(node, current) < 0 ) {
+                if ( current.left == null ) {
+                    current.left = node;
+                    break;
+                }
+                current = current.left;
+            } else {
+                if ( current.right == null ) {
+                    current.right = node;
+                    break;
+                }
+                current = current.right;
+            }
+        }
+        node.parent = current;
+
+        while (node.parent != null && node.parent.priority > node.priority) {
+            rotateUp(node);
+        }
+    }
+
+    private void delete(Node node) {
+        while (node.left != null || node.right != null) {
+            Node child = node.right == null || (node.left != null && node.left.priority < node.right.priority)
+                    ? node.left
+                    : node.right;
+            rotateUp(child);
+        }
+
+        Node parent = node.parent;
+        if ( parent == null ) {
+            root = null;
+        } else if ( parent.left == node ) {
+            parent.left = null;
+        } else {
+            parent.right = null;
+        }
+        node.parent = null;
+
+        for (Node current = parent; current != null; current = current.parent) {
+            current.updateMaxHoursInGap();
+        }
+    }
+
+    /**
+     * Rotates <code>node</code> over its parent keeping the order of the nodes
+     */
+    private void rotateUp(Node node) {
+        Node parent = node.parent;
+        Node grandParent = parent.parent;
+
+        if ( parent.left == node ) {
+            parent.left = node.right;
+            if ( node.right != null ) {
+                node.right.parent = parent;
+            }
+            node.right = parent;
+        } else {
+            parent.right = node.left;
+            if ( node.left != null ) {
+                node.left.parent = parent;
+            }
+            node.left = parent;
+        }
+        parent.parent = node;
+        node.parent = grandParent;
+
+        if ( grandParent == null ) {
+            root = node;
+        } else if ( grandParent.left == parent ) {
+            grandParent.left = node;
+        } else {
+            grandParent.right = node;
+        }
+
+        parent.updateMaxHoursInGap();
+        node.updateMaxHoursInGap();
+    }
+
+    private static Node leftmost(Node node) {
+        Node result = node;
+        while (result.left != null) {
+            result = result.left;
+        }
+        return result;
+    }
+
+    private static Node rightmost(Node node) {
+        Node result = node;
+        while (result.right != null) {
+            result = result.right;
+        }
+        return result;
+    }
+
+    private static Node previous(Node node) {
+        if ( node == null ) {
+            return null;
+        }
+        if ( node.left != null ) {
+            return rightmost(node.left);
+        }
+        Node current = node;
+        while (current.parent != null && current.parent.left == current) {
+            current = current.parent;
+        }
+        return current.parent;
+    }
+
+    private static Node next(Node node) {
+        if ( node == null ) {
+            return null;
+        }
+        if ( node.right != null ) {
+            return leftmost(node.right);
+        }
+        Node current = node;
+        while (current.parent != null && current.parent.right == current) {
+            current = current.parent;
+        }
+        return current.parent;
+    }
+
+}
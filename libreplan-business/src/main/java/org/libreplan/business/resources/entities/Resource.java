@@ -29,6 +29,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -50,6 +51,7 @@ import org.libreplan.business.calendars.entities.ResourceCalendar;
 import org.libreplan.business.calendars.entities.SameWorkHoursEveryDay;
 import org.libreplan.business.common.BaseEntity;
 import org.libreplan.business.common.IHumanIdentifiable;
+import org.libreplan.business.common.ILastModificationDateTracked;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.IntegrationEntity;
 import org.libreplan.business.common.Registry;
@@ -76,7 +78,7 @@ import org.libreplan.business.workingday.IntraDayDate.PartialDay;
  * @author Susana Montes Pedreira <smontes@wirelessgalicia.com>
  * @author Jacobo Aragunde Perez <jaragunde@igalia.com>
  */
-public abstract class Resource extends IntegrationEntity implements IHumanIdentifiable, Comparable<Resource> {
+public abstract class Resource extends IntegrationEntity implements IHumanIdentifiable, ILastModificationDateTracked, Comparable<Resource> {
 
     public static class AllResourceAssignments implements IAssignmentsOnResourceCalculator {
 
@@ -142,6 +144,8 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
 
     private LimitingResourceQueue limitingResourceQueue;
 
+    private Date lastModificationDate;
+
     private void clearCachedData() {
         assignmentsByDayCached = null;
         dayAssignmentsState.clearCachedData();
@@ -1149,6 +1153,16 @@ public abstract class Resource extends IntegrationEntity implements IHumanIdenti
         return (resourceType == ResourceType.LIMITING_RESOURCE);
     }
 
+    @Override
+    public Date getLastModificationDate() {
+        return lastModificationDate;
+    }
+
+    @Override
+    public void setLastModificationDate(Date lastModificationDate) {
+        this.lastModificationDate = lastModificationDate;
+    }
+
     public ResourceType getResourceType() {
         return resourceType;
     }
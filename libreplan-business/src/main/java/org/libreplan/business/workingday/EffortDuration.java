@@ -160,6 +160,16 @@ public class EffortDuration implements Comparable<EffortDuration> {
         return elapsing(amount, Granularity.SECONDS);
     }
 
+    /**
+     * For amounts accumulated in a <code>long</code> so the sum cannot overflow.
+     *
+     * @throws IllegalArgumentException if the amount is negative or too big for an {@link EffortDuration}
+     */
+    public static EffortDuration seconds(long amount) {
+        Validate.inclusiveBetween(0, Integer.MAX_VALUE, amount, "seconds out of range: " + amount);
+        return seconds((int) amount);
+    }
+
     public static EffortDuration fromHoursAsBigDecimal(BigDecimal hours) {
         BigDecimal secondsPerHour = new BigDecimal(3600);
 
@@ -0,0 +1,84 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.workingday;
+
+import org.joda.time.LocalDate;
+
+/**
+ * Conversions between {@link LocalDate} and the number of days since 1970-01-01.
+ * <p>
+ * They are computed from the fields of the date so nothing is allocated,
+ * which makes them suitable for building primitive indexes over days.
+ * </p>
+ *
+ * @see <a href="http://howardhinnant.github.io/date_algorithms.html">date algorithms</a>
+ */
+public final class EpochDays {
+
+    private EpochDays() {
+    }
+
+    /**
+     * Number of days since 1970-01-01.
+     */
+    public static int of(LocalDate date) {
+        int month = date.getMonthOfYear();
+        int year = month <= 2 ? date.getYear() - 1 : date.getYear();
+        int era = (year >= 0 ? year : year - 399) / 400;
+        int yearOfEra = year - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + date.getDayOfMonth() - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Inverse of {@link #of(LocalDate)}.
+     */
+    public static LocalDate toLocalDate(int epochDay) {
+        int days = epochDay + 719468;
+        int era = (days >= 0 ? days : days - 146096) / 146097;
+        int dayOfEra = days - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthPosition = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * monthPosition + 2) / 5 + 1;
+        int month = monthPosition < 10 ? monthPosition + 3 : monthPosition - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        return new LocalDate(year, month, day);
+    }
+
+    /**
+     * @return the number of days from <code>startInclusive</code> to <code>endExclusive</code>
+     * @throws IllegalArgumentException
+     *             if <code>endExclusive</code> is before <code>startInclusive</code>
+     */
+    public static int daysBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        int result = of(endExclusive) - of(startInclusive);
+        if (result < 0) {
+            throw new IllegalArgumentException(
+                    "endExclusive (" + endExclusive + ") is before startInclusive (" + startInclusive + ")");
+        }
+
+        return result;
+    }
+
+}
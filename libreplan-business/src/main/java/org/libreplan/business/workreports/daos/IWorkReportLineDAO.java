@@ -21,8 +21,10 @@
 
 package org.libreplan.business.workreports.daos;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.libreplan.business.common.daos.IIntegrationEntityDAO;
 import org.libreplan.business.orders.entities.OrderElement;
@@ -31,6 +33,7 @@ import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.util.Pair;
 import org.libreplan.business.workreports.entities.WorkReport;
 import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workreports.valueobjects.WorkReportLinesSummary;
 
 /**
  * Dao for {@link WorkReportLine}
@@ -74,6 +77,16 @@ public interface IWorkReportLineDAO extends
 
     Boolean isFinished(OrderElement orderElement);
 
+    /**
+     * Aggregates the {@link WorkReportLine WorkReportLines} directly charged to
+     * each of the given order elements with a grouped query, instead of
+     * querying them one by one.
+     *
+     * @return the summaries by order element id. The order elements without
+     *         lines are not included
+     */
+    Map<Long, WorkReportLinesSummary> findSummariesByOrderElements(Collection<? extends OrderElement> orderElements);
+
     List<WorkReportLine> findByOrderElementAndWorkReports(
             OrderElement orderElement, List<WorkReport> workReports);
     /**
@@ -25,7 +25,9 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.hibernate.Criteria;
 import org.hibernate.Query;
@@ -35,8 +37,10 @@ import org.libreplan.business.orders.entities.OrderElement;
 import org.libreplan.business.reports.dtos.WorkReportLineDTO;
 import org.libreplan.business.resources.entities.Resource;
 import org.libreplan.business.util.Pair;
+import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workreports.entities.WorkReport;
 import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workreports.valueobjects.WorkReportLinesSummary;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Repository;
@@ -55,6 +59,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class WorkReportLineDAO extends IntegrationEntityDAO<WorkReportLine>
         implements IWorkReportLineDAO {
 
+    /**
+     * Keeps the <code>IN</code> lists of the queries in a size every database
+     * accepts
+     */
+    private static final int MAX_ELEMENTS_PER_QUERY = 1000;
+
     @SuppressWarnings("unchecked")
     @Override
     public List<WorkReportLine> findByOrderElement(OrderElement orderElement){
@@ -200,6 +210,37 @@ public class WorkReportLineDAO extends IntegrationEntityDAO<WorkReportLine>
         return criteria.uniqueResult() != null;
     }
 
+    @Override
+    public Map<Long, WorkReportLinesSummary> findSummariesByOrderElements(
+            Collection<? extends OrderElement> orderElements) {
+
+        String strQuery = "SELECT wrl.orderElement.id, SUM(wrl.effort), MIN(wrl.date), MAX(wrl.date), "
+                + "MAX(CASE WHEN wrl.finished = true THEN 1 ELSE 0 END) "
+                + "FROM WorkReportLine wrl "
+                + "WHERE wrl.orderElement IN (:orderElements) "
+                + "GROUP BY wrl.orderElement.id";
+
+        Map<Long, WorkReportLinesSummary> result = new HashMap<>();
+        List<OrderElement> pending = new ArrayList<>(orderElements);
+        for (int i = 0; i < pending.size(); i += MAX_ELEMENTS_PER_QUERY) {
+            List<OrderElement> chunk = pending.subList(i, Math.min(pending.size(), i + MAX_ELEMENTS_PER_QUERY));
+
+            Query query = getSession().createQuery(strQuery);
+            query.setParameterList("orderElements", chunk);
+
+            for (Object each : query.list()) {
+                Object[] row = (Object[]) each;
+                result.put((Long) row[0], new WorkReportLinesSummary(
+                        EffortDuration.seconds(((Number) row[1]).intValue()),
+                        (Date) row[2],
+                        (Date) row[3],
+                        ((Number) row[4]).intValue() > 0));
+            }
+        }
+
+        return result;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public List<WorkReportLine> findByOrderElementAndWorkReports(
@@ -0,0 +1,68 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.workreports.valueobjects;
+
+import java.util.Date;
+
+import org.apache.commons.lang3.Validate;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+
+/**
+ * Aggregated data of the {@link WorkReportLine WorkReportLines} directly
+ * charged to an order element: the effort, the dates of the first and the last
+ * lines and if some of them finishes the order element.
+ */
+public class WorkReportLinesSummary {
+
+    private final EffortDuration effort;
+
+    private final Date firstDate;
+
+    private final Date lastDate;
+
+    private final boolean finished;
+
+    public WorkReportLinesSummary(EffortDuration effort, Date firstDate, Date lastDate, boolean finished) {
+        Validate.notNull(effort);
+        this.effort = effort;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.finished = finished;
+    }
+
+    public EffortDuration getEffort() {
+        return effort;
+    }
+
+    public Date getFirstDate() {
+        return firstDate;
+    }
+
+    public Date getLastDate() {
+        return lastDate;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+}
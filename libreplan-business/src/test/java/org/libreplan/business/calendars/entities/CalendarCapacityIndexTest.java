@@ -0,0 +1,139 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.calendars.entities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+import static org.libreplan.business.workingday.EffortDuration.zero;
+import static org.libreplan.business.workingday.IntraDayDate.PartialDay.wholeDay;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.CalendarData.Days;
+import org.libreplan.business.workingday.EffortDuration;
+
+/**
+ * Tests the invalidation of the {@link CalendarCapacityIndex} of a {@link BaseCalendar}.
+ */
+public class CalendarCapacityIndexTest {
+
+    private static final LocalDate MONDAY = new LocalDate(2026, 6, 1);
+
+    private static BaseCalendar calendarWithEightHoursOnMondays() {
+        return withEightHoursOnMondays(BaseCalendar.create());
+    }
+
+    private static <T extends BaseCalendar> T withEightHoursOnMondays(T calendar) {
+        for (Days each : Days.values()) {
+            calendar.setCapacityAt(each, Capacity.zero());
+        }
+        calendar.setCapacityAt(Days.MONDAY, capacityOf(hours(8)));
+
+        return calendar;
+    }
+
+    private static Capacity capacityOf(EffortDuration effort) {
+        return Capacity.create(effort).overAssignableWithoutLimit();
+    }
+
+    private static EffortDuration onMonday(BaseCalendar calendar) {
+        return calendar.getCapacityOn(wholeDay(MONDAY));
+    }
+
+    @Test
+    public void modifyingACalendarKeepsTheIndexesOfTheUnrelatedOnes() {
+        BaseCalendar calendar = calendarWithEightHoursOnMondays();
+        BaseCalendar other = calendarWithEightHoursOnMondays();
+        CalendarCapacityIndex index = calendar.getCapacityIndex();
+
+        other.setCapacityAt(Days.MONDAY, capacityOf(hours(4)));
+
+        assertThat(other.getCapacityIndex(), not(sameInstance(index)));
+        assertThat(calendar.getCapacityIndex(), sameInstance(index));
+        assertThat(onMonday(other), equalTo(hours(4)));
+    }
+
+    @Test
+    public void modifyingAParentRebuildsTheIndexesOfItsDerivedCalendars() {
+        BaseCalendar parent = calendarWithEightHoursOnMondays();
+        BaseCalendar derived = parent.newDerivedCalendar();
+        BaseCalendar derivedFromDerived = derived.newDerivedCalendar();
+        assertThat(onMonday(derivedFromDerived), equalTo(hours(8)));
+
+        parent.setCapacityAt(Days.MONDAY, capacityOf(hours(6)));
+
+        assertThat(onMonday(derived), equalTo(hours(6)));
+        assertThat(onMonday(derivedFromDerived), equalTo(hours(6)));
+    }
+
+    @Test
+    public void modifyingTheIndexedWorkWeekRebuildsTheIndex() {
+        BaseCalendar calendar = calendarWithEightHoursOnMondays();
+        assertThat(onMonday(calendar), equalTo(hours(8)));
+
+        calendar.getLastCalendarData().setCapacityAt(Days.MONDAY, capacityOf(hours(3)));
+
+        assertThat(onMonday(calendar), equalTo(hours(3)));
+    }
+
+    @Test
+    public void modifyingTheIndexedExceptionsAndAvailabilitiesRebuildsTheIndex() {
+        ResourceCalendar calendar = withEightHoursOnMondays(ResourceCalendar.create());
+        CalendarException exception = CalendarException.create(MONDAY.plusWeeks(1), zero(),
+                CalendarExceptionType.create("TEST", CalendarExceptionTypeColor.DEFAULT, true));
+        calendar.addExceptionDay(exception);
+        CalendarAvailability availability = calendar.getLastCalendarAvailability();
+        availability.setStartDate(MONDAY.minusWeeks(1));
+        assertThat(onMonday(calendar), equalTo(hours(8)));
+
+        exception.updateUnvalidated(MONDAY, null, null);
+        assertThat(onMonday(calendar), equalTo(zero()));
+
+        exception.updateUnvalidated(MONDAY.plusWeeks(1), null, null);
+        availability.setStartDate(MONDAY.plusDays(1));
+        assertThat(onMonday(calendar), equalTo(zero()));
+    }
+
+    @Test
+    public void loadingTheCalendarDiscardsTheIndex() throws Exception {
+        BaseCalendar calendar = calendarWithEightHoursOnMondays();
+        BaseCalendar derived = calendar.newDerivedCalendar();
+        assertThat(onMonday(derived), equalTo(hours(8)));
+
+        Set<CalendarException> loaded = new HashSet<>();
+        loaded.add(CalendarException.create(MONDAY, zero(),
+                CalendarExceptionType.create("TEST", CalendarExceptionTypeColor.DEFAULT, true)));
+        Field exceptions = BaseCalendar.class.getDeclaredField("exceptions");
+        exceptions.setAccessible(true);
+        exceptions.set(calendar, loaded);
+        calendar.onLoad(null, calendar.getId());
+
+        assertThat(onMonday(calendar), equalTo(zero()));
+        assertThat(onMonday(derived), equalTo(zero()));
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.common;
+
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.common.LastModificationDateListener.trackedRootOf;
+
+import org.junit.Test;
+import org.libreplan.business.advance.entities.AdvanceMeasurement;
+import org.libreplan.business.advance.entities.DirectAdvanceAssignment;
+import org.libreplan.business.costcategories.entities.ResourcesCostCategoryAssignment;
+import org.libreplan.business.labels.entities.Label;
+import org.libreplan.business.materials.entities.MaterialAssignment;
+import org.libreplan.business.orders.entities.HoursGroup;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.orders.entities.OrderLineGroup;
+import org.libreplan.business.requirements.entities.DirectCriterionRequirement;
+import org.libreplan.business.resources.entities.CriterionSatisfaction;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.test.planner.entities.TaskTest;
+
+/**
+ * Tests the tracked entity whose last modification date is updated when
+ * something it contains is modified.
+ */
+public class LastModificationDateListenerTest {
+
+    private final Order order = Order.create();
+
+    private final OrderLine line = OrderLine.createOrderLineWithUnfixedPercentage(10);
+
+    public LastModificationDateListenerTest() {
+        order.useSchedulingDataFor(TaskTest.mockOrderVersion());
+        OrderLineGroup group = OrderLineGroup.create();
+        order.add(group);
+        group.add(line);
+    }
+
+    @Test
+    public void theTrackedEntitiesAreTheirOwnRoot() {
+        Worker worker = Worker.create();
+
+        assertThat(trackedRootOf(order), sameInstance((ILastModificationDateTracked) order));
+        assertThat(trackedRootOf(worker), sameInstance((ILastModificationDateTracked) worker));
+    }
+
+    @Test
+    public void theElementsOfTheTreeAndTheirHoursGroupsBelongToTheOrder() {
+        HoursGroup hoursGroup = line.getHoursGroups().get(0);
+
+        assertThat(trackedRootOf(line.getParent()), sameInstance((ILastModificationDateTracked) order));
+        assertThat(trackedRootOf(line), sameInstance((ILastModificationDateTracked) order));
+        assertThat(trackedRootOf(hoursGroup), sameInstance((ILastModificationDateTracked) order));
+    }
+
+    @Test
+    public void theContentsOfTheElementsBelongToTheOrder() {
+        DirectCriterionRequirement requirement = DirectCriterionRequirement.create();
+        requirement.setOrderElement(line);
+        DirectCriterionRequirement hoursGroupRequirement = DirectCriterionRequirement.create();
+        hoursGroupRequirement.setHoursGroup(line.getHoursGroups().get(0));
+        DirectAdvanceAssignment advanceAssignment = DirectAdvanceAssignment.create();
+        advanceAssignment.setOrderElement(line);
+        AdvanceMeasurement measurement = AdvanceMeasurement.create();
+        measurement.setAdvanceAssignment(advanceAssignment);
+        MaterialAssignment materialAssignment = MaterialAssignment.create();
+        materialAssignment.setOrderElement(line);
+
+        assertThat(trackedRootOf(requirement), sameInstance((ILastModificationDateTracked) order));
+        assertThat(trackedRootOf(hoursGroupRequirement), sameInstance((ILastModificationDateTracked) order));
+        assertThat(trackedRootOf(advanceAssignment), sameInstance((ILastModificationDateTracked) order));
+        assertThat(trackedRootOf(measurement), sameInstance((ILastModificationDateTracked) order));
+        assertThat(trackedRootOf(materialAssignment), sameInstance((ILastModificationDateTracked) order));
+    }
+
+    @Test
+    public void theSatisfactionsAndCostCategoryAssignmentsBelongToTheResource() {
+        Worker worker = Worker.create();
+        CriterionSatisfaction satisfaction = CriterionSatisfaction.create();
+        satisfaction.setResource(worker);
+        ResourcesCostCategoryAssignment assignment = ResourcesCostCategoryAssignment.create();
+        assignment.setResource(worker);
+
+        assertThat(trackedRootOf(satisfaction), sameInstance((ILastModificationDateTracked) worker));
+        assertThat(trackedRootOf(assignment), sameInstance((ILastModificationDateTracked) worker));
+    }
+
+    @Test
+    public void theElementsOutsideAnOrderAndOtherEntitiesHaveNoRoot() {
+        OrderLine detached = OrderLine.createOrderLineWithUnfixedPercentage(10);
+
+        assertThat(trackedRootOf(detached), nullValue());
+        assertThat(trackedRootOf(detached.getHoursGroups().get(0)), nullValue());
+        assertThat(trackedRootOf(Label.create("label")), nullValue());
+        assertThat(trackedRootOf(null), nullValue());
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.common;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class SearchIndexTest {
+
+    private static SearchIndex<String[]> indexOf(String[]... entries) {
+        return SearchIndex.create(asList(entries), Arrays::asList);
+    }
+
+    private static String[] entry(String... texts) {
+        return texts;
+    }
+
+    private static List<String> firstTexts(List<String[]> entries) {
+        String[] result = new String[entries.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = entries.get(i)[0];
+        }
+
+        return asList(result);
+    }
+
+    @Test
+    public void anEmptyTextMatchesAllTheEntriesInTheirOrder() {
+        SearchIndex<String[]> index = indexOf(entry("Zeta"), entry("Alpha"));
+
+        assertThat(firstTexts(index.search("  ")), equalTo(asList("Zeta", "Alpha")));
+    }
+
+    @Test
+    public void findsTheTextInsideAnyOfTheTextsIgnoringCase() {
+        SearchIndex<String[]> index = indexOf(
+                entry("PRJ-001", "Building the bridge"),
+                entry("PRJ-002", "Painting"),
+                entry("PRJ-003", "Bridge maintenance"));
+
+        assertThat(firstTexts(index.search(" BRIDGE ")), equalTo(asList("PRJ-001", "PRJ-003")));
+        assertThat(firstTexts(index.search("j-00")), equalTo(asList("PRJ-001", "PRJ-002", "PRJ-003")));
+        assertThat(index.search("tunnel").size(), equalTo(0));
+    }
+
+    @Test
+    public void textsShorterThanATrigramAreFoundToo() {
+        SearchIndex<String[]> index = indexOf(entry("ab"), entry("xyz"), entry("cab"));
+
+        assertThat(firstTexts(index.search("b")), equalTo(asList("ab", "cab")));
+        assertThat(firstTexts(index.search("ab")), equalTo(asList("ab", "cab")));
+    }
+
+    @Test
+    public void theMatchesAtTheStartOfAWordComeFirst() {
+        SearchIndex<String[]> index = indexOf(
+                entry("Carpenter"),
+                entry("Senior painter"),
+                entry("Painter"),
+                entry("Printer"));
+
+        assertThat(firstTexts(index.search("pa")), equalTo(asList("Senior painter", "Painter")));
+        assertThat(firstTexts(index.search("nter")), equalTo(asList("Carpenter", "Senior painter", "Painter",
+                "Printer")));
+        assertThat(firstTexts(index.search("pain")), equalTo(asList("Senior painter", "Painter")));
+        assertThat(firstTexts(index.search("inter")), equalTo(asList("Senior painter", "Painter", "Printer")));
+    }
+
+    @Test
+    public void aMatchCannotSpanTwoTextsOfTheSameEntry() {
+        SearchIndex<String[]> index = indexOf(entry("abc", "def"));
+
+        assertThat(index.search("cde").size(), equalTo(0));
+        assertThat(index.search("bc").size(), equalTo(1));
+    }
+
+    @Test
+    public void theNullTextsAreIgnored() {
+        SearchIndex<String[]> index = indexOf(entry(null, "Worker"));
+
+        assertThat(index.search("work").size(), equalTo(1));
+        assertThat(index.size(), equalTo(1));
+    }
+
+    @Test
+    public void theMatchingOfOneEntryIsTheSameAsTheIndexOne() {
+        assertTrue(SearchIndex.matches(asList("Bridge", "PRJ-001"), " prj "));
+        assertTrue(SearchIndex.matches(asList("Bridge", null), ""));
+        assertFalse(SearchIndex.matches(asList("abc", "def"), "cde"));
+        assertFalse(SearchIndex.matches(Collections.emptyList(), "a"));
+    }
+
+}
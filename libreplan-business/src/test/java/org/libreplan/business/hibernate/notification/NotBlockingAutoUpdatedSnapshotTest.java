@@ -0,0 +1,202 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NotBlockingAutoUpdatedSnapshotTest {
+
+    private ExecutorService executor;
+
+    private AtomicInteger fullReloads;
+
+    private List<Long> database;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newSingleThreadExecutor();
+        fullReloads = new AtomicInteger();
+        database = Collections.synchronizedList(new ArrayList<>(asList(1L, 2L)));
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private Callable<List<Long>> fullReload() {
+        return () -> {
+            fullReloads.incrementAndGet();
+            return new ArrayList<>(database);
+        };
+    }
+
+    /**
+     * Adds the inserted ids and removes the deleted ones
+     */
+    private static ISnapshotDelta<List<Long>> idsDelta() {
+        return (previous, modifications) -> {
+            List<Long> result = new ArrayList<>(previous);
+            for (EntityModification each : modifications) {
+                result.remove(each.getId());
+                if ( !each.isDeletion() ) {
+                    result.add((Long) each.getId());
+                }
+            }
+            return result;
+        };
+    }
+
+    private NotBlockingAutoUpdatedSnapshot<List<Long>> loadedSnapshot(ISnapshotDelta<List<Long>> delta) {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> result =
+                new NotBlockingAutoUpdatedSnapshot<>("ids", fullReload(), delta);
+
+        result.ensureFirstLoad(executor);
+        result.getValue();
+
+        return result;
+    }
+
+    private static void waitForCalculations(NotBlockingAutoUpdatedSnapshot<?> snapshot) throws Exception {
+        snapshot.waitForValue();
+    }
+
+    @Test
+    public void theModificationsAreAppliedToThePreviousValue() throws Exception {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = loadedSnapshot(idsDelta());
+
+        snapshot.reloadNeeded(executor, asList(
+                EntityModification.inserted(Long.class, 3L),
+                EntityModification.deleted(Long.class, 1L)));
+        waitForCalculations(snapshot);
+
+        assertThat(snapshot.getValue(), equalTo(asList(2L, 3L)));
+        assertThat(fullReloads.get(), equalTo(1));
+    }
+
+    @Test
+    public void theModificationsAreAppliedAfterTheOngoingCalculation() throws Exception {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = loadedSnapshot(idsDelta());
+
+        snapshot.reloadNeeded(executor, asList(EntityModification.inserted(Long.class, 3L)));
+        snapshot.reloadNeeded(executor, asList(EntityModification.updated(Long.class, 1L)));
+        snapshot.reloadNeeded(executor, asList(EntityModification.deleted(Long.class, 2L)));
+        waitForCalculations(snapshot);
+
+        assertThat(snapshot.getValue(), equalTo(asList(3L, 1L)));
+        assertThat(fullReloads.get(), equalTo(1));
+    }
+
+    @Test
+    public void itIsFullyReloadedIfTheModificationsCannotBeApplied() throws Exception {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = loadedSnapshot((previous, modifications) -> null);
+        database.add(3L);
+
+        snapshot.reloadNeeded(executor, asList(EntityModification.inserted(Long.class, 3L)));
+        waitForCalculations(snapshot);
+
+        assertThat(snapshot.getValue(), equalTo(asList(1L, 2L, 3L)));
+        assertThat(fullReloads.get(), equalTo(2));
+    }
+
+    @Test
+    public void itIsFullyReloadedIfApplyingTheModificationsFails() throws Exception {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = loadedSnapshot((previous, modifications) -> {
+            throw new IllegalStateException();
+        });
+        database.remove(1L);
+
+        snapshot.reloadNeeded(executor, asList(EntityModification.deleted(Long.class, 1L)));
+        waitForCalculations(snapshot);
+
+        assertThat(snapshot.getValue(), equalTo(asList(2L)));
+        assertThat(fullReloads.get(), equalTo(2));
+    }
+
+    @Test
+    public void withoutDeltaItIsFullyReloaded() throws Exception {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = loadedSnapshot(null);
+        database.add(3L);
+
+        snapshot.reloadNeeded(executor, asList(EntityModification.inserted(Long.class, 3L)));
+        waitForCalculations(snapshot);
+
+        assertThat(snapshot.getValue(), equalTo(asList(1L, 2L, 3L)));
+        assertThat(fullReloads.get(), equalTo(2));
+    }
+
+    @Test
+    public void theListenerIsNotifiedOfEachExecution() throws Exception {
+        List<String> executions = Collections.synchronizedList(new ArrayList<>());
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = new NotBlockingAutoUpdatedSnapshot<>("ids",
+                fullReload(), idsDelta(),
+                (snapshotName, msWaiting, msExecuting, failed) -> executions.add(snapshotName + " " + failed));
+
+        snapshot.ensureFirstLoad(executor);
+        snapshot.reloadNeeded(executor, asList(EntityModification.inserted(Long.class, 3L)));
+        waitForCalculations(snapshot);
+
+        assertThat(executions, equalTo(asList("ids false", "ids false")));
+    }
+
+    @Test
+    public void theModificationsDoNotWaitForTheOngoingCalculationInAThread() throws Exception {
+        ExecutorService twoThreads = Executors.newFixedThreadPool(2);
+        CountDownLatch reloading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = new NotBlockingAutoUpdatedSnapshot<>("ids", () -> {
+            reloading.countDown();
+            release.await();
+            return new ArrayList<>(database);
+        }, idsDelta());
+        try {
+            snapshot.ensureFirstLoad(twoThreads);
+            reloading.await();
+            snapshot.reloadNeeded(twoThreads, asList(EntityModification.inserted(Long.class, 3L)));
+            snapshot.reloadNeeded(twoThreads, asList(EntityModification.deleted(Long.class, 1L)));
+
+            // The other thread is still free while the first load is ongoing
+            twoThreads.submit(() -> null).get(10, TimeUnit.SECONDS);
+
+            release.countDown();
+            waitForCalculations(snapshot);
+            assertThat(snapshot.getValue(), equalTo(asList(2L, 3L)));
+        } finally {
+            twoThreads.shutdownNow();
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.hibernate.notification;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SnapshotReloadSchedulerTest {
+
+    private static final long DEBOUNCE_MS = 200;
+
+    private SnapshotReloadScheduler scheduler;
+
+    private AtomicInteger deltaApplications;
+
+    private List<Long> msWaitingOfExecutions;
+
+    @Before
+    public void setUp() {
+        scheduler = new SnapshotReloadScheduler(1, 1, DEBOUNCE_MS);
+        deltaApplications = new AtomicInteger();
+        msWaitingOfExecutions = Collections.synchronizedList(new ArrayList<>());
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private ISnapshotDelta<List<Long>> idsDelta() {
+        return (previous, modifications) -> {
+            deltaApplications.incrementAndGet();
+            List<Long> result = new ArrayList<>(previous);
+            for (EntityModification each : modifications) {
+                result.add((Long) each.getId());
+            }
+            return result;
+        };
+    }
+
+    private NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot(boolean heavy, final CountDownLatch firstLoad) {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> result = new NotBlockingAutoUpdatedSnapshot<>("ids", () -> {
+            firstLoad.await();
+            return new ArrayList<>(asList(1L));
+        }, idsDelta(), (snapshotName, msWaiting, msExecuting, failed) -> msWaitingOfExecutions.add(msWaiting));
+
+        scheduler.register(result, heavy);
+        scheduler.ensureFirstLoad(result);
+
+        return result;
+    }
+
+    private NotBlockingAutoUpdatedSnapshot<List<Long>> loadedSnapshot() {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> result = snapshot(false, new CountDownLatch(0));
+        result.getValue();
+
+        return result;
+    }
+
+    private static void waitUntilValueIs(NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot, List<Long> expected)
+            throws InterruptedException {
+
+        long limit = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (!snapshot.getValue().equals(expected) && System.currentTimeMillis() < limit) {
+            Thread.sleep(10);
+        }
+        assertThat(snapshot.getValue(), equalTo(expected));
+    }
+
+    @Test
+    public void theRequestsWithinTheDebounceWindowAreCoalesced() throws InterruptedException {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = loadedSnapshot();
+
+        scheduler.reloadNeeded(snapshot, asList(EntityModification.inserted(Long.class, 2L)));
+        scheduler.reloadNeeded(snapshot, asList(EntityModification.inserted(Long.class, 3L)));
+        scheduler.reloadNeeded(snapshot, asList(EntityModification.inserted(Long.class, 4L)));
+        waitUntilValueIs(snapshot, asList(1L, 2L, 3L, 4L));
+
+        assertThat(deltaApplications.get(), equalTo(1));
+    }
+
+    @Test
+    public void theWaitingTimeIncludesTheDebounceWindow() throws InterruptedException {
+        NotBlockingAutoUpdatedSnapshot<List<Long>> snapshot = loadedSnapshot();
+
+        scheduler.reloadNeeded(snapshot, asList(EntityModification.inserted(Long.class, 2L)));
+        waitUntilValueIs(snapshot, asList(1L, 2L));
+
+        assertThat(msWaitingOfExecutions.size(), equalTo(2));
+        // Some clocks have a resolution of several milliseconds
+        assertTrue(msWaitingOfExecutions.get(1) >= DEBOUNCE_MS - 20);
+    }
+
+    @Test(timeout = 10000)
+    public void theCheapSnapshotsAreNotDelayedByTheHeavyOnes() throws InterruptedException {
+        CountDownLatch heavyLoad = new CountDownLatch(1);
+        try {
+            snapshot(true, heavyLoad);
+            NotBlockingAutoUpdatedSnapshot<List<Long>> cheap = loadedSnapshot();
+
+            assertThat(cheap.getValue(), equalTo(asList(1L)));
+        } finally {
+            heavyLoad.countDown();
+        }
+    }
+
+}
@@ -38,11 +38,13 @@ import org.joda.time.LocalDate;
 import org.junit.Test;
 import org.libreplan.business.calendars.entities.AvailabilityTimeLine;
 import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.calendars.entities.CalendarAvailability;
 import org.libreplan.business.calendars.entities.CalendarData.Days;
 import org.libreplan.business.calendars.entities.CalendarException;
 import org.libreplan.business.calendars.entities.CalendarExceptionType;
 import org.libreplan.business.calendars.entities.CalendarExceptionTypeColor;
 import org.libreplan.business.calendars.entities.Capacity;
+import org.libreplan.business.calendars.entities.ICalendar;
 import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workingday.IntraDayDate.PartialDay;
 import org.libreplan.business.workingday.ResourcesPerDay;
@@ -838,4 +840,125 @@ public class BaseCalendarTest {
         AvailabilityTimeLine availability = calendar.getAvailability();
         assertFalse(availability.isValid(MONDAY_LOCAL_DATE));
     }
+
+    @Test
+    public void theCapacityIsRecalculatedAfterAddingAnExceptionToTheParent() {
+        BaseCalendar parent = createBasicCalendar();
+        BaseCalendar derived = parent.newDerivedCalendar();
+        assertThat(derived.getCapacityOn(wholeDay(MONDAY_LOCAL_DATE)), equalTo(hours(8)));
+
+        addExceptionOn(parent, MONDAY_LOCAL_DATE, Capacity.zero());
+
+        assertThat(derived.getCapacityOn(wholeDay(MONDAY_LOCAL_DATE)), equalTo(zero()));
+    }
+
+    @Test
+    public void theCapacityIsRecalculatedAfterChangingTheParent() {
+        BaseCalendar derived = createBasicCalendar().newDerivedCalendar();
+        assertThat(derived.getCapacityOn(wholeDay(MONDAY_LOCAL_DATE)), equalTo(hours(8)));
+
+        BaseCalendar newParent = createBasicCalendar();
+        addExceptionOn(newParent, MONDAY_LOCAL_DATE, withNormalDuration(hours(3)));
+        derived.setParent(newParent);
+
+        assertThat(derived.getCapacityOn(wholeDay(MONDAY_LOCAL_DATE)), equalTo(hours(3)));
+    }
+
+    @Test
+    public void theCapacityIsRecalculatedAfterCreatingANewVersion() {
+        BaseCalendar calendar = createBasicCalendar();
+        assertThat(calendar.getCapacityOn(wholeDay(WEDNESDAY_LOCAL_DATE)), equalTo(hours(8)));
+
+        calendar.newVersion(TUESDAY_LOCAL_DATE);
+        setHoursForAllDays(calendar, 4);
+
+        assertThat(calendar.getCapacityOn(wholeDay(MONDAY_LOCAL_DATE)), equalTo(hours(8)));
+        assertThat(calendar.getCapacityOn(wholeDay(WEDNESDAY_LOCAL_DATE)), equalTo(hours(4)));
+    }
+
+    @Test
+    public void theCapacityIsRecalculatedAfterChangingTheCalendarAvailabilities() {
+        BaseCalendar calendar = createBasicCalendar().newDerivedResourceCalendar();
+        CalendarAvailability availability = calendar.getLastCalendarAvailability();
+        availability.setStartDate(MONDAY_LOCAL_DATE);
+        assertThat(calendar.getCapacityOn(wholeDay(WEDNESDAY_LOCAL_DATE)), equalTo(hours(8)));
+
+        calendar.setEndDate(availability, TUESDAY_LOCAL_DATE);
+
+        assertThat(calendar.getCapacityOn(wholeDay(TUESDAY_LOCAL_DATE)), equalTo(hours(8)));
+        assertThat(calendar.getCapacityOn(wholeDay(WEDNESDAY_LOCAL_DATE)), equalTo(zero()));
+
+        // the previous availability is extended until the day before the new one
+        calendar.addNewCalendarAvailability(CalendarAvailability.create(FRIDAY_LOCAL_DATE, null));
+
+        assertThat(calendar.getCapacityOn(wholeDay(WEDNESDAY_LOCAL_DATE)), equalTo(hours(8)));
+        assertThat(calendar.getCapacityOn(wholeDay(FRIDAY_LOCAL_DATE)), equalTo(hours(8)));
+    }
+
+    @Test
+    public void theCapacityOfAVersionWithoutParentIsResolvedAlongTheParentVersions() {
+        BaseCalendar parent = createBasicCalendar();
+        parent.newVersion(WEDNESDAY_LOCAL_DATE);
+        setHoursForAllDays(parent, 4);
+
+        BaseCalendar derived = parent.newDerivedCalendar();
+        derived.setCapacityAt(Days.FRIDAY, withNormalDuration(hours(2)));
+
+        assertThat(derived.getCapacityOn(wholeDay(MONDAY_LOCAL_DATE)), equalTo(hours(8)));
+        assertThat(derived.getCapacityOn(wholeDay(THURSDAY_LOCAL_DATE)), equalTo(hours(4)));
+        assertThat(derived.getCapacityOn(wholeDay(FRIDAY_LOCAL_DATE)), equalTo(hours(2)));
+    }
+
+    @Test
+    public void theCapacitiesOfAnIntervalAreTheSameAsTheCapacitiesOfEachDay() {
+        BaseCalendar parent = createBasicCalendar();
+        addExceptionOn(parent, new LocalDate(2000, 2, 29), withNormalDuration(hours(3)));
+        parent.newVersion(new LocalDate(2000, 6, 1));
+        setHoursForAllDays(parent, 6);
+
+        BaseCalendar calendar = parent.newDerivedResourceCalendar();
+        calendar.setCapacityAt(Days.SATURDAY, withNormalDuration(hours(2)));
+        addExceptionOn(calendar, new LocalDate(2000, 12, 31), Capacity.zero());
+        CalendarAvailability availability = calendar.getLastCalendarAvailability();
+        availability.setStartDate(new LocalDate(1999, 12, 1));
+        calendar.setEndDate(availability, new LocalDate(2000, 3, 15));
+        calendar.addNewCalendarAvailability(CalendarAvailability.create(new LocalDate(2000, 4, 1), null));
+
+        LocalDate start = new LocalDate(1999, 11, 1);
+        int[] capacities = calendar.getCapacitiesBetween(start, new LocalDate(2001, 2, 1));
+
+        assertThat(capacities.length, equalTo(458));
+        for (int i = 0; i < capacities.length; i++) {
+            LocalDate day = start.plusDays(i);
+            assertThat(day.toString(), capacities[i], equalTo(calendar.getCapacityOn(wholeDay(day)).getSeconds()));
+        }
+    }
+
+    @Test
+    public void theAllowedExtraEffortsOfAnIntervalAreTheSameAsTheCapacitiesOfEachDay() {
+        BaseCalendar calendar = createBasicCalendar();
+        calendar.setCapacityAt(Days.MONDAY, Capacity.create(hours(8)).withAllowedExtraEffort(hours(2)));
+
+        int[] extraEfforts = calendar.getAllowedExtraEffortsBetween(MONDAY_LOCAL_DATE, MONDAY_LOCAL_DATE.plusDays(2));
+
+        assertThat(extraEfforts[0], equalTo(hours(2).getSeconds()));
+        assertThat(extraEfforts[1], equalTo(ICalendar.NO_EXTRA_EFFORT_LIMIT));
+    }
+
+    @Test
+    public void theWorkableDurationIsZeroIfTheEndIsBeforeTheStart() {
+        BaseCalendar calendar = createBasicCalendar();
+
+        assertThat(calendar.getWorkableDuration(TUESDAY_LOCAL_DATE, MONDAY_LOCAL_DATE), equalTo(zero()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theWorkableDurationIsRejectedInsteadOfOverflowing() {
+        BaseCalendar calendar = createBasicCalendar();
+        for (Days each : Days.values()) {
+            calendar.setCapacityAt(each, Capacity.create(hours(24)));
+        }
+
+        calendar.getWorkableDuration(MONDAY_LOCAL_DATE, MONDAY_LOCAL_DATE.plusYears(70));
+    }
 }
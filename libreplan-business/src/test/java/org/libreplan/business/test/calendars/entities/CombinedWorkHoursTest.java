@@ -26,6 +26,7 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.isA;
 import static org.easymock.EasyMock.replay;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.libreplan.business.workingday.IntraDayDate.PartialDay.wholeDay;
@@ -66,6 +67,45 @@ public class CombinedWorkHoursTest {
         assertThat(duration, equalTo(EffortDuration.hours(2)));
     }
 
+    @Test
+    public void combinesTheCapacitiesOfAnIntervalDayByDay() {
+        LocalDate start = new LocalDate(2000, 3, 3);
+
+        ICalendar minOf = CombinedWorkHours.minOf(first(start), second(start));
+        assertArrayEquals(new int[] { 10, 5, 30 },
+                minOf.getCapacitiesBetween(start, start.plusDays(3)));
+        assertArrayEquals(new int[] { 5, 10, 5 },
+                minOf.getAllowedExtraEffortsBetween(start, start.plusDays(3)));
+
+        ICalendar maxOf = CombinedWorkHours.maxOf(first(start), second(start));
+        assertArrayEquals(new int[] { 15, 20, 30 },
+                maxOf.getCapacitiesBetween(start, start.plusDays(3)));
+        assertArrayEquals(new int[] { 10, ICalendar.NO_EXTRA_EFFORT_LIMIT,
+                ICalendar.NO_EXTRA_EFFORT_LIMIT },
+                maxOf.getAllowedExtraEffortsBetween(start, start.plusDays(3)));
+    }
+
+    private ICalendar first(LocalDate start) {
+        return secondsBetween(start, new int[] { 10, 20, 30 },
+                new int[] { 5, ICalendar.NO_EXTRA_EFFORT_LIMIT, 5 });
+    }
+
+    private ICalendar second(LocalDate start) {
+        return secondsBetween(start, new int[] { 15, 5, 30 },
+                new int[] { 10, 10, ICalendar.NO_EXTRA_EFFORT_LIMIT });
+    }
+
+    private ICalendar secondsBetween(LocalDate start, int[] capacities,
+            int[] extraEfforts) {
+        LocalDate end = start.plusDays(capacities.length);
+        ICalendar result = createNiceMock(ICalendar.class);
+        expect(result.getCapacitiesBetween(start, end)).andReturn(capacities);
+        expect(result.getAllowedExtraEffortsBetween(start, end)).andReturn(
+                extraEfforts);
+        replay(result);
+        return result;
+    }
+
     private ICalendar hours(int hours) {
         ICalendar result = createNiceMock(ICalendar.class);
         expect(result.getCapacityOn(isA(PartialDay.class))).andReturn(
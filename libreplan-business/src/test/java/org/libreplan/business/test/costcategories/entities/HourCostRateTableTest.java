@@ -0,0 +1,103 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.test.costcategories.entities;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+
+import java.math.BigDecimal;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.costcategories.entities.HourCostRateTable;
+
+/**
+ * Tests for {@link HourCostRateTable}.
+ */
+public class HourCostRateTableTest {
+
+    private static final Long RESOURCE = 1L;
+
+    private static final String NORMAL = "normal";
+
+    private static final String EXTRA = "extra";
+
+    private HourCostRateTable table;
+
+    private static LocalDate date(int month, int day) {
+        return new LocalDate(2026, month, day);
+    }
+
+    @Before
+    public void createTable() {
+        table = HourCostRateTable.create();
+        table.addDefaultPrice(NORMAL, new BigDecimal("10"));
+        table.addDefaultPrice(EXTRA, new BigDecimal("15"));
+    }
+
+    @Test
+    public void thePriceIsOnlyDefinedWhileBothTheAssignmentAndTheHourCostAreActive() {
+        table.addRate(RESOURCE, date(2, 1), date(5, 31), NORMAL, date(1, 1), date(3, 31), new BigDecimal("20"));
+
+        assertNull(table.getPrice(RESOURCE, NORMAL, date(1, 31)));
+        assertThat(table.getPrice(RESOURCE, NORMAL, date(2, 1)), equalTo(new BigDecimal("20")));
+        assertThat(table.getPrice(RESOURCE, NORMAL, date(3, 31)), equalTo(new BigDecimal("20")));
+        assertNull(table.getPrice(RESOURCE, NORMAL, date(4, 1)));
+    }
+
+    @Test
+    public void theOpenEndedIntervalsApplyToAnyLaterDate() {
+        table.addRate(RESOURCE, date(1, 1), null, NORMAL, date(1, 1), date(3, 31), new BigDecimal("20"));
+        table.addRate(RESOURCE, date(1, 1), null, NORMAL, date(4, 1), null, new BigDecimal("25"));
+
+        assertThat(table.getPrice(RESOURCE, NORMAL, date(3, 31)), equalTo(new BigDecimal("20")));
+        assertThat(table.getPrice(RESOURCE, NORMAL, new LocalDate(2030, 1, 1)), equalTo(new BigDecimal("25")));
+    }
+
+    @Test
+    public void theTypesOfHoursAndTheResourcesAreKeptApart() {
+        table.addRate(RESOURCE, date(1, 1), null, NORMAL, date(1, 1), null, new BigDecimal("20"));
+
+        assertNull(table.getPrice(RESOURCE, EXTRA, date(6, 1)));
+        assertNull(table.getPrice(2L, NORMAL, date(6, 1)));
+    }
+
+    @Test
+    public void theDefaultPriceIsUsedWhenThereIsNoRate() {
+        table.addRate(RESOURCE, date(1, 1), date(1, 31), NORMAL, date(1, 1), null, new BigDecimal("20"));
+
+        assertThat(table.getPriceOrDefault(RESOURCE, NORMAL, date(1, 15)), equalTo(new BigDecimal("20")));
+        assertThat(table.getPriceOrDefault(RESOURCE, NORMAL, date(2, 1)), equalTo(new BigDecimal("10")));
+        assertThat(table.getPriceOrDefault(RESOURCE, EXTRA, date(1, 15)), equalTo(new BigDecimal("15")));
+        assertNull(table.getPriceOrDefault(RESOURCE, "unknown", date(1, 15)));
+    }
+
+    @Test
+    public void disjointIntervalsAreIgnored() {
+        table.addRate(RESOURCE, date(1, 1), date(1, 31), NORMAL, date(2, 1), null, new BigDecimal("20"));
+
+        assertNull(table.getPrice(RESOURCE, NORMAL, date(1, 15)));
+        assertNull(table.getPrice(RESOURCE, NORMAL, date(2, 15)));
+    }
+
+}
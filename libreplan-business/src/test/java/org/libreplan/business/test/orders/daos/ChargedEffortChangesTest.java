@@ -0,0 +1,138 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.test.orders.daos;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Date;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.orders.daos.ChargedEffortChanges;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.orders.entities.OrderLineGroup;
+import org.libreplan.business.orders.entities.SumChargedEffort;
+import org.libreplan.business.workingday.EffortDuration;
+
+public class ChargedEffortChangesTest {
+
+    private OrderLineGroup root;
+
+    private OrderLineGroup group;
+
+    private OrderLine line;
+
+    private OrderLine sibling;
+
+    private ChargedEffortChanges changes;
+
+    @Before
+    public void setUp() {
+        root = createNiceMock(OrderLineGroup.class);
+        group = withParent(createNiceMock(OrderLineGroup.class), root);
+        line = withParent(createNiceMock(OrderLine.class), group);
+        sibling = withParent(createNiceMock(OrderLine.class), group);
+        replay(root);
+        changes = new ChargedEffortChanges();
+    }
+
+    private static <T extends OrderElement> T withParent(T orderElement, OrderLineGroup parent) {
+        expect(orderElement.getParent()).andReturn(parent).anyTimes();
+        replay(orderElement);
+
+        return orderElement;
+    }
+
+    private SumChargedEffort applied(OrderElement orderElement) {
+        return applied(orderElement, SumChargedEffort.create(orderElement));
+    }
+
+    private SumChargedEffort applied(OrderElement orderElement, SumChargedEffort sumChargedEffort) {
+        changes.applyTo(orderElement, sumChargedEffort);
+
+        return sumChargedEffort;
+    }
+
+    private static Date date(int day) {
+        return new LocalDate(2026, 1, day).toDateTimeAtStartOfDay().toDate();
+    }
+
+    @Test
+    public void theNetEffortIsChargedIndirectlyToEachAncestor() {
+        changes.add(line, EffortDuration.hours(3), date(1), false);
+        changes.add(line, EffortDuration.hours(2), date(2), false);
+        changes.subtract(line, EffortDuration.hours(1));
+
+        assertThat(applied(line).getDirectChargedEffort(), equalTo(EffortDuration.hours(4)));
+        assertThat(applied(group).getIndirectChargedEffort(), equalTo(EffortDuration.hours(4)));
+        assertThat(applied(root).getIndirectChargedEffort(), equalTo(EffortDuration.hours(4)));
+    }
+
+    @Test
+    public void movingALineBetweenSiblingsDoesNotChangeTheirAncestors() {
+        SumChargedEffort lineSum = SumChargedEffort.create(line);
+        lineSum.addDirectChargedEffort(EffortDuration.hours(5));
+        SumChargedEffort groupSum = SumChargedEffort.create(group);
+        groupSum.addIndirectChargedEffort(EffortDuration.hours(5));
+
+        changes.subtract(line, EffortDuration.hours(5));
+        changes.add(sibling, EffortDuration.hours(5), date(1), false);
+
+        assertThat(applied(line, lineSum).getDirectChargedEffort(), equalTo(EffortDuration.zero()));
+        assertThat(applied(sibling).getDirectChargedEffort(), equalTo(EffortDuration.hours(5)));
+        assertThat(applied(group, groupSum).getIndirectChargedEffort(), equalTo(EffortDuration.hours(5)));
+        assertThat(changes.getAffectedOrderElements().size(), equalTo(4));
+    }
+
+    @Test
+    public void theTimesheetDatesOfTheAncestorsAreWidened() {
+        SumChargedEffort groupSum = SumChargedEffort.create(group);
+        groupSum.setTimesheetDates(date(10), date(20));
+
+        changes.add(line, EffortDuration.hours(1), date(5), false);
+        changes.add(sibling, EffortDuration.hours(1), date(15), false);
+
+        applied(group, groupSum);
+        assertThat(groupSum.getFirstTimesheetDate(), equalTo(date(5)));
+        assertThat(groupSum.getLastTimesheetDate(), equalTo(date(20)));
+
+        SumChargedEffort siblingSum = applied(sibling);
+        assertThat(siblingSum.getFirstTimesheetDate(), equalTo(date(15)));
+        assertThat(siblingSum.getLastTimesheetDate(), equalTo(date(15)));
+    }
+
+    @Test
+    public void onlyTheOrderElementOfTheLineIsFinished() {
+        changes.add(line, EffortDuration.hours(1), date(1), true);
+
+        assertTrue(applied(line).isFinishedTimesheets());
+        assertFalse(applied(group).isFinishedTimesheets());
+    }
+
+}
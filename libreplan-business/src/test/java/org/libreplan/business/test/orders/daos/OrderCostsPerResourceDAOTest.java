@@ -0,0 +1,478 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.test.orders.daos;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
+import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.libreplan.business.IDataBootstrap;
+import org.libreplan.business.calendars.daos.IBaseCalendarDAO;
+import org.libreplan.business.calendars.entities.BaseCalendar;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
+import org.libreplan.business.costcategories.daos.ITypeOfWorkHoursDAO;
+import org.libreplan.business.costcategories.entities.TypeOfWorkHours;
+import org.libreplan.business.expensesheet.daos.IExpenseSheetDAO;
+import org.libreplan.business.expensesheet.entities.ExpenseSheet;
+import org.libreplan.business.expensesheet.entities.ExpenseSheetLine;
+import org.libreplan.business.labels.daos.ILabelDAO;
+import org.libreplan.business.labels.daos.ILabelTypeDAO;
+import org.libreplan.business.labels.entities.Label;
+import org.libreplan.business.labels.entities.LabelType;
+import org.libreplan.business.orders.daos.IOrderDAO;
+import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.orders.entities.OrderLineGroup;
+import org.libreplan.business.orders.entities.TaskSource;
+import org.libreplan.business.planner.daos.IResourceAllocationDAO;
+import org.libreplan.business.planner.daos.ITaskSourceDAO;
+import org.libreplan.business.planner.entities.GenericResourceAllocation;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.reports.dtos.CostExpenseSheetDTO;
+import org.libreplan.business.reports.dtos.OrderCostsPerResourceDTO;
+import org.libreplan.business.resources.daos.ICriterionDAO;
+import org.libreplan.business.resources.daos.ICriterionTypeDAO;
+import org.libreplan.business.resources.daos.IResourceDAO;
+import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionType;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.scenarios.IScenarioManager;
+import org.libreplan.business.scenarios.bootstrap.IScenariosBootstrap;
+import org.libreplan.business.scenarios.entities.OrderVersion;
+import org.libreplan.business.test.calendars.entities.BaseCalendarTest;
+import org.libreplan.business.test.planner.daos.ResourceAllocationDAOTest;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workreports.daos.IWorkReportDAO;
+import org.libreplan.business.workreports.daos.IWorkReportTypeDAO;
+import org.libreplan.business.workreports.entities.WorkReport;
+import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workreports.entities.WorkReportType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Tests for the filters of {@link IOrderDAO#getOrderCostsPerResource} and
+ * {@link IOrderDAO#getCostExpenseSheet}.
+ *
+ * Every test order element gets a timesheet line and an expense, so the
+ * elements of both results must be the same.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = { BUSINESS_SPRING_CONFIG_FILE, BUSINESS_SPRING_CONFIG_TEST_FILE })
+@Transactional
+public class OrderCostsPerResourceDAOTest {
+
+    /**
+     * Same size as the chunks of the <code>IN</code> lists of the queries
+     */
+    private static final int MAX_ELEMENTS_PER_QUERY = 1000;
+
+    @Autowired
+    private IOrderDAO orderDAO;
+
+    @Autowired
+    private IBaseCalendarDAO calendarDAO;
+
+    @Autowired
+    private IResourceDAO resourceDAO;
+
+    @Autowired
+    private ITypeOfWorkHoursDAO typeOfWorkHoursDAO;
+
+    @Autowired
+    private IWorkReportTypeDAO workReportTypeDAO;
+
+    @Autowired
+    private IWorkReportDAO workReportDAO;
+
+    @Autowired
+    private IExpenseSheetDAO expenseSheetDAO;
+
+    @Autowired
+    private ILabelTypeDAO labelTypeDAO;
+
+    @Autowired
+    private ILabelDAO labelDAO;
+
+    @Autowired
+    private ICriterionTypeDAO criterionTypeDAO;
+
+    @Autowired
+    private ICriterionDAO criterionDAO;
+
+    @Autowired
+    private ITaskSourceDAO taskSourceDAO;
+
+    @Autowired
+    private IResourceAllocationDAO resourceAllocationDAO;
+
+    @Autowired
+    private IScenariosBootstrap scenariosBootstrap;
+
+    @Autowired
+    private IScenarioManager scenarioManager;
+
+    @Autowired
+    private IAdHocTransactionService transactionService;
+
+    @javax.annotation.Resource
+    private IDataBootstrap configurationBootstrap;
+
+    private Worker worker;
+
+    private TypeOfWorkHours typeOfWorkHours;
+
+    private WorkReport workReport;
+
+    private ExpenseSheet expenseSheet;
+
+    @Before
+    public void loadRequiredData() {
+        configurationBootstrap.loadRequiredData();
+        transactionService.runOnAnotherTransaction(new IOnTransaction<Void>() {
+            @Override
+            public Void execute() {
+                scenariosBootstrap.loadRequiredData();
+                return null;
+            }
+        });
+    }
+
+    @Before
+    public void givenWorkerAndEmptyReports() {
+        worker = Worker.create();
+        worker.setFirstName(UUID.randomUUID().toString());
+        worker.setSurname(UUID.randomUUID().toString());
+        worker.setNif(UUID.randomUUID().toString());
+        resourceDAO.save(worker);
+
+        typeOfWorkHours = TypeOfWorkHours.create(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        typeOfWorkHours.setDefaultPrice(BigDecimal.TEN);
+        typeOfWorkHoursDAO.save(typeOfWorkHours);
+
+        WorkReportType workReportType =
+                WorkReportType.create(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        workReportTypeDAO.save(workReportType);
+        workReport = WorkReport.create(workReportType);
+
+        expenseSheet = ExpenseSheet.create();
+        expenseSheet.setCode(UUID.randomUUID().toString());
+    }
+
+    private Order givenOrder(String name) {
+        Order result = Order.create();
+        result.setName(name + UUID.randomUUID().toString());
+        result.setCode(UUID.randomUUID().toString());
+        result.setInitDate(new Date());
+        BaseCalendar calendar = BaseCalendarTest.createBasicCalendar();
+        calendarDAO.save(calendar);
+        result.setCalendar(calendar);
+        result.useSchedulingDataFor(ResourceAllocationDAOTest.setupVersionUsing(scenarioManager, result));
+
+        return result;
+    }
+
+    private static OrderLineGroup givenGroup(OrderLineGroup parent) {
+        OrderLineGroup result = OrderLineGroup.create();
+        result.setName(UUID.randomUUID().toString());
+        result.setCode(UUID.randomUUID().toString());
+        parent.add(result);
+
+        return result;
+    }
+
+    private static OrderLine givenLine(OrderLineGroup parent) {
+        OrderLine result = OrderLine.createOrderLineWithUnfixedPercentage(10);
+        result.setName(UUID.randomUUID().toString());
+        result.setCode(UUID.randomUUID().toString());
+        parent.add(result);
+
+        return result;
+    }
+
+    private Label givenLabel() {
+        LabelType type = LabelType.create(UUID.randomUUID().toString());
+        labelTypeDAO.save(type);
+        Label result = Label.create(UUID.randomUUID().toString());
+        result.setType(type);
+        labelDAO.save(result);
+
+        return result;
+    }
+
+    private Criterion givenCriterion(CriterionType type, Criterion parent) {
+        Criterion result = Criterion.create(UUID.randomUUID().toString(), type);
+        result.setParent(parent);
+        criterionDAO.save(result);
+
+        return result;
+    }
+
+    private CriterionType givenCriterionType() {
+        CriterionType result = CriterionType.create(UUID.randomUUID().toString(), "");
+        criterionTypeDAO.save(result);
+
+        return result;
+    }
+
+    private void givenGenericAllocation(Order order, OrderLine line, Criterion criterion) {
+        OrderVersion orderVersion = order.getOrderVersionFor(scenarioManager.getCurrent());
+        line.useSchedulingDataFor(orderVersion);
+
+        TaskSource taskSource = TaskSource.create(line.getCurrentSchedulingDataForVersion(), line.getHoursGroups());
+        TaskSource.mustAdd(taskSource).apply(TaskSource.persistTaskSources(taskSourceDAO));
+
+        resourceAllocationDAO.save(
+                GenericResourceAllocation.create((Task) taskSource.getTask(), singletonList(criterion)));
+    }
+
+    /**
+     * Adds a timesheet line and an expense to each element
+     */
+    private void givenCostsFor(OrderElement... elements) {
+        givenCostsFor(asList(elements));
+    }
+
+    private void givenCostsFor(List<? extends OrderElement> elements) {
+        for (OrderElement each : elements) {
+            WorkReportLine line = WorkReportLine.create(workReport);
+            line.setDate(new Date());
+            line.setEffort(EffortDuration.hours(1));
+            line.setResource(worker);
+            line.setOrderElement(each);
+            line.setTypeOfWorkHours(typeOfWorkHours);
+            workReport.addWorkReportLine(line);
+
+            ExpenseSheetLine expense =
+                    ExpenseSheetLine.create(BigDecimal.ONE, UUID.randomUUID().toString(), new LocalDate(), each);
+            expense.setExpenseSheet(expenseSheet);
+            expenseSheet.add(expense);
+        }
+        workReportDAO.save(workReport);
+        expenseSheetDAO.save(expenseSheet);
+        workReportDAO.flush();
+    }
+
+    private Set<OrderElement> elementsWithCosts(List<Order> orders, List<Criterion> criterions, List<Label> labels) {
+        List<OrderCostsPerResourceDTO> costs = orderDAO.getOrderCostsPerResource(orders, null, null, criterions, labels);
+        List<CostExpenseSheetDTO> expenses = orderDAO.getCostExpenseSheet(orders, null, null, criterions, labels);
+
+        Set<OrderElement> result = new HashSet<>();
+        for (OrderCostsPerResourceDTO each : costs) {
+            result.add(each.getOrderElement());
+        }
+
+        Set<OrderElement> withExpenses = new HashSet<>();
+        for (CostExpenseSheetDTO each : expenses) {
+            withExpenses.add(each.getOrderElement());
+        }
+
+        assertThat(costs.size(), equalTo(result.size()));
+        assertThat(expenses.size(), equalTo(withExpenses.size()));
+        assertThat(withExpenses, equalTo(result));
+
+        return result;
+    }
+
+    private Set<OrderElement> elementsWithCosts(List<Order> orders) {
+        return elementsWithCosts(orders, Collections.<Criterion> emptyList(), Collections.<Label> emptyList());
+    }
+
+    private static Set<OrderElement> elements(OrderElement... elements) {
+        return new HashSet<>(asList(elements));
+    }
+
+    @Test
+    public void theElementsAtAnyLevelOfTheSelectedOrdersAreIncluded() {
+        Order order = givenOrder("order");
+        OrderLineGroup group = givenGroup(order);
+        OrderLineGroup nestedGroup = givenGroup(group);
+        OrderLine deepLine = givenLine(nestedGroup);
+        OrderLine line = givenLine(order);
+
+        Order another = givenOrder("another");
+        OrderLine anotherLine = givenLine(another);
+
+        orderDAO.save(order);
+        orderDAO.save(another);
+        givenCostsFor(deepLine, line, anotherLine);
+
+        assertThat(elementsWithCosts(singletonList(order)), equalTo(elements(deepLine, line)));
+        assertThat(elementsWithCosts(asList(order, another)), equalTo(elements(deepLine, line, anotherLine)));
+        assertThat(elementsWithCosts(Collections.<Order> emptyList()), equalTo(elements()));
+    }
+
+    @Test
+    public void eachLineGetsTheOrderOfItsElement() {
+        Order order = givenOrder("order");
+        OrderLine deepLine = givenLine(givenGroup(order));
+
+        Order another = givenOrder("another");
+        OrderLine anotherLine = givenLine(another);
+
+        orderDAO.save(order);
+        orderDAO.save(another);
+        givenCostsFor(deepLine, anotherLine);
+
+        Map<OrderElement, String> orderNames = new HashMap<>();
+        List<OrderCostsPerResourceDTO> costs = orderDAO.getOrderCostsPerResource(
+                asList(order, another), null, null, Collections.<Criterion> emptyList(), null);
+        for (OrderCostsPerResourceDTO each : costs) {
+            orderNames.put(each.getOrderElement(), each.getOrderName());
+            assertThat(each.getCostPerHour(), equalTo(BigDecimal.TEN));
+        }
+
+        assertThat(orderNames.get(deepLine), equalTo(order.getName()));
+        assertThat(orderNames.get(anotherLine), equalTo(another.getName()));
+    }
+
+    @Test
+    public void theLabelsAreInheritedFromTheAncestors() {
+        Label onOrder = givenLabel();
+        Label onGroup = givenLabel();
+        Label onLine = givenLabel();
+        Label unused = givenLabel();
+
+        Order labelledOrder = givenOrder("labelled");
+        labelledOrder.addLabel(onOrder);
+        OrderLine lineOfLabelledOrder = givenLine(labelledOrder);
+
+        Order order = givenOrder("order");
+        OrderLineGroup group = givenGroup(order);
+        group.addLabel(onGroup);
+        OrderLine lineOfGroup = givenLine(givenGroup(group));
+        OrderLine labelledLine = givenLine(order);
+        labelledLine.addLabel(onLine);
+        OrderLine line = givenLine(order);
+
+        orderDAO.save(labelledOrder);
+        orderDAO.save(order);
+        givenCostsFor(lineOfLabelledOrder, lineOfGroup, labelledLine, line);
+
+        List<Order> orders = asList(labelledOrder, order);
+        List<Criterion> noCriterions = emptyList();
+
+        assertThat(elementsWithCosts(orders, noCriterions, singletonList(onOrder)),
+                equalTo(elements(lineOfLabelledOrder)));
+
+        assertThat(elementsWithCosts(orders, noCriterions, singletonList(onGroup)),
+                equalTo(elements(lineOfGroup)));
+
+        assertThat(elementsWithCosts(orders, noCriterions, asList(onGroup, onLine)),
+                equalTo(elements(lineOfGroup, labelledLine)));
+
+        assertThat(elementsWithCosts(orders, noCriterions, singletonList(unused)),
+                equalTo(elements()));
+
+        assertThat(elementsWithCosts(orders, noCriterions, null),
+                equalTo(elements(lineOfLabelledOrder, lineOfGroup, labelledLine, line)));
+    }
+
+    @Test
+    public void theCriteriaOfTheGenericAllocationsIncludeTheirDescendants() {
+        CriterionType type = givenCriterionType();
+        Criterion parent = givenCriterion(type, null);
+        Criterion child = givenCriterion(type, parent);
+        Criterion sibling = givenCriterion(type, parent);
+        Criterion unrelated = givenCriterion(givenCriterionType(), null);
+
+        Order order = givenOrder("order");
+        OrderLine allocatedToChild = givenLine(givenGroup(order));
+        OrderLine allocatedToSibling = givenLine(order);
+        OrderLine notAllocated = givenLine(order);
+        orderDAO.save(order);
+
+        givenGenericAllocation(order, allocatedToChild, child);
+        givenGenericAllocation(order, allocatedToSibling, sibling);
+        givenCostsFor(allocatedToChild, allocatedToSibling, notAllocated);
+
+        List<Order> orders = singletonList(order);
+        List<Label> noLabels = emptyList();
+
+        assertThat(elementsWithCosts(orders, singletonList(parent), noLabels),
+                equalTo(elements(allocatedToChild, allocatedToSibling)));
+
+        assertThat(elementsWithCosts(orders, singletonList(child), noLabels),
+                equalTo(elements(allocatedToChild)));
+
+        assertThat(elementsWithCosts(orders, singletonList(unrelated), noLabels),
+                equalTo(elements()));
+
+        assertThat(elementsWithCosts(orders, null, noLabels),
+                equalTo(elements(allocatedToChild, allocatedToSibling, notAllocated)));
+    }
+
+    private void checkAllTheElementsAreIncludedWith(int elements) {
+        Order order = givenOrder("order");
+        OrderLineGroup group = givenGroup(order);
+
+        /* The order and the group are elements too, the lines are split in two levels */
+        List<OrderLine> lines = new ArrayList<>();
+        for (int i = 0; i < elements - 2; i++) {
+            lines.add(givenLine(i % 2 == 0 ? order : group));
+        }
+
+        orderDAO.save(order);
+        givenCostsFor(lines);
+
+        Set<OrderElement> expected = new HashSet<OrderElement>(lines);
+        assertThat(elementsWithCosts(singletonList(order)), equalTo(expected));
+    }
+
+    @Test
+    public void theElementsFillingAChunkAreIncluded() {
+        checkAllTheElementsAreIncludedWith(MAX_ELEMENTS_PER_QUERY);
+    }
+
+    @Test
+    public void theElementsAfterTheChunkBoundaryAreIncluded() {
+        checkAllTheElementsAreIncludedWith(MAX_ELEMENTS_PER_QUERY + 1);
+    }
+
+    @Test
+    public void theElementsOfSeveralChunksAreIncluded() {
+        checkAllTheElementsAreIncludedWith(2 * MAX_ELEMENTS_PER_QUERY + 1);
+    }
+
+}
@@ -21,15 +21,22 @@ package org.libreplan.business.test.orders.daos;
 
 import static org.junit.Assert.assertNotNull;
 import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.hasItem;
+import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
 import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
 
+import org.hibernate.SessionFactory;
 import org.joda.time.LocalDate;
 import org.junit.Before;
 import org.junit.Test;
@@ -39,14 +46,38 @@ import org.libreplan.business.calendars.entities.BaseCalendar;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.exceptions.ValidationException;
+import org.libreplan.business.externalcompanies.daos.IExternalCompanyDAO;
 import org.libreplan.business.externalcompanies.entities.DeadlineCommunication;
+import org.libreplan.business.externalcompanies.entities.ExternalCompany;
+import org.libreplan.business.labels.daos.ILabelDAO;
+import org.libreplan.business.labels.daos.ILabelTypeDAO;
+import org.libreplan.business.labels.entities.Label;
+import org.libreplan.business.labels.entities.LabelType;
 import org.libreplan.business.orders.daos.IOrderDAO;
+import org.libreplan.business.orders.entities.HoursGroup;
 import org.libreplan.business.orders.entities.Order;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.requirements.entities.DirectCriterionRequirement;
+import org.libreplan.business.resources.daos.ICriterionDAO;
+import org.libreplan.business.resources.daos.ICriterionTypeDAO;
+import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionType;
 import org.libreplan.business.scenarios.IScenarioManager;
 import org.libreplan.business.scenarios.bootstrap.IScenariosBootstrap;
+import org.libreplan.business.scenarios.daos.IScenarioDAO;
 import org.libreplan.business.scenarios.entities.OrderVersion;
+import org.libreplan.business.scenarios.entities.Scenario;
 import org.libreplan.business.test.calendars.entities.BaseCalendarTest;
 import org.libreplan.business.test.planner.daos.ResourceAllocationDAOTest;
+import org.libreplan.business.users.daos.IOrderAuthorizationDAO;
+import org.libreplan.business.users.daos.IProfileDAO;
+import org.libreplan.business.users.daos.IUserDAO;
+import org.libreplan.business.users.entities.OrderAuthorizationType;
+import org.libreplan.business.users.entities.Profile;
+import org.libreplan.business.users.entities.ProfileOrderAuthorization;
+import org.libreplan.business.users.entities.User;
+import org.libreplan.business.users.entities.UserOrderAuthorization;
+import org.libreplan.business.users.entities.UserRole;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -87,6 +118,36 @@ public class OrderDAOTest {
     @Autowired
     private IAdHocTransactionService transactionService;
 
+    @Autowired
+    private SessionFactory sessionFactory;
+
+    @Autowired
+    private IScenarioDAO scenarioDAO;
+
+    @Autowired
+    private IUserDAO userDAO;
+
+    @Autowired
+    private IProfileDAO profileDAO;
+
+    @Autowired
+    private IOrderAuthorizationDAO orderAuthorizationDAO;
+
+    @Autowired
+    private ILabelTypeDAO labelTypeDAO;
+
+    @Autowired
+    private ILabelDAO labelDAO;
+
+    @Autowired
+    private IExternalCompanyDAO externalCompanyDAO;
+
+    @Autowired
+    private ICriterionTypeDAO criterionTypeDAO;
+
+    @Autowired
+    private ICriterionDAO criterionDAO;
+
     @Test
     @Transactional
     public void testInSpringContainer() {
@@ -157,6 +218,296 @@ public class OrderDAOTest {
         assertTrue(dcLast.getSaveDate().before(new_dc.getSaveDate()));
     }
 
+    private OrderLine createValidOrderLine(String name) {
+        OrderLine result = OrderLine.createOrderLineWithUnfixedPercentage(10);
+        result.setName(name);
+        result.setCode(UUID.randomUUID().toString());
+        return result;
+    }
+
+    private static Date someMillisecondsLater() throws InterruptedException {
+        Thread.sleep(10);
+        Date result = new Date();
+        Thread.sleep(10);
+        return result;
+    }
+
+    private boolean isModifiedSince(Order order, Date date) {
+        return orderDAO.findAfterCode(null, date, Integer.MAX_VALUE).contains(order);
+    }
+
+    @Test
+    @Transactional
+    public void anOrderNotModifiedIsNotFoundAsModified() throws InterruptedException {
+        Order order = createValidOrder("test");
+        Date beforeSaving = someMillisecondsLater();
+        orderDAO.save(order);
+        orderDAO.flush();
+        Date afterSaving = someMillisecondsLater();
+
+        orderDAO.save(order);
+        orderDAO.flush();
+
+        assertTrue(isModifiedSince(order, beforeSaving));
+        assertFalse(isModifiedSince(order, afterSaving));
+    }
+
+    @Test
+    @Transactional
+    public void anOrderWithoutLastModificationDateIsFoundAsModified() throws InterruptedException {
+        Order order = createValidOrder("test");
+        orderDAO.save(order);
+        orderDAO.flush();
+        sessionFactory.getCurrentSession()
+                .createSQLQuery("UPDATE order_table SET last_modification_date = NULL WHERE id = :id")
+                .setParameter("id", order.getId())
+                .executeUpdate();
+        sessionFactory.getCurrentSession().clear();
+
+        assertTrue(isModifiedSince(order, someMillisecondsLater()));
+    }
+
+    @Test
+    @Transactional
+    public void modifyingAnOrderLineModifiesTheOrder() throws InterruptedException {
+        Order order = createValidOrder("test");
+        OrderLine line = createValidOrderLine("line");
+        order.add(line);
+        orderDAO.save(order);
+        orderDAO.flush();
+        Date afterSaving = someMillisecondsLater();
+
+        line.setName("modified line");
+        orderDAO.flush();
+
+        assertTrue(isModifiedSince(order, afterSaving));
+    }
+
+    @Test
+    @Transactional
+    public void modifyingAnHoursGroupModifiesTheOrder() throws InterruptedException {
+        Order order = createValidOrder("test");
+        OrderLine line = createValidOrderLine("line");
+        order.add(line);
+        orderDAO.save(order);
+        orderDAO.flush();
+        Date afterSaving = someMillisecondsLater();
+
+        HoursGroup hoursGroup = line.getHoursGroups().get(0);
+        hoursGroup.setWorkingHours(20);
+        orderDAO.flush();
+
+        assertTrue(isModifiedSince(order, afterSaving));
+    }
+
+    @Test
+    @Transactional
+    public void addingAndRemovingOrderLinesModifiesTheOrder() throws InterruptedException {
+        Order order = createValidOrder("test");
+        OrderLine line = createValidOrderLine("line");
+        order.add(line);
+        orderDAO.save(order);
+        orderDAO.flush();
+        Date afterSaving = someMillisecondsLater();
+
+        order.add(createValidOrderLine("another line"));
+        orderDAO.flush();
+        assertTrue(isModifiedSince(order, afterSaving));
+
+        Date afterAdding = someMillisecondsLater();
+        order.remove(line);
+        orderDAO.flush();
+        assertTrue(isModifiedSince(order, afterAdding));
+    }
+
+    private Order givenOrder() {
+        Order result = createValidOrder(UUID.randomUUID().toString());
+        orderDAO.save(result);
+
+        return result;
+    }
+
+    private Order givenOrderIn(Scenario scenario) {
+        Order result = createValidOrder(UUID.randomUUID().toString());
+        Scenario current = scenarioManager.getCurrent();
+        result.setVersionForScenario(scenario, result.getOrderVersionFor(current));
+        result.disassociateFrom(current);
+        orderDAO.save(result);
+
+        return result;
+    }
+
+    private User givenUser(UserRole... roles) {
+        String loginName = UUID.randomUUID().toString();
+        User result = User.create(loginName, loginName, new HashSet<>(Arrays.asList(roles)));
+        userDAO.save(result);
+
+        return result;
+    }
+
+    private Profile givenProfile() {
+        Profile result = Profile.create(UUID.randomUUID().toString(), new HashSet<>());
+        profileDAO.save(result);
+
+        return result;
+    }
+
+    private void givenAuthorization(User user, Order order, OrderAuthorizationType type) {
+        UserOrderAuthorization authorization = UserOrderAuthorization.create(type);
+        authorization.setUser(user);
+        authorization.setOrder(order);
+        orderAuthorizationDAO.save(authorization);
+    }
+
+    private void givenAuthorization(Profile profile, Order order, OrderAuthorizationType type) {
+        ProfileOrderAuthorization authorization = ProfileOrderAuthorization.create(type);
+        authorization.setProfile(profile);
+        authorization.setOrder(order);
+        orderAuthorizationDAO.save(authorization);
+    }
+
+    private Label givenLabel() {
+        LabelType type = LabelType.create(UUID.randomUUID().toString());
+        labelTypeDAO.save(type);
+        Label result = Label.create(UUID.randomUUID().toString());
+        result.setType(type);
+        labelDAO.save(result);
+
+        return result;
+    }
+
+    private ExternalCompany givenCustomer() {
+        ExternalCompany result = ExternalCompany.create(UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        result.setClient(true);
+        externalCompanyDAO.save(result);
+
+        return result;
+    }
+
+    private Criterion givenCriterion(CriterionType type) {
+        Criterion result = Criterion.create(UUID.randomUUID().toString(), type);
+        criterionDAO.save(result);
+
+        return result;
+    }
+
+    private CriterionType givenCriterionType() {
+        CriterionType result = CriterionType.create(UUID.randomUUID().toString(), "");
+        criterionTypeDAO.save(result);
+
+        return result;
+    }
+
+    private List<Order> filter(User user, List<Label> labels, List<Criterion> criteria, ExternalCompany customer) {
+        return orderDAO.getOrdersByReadAuthorizationBetweenDatesByLabelsCriteriaCustomerAndState(
+                user.getLoginName(), scenarioManager.getCurrent(), null, null, labels, criteria, customer, null);
+    }
+
+    @Test
+    @Transactional
+    public void aUserCanReadTheOrdersAuthorizedDirectly() {
+        Order authorized = givenOrder();
+        Order notAuthorized = givenOrder();
+        User user = givenUser();
+        givenAuthorization(user, authorized, OrderAuthorizationType.READ_AUTHORIZATION);
+        orderDAO.flush();
+
+        List<Order> readable = orderDAO.getOrdersByReadAuthorization(user);
+
+        assertThat(readable, hasItem(authorized));
+        assertThat(readable, not(hasItem(notAuthorized)));
+        assertTrue(orderDAO.getOrdersByWriteAuthorization(user).isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void aUserCanReadTheOrdersAuthorizedToItsProfiles() {
+        Order authorized = givenOrder();
+        Profile profile = givenProfile();
+        givenAuthorization(profile, authorized, OrderAuthorizationType.READ_AUTHORIZATION);
+        User withProfile = givenUser();
+        withProfile.addProfile(profile);
+        User withoutProfile = givenUser();
+        orderDAO.flush();
+
+        assertThat(orderDAO.getOrdersByReadAuthorization(withProfile), equalTo(Collections.singletonList(authorized)));
+        assertTrue(orderDAO.getOrdersByReadAuthorization(withoutProfile).isEmpty());
+    }
+
+    @Test
+    @Transactional
+    public void aWriteAuthorizationAlsoAllowsToRead() {
+        Order order = givenOrder();
+        User user = givenUser();
+        givenAuthorization(user, order, OrderAuthorizationType.WRITE_AUTHORIZATION);
+        orderDAO.flush();
+
+        assertThat(orderDAO.getOrdersByReadAuthorization(user), equalTo(Collections.singletonList(order)));
+        assertThat(orderDAO.getOrdersByWriteAuthorization(user), equalTo(Collections.singletonList(order)));
+    }
+
+    @Test
+    @Transactional
+    public void aUserWithoutAuthorizationsDoesNotGetTheOrdersMatchingTheFilters() {
+        Label label = givenLabel();
+        ExternalCompany customer = givenCustomer();
+        Order order = givenOrder();
+        order.addLabel(label);
+        order.setCustomer(customer);
+        User withoutAuthorizations = givenUser();
+        User readingAll = givenUser(UserRole.ROLE_READ_ALL_PROJECTS);
+        orderDAO.flush();
+
+        assertTrue(orderDAO.getOrdersByReadAuthorization(withoutAuthorizations).isEmpty());
+        assertTrue(filter(withoutAuthorizations, Collections.singletonList(label), null, null).isEmpty());
+        assertTrue(filter(withoutAuthorizations, null, null, customer).isEmpty());
+
+        assertThat(filter(readingAll, Collections.singletonList(label), null, null),
+                equalTo(Collections.singletonList(order)));
+        assertThat(filter(readingAll, null, null, customer), equalTo(Collections.singletonList(order)));
+    }
+
+    @Test
+    @Transactional
+    public void onlyTheOrdersOfTheScenarioAreListed() {
+        Scenario other = Scenario.create(UUID.randomUUID().toString());
+        scenarioDAO.save(other);
+        Order inCurrent = givenOrder();
+        Order inOther = givenOrderIn(other);
+        User user = givenUser();
+        givenAuthorization(user, inCurrent, OrderAuthorizationType.READ_AUTHORIZATION);
+        givenAuthorization(user, inOther, OrderAuthorizationType.READ_AUTHORIZATION);
+        orderDAO.flush();
+
+        List<Order> inCurrentScenario = orderDAO.getOrdersByReadAuthorizationByScenario(
+                user.getLoginName(), scenarioManager.getCurrent());
+
+        assertThat(inCurrentScenario, equalTo(Collections.singletonList(inCurrent)));
+        assertThat(orderDAO.getOrdersByReadAuthorization(user).size(), equalTo(2));
+    }
+
+    @Test
+    @Transactional
+    public void theOrdersMustRequireAllTheCriteriaFiltered() {
+        CriterionType type = givenCriterionType();
+        Criterion first = givenCriterion(type);
+        Criterion second = givenCriterion(type);
+        Order withBoth = givenOrder();
+        withBoth.addCriterionRequirement(DirectCriterionRequirement.create(first));
+        withBoth.addCriterionRequirement(DirectCriterionRequirement.create(second));
+        Order withFirst = givenOrder();
+        withFirst.addCriterionRequirement(DirectCriterionRequirement.create(first));
+        User user = givenUser();
+        givenAuthorization(user, withBoth, OrderAuthorizationType.READ_AUTHORIZATION);
+        givenAuthorization(user, withFirst, OrderAuthorizationType.READ_AUTHORIZATION);
+        orderDAO.flush();
+
+        assertThat(filter(user, null, Arrays.asList(first, second), null),
+                equalTo(Collections.singletonList(withBoth)));
+        assertThat(new HashSet<>(filter(user, null, Collections.singletonList(first), null)),
+                equalTo(new HashSet<>(Arrays.asList(withBoth, withFirst))));
+    }
+
     @Test
     @Transactional
     public void testSaveTwoOrdersWithDifferentNames() {
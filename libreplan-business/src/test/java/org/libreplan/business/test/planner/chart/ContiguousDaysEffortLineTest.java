@@ -0,0 +1,112 @@
+package org.libreplan.business.test.planner.chart;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.SortedMap;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.chart.ContiguousDaysEffortLine;
+import org.libreplan.business.planner.chart.ContiguousDaysLine;
+import org.libreplan.business.workingday.EffortDuration;
+
+public class ContiguousDaysEffortLineTest {
+
+    private static final LocalDate someDate = new LocalDate(2002, 2, 10);
+
+    private static ContiguousDaysEffortLine lineWithHours(int... hoursPerDay) {
+        ContiguousDaysEffortLine result = ContiguousDaysEffortLine.create(someDate,
+                someDate.plusDays(hoursPerDay.length));
+        for (int i = 0; i < hoursPerDay.length; i++) {
+            result.set(someDate.plusDays(i), hours(hoursPerDay[i]));
+        }
+        return result;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aLineCannotBeCreatedWithAStartBeforeTheEnd() {
+        ContiguousDaysEffortLine.create(someDate, someDate.minusDays(1));
+    }
+
+    @Test
+    public void initiallyTheValuesAreZero() {
+        ContiguousDaysEffortLine line = ContiguousDaysEffortLine.create(someDate, someDate.plusDays(3));
+
+        assertThat(line.size(), equalTo(3));
+        assertThat(line.get(someDate.plusDays(2)), equalTo(EffortDuration.zero()));
+    }
+
+    @Test
+    public void itIsConvertedFromABoxedLine() {
+        ContiguousDaysLine<EffortDuration> boxed = ContiguousDaysLine.create(someDate, someDate.plusDays(2));
+        boxed.set(someDate, hours(3));
+
+        ContiguousDaysEffortLine line = ContiguousDaysEffortLine.from(boxed);
+
+        assertThat(line.get(someDate), equalTo(hours(3)));
+        assertThat(line.get(someDate.plusDays(1)), equalTo(EffortDuration.zero()));
+    }
+
+    @Test
+    public void theOperationsAreAppliedDayByDay() {
+        ContiguousDaysEffortLine a = lineWithHours(8, 2, 5);
+        ContiguousDaysEffortLine b = lineWithHours(4, 4, 5);
+
+        assertThat(ContiguousDaysEffortLine.sum(a, b).toSortedMap(),
+                equalTo(lineWithHours(12, 6, 10).toSortedMap()));
+        assertThat(ContiguousDaysEffortLine.min(a, b).toSortedMap(),
+                equalTo(lineWithHours(4, 2, 5).toSortedMap()));
+        assertThat(a.get(someDate), equalTo(hours(8)));
+    }
+
+    @Test
+    public void theSubtractionIsNeverNegative() {
+        ContiguousDaysEffortLine result = ContiguousDaysEffortLine.subtract(lineWithHours(8, 2), lineWithHours(3, 4));
+
+        assertThat(result.get(someDate), equalTo(hours(5)));
+        assertThat(result.get(someDate.plusDays(1)), equalTo(EffortDuration.zero()));
+    }
+
+    @Test
+    public void aSubIntervalIsAViewOfTheOriginalLine() {
+        ContiguousDaysEffortLine line = lineWithHours(1, 2, 3, 4);
+
+        ContiguousDaysEffortLine subInterval = line.subInterval(someDate.plusDays(1), someDate.plusDays(3));
+        assertThat(subInterval.getStart(), equalTo(someDate.plusDays(1)));
+        assertThat(subInterval.size(), equalTo(2));
+        assertThat(subInterval.get(someDate.plusDays(2)), equalTo(hours(3)));
+
+        subInterval.sumInSitu(subInterval.copy());
+        assertThat(line.get(someDate.plusDays(1)), equalTo(hours(4)));
+        assertThat(line.get(someDate.plusDays(3)), equalTo(hours(4)));
+    }
+
+    @Test
+    public void aSubIntervalCanBeOpenAtOneSide() {
+        ContiguousDaysEffortLine line = lineWithHours(1, 2, 3, 4);
+
+        assertThat(line.subInterval(someDate.plusDays(2), null).size(), equalTo(2));
+        assertThat(line.subInterval(null, someDate.plusDays(1)).size(), equalTo(1));
+        assertThat(line.subInterval(someDate.minusDays(5), someDate.plusDays(10)).size(), equalTo(4));
+        assertTrue(line.subInterval(someDate.plusDays(4), someDate.plusDays(6)).isNotValid());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void theDaysOutsideASubIntervalCannotBeAccessed() {
+        lineWithHours(1, 2, 3, 4).subInterval(someDate.plusDays(1), someDate.plusDays(3)).get(someDate);
+    }
+
+    @Test
+    public void itIsConvertedToASortedMapWithAnEntryPerDay() {
+        SortedMap<LocalDate, EffortDuration> map = lineWithHours(1, 2).toSortedMap();
+
+        assertThat(map.size(), equalTo(2));
+        assertThat(map.firstKey(), equalTo(someDate));
+        assertThat(map.get(someDate.plusDays(1)), equalTo(hours(2)));
+        assertTrue(ContiguousDaysEffortLine.invalid().toSortedMap().isEmpty());
+    }
+
+}
@@ -138,6 +138,7 @@ public class MoneyCostCalculatorTest {
     @Before
     public void loadRequiredData() {
         scenariosBootstrap.loadRequiredData();
+        moneyCostCalculator.resetMoneyCostMap();
     }
 
     private void givenTypeOfWorkHours(BigDecimal defaultPrice) {
@@ -171,16 +172,20 @@ public class MoneyCostCalculatorTest {
                 "default-resource", "default-resource", "default-resource");
 
         if (relatedWithCostCategory) {
-            ResourcesCostCategoryAssignment resourcesCostCategoryAssignment = ResourcesCostCategoryAssignment.create();
-            resourcesCostCategoryAssignment.setCode("resources-cost-category-assignment" + UUID.randomUUID());
-            resourcesCostCategoryAssignment.setCostCategory(costCategory);
-            resourcesCostCategoryAssignment.setInitDate(new LocalDate());
-
-            resource.addResourcesCostCategoryAssignment(resourcesCostCategoryAssignment);
+            givenCostCategoryAssignment();
         }
         resourceDAO.save(resource);
     }
 
+    private void givenCostCategoryAssignment() {
+        ResourcesCostCategoryAssignment resourcesCostCategoryAssignment = ResourcesCostCategoryAssignment.create();
+        resourcesCostCategoryAssignment.setCode("resources-cost-category-assignment" + UUID.randomUUID());
+        resourcesCostCategoryAssignment.setCostCategory(costCategory);
+        resourcesCostCategoryAssignment.setInitDate(new LocalDate());
+
+        resource.addResourcesCostCategoryAssignment(resourcesCostCategoryAssignment);
+    }
+
     private void givenOrderElement() {
         OrderElement orderElement = OrderLine.createOrderLineWithUnfixedPercentage(100);
         orderElement.setCode("default-order-element-" + UUID.randomUUID());
@@ -421,6 +426,24 @@ public class MoneyCostCalculatorTest {
                 equalTo(new BigDecimal(870).setScale(2)));
     }
 
+    @Test
+    @Transactional
+    public void theCostCategoriesAreReadAgainAfterReset() {
+        givenBasicExampleWithoutCostCategoryRelationship();
+
+        assertThat(moneyCostCalculator.getHoursMoneyCost(orderElements.get(0)),
+                equalTo(new BigDecimal(300).setScale(2)));
+
+        givenCostCategory();
+        givenCostCategoryAssignment();
+        resourceDAO.save(resource);
+        resourceDAO.flush();
+        moneyCostCalculator.resetMoneyCostMap();
+
+        assertThat(moneyCostCalculator.getHoursMoneyCost(orderElements.get(0)),
+                equalTo(new BigDecimal(500).setScale(2)));
+    }
+
     private ExpenseSheet givenExpenseSheet() {
         expenseSheet = ExpenseSheet.create();
         expenseSheet.setCode("default-expense-sheet" + UUID.randomUUID());
@@ -727,6 +727,32 @@ public class SpecificResourceAllocationTest {
         assertThat(specificResourceAllocation.getAssignments(), haveHours(6, 12));
     }
 
+    @SuppressWarnings("serial")
+    @Test
+    public void theAssignedEffortCanBeQueriedForAnInterval() {
+        final IntraDayDate start = date(2000, 2, 4);
+
+        givenResourceCalendar(Capacity.create(hours(8)).overAssignableWithoutLimit(), new HashMap<LocalDate, Capacity>() {
+            {
+                put(start.getDate(), Capacity.create(hours(2)).notOverAssignableWithoutLimit());
+                put(plusDays(start, 1).getDate(), Capacity.create(hours(4)).notOverAssignableWithoutLimit());
+                put(plusDays(start, 3).getDate(), Capacity.create(hours(6)).notOverAssignableWithoutLimit());
+            }
+        });
+
+        givenSpecificResourceAllocation(start, 4);
+        specificResourceAllocation.onIntervalWithinTask(start, plusDays(start, 4)).allocateHours(20);
+
+        LocalDate startDay = start.getDate();
+        assertThat(specificResourceAllocation.getAssignedEffort(), equalTo(hours(20)));
+        assertThat(specificResourceAllocation.getAssignments(startDay.plusDays(1), startDay.plusDays(3)),
+                haveHours(4, 8));
+        assertThat(specificResourceAllocation.getAssignedHours(startDay.plusDays(1), startDay.plusDays(3)), equalTo(12));
+        assertThat(specificResourceAllocation.getAssignedHours(startDay.minusDays(5), startDay.plusDays(10)),
+                equalTo(20));
+        assertTrue(specificResourceAllocation.getAssignments(startDay.plusDays(4), startDay.plusDays(10)).isEmpty());
+    }
+
     @Test
     public void theEndDateOfTheAllocationIsExclusive() {
         IntraDayDate start = date(2000, 2, 4);
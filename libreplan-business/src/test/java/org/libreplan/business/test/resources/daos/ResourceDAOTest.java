@@ -26,6 +26,7 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertThat;
 import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_FILE;
 import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
@@ -33,6 +34,7 @@ import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CO
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -219,6 +221,22 @@ public class ResourceDAOTest {
         resourceDAO.save(worker);
     }
 
+    @Test
+    @Transactional
+    public void addingASatisfactionModifiesTheResource() throws InterruptedException {
+        Worker worker = givenValidWorker();
+        resourceDAO.save(worker);
+        resourceDAO.flush();
+        Thread.sleep(10);
+        Date afterSaving = new Date();
+        Thread.sleep(10);
+
+        addSatisfactionsOn(worker, Interval.from(new LocalDate(1970, 1, 1)), createCriterion("criterion"));
+        resourceDAO.flush();
+
+        assertTrue(resourceDAO.findAfterCode(null, afterSaving, Integer.MAX_VALUE).contains(worker));
+    }
+
     @Test
     @Transactional
     public void testResourceIsNotRelatedWithAllCriterions() {
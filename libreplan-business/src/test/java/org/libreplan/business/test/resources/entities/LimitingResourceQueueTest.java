@@ -0,0 +1,240 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.business.test.resources.entities;
+
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.test.planner.entities.SpecificResourceAllocationTest.createResourceCalendarAlwaysReturning;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.planner.entities.Dependency;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.limiting.entities.AllocationSpec;
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.Gap;
+import org.libreplan.business.planner.limiting.entities.InsertionRequirements;
+import org.libreplan.business.planner.limiting.entities.LimitingResourceAllocator;
+import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
+import org.libreplan.business.resources.entities.LimitingResourceQueue;
+import org.libreplan.business.resources.entities.Worker;
+
+/**
+ * Tests the navigation through the elements of a {@link LimitingResourceQueue} and the search of gaps in it.
+ */
+public class LimitingResourceQueueTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    private Worker worker;
+
+    private LimitingResourceQueue queue;
+
+    @Before
+    public void createQueue() {
+        ResourceCalendar calendar = createResourceCalendarAlwaysReturning(8);
+        worker = createNiceMock(Worker.class);
+        expect(worker.getCalendar()).andReturn(calendar).anyTimes();
+        replay(worker);
+
+        queue = LimitingResourceQueue.create();
+        queue.setResource(worker);
+    }
+
+    private static void moveTo(LimitingResourceQueueElement element, int startDay, int endDay) {
+        element.setStartDate(START.plusDays(startDay));
+        element.setStartHour(0);
+        element.setEndDate(START.plusDays(endDay));
+        element.setEndHour(0);
+    }
+
+    private LimitingResourceQueueElement addElement(int startDay, int endDay) {
+        LimitingResourceQueueElement result = LimitingResourceQueueElement.create();
+        result.setResourceAllocation(createNiceMock(SpecificResourceAllocation.class));
+        moveTo(result, startDay, endDay);
+        queue.addLimitingResourceQueueElement(result);
+        return result;
+    }
+
+    @Test
+    public void anEmptyQueueHasNoElements() {
+        assertThat(queue.getFirstElement(), nullValue());
+        assertThat(queue.getLastElement(), nullValue());
+        assertThat(queue.getFirstElementStartingSince(DateAndHour.from(START)), nullValue());
+    }
+
+    @Test
+    public void theElementsAreNavigatedByStartTime() {
+        LimitingResourceQueueElement third = addElement(6, 8);
+        LimitingResourceQueueElement first = addElement(0, 2);
+        LimitingResourceQueueElement second = addElement(2, 4);
+
+        assertThat(queue.getFirstElement(), equalTo(first));
+        assertThat(queue.getLastElement(), equalTo(third));
+        assertThat(queue.getElementAfter(first), equalTo(second));
+        assertThat(queue.getElementBefore(third), equalTo(second));
+        assertThat(queue.getElementBefore(first), nullValue());
+        assertThat(queue.getFirstElementStartingSince(DateAndHour.from(START.plusDays(1))), equalTo(second));
+        assertThat(queue.getFirstElementStartingSince(DateAndHour.from(START.plusDays(7))), nullValue());
+    }
+
+    @Test
+    public void theGapsTooSmallAreSkipped() {
+        LimitingResourceQueueElement first = addElement(0, 2);
+        addElement(2, 4);
+        LimitingResourceQueueElement third = addElement(6, 8);
+        LimitingResourceQueueElement fourth = addElement(20, 22);
+
+        assertThat(queue.getNextElementWithGapBefore(first, 0), equalTo(queue.getElementAfter(first)));
+        assertThat(queue.getNextElementWithGapBefore(first, 16), equalTo(third));
+        assertThat(queue.getNextElementWithGapBefore(first, 17), equalTo(fourth));
+        assertThat(queue.getNextElementWithGapBefore(third, 16), equalTo(fourth));
+        assertThat(queue.getNextElementWithGapBefore(first, 200), nullValue());
+    }
+
+    @Test
+    public void theGapsAreUpdatedWhenAnElementIsRemoved() {
+        LimitingResourceQueueElement first = addElement(0, 2);
+        LimitingResourceQueueElement second = addElement(4, 6);
+        LimitingResourceQueueElement third = addElement(8, 10);
+
+        assertThat(queue.getNextElementWithGapBefore(first, 32), nullValue());
+
+        queue.removeLimitingResourceQueueElement(second);
+
+        assertThat(queue.getElementAfter(first), equalTo(third));
+        assertThat(queue.getNextElementWithGapBefore(first, 32), equalTo(third));
+    }
+
+    @Test
+    public void theMovedElementsArePlacedAgain() {
+        LimitingResourceQueueElement first = addElement(0, 2);
+        LimitingResourceQueueElement second = addElement(2, 4);
+        LimitingResourceQueueElement third = addElement(6, 8);
+        LimitingResourceQueueElement fourth = addElement(20, 22);
+
+        moveTo(second, 10, 12);
+
+        assertThat(queue.getElementAfter(third), equalTo(second));
+        assertThat(queue.getNextElementWithGapBefore(first, 20), equalTo(third));
+        assertThat(queue.getNextElementWithGapBefore(first, 40), equalTo(fourth));
+        assertThat(queue.getNextElementWithGapBefore(first, 70), nullValue());
+    }
+
+    @Test
+    public void theGapsFoundAreTheSameAsLookingThroughAllTheElements() {
+        Random random = new Random(7);
+        List<LimitingResourceQueueElement> elements = new ArrayList<>();
+        List<Integer> freeStarts = new ArrayList<>();
+        for (int i = 0; i < 400; i += 2) {
+            freeStarts.add(i);
+        }
+        Collections.shuffle(freeStarts, random);
+
+        for (int step = 0; step < 300; step++) {
+            int operation = random.nextInt(4);
+            if ( elements.isEmpty() || operation < 2 ) {
+                int start = freeStarts.remove(freeStarts.size() - 1);
+                elements.add(addElement(start, start + 1 + random.nextInt(2)));
+            } else if ( operation == 2 ) {
+                LimitingResourceQueueElement removed = elements.remove(random.nextInt(elements.size()));
+                freeStarts.add(0, startDayOf(removed));
+                queue.removeLimitingResourceQueueElement(removed);
+            } else {
+                LimitingResourceQueueElement moved = elements.get(random.nextInt(elements.size()));
+                int start = freeStarts.remove(freeStarts.size() - 1);
+                freeStarts.add(0, startDayOf(moved));
+                moveTo(moved, start, start + 1 + random.nextInt(2));
+            }
+
+            checkNavigation(elements, random.nextInt(40));
+        }
+    }
+
+    @Test
+    public void theFirstValidAllocationIsInTheFirstGapBigEnough() {
+        addElement(0, 2);
+        addElement(3, 4);
+        addElement(10, 12);
+
+        Task task = createNiceMock(Task.class);
+        expect(task.getDependenciesWithThisOrigin()).andReturn(Collections.<Dependency> emptySet()).anyTimes();
+        SpecificResourceAllocation allocation = createNiceMock(SpecificResourceAllocation.class);
+        expect(allocation.getIntendedTotalHours()).andReturn(16).anyTimes();
+        expect(allocation.getTask()).andReturn(task).anyTimes();
+        replay(task, allocation);
+
+        LimitingResourceQueueElement element = LimitingResourceQueueElement.create();
+        element.setResourceAllocation(allocation);
+        element.setEarlierStartDateBecauseOfGantt(START.toDate());
+
+        AllocationSpec result = LimitingResourceAllocator.getFirstValidAllocation(
+                InsertionRequirements.create(element, DateAndHour.from(START), DateAndHour.from(START)), queue);
+
+        assertThat(result.getStartInclusive(), equalTo(DateAndHour.from(START.plusDays(4))));
+        assertThat(result.getEndExclusive(), equalTo(new DateAndHour(START.plusDays(5), 8)));
+    }
+
+    private static int startDayOf(LimitingResourceQueueElement element) {
+        return Days.daysBetween(START, element.getStartDate()).getDays();
+    }
+
+    private void checkNavigation(List<LimitingResourceQueueElement> elements, int hours) {
+        List<LimitingResourceQueueElement> sorted = new ArrayList<>(elements);
+        Collections.sort(sorted, new Comparator<LimitingResourceQueueElement>() {
+            @Override
+            public int compare(LimitingResourceQueueElement o1, LimitingResourceQueueElement o2) {
+                return o1.getStartTime().compareTo(o2.getStartTime());
+            }
+        });
+
+        assertThat(queue.getFirstElement(), equalTo(sorted.get(0)));
+        assertThat(queue.getLastElement(), equalTo(sorted.get(sorted.size() - 1)));
+
+        LimitingResourceQueueElement expected = null;
+        for (int i = sorted.size() - 1; i >= 0; i--) {
+            LimitingResourceQueueElement each = sorted.get(i);
+            assertThat(queue.getNextElementWithGapBefore(each, hours), equalTo(expected));
+            if ( i > 0 && hoursBefore(sorted.get(i - 1), each) >= hours ) {
+                expected = each;
+            }
+        }
+    }
+
+    private int hoursBefore(LimitingResourceQueueElement previous, LimitingResourceQueueElement element) {
+        return Gap.create(worker, previous.getEndTime(), element.getStartTime()).getHoursInGap();
+    }
+
+}
@@ -224,4 +224,19 @@ public class EffortDurationTest {
         assertThat(minutes(30).roundToHours(), equalTo(1));
     }
 
+    @Test
+    public void secondsCanBeCreatedFromALongInTheIntRange() {
+        assertThat(seconds((long) Integer.MAX_VALUE).getSeconds(), equalTo(Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void secondsFromALongCannotExceedTheIntRange() {
+        seconds(Integer.MAX_VALUE + 1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void secondsFromALongCannotBeNegative() {
+        seconds(-1L);
+    }
+
 }
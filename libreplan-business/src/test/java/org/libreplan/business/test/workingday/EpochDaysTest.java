@@ -0,0 +1,67 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.business.test.workingday;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.workingday.EpochDays;
+
+public class EpochDaysTest {
+
+    private static final LocalDate EPOCH = new LocalDate(1970, 1, 1);
+
+    @Test
+    public void theEpochIsDayZero() {
+        assertThat(EpochDays.of(EPOCH), equalTo(0));
+        assertThat(EpochDays.toLocalDate(0), equalTo(EPOCH));
+    }
+
+    @Test
+    public void matchesTheDaysBetweenTheEpochAndTheDate() {
+        LocalDate current = new LocalDate(1899, 12, 25);
+        LocalDate end = new LocalDate(2101, 3, 1);
+        while (current.isBefore(end)) {
+            int expected = Days.daysBetween(EPOCH, current).getDays();
+
+            assertThat(EpochDays.of(current), equalTo(expected));
+            assertThat(EpochDays.toLocalDate(expected), equalTo(current));
+
+            current = current.plusDays(1);
+        }
+    }
+
+    @Test
+    public void theDaysBetweenTwoDatesCanBeCalculated() {
+        LocalDate start = new LocalDate(2000, 2, 27);
+
+        assertThat(EpochDays.daysBetween(start, start), equalTo(0));
+        assertThat(EpochDays.daysBetween(start, new LocalDate(2000, 3, 1)), equalTo(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theEndCannotBeBeforeTheStart() {
+        EpochDays.daysBetween(new LocalDate(2000, 3, 1), new LocalDate(2000, 2, 27));
+    }
+
+}
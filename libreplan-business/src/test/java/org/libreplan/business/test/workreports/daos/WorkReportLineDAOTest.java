@@ -21,6 +21,7 @@
 
 package org.libreplan.business.test.workreports.daos;
 
+import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -28,16 +29,20 @@ import static org.libreplan.business.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_
 import static org.libreplan.business.test.BusinessGlobalNames.BUSINESS_SPRING_CONFIG_TEST_FILE;
 
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Resource;
 
+import org.joda.time.LocalDate;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.libreplan.business.IDataBootstrap;
 import org.libreplan.business.common.exceptions.InstanceNotFoundException;
+import org.libreplan.business.workingday.EffortDuration;
 import org.libreplan.business.workreports.daos.IWorkReportLineDAO;
 import org.libreplan.business.workreports.entities.WorkReportLine;
+import org.libreplan.business.workreports.valueobjects.WorkReportLinesSummary;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
@@ -93,4 +98,38 @@ public class WorkReportLineDAOTest extends AbstractWorkReportTest {
         List<WorkReportLine> list = workReportLineDAO.list(WorkReportLine.class);
         assertEquals(previous + 2, list.size());
     }
+
+    @Test
+    @Transactional
+    public void testFindSummariesByOrderElements() {
+        WorkReportLine first = createValidWorkReportLine();
+        first.setDate(new LocalDate(2026, 1, 5).toDateTimeAtStartOfDay().toDate());
+        first.setEffort(EffortDuration.hours(3));
+        workReportLineDAO.save(first);
+
+        WorkReportLine second = createValidWorkReportLine();
+        second.setOrderElement(first.getOrderElement());
+        second.setDate(new LocalDate(2026, 1, 9).toDateTimeAtStartOfDay().toDate());
+        second.setEffort(EffortDuration.hours(5));
+        second.setFinished(true);
+        workReportLineDAO.save(second);
+
+        WorkReportLine another = createValidWorkReportLine();
+        workReportLineDAO.save(another);
+        workReportLineDAO.flush();
+
+        Map<Long, WorkReportLinesSummary> summaries = workReportLineDAO
+                .findSummariesByOrderElements(asList(first.getOrderElement(), another.getOrderElement()));
+
+        assertEquals(2, summaries.size());
+
+        WorkReportLinesSummary summary = summaries.get(first.getOrderElement().getId());
+        assertEquals(EffortDuration.hours(8), summary.getEffort());
+        assertEquals(new LocalDate(2026, 1, 5), LocalDate.fromDateFields(summary.getFirstDate()));
+        assertEquals(new LocalDate(2026, 1, 9), LocalDate.fromDateFields(summary.getLastDate()));
+        assertTrue(summary.isFinished());
+
+        assertFalse(summaries.get(another.getOrderElement().getId()).isFinished());
+    }
+
 }
@@ -31,17 +31,19 @@ import javax.servlet.ServletContextListener;
 
 import org.libreplan.business.BootstrapOrder;
 import org.libreplan.business.IDataBootstrap;
+import org.libreplan.business.hibernate.notification.ISnapshotRefresherService;
 import org.libreplan.business.hibernate.notification.PredefinedDatabaseSnapshots;
 import org.springframework.aop.framework.Advised;
 import org.springframework.beans.factory.BeanFactoryUtils;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.zkoss.ganttz.util.ProfilingMetrics;
 
 public class BootstrapListener implements ServletContextListener {
 
     @Override
     public void contextDestroyed(ServletContextEvent servletContextEvent) {
-
+        ProfilingMetrics.unregisterMBean();
     }
 
     @Override
@@ -51,6 +53,8 @@ public class BootstrapListener implements ServletContextListener {
 
         doBootstrap(webApplicationContext);
 
+        registerProfilingMetrics(webApplicationContext);
+
         // Some snapshots could depend on the bootstrap being done, so they are launched after
         launchSnapshots(webApplicationContext);
     }
@@ -109,6 +113,19 @@ public class BootstrapListener implements ServletContextListener {
         };
     }
 
+    private void registerProfilingMetrics(WebApplicationContext webApplicationContext) {
+        ProfilingMetrics.registerMBean();
+
+        ISnapshotRefresherService snapshotRefresher = webApplicationContext.getBean(ISnapshotRefresherService.class);
+        snapshotRefresher.addExecutionListener((snapshotName, msWaiting, msExecuting, failed) -> {
+            ProfilingMetrics.record("snapshot." + snapshotName + ".waitingMs", msWaiting);
+            ProfilingMetrics.record("snapshot." + snapshotName + ".executingMs", msExecuting);
+            if ( failed ) {
+                ProfilingMetrics.count("snapshot." + snapshotName + ".errors");
+            }
+        });
+    }
+
     private void launchSnapshots(WebApplicationContext webApplicationContext) {
         PredefinedDatabaseSnapshots snapshots = getPredefinedDatabaseSnapshots(webApplicationContext);
         snapshots.registerSnapshots();
@@ -259,11 +259,8 @@ public class BandboxMultipleSearch extends HtmlMacroComponent {
      * Find filter which contains the expression.
      * @param inputText
      */
-    @SuppressWarnings("unchecked")
     private ListModel<FilterPair> getSubModel(String inputText) {
-        List<FilterPair> result = multipleFiltersFinder.getMatching(inputText);
-
-        return new SimpleListModel<>(result);
+        return multipleFiltersFinder.getMatchingModel(inputText);
     }
 
     /**
@@ -31,9 +31,9 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.lang3.StringUtils;
 import org.libreplan.business.common.BaseEntity;
-import org.libreplan.business.labels.entities.Label;
 import org.libreplan.web.common.Util;
 import org.libreplan.web.common.components.finders.IBandboxFinder;
+import org.libreplan.web.common.components.finders.SearchableBandboxFinder;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.context.support.WebApplicationContextUtils;
 import org.zkoss.zk.ui.Executions;
@@ -83,6 +83,11 @@ public class BandboxSearch extends HtmlMacroComponent {
 
         listbox.setItemRenderer(finder.getItemRenderer());
 
+        if ( finder instanceof SearchableBandboxFinder ) {
+            listbox.setMold("paging");
+            listbox.setPageSize(SearchableBandboxFinder.PAGE_SIZE);
+        }
+
         listhead = (Listhead) listbox.getFellowIfAny("listhead");
         bandbox = (Bandbox) getFellowIfAny("bandbox");
 
@@ -175,22 +180,12 @@ public class BandboxSearch extends HtmlMacroComponent {
     }
 
     /**
-     * Find {@link Label} which name or type start with prefix.
+     * Find the elements matching the input text.
      *
      * @param inputText
      */
-    @SuppressWarnings("unchecked")
-    private ListModel<Object> getSubModel(String inputText) {
-        List<Object> result = new ArrayList<>();
-
-        final ListModel finderModel = finder.getModel();
-        for (int i = 0; i < finderModel.getSize(); i++) {
-            Object obj = finderModel.getElementAt(i);
-            if (finder.entryMatchesText(obj, inputText)) {
-                result.add(obj);
-            }
-        }
-        return new SimpleListModel<>(result);
+    private ListModel getSubModel(String inputText) {
+        return finder.getMatchingModel(inputText);
     }
 
     /**
@@ -21,6 +21,9 @@
 
 package org.libreplan.web.common.components.finders;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.transaction.annotation.Transactional;
 import org.zkoss.zul.ListModel;
 import org.zkoss.zul.Listitem;
@@ -54,6 +57,20 @@ public abstract class BandboxFinder implements IBandboxFinder {
         this.model = model;
     }
 
+    @Override
+    public ListModel getMatchingModel(String text) {
+        List<Object> result = new ArrayList<>();
+
+        final ListModel model = getModel();
+        for (int i = 0; i < model.getSize(); i++) {
+            Object obj = model.getElementAt(i);
+            if (entryMatchesText(obj, text)) {
+                result.add(obj);
+            }
+        }
+        return new SimpleListModel<>(result);
+    }
+
     @Override
     public ListitemRenderer getItemRenderer() {
         return _defRend;
@@ -20,14 +20,17 @@
 
 package org.libreplan.web.common.components.finders;
 
+import org.libreplan.business.hibernate.notification.ReloadOn;
 import org.libreplan.business.resources.daos.ICriterionDAO;
 import org.libreplan.business.resources.entities.Criterion;
+import org.libreplan.business.resources.entities.CriterionType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 import org.zkoss.zul.Listcell;
 import org.zkoss.zul.ListitemRenderer;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -36,7 +39,7 @@ import java.util.List;
  * @author Susana Montes Pedreira <smontes@wirelessgalicia.com>
  */
 @Repository
-public class CriterionBandboxFinder extends BandboxFinder implements IBandboxFinder {
+public class CriterionBandboxFinder extends SearchableBandboxFinder<Criterion> implements IBandboxFinder {
 
     @Autowired
     private ICriterionDAO criterionDAO;
@@ -83,12 +86,13 @@ public class CriterionBandboxFinder extends BandboxFinder implements IBandboxFin
     }
 
     @Override
-    public boolean entryMatchesText(Object obj, String text) {
-        Criterion criterion = (Criterion) obj;
-        text = text.trim().toLowerCase();
+    protected List<String> getSearchableTexts(Criterion criterion) {
+        return Arrays.asList(criterion.getType().getName(), getNamesHierarchy(criterion, ""));
+    }
 
-        return criterion.getType().getName().toLowerCase().contains(text) ||
-                getNamesHierarchy(criterion, "").toLowerCase().contains(text);
+    @Override
+    protected ReloadOn getReloadOn() {
+        return ReloadOn.onChangeOf(Criterion.class, CriterionType.class);
     }
 
     @Override
@@ -69,6 +69,15 @@ public interface IBandboxFinder {
      */
     void setModel(ListModel model);
 
+    /**
+     * Returns a {@link ListModel} with the objects of the model matching the
+     * input text
+     *
+     * @param text
+     * @return
+     */
+    ListModel getMatchingModel(String text);
+
     /**
      * Provides headers for {@link BandboxSearch}
      *
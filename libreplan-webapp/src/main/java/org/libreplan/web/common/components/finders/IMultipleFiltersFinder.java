@@ -23,6 +23,7 @@ package org.libreplan.web.common.components.finders;
 
 import java.util.List;
 
+import org.zkoss.zul.ListModel;
 import org.zkoss.zul.ListitemRenderer;
 
 /**
@@ -39,6 +40,14 @@ public interface IMultipleFiltersFinder {
      */
     List<FilterPair> getMatching(String filter);
 
+    /**
+     * Like {@link #getMatching(String)} but the {@link FilterPair} can be
+     * retrieved as they are shown, e.g. page by page.
+     * @param filter
+     * @return ListModel<FilterPair>
+     */
+    ListModel<FilterPair> getMatchingModel(String filter);
+
     List<FilterPair> getFirstTenFilters();
 
     String objectToString(Object obj);
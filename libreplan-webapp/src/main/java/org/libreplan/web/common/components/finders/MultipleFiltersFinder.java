@@ -26,9 +26,11 @@ import org.libreplan.business.common.AdHocTransactionService;
 import org.libreplan.business.common.IAdHocTransactionService;
 import org.libreplan.business.hibernate.notification.ISnapshotRefresherService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.zkoss.zul.ListModel;
 import org.zkoss.zul.Listcell;
 import org.zkoss.zul.Listitem;
 import org.zkoss.zul.ListitemRenderer;
+import org.zkoss.zul.SimpleListModel;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -81,6 +83,10 @@ abstract class MultipleFiltersFinder implements IMultipleFiltersFinder {
         this.listMatching = listMatching;
     }
 
+    public ListModel<FilterPair> getMatchingModel(String filter) {
+        return new SimpleListModel<>(getMatching(filter));
+    }
+
     public ListitemRenderer getFilterPairRenderer() {
         return filterPairRenderer;
     }
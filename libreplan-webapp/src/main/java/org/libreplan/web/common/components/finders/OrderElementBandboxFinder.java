@@ -21,10 +21,13 @@
 
 package org.libreplan.web.common.components.finders;
 
+import org.libreplan.business.hibernate.notification.ReloadOn;
 import org.libreplan.business.orders.daos.IOrderDAO;
 import org.libreplan.business.orders.daos.IOrderElementDAO;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.orders.entities.OrderElement;
+import org.libreplan.business.orders.entities.OrderLine;
+import org.libreplan.business.orders.entities.OrderLineGroup;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +35,7 @@ import org.zkoss.zul.Listcell;
 import org.zkoss.zul.Listitem;
 import org.zkoss.zul.ListitemRenderer;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -40,7 +44,7 @@ import java.util.List;
  * @author Manuel Rego Casasnovas <mrego@igalia.com>
  */
 @Repository
-public class OrderElementBandboxFinder extends BandboxFinder implements IBandboxFinder {
+public class OrderElementBandboxFinder extends SearchableBandboxFinder<OrderElement> implements IBandboxFinder {
 
     @Autowired
     private IOrderElementDAO orderElementDAO;
@@ -73,14 +77,20 @@ public class OrderElementBandboxFinder extends BandboxFinder implements IBandbox
     }
 
     @Override
-    public boolean entryMatchesText(Object obj, String text) {
-        OrderElement orderElement = (OrderElement) obj;
-        text = text.trim().toLowerCase();
+    protected List<String> getSearchableTexts(OrderElement orderElement) {
+        return Arrays.asList(
+                orderElement.getCode(),
+                orderElement.getName(),
+                orderElement.getOrder().getCode(),
+                orderElement.getOrder().getName());
+    }
 
-        return (orderElement.getCode().toLowerCase().contains(text) ||
-                orderElement.getName().toLowerCase().contains(text) ||
-                orderElement.getOrder().getCode().toLowerCase().contains(text) ||
-                orderElement.getOrder().getName().toLowerCase().contains(text));
+    /**
+     * Heavy, as any modification makes all the order elements be loaded again
+     */
+    @Override
+    protected ReloadOn getReloadOn() {
+        return ReloadOn.onChangeOf(OrderElement.class, OrderLine.class, OrderLineGroup.class, Order.class).heavy();
     }
 
     @Override
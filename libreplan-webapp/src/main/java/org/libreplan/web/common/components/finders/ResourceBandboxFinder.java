@@ -19,9 +19,12 @@
 
 package org.libreplan.web.common.components.finders;
 
-import org.apache.commons.lang3.StringUtils;
+import org.libreplan.business.hibernate.notification.ReloadOn;
 import org.libreplan.business.resources.daos.IResourceDAO;
+import org.libreplan.business.resources.entities.Machine;
 import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.VirtualWorker;
+import org.libreplan.business.resources.entities.Worker;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
@@ -30,6 +33,7 @@ import org.zkoss.zul.Listcell;
 import org.zkoss.zul.Listitem;
 import org.zkoss.zul.ListitemRenderer;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -38,7 +42,7 @@ import java.util.List;
  * @author Manuel Rego Casasnovas <rego@igalia.com>
  */
 @Repository
-public class ResourceBandboxFinder extends BandboxFinder implements IBandboxFinder {
+public class ResourceBandboxFinder extends SearchableBandboxFinder<Resource> implements IBandboxFinder {
 
     @Autowired
     private IResourceDAO resourceDAO;
@@ -59,15 +63,13 @@ public class ResourceBandboxFinder extends BandboxFinder implements IBandboxFind
     }
 
     @Override
-    public boolean entryMatchesText(Object obj, String text) {
-        Resource resource = (Resource) obj;
-        text = StringUtils.trim(text.toLowerCase());
-
-        return checkContainsText(resource.getShortDescription(), text);
+    protected List<String> getSearchableTexts(Resource resource) {
+        return Collections.singletonList(resource.getShortDescription());
     }
 
-    private boolean checkContainsText(String original, String text) {
-        return original.toLowerCase().contains(text);
+    @Override
+    protected ReloadOn getReloadOn() {
+        return ReloadOn.onChangeOf(Resource.class, Worker.class, Machine.class, VirtualWorker.class);
     }
 
     @Override
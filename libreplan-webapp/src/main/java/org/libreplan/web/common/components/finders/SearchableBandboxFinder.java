@@ -0,0 +1,128 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.common.components.finders;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.libreplan.business.common.AdHocTransactionService;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.SearchIndex;
+import org.libreplan.business.hibernate.notification.IAutoUpdatedSnapshot;
+import org.libreplan.business.hibernate.notification.ISnapshotRefresherService;
+import org.libreplan.business.hibernate.notification.ReloadOn;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.zkoss.zul.ListModel;
+import org.zkoss.zul.ListModelList;
+
+/**
+ * {@link BandboxFinder} searching a {@link SearchIndex} of the elements
+ * returned by {@link #getAll()}, shared by all the desktops. The index is
+ * taken as a snapshot, so it's rebuilt in background when the elements are
+ * modified.
+ *
+ * The models returned are views on the index, so the elements are only
+ * rendered page by page. When a model is set explicitly it's filtered as any
+ * other {@link BandboxFinder} does.
+ */
+public abstract class SearchableBandboxFinder<E extends BaseEntity> extends BandboxFinder {
+
+    public static final int PAGE_SIZE = 10;
+
+    @Autowired
+    private IAdHocTransactionService adHocTransactionService;
+
+    @Autowired
+    private ISnapshotRefresherService snapshotRefresherService;
+
+    private volatile IAutoUpdatedSnapshot<SearchIndex<E>> index;
+
+    private ListModel model;
+
+    /**
+     * Called on a read only transaction when the index is built, so the
+     * elements must be returned with all the data needed to render them
+     */
+    @Override
+    public abstract List<E> getAll();
+
+    /**
+     * The names, codes and labels the element is searched by
+     */
+    protected abstract List<String> getSearchableTexts(E element);
+
+    /**
+     * The entities whose modifications make the index be rebuilt
+     */
+    protected abstract ReloadOn getReloadOn();
+
+    private SearchIndex<E> getIndex() {
+        if ( index == null ) {
+            synchronized (this) {
+                if ( index == null ) {
+                    index = snapshotRefresherService.takeSnapshot(
+                            getClass().getSimpleName() + " search index",
+                            onTransaction(() -> SearchIndex.create(getAll(), this::getSearchableTexts)),
+                            getReloadOn());
+                }
+            }
+        }
+
+        return index.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Callable<T> onTransaction(Callable<T> callable) {
+        return AdHocTransactionService.readOnlyProxy(adHocTransactionService, Callable.class, callable);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean entryMatchesText(Object obj, String text) {
+        return SearchIndex.matches(getSearchableTexts((E) obj), text);
+    }
+
+    @Override
+    public ListModel getModel() {
+        return model != null ? model : getMatchingModel("");
+    }
+
+    @Override
+    public void setModel(ListModel model) {
+        this.model = model;
+    }
+
+    @Override
+    public ListModel getMatchingModel(String text) {
+        if ( model != null ) {
+            return super.getMatchingModel(text);
+        }
+
+        return new ListModelList<>(getIndex().search(text), true);
+    }
+
+    @Override
+    public void resetModel() {
+        this.model = null;
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.limitingresources;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
+import org.libreplan.business.resources.entities.LimitingResourceQueue;
+
+/**
+ * Outcome of assigning all the unassigned {@link LimitingResourceQueueElement} at once.
+ *
+ * The makespan of a queue is the end of its last element after the assignment.
+ * In a dry run nothing is kept, so it is the makespan the queues would have.
+ */
+public class BatchAllocationReport {
+
+    private final boolean dryRun;
+
+    private final List<LimitingResourceQueueElement> assigned;
+
+    private final List<LimitingResourceQueueElement> notAssigned;
+
+    private final Map<LimitingResourceQueue, DateAndHour> makespans;
+
+    BatchAllocationReport(boolean dryRun,
+                          List<LimitingResourceQueueElement> assigned,
+                          List<LimitingResourceQueueElement> notAssigned,
+                          Map<LimitingResourceQueue, DateAndHour> makespans) {
+
+        this.dryRun = dryRun;
+        this.assigned = Collections.unmodifiableList(assigned);
+        this.notAssigned = Collections.unmodifiableList(notAssigned);
+        this.makespans = Collections.unmodifiableMap(new LinkedHashMap<>(makespans));
+    }
+
+    public boolean isDryRun() {
+        return dryRun;
+    }
+
+    /**
+     * @return the elements assigned to a queue, in the order they were assigned
+     */
+    public List<LimitingResourceQueueElement> getAssigned() {
+        return assigned;
+    }
+
+    /**
+     * @return the elements no queue can hold
+     */
+    public List<LimitingResourceQueueElement> getNotAssigned() {
+        return notAssigned;
+    }
+
+    /**
+     * @return the makespan of every queue having elements, ordered by resource name
+     */
+    public Map<LimitingResourceQueue, DateAndHour> getMakespans() {
+        return makespans;
+    }
+
+}
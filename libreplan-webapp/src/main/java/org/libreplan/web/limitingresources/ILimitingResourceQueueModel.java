@@ -28,10 +28,12 @@ import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.planner.entities.DayAssignment;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueDependency;
 import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
 import org.libreplan.business.resources.entities.LimitingResourceQueue;
 import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
 import org.zkoss.ganttz.util.Interval;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
 
 /**
  * Contains operations for showing {@link LimitingResourceQueue} and its
@@ -144,4 +146,19 @@ public interface ILimitingResourceQueueModel {
 
     Set<LimitingResourceQueueElement> assignLimitingResourceQueueElements(List<LimitingResourceQueueElement> elements);
 
+    /**
+     * Assigns all the unassigned {@link LimitingResourceQueueElement} in a single pass.
+     *
+     * The elements are visited in topological order of their {@link LimitingResourceQueueDependency}, the ones that
+     * could start earlier first, and each one is put in the queue where it would end earlier.
+     * As the predecessors are already placed the other elements are not moved, unless some successor was already
+     * assigned to a queue. The changes are kept like the other allocations until {@link #confirm()}.
+     *
+     * @param dryRun
+     *            if <code>true</code> nothing is changed, the report tells how the queues would end
+     * @param progress
+     *            receives the percentage of elements already visited
+     */
+    BatchAllocationReport assignAllUnassigned(boolean dryRun, IDesktopUpdatesEmitter<Integer> progress);
+
 }
@@ -27,9 +27,11 @@ import static org.libreplan.business.planner.limiting.entities.LimitingResourceQ
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -42,6 +44,7 @@ import org.hibernate.proxy.HibernateProxy;
 import org.jgrapht.DirectedGraph;
 import org.jgrapht.traverse.TopologicalOrderIterator;
 import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.AvailabilityTimeLine;
 import org.libreplan.business.calendars.entities.BaseCalendar;
 import org.libreplan.business.calendars.entities.CalendarAvailability;
 import org.libreplan.business.calendars.entities.CalendarData;
@@ -98,6 +101,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
 import org.zkoss.ganttz.util.Interval;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
 
 @Component
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
@@ -647,9 +651,10 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
 
     private AllocationSpec findAllocationSpecFor(List<GapOnQueue> gapsOnQueue, InsertionRequirements requirements) {
         boolean generic = requirements.getElement().isGeneric();
+        Map<LimitingResourceQueue, List<AvailabilityTimeLine.Interval>> criteriaValidPeriods = new HashMap<>();
         for (GapOnQueue each : gapsOnQueue) {
 
-            for (GapOnQueue eachSubGap : getSubGaps(each, requirements.getElement(), generic)) {
+            for (GapOnQueue eachSubGap : getSubGaps(each, requirements.getElement(), generic, criteriaValidPeriods)) {
 
                 AllocationSpec allocation = requirements.guessValidity(eachSubGap);
 
@@ -741,10 +746,25 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
         return checkAllocationIsAppropriative;
     }
 
-    private List<GapOnQueue> getSubGaps(GapOnQueue each, LimitingResourceQueueElement element, boolean generic) {
-        return generic
-                ? each.splitIntoGapsSatisfyingCriteria(element.getCriteria())
-                : Collections.singletonList(each);
+    /**
+     * The periods satisfying the criteria are calculated only once for each queue.
+     */
+    private List<GapOnQueue> getSubGaps(GapOnQueue each,
+                                        LimitingResourceQueueElement element,
+                                        boolean generic,
+                                        Map<LimitingResourceQueue, List<AvailabilityTimeLine.Interval>> criteriaValidPeriods) {
+        if ( !generic ) {
+            return Collections.singletonList(each);
+        }
+
+        LimitingResourceQueue queue = each.getOriginQueue();
+        List<AvailabilityTimeLine.Interval> periods = criteriaValidPeriods.get(queue);
+        if ( periods == null ) {
+            periods = Gap.getCriteriaValidPeriods(queue.getResource(), element.getCriteria());
+            criteriaValidPeriods.put(queue, periods);
+        }
+
+        return each.splitIntoGapsSatisfyingCriteria(periods);
     }
 
     private AllocationSpec applyAllocation(final AllocationSpec allocationStillNotDone) {
@@ -1243,4 +1263,204 @@ public class LimitingResourceQueueModel implements ILimitingResourceQueueModel {
         return result;
     }
 
+    @Override
+    public BatchAllocationReport assignAllUnassigned(boolean dryRun, IDesktopUpdatesEmitter<Integer> progress) {
+        List<LimitingResourceQueueElement> elements =
+                queuesState.inTopologicalOrder(new ArrayList<>(queuesState.getUnassigned()), byPriority());
+
+        List<LimitingResourceQueueElement> assigned = new ArrayList<>();
+        List<LimitingResourceQueueElement> notAssigned = new ArrayList<>();
+        Map<LimitingResourceQueueElement, ElementTimes> previousTimes = new LinkedHashMap<>();
+
+        int lastPercentage = -1;
+        for (int i = 0; i < elements.size(); i++) {
+            LimitingResourceQueueElement each = elements.get(i);
+
+            if ( batchAssign(each, dryRun, previousTimes) ) {
+                assigned.add(each);
+            } else {
+                notAssigned.add(each);
+            }
+
+            int percentage = (i + 1) * 100 / elements.size();
+            if ( percentage != lastPercentage ) {
+                progress.doUpdate(percentage);
+                lastPercentage = percentage;
+            }
+        }
+
+        BatchAllocationReport result = new BatchAllocationReport(dryRun, assigned, notAssigned, makespans());
+
+        if ( dryRun ) {
+            undoTemporaryPlacements(previousTimes);
+        }
+
+        return result;
+    }
+
+    /**
+     * Elements that could start earlier go first and, between them, the longest ones.
+     * The ones without an earliest start go last.
+     */
+    private static Comparator<LimitingResourceQueueElement> byPriority() {
+        return Comparator.comparing(LimitingResourceQueueElement::getEarliestStartDateBecauseOfGantt,
+                Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(LimitingResourceQueueElement::getIntentedTotalHours, Comparator.reverseOrder());
+    }
+
+    /**
+     * The predecessors of <code>element</code> are already placed, so it is
+     * put at the first valid gap without moving the other elements. Only if
+     * some of its successors are already on a queue the usual insertion is
+     * done, as they might have to be moved.
+     *
+     * @return if <code>element</code> has been assigned to a queue, it
+     *         cannot be without an earliest start
+     */
+    private boolean batchAssign(LimitingResourceQueueElement element,
+                                boolean dryRun,
+                                Map<LimitingResourceQueueElement, ElementTimes> previousTimes) {
+
+        if ( element.getEarliestStartDateBecauseOfGantt() == null ) {
+            return false;
+        }
+
+        if ( !dryRun && hasSuccessorsOnQueues(element) ) {
+            return !assignLimitingResourceQueueElement(element).isEmpty();
+        }
+
+        AllocationSpec allocation = findBatchAllocationFor(queuesState.getRequirementsFor(element));
+        if ( allocation == null ) {
+            return false;
+        }
+
+        if ( dryRun ) {
+            placeTemporarily(allocation, previousTimes);
+        } else {
+            applyAllocation(allocation);
+        }
+
+        return true;
+    }
+
+    private boolean hasSuccessorsOnQueues(LimitingResourceQueueElement element) {
+        for (LimitingResourceQueueDependency each : element.getDependenciesAsOrigin()) {
+            if ( each.getHasAsDestiny().getLimitingResourceQueue() != null ) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Among the assignable queues the one where the element ends earlier is
+     * chosen. On a tie, the queue that ends earlier.
+     *
+     * @return <code>null</code> if no queue can hold the element
+     */
+    private AllocationSpec findBatchAllocationFor(InsertionRequirements requirements) {
+        AllocationSpec result = null;
+
+        for (LimitingResourceQueue each : queuesState.getAssignableQueues(requirements.getElement())) {
+            AllocationSpec allocation = LimitingResourceAllocator.getFirstValidAllocation(requirements, each);
+
+            if ( allocation != null && (result == null || isPreferred(allocation, result)) ) {
+                result = allocation;
+            }
+        }
+
+        return result;
+    }
+
+    private static boolean isPreferred(AllocationSpec allocation, AllocationSpec than) {
+        int comparison = allocation.getEndExclusive().compareTo(than.getEndExclusive());
+        if ( comparison != 0 ) {
+            return comparison < 0;
+        }
+
+        DateAndHour queueEnd = endOf(allocation.getQueue());
+        DateAndHour otherQueueEnd = endOf(than.getQueue());
+
+        return queueEnd == null ? otherQueueEnd != null : otherQueueEnd != null && queueEnd.isBefore(otherQueueEnd);
+    }
+
+    private static DateAndHour endOf(LimitingResourceQueue queue) {
+        LimitingResourceQueueElement last = queue.getLastElement();
+        return last != null ? last.getEndTime() : null;
+    }
+
+    private Map<LimitingResourceQueue, DateAndHour> makespans() {
+        Map<LimitingResourceQueue, DateAndHour> result = new LinkedHashMap<>();
+
+        for (LimitingResourceQueue each : queuesState.getQueuesOrderedByResourceName()) {
+            DateAndHour end = endOf(each);
+
+            if ( end != null ) {
+                result.put(each, end);
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Puts the element on the queue only with the times of the allocation, so
+     * it is taken into account by the next elements, but neither the day
+     * assignments nor the task are modified.
+     */
+    private void placeTemporarily(AllocationSpec allocation,
+                                  Map<LimitingResourceQueueElement, ElementTimes> previousTimes) {
+
+        LimitingResourceQueueElement element = allocation.getElement();
+        previousTimes.put(element, ElementTimes.of(element));
+
+        DateAndHour start = allocation.getStartInclusive();
+        DateAndHour end = allocation.getEndExclusive();
+        new ElementTimes(start.getDate(), start.getHour(), end.getDate(), end.getHour()).applyTo(element);
+        queuesState.assignedToQueue(element, allocation.getQueue());
+    }
+
+    private void undoTemporaryPlacements(Map<LimitingResourceQueueElement, ElementTimes> previousTimes) {
+        for (Entry<LimitingResourceQueueElement, ElementTimes> each : previousTimes.entrySet()) {
+            LimitingResourceQueueElement element = each.getKey();
+            queuesState.unassingFromQueue(element);
+            each.getValue().applyTo(element);
+        }
+    }
+
+    /**
+     * The position of an element, the dates can be <code>null</code> if it has never been assigned.
+     */
+    private static class ElementTimes {
+
+        private static ElementTimes of(LimitingResourceQueueElement element) {
+            return new ElementTimes(
+                    element.getStartDate(), element.getStartHour(), element.getEndDate(), element.getEndHour());
+        }
+
+        private final LocalDate startDate;
+
+        private final int startHour;
+
+        private final LocalDate endDate;
+
+        private final int endHour;
+
+        private ElementTimes(LocalDate startDate, int startHour, LocalDate endDate, int endHour) {
+            this.startDate = startDate;
+            this.startHour = startHour;
+            this.endDate = endDate;
+            this.endHour = endHour;
+        }
+
+        private void applyTo(LimitingResourceQueueElement element) {
+            element.setStartDate(startDate);
+            element.setStartHour(startHour);
+            element.setEndDate(endDate);
+            element.setEndHour(endHour);
+        }
+
+    }
+
 }
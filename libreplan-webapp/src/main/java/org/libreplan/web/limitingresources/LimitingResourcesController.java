@@ -28,6 +28,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -42,6 +43,7 @@ import org.libreplan.business.planner.entities.GenericResourceAllocation;
 import org.libreplan.business.planner.entities.ResourceAllocation;
 import org.libreplan.business.planner.entities.SpecificResourceAllocation;
 import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
 import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueDependency;
 import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
 import org.libreplan.business.resources.entities.Criterion;
@@ -58,6 +60,9 @@ import org.springframework.stereotype.Component;
 import org.zkoss.ganttz.timetracker.TimeTracker;
 import org.zkoss.ganttz.timetracker.zoom.SeveralModifiers;
 import org.zkoss.ganttz.timetracker.zoom.ZoomLevel;
+import org.zkoss.ganttz.util.LongOperationFeedback;
+import org.zkoss.ganttz.util.LongOperationFeedback.IBackGroundOperation;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdate;
 import org.zkoss.zk.ui.SuspendNotAllowedException;
 import org.zkoss.zk.ui.event.Events;
 import org.zkoss.zk.ui.util.GenericForwardComposer;
@@ -68,6 +73,7 @@ import org.zkoss.zul.Grid;
 import org.zkoss.zul.Hbox;
 import org.zkoss.zul.Label;
 import org.zkoss.zul.Messagebox;
+import org.zkoss.zul.Progressmeter;
 import org.zkoss.zul.Row;
 import org.zkoss.zul.RowRenderer;
 import org.zkoss.zul.SimpleListModel;
@@ -585,6 +591,79 @@ public class LimitingResourcesController extends GenericForwardComposer<org.zkos
         }
     }
 
+    public void assignAllUnassignedElements() {
+        runBatchAllocation(false);
+    }
+
+    public void simulateAssigningAllUnassignedElements() {
+        runBatchAllocation(true);
+    }
+
+    private void runBatchAllocation(final boolean dryRun) {
+        final List<Button> buttons = Arrays.asList(
+                (Button) limitingResourcesPanel.getFellowIfAny("btnAssignSelectedItems"),
+                (Button) limitingResourcesPanel.getFellowIfAny("btnAssignAllItems"),
+                (Button) limitingResourcesPanel.getFellowIfAny("btnSimulateAssignAllItems"));
+
+        final Progressmeter progressmeter =
+                (Progressmeter) limitingResourcesPanel.getFellowIfAny("progressBatchAllocation");
+
+        IBackGroundOperation<IDesktopUpdate> operation = updatesEmitter -> {
+            try {
+                updatesEmitter.doUpdate(showProgress(buttons, progressmeter, true));
+
+                BatchAllocationReport report = limitingResourceQueueModel.assignAllUnassigned(
+                        dryRun, percentage -> updatesEmitter.doUpdate(() -> progressmeter.setValue(percentage)));
+
+                updatesEmitter.doUpdate(() -> showBatchAllocationReport(report));
+            } finally {
+                updatesEmitter.doUpdate(showProgress(buttons, progressmeter, false));
+            }
+        };
+
+        LongOperationFeedback.progressive(self.getDesktop(), operation);
+    }
+
+    private IDesktopUpdate showProgress(final List<Button> buttons,
+                                        final Progressmeter progressmeter,
+                                        final boolean running) {
+        return () -> {
+            for (Button each : buttons) {
+                each.setDisabled(running);
+            }
+            progressmeter.setValue(0);
+            progressmeter.setVisible(running);
+        };
+    }
+
+    private void showBatchAllocationReport(BatchAllocationReport report) {
+        if ( !report.isDryRun() ) {
+            clearSelectAllCheckbox();
+            limitingResourcesPanel.refreshQueues(report.getMakespans().keySet());
+            reloadUnassignedLimitingResourceQueueElements();
+        }
+
+        StringBuilder message = new StringBuilder();
+        message.append(report.isDryRun()
+                ? _("{0} elements would be assigned", report.getAssigned().size())
+                : _("{0} elements assigned", report.getAssigned().size()));
+
+        if ( !report.getNotAssigned().isEmpty() ) {
+            message.append("\n").append(_("{0} elements cannot be assigned to any queue",
+                    report.getNotAssigned().size()));
+        }
+
+        message.append("\n\n").append(_("Queues end:"));
+        for (Map.Entry<LimitingResourceQueue, DateAndHour> each : report.getMakespans().entrySet()) {
+            message.append("\n").append(_("{0}: {1} at hour {2}",
+                    each.getKey().getResource().getName(),
+                    Util.formatDate(each.getValue().getDate()),
+                    each.getValue().getHour()));
+        }
+
+        Messagebox.show(message.toString(), _("Information"), Messagebox.OK, Messagebox.INFORMATION);
+    }
+
     private void clearSelectAllCheckbox() {
         cbSelectAll.setChecked(false);
     }
@@ -25,10 +25,13 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.PriorityQueue;
+import java.util.Queue;
 import java.util.Set;
 
 import org.apache.commons.lang3.Validate;
@@ -644,6 +647,18 @@ public class QueuesState {
         return toList(topologicalIterator(buildSubgraphFor(queueElements)));
     }
 
+    /**
+     * Like {@link #inTopologicalOrder(List)}, but among the elements whose
+     * predecessors have already been returned, the first one according to
+     * <code>priority</code> goes first.
+     */
+    public List<LimitingResourceQueueElement> inTopologicalOrder(List<LimitingResourceQueueElement> queueElements,
+                                                                 Comparator<LimitingResourceQueueElement> priority) {
+
+        Queue<LimitingResourceQueueElement> ready = new PriorityQueue<>(Math.max(1, queueElements.size()), priority);
+        return toList(new TopologicalOrderIterator<>(buildSubgraphFor(queueElements), ready));
+    }
+
     /**
      * Constructs a graph composed only by queueElements
      *
@@ -655,6 +670,7 @@ public class QueuesState {
 
         SimpleDirectedGraph<LimitingResourceQueueElement, LimitingResourceQueueDependency> result =
                 instantiateDirectedGraph();
+        Set<LimitingResourceQueueElement> included = new HashSet<>(queueElements);
 
         // Iterate through elements and construct graph
         for (LimitingResourceQueueElement each : queueElements) {
@@ -664,7 +680,7 @@ public class QueuesState {
 
                 LimitingResourceQueueElement destiny = dependency.getHasAsDestiny();
 
-                if ( queueElements.contains(destiny) ) {
+                if ( included.contains(destiny) ) {
                     // Add source, destiny and edge between them
                     addDependency(result, dependency);
                 }
@@ -0,0 +1,175 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.montecarlo;
+
+import static org.libreplan.web.I18nHelper._;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distributions used by {@link MonteCarloSimulation} to sample the duration of
+ * a task from its optimistic, normal and pessimistic estimations.
+ */
+public enum DurationDistribution {
+
+    /**
+     * Takes one of the three estimations with the probability given for each
+     * of them.
+     */
+    THREE_POINT {
+        @Override
+        public String getName() {
+            return _("Three-point estimation");
+        }
+
+        @Override
+        double sample(SplittableRandom random, double optimistic, double normal, double pessimistic,
+                      double pessimisticLimit, double normalLimit) {
+
+            double value = random.nextDouble();
+            if ( value < pessimisticLimit ) {
+                return pessimistic;
+            }
+            return value < normalLimit ? normal : optimistic;
+        }
+    },
+
+    /**
+     * Triangular distribution between the optimistic and the pessimistic
+     * estimations, with the normal one as its mode.
+     */
+    TRIANGULAR {
+        @Override
+        public String getName() {
+            return _("Triangular");
+        }
+
+        @Override
+        double sample(SplittableRandom random, double optimistic, double normal, double pessimistic,
+                      double pessimisticLimit, double normalLimit) {
+
+            double min = min(optimistic, normal, pessimistic);
+            double max = max(optimistic, normal, pessimistic);
+            if ( min == max ) {
+                return min;
+            }
+            double mode = Math.min(Math.max(normal, min), max);
+            double range = max - min;
+
+            // The rounding must not take the sample out of the estimations,
+            // as they bound the end dates of the simulation
+            double value = random.nextDouble();
+            if ( value < (mode - min) / range ) {
+                return Math.min(min + Math.sqrt(value * range * (mode - min)), max);
+            }
+            return Math.max(max - Math.sqrt((1 - value) * range * (max - mode)), min);
+        }
+    },
+
+    /**
+     * Beta-PERT distribution between the optimistic and the pessimistic
+     * estimations, with the normal one as its mode.
+     */
+    PERT {
+        @Override
+        public String getName() {
+            return _("PERT");
+        }
+
+        @Override
+        double sample(SplittableRandom random, double optimistic, double normal, double pessimistic,
+                      double pessimisticLimit, double normalLimit) {
+
+            double min = min(optimistic, normal, pessimistic);
+            double max = max(optimistic, normal, pessimistic);
+            if ( min == max ) {
+                return min;
+            }
+            double mode = Math.min(Math.max(normal, min), max);
+            double range = max - min;
+
+            double x = gamma(random, 1 + 4 * (mode - min) / range);
+            double y = gamma(random, 1 + 4 * (max - mode) / range);
+
+            return Math.min(min + range * x / (x + y), max);
+        }
+    };
+
+    public abstract String getName();
+
+    /**
+     * @param pessimisticLimit
+     *            probability of the pessimistic estimation, only used by
+     *            {@link #THREE_POINT}
+     * @param normalLimit
+     *            probability of the pessimistic or the normal estimations,
+     *            only used by {@link #THREE_POINT}
+     */
+    abstract double sample(SplittableRandom random, double optimistic, double normal, double pessimistic,
+                           double pessimisticLimit, double normalLimit);
+
+    static double min(double a, double b, double c) {
+        return Math.min(a, Math.min(b, c));
+    }
+
+    static double max(double a, double b, double c) {
+        return Math.max(a, Math.max(b, c));
+    }
+
+    /**
+     * Marsaglia and Tsang method, valid for shapes not lower than one, which
+     * is always the case for the PERT distribution.
+     */
+    private static double gamma(SplittableRandom random, double shape) {
+        double d = shape - 1.0 / 3;
+        double c = 1 / Math.sqrt(9 * d);
+        while (true) {
+            double x = gaussian(random);
+            double v = 1 + c * x;
+            if ( v <= 0 ) {
+                continue;
+            }
+            v = v * v * v;
+            double u = random.nextDouble();
+            if ( u < 1 - 0.0331 * x * x * x * x || Math.log(u) < 0.5 * x * x + d * (1 - v + Math.log(v)) ) {
+                return d * v;
+            }
+        }
+    }
+
+    /**
+     * Marsaglia polar method. {@link SplittableRandom} does not provide
+     * gaussian values.
+     */
+    private static double gaussian(SplittableRandom random) {
+        double u;
+        double v;
+        double s;
+        do {
+            u = 2 * random.nextDouble() - 1;
+            v = 2 * random.nextDouble() - 1;
+            s = u * u + v * v;
+        } while (s >= 1 || s == 0);
+
+        return u * Math.sqrt(-2 * Math.log(s) / s);
+    }
+
+}
@@ -26,6 +26,7 @@ import java.util.List;
 import java.util.Map;
 
 import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
 
@@ -35,8 +36,26 @@ import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
  */
 public interface IMonteCarloModel {
 
+    /**
+     * @param seed
+     *            seed of the random numbers, so the same result can be
+     *            obtained again. If <code>null</code> a different one is used
+     *            every time
+     * @param allTasks
+     *            if <code>true</code> all the tasks of the project are
+     *            simulated, following the dependencies between them, using
+     *            the given tasks to override their default estimations
+     * @return the probability of each end date of the tasks
+     */
     Map<LocalDate, BigDecimal> calculateMonteCarlo(List<MonteCarloTask> tasks,
-            int times, IDesktopUpdatesEmitter<Integer> iterationProgress);
+            int times, DurationDistribution distribution, Long seed,
+            boolean allTasks, IDesktopUpdatesEmitter<Integer> iterationProgress);
+
+    /**
+     * @return the fraction of the iterations of the last calculation in which
+     *         each task was critical, from the most critical one
+     */
+    Map<Task, BigDecimal> getCriticalityIndexes();
 
     void setCriticalPath(List<TaskElement> criticalPath);
 
@@ -24,11 +24,13 @@ package org.libreplan.web.montecarlo;
 import static org.libreplan.web.I18nHelper._;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.Task;
 import org.libreplan.business.planner.entities.TaskElement;
 import org.libreplan.web.common.Util;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -53,6 +55,7 @@ import org.zkoss.zul.Intbox;
 import org.zkoss.zul.Label;
 import org.zkoss.zul.Listbox;
 import org.zkoss.zul.Listitem;
+import org.zkoss.zul.Longbox;
 import org.zkoss.zul.Progressmeter;
 import org.zkoss.zul.Row;
 import org.zkoss.zul.RowRenderer;
@@ -79,14 +82,29 @@ public class MonteCarloController extends GenericForwardComposer {
 
     private final RowRenderer gridCriticalPathTasksRender = new CriticalPathTasksRender();
 
+    private final RowRenderer criticalityIndexesRenderer = (row, o, i) -> {
+        Map.Entry<Task, BigDecimal> entry = (Map.Entry<Task, BigDecimal>) o;
+
+        row.appendChild(new Label(entry.getKey().getName()));
+        row.appendChild(new Label(entry.getValue().movePointRight(2).stripTrailingZeros().toPlainString()));
+    };
+
     private Grid gridCriticalPathTasks;
 
     private Intbox ibIterations;
 
+    private Listbox lbDistributions;
+
+    private Longbox lbSeed;
+
     private Button btnRunMonteCarlo;
 
     private Checkbox cbGroupByWeeks;
 
+    private Checkbox cbAllTasks;
+
+    private Grid gridCriticalityIndexes;
+
     private Listbox lbCriticalPaths;
 
     private Progressmeter progressMonteCarloCalculation;
@@ -102,6 +120,8 @@ public class MonteCarloController extends GenericForwardComposer {
         super.doAfterCompose(comp);
 
         ibIterations.setValue(DEFAULT_ITERATIONS);
+        feedDistributionsList();
+        gridCriticalityIndexes.setRowRenderer(criticalityIndexesRenderer);
         lbCriticalPaths.addEventListener(Events.ON_SELECT, event -> reloadGridCriticalPathTasks());
 
         btnRunMonteCarlo.addEventListener(Events.ON_CLICK, new EventListener() {
@@ -121,6 +141,9 @@ public class MonteCarloController extends GenericForwardComposer {
                     final Map<LocalDate, BigDecimal> monteCarloData = monteCarloModel
                             .calculateMonteCarlo(getSelectedCriticalPath(),
                                     iterations,
+                                    getSelectedDistribution(),
+                                    lbSeed.getValue(),
+                                    cbAllTasks.isChecked(),
                                     percentageCompletedNotifier(updatesEmitter));
 
                     updatesEmitter.doUpdate(showCalculatedData(monteCarloData));
@@ -195,7 +218,15 @@ public class MonteCarloController extends GenericForwardComposer {
             }
 
             private IDesktopUpdate showCalculatedData(final Map<LocalDate, BigDecimal> monteCarloData) {
-                return () -> showMonteCarloGraph(monteCarloData);
+                return () -> {
+                    showCriticalityIndexes();
+                    showMonteCarloGraph(monteCarloData);
+                };
+            }
+
+            private void showCriticalityIndexes() {
+                gridCriticalityIndexes.setModel(new SimpleListModel<>(
+                        new ArrayList<>(monteCarloModel.getCriticalityIndexes().entrySet())));
             }
 
             private void showMonteCarloGraph(Map<LocalDate, BigDecimal> data) {
@@ -224,6 +255,17 @@ public class MonteCarloController extends GenericForwardComposer {
         });
     }
 
+    private void feedDistributionsList() {
+        for (DurationDistribution each : DurationDistribution.values()) {
+            lbDistributions.appendChild(new Listitem(each.getName(), each));
+        }
+        lbDistributions.setSelectedIndex(0);
+    }
+
+    private DurationDistribution getSelectedDistribution() {
+        return lbDistributions.getSelectedItem().getValue();
+    }
+
     private void feedCriticalPathsList() {
         lbCriticalPaths.setModel(new SimpleListModel<>(monteCarloModel.getCriticalPathNames()));
 
@@ -306,6 +348,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
         private Decimalbox pessimisticDuration(final MonteCarloTask task) {
             Decimalbox result = new Decimalbox();
+            result.setConstraint("no negative");
             Util.bind(result,
                     task::getPessimisticDuration,
                     task::setPessimisticDuration);
@@ -315,6 +358,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
         private Intbox pessimisticDurationPercentage(final MonteCarloTask task) {
             Intbox result = new Intbox();
+            result.setConstraint("no negative");
             Util.bind(result,
                     task::getPessimisticDurationPercentage,
                     task::setPessimisticDurationPercentage);
@@ -324,6 +368,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
         private Decimalbox normalDuration(final MonteCarloTask task) {
             Decimalbox result = new Decimalbox();
+            result.setConstraint("no negative");
             Util.bind(result,
                     task::getNormalDuration,
                     task::setNormalDuration);
@@ -333,6 +378,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
         private Intbox normalDurationPercentage(final MonteCarloTask task) {
             Intbox result = new Intbox();
+            result.setConstraint("no negative");
             Util.bind(result,
                     task::getNormalDurationPercentage,
                     task::setNormalDurationPercentage);
@@ -342,6 +388,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
         private Decimalbox optimisticDuration(final MonteCarloTask task) {
             Decimalbox result = new Decimalbox();
+            result.setConstraint("no negative");
             Util.bind(result,
                     task::getOptimisticDuration,
                     task::setOptimisticDuration);
@@ -351,6 +398,7 @@ public class MonteCarloController extends GenericForwardComposer {
 
         private Intbox optimisticDurationPercentage(final MonteCarloTask task) {
             Intbox result = new Intbox();
+            result.setConstraint("no negative");
             Util.bind(result,
                     task::getOptimisticDurationPercentage,
                     task::setOptimisticDurationPercentage);
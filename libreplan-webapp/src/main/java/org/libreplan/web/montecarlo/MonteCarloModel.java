@@ -26,16 +26,16 @@ import static org.libreplan.web.I18nHelper._;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
 import java.util.Set;
 
-import org.apache.commons.lang3.Validate;
 import org.hibernate.Hibernate;
 import org.joda.time.LocalDate;
 import org.libreplan.business.orders.entities.Order;
@@ -55,6 +55,7 @@ import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
  * Calculates the MonteCarlo function for a list of tasks.
  * Usually this list of tasks represents a critical path.
  * There could be many critical paths in scheduling.
+ * It can also be calculated for all the tasks of the project, following the dependencies between them.
  *
  * @author Diego Pino Garcia <dpino@igalia.com>
  */
@@ -75,6 +76,10 @@ public class MonteCarloModel implements IMonteCarloModel {
 
     private List<Task> tasksInCriticalPath;
 
+    private MonteCarloNetwork network;
+
+    private Map<Task, BigDecimal> criticalityIndexes = Collections.emptyMap();
+
     @Override
     @Transactional(readOnly = true)
     public void setCriticalPath(List<TaskElement> tasksInCriticalPath) {
@@ -92,6 +97,16 @@ public class MonteCarloModel implements IMonteCarloModel {
         initializeTasksInOrder(getOrderFor(this.tasksInCriticalPath));
         initializeOrderNameFor(this.tasksInCriticalPath);
         feedCriticalPaths(this.tasksInCriticalPath);
+        initializeNetwork(getOrderFor(this.tasksInCriticalPath));
+    }
+
+    /**
+     * The durations of the tasks not in the critical paths cannot be edited,
+     * so they are converted to calendar days while the session is open.
+     */
+    private void initializeNetwork(Order order) {
+        network = MonteCarloNetwork.create(order.getAssociatedTaskElement());
+        adjustDurationDays(network.getEstimations().values());
     }
 
     /**
@@ -197,159 +212,77 @@ public class MonteCarloModel implements IMonteCarloModel {
     @Override
     public Map<LocalDate, BigDecimal> calculateMonteCarlo(List<MonteCarloTask> tasks,
                                                           int iterations,
+                                                          DurationDistribution distribution,
+                                                          Long seed,
+                                                          boolean allTasks,
                                                           IDesktopUpdatesEmitter<Integer> iterationProgress) {
 
-        MonteCarloCalculation monteCarloCalculation = new MonteCarloCalculation(
-                copyOf(tasks), iterations, iterationProgress);
-        Map<LocalDate, BigDecimal> monteCarloValues = monteCarloCalculation.doCalculation();
+        List<MonteCarloTask> copies = copyOf(tasks);
+        adjustDurationDays(copies);
 
-        // Convert number of times to probability
-        for (LocalDate key : monteCarloValues.keySet()) {
-            BigDecimal times = monteCarloValues.get(key);
-            BigDecimal probability = times.divide(BigDecimal.valueOf(iterations), 8, RoundingMode.HALF_UP);
-            monteCarloValues.put(key, probability);
+        Map<Task, Integer> simulationIndexes = new HashMap<>();
+        MonteCarloSimulation simulation;
+        if ( allTasks ) {
+            Map<Task, MonteCarloTask> estimations = new HashMap<>(network.getEstimations());
+            for (MonteCarloTask each : copies) {
+                estimations.put(each.getTask(), each);
+            }
+            simulation = network.toSimulation(estimations, distribution, simulationIndexes);
+        } else {
+            for (int i = 0; i < copies.size(); i++) {
+                simulationIndexes.put(copies.get(i).getTask(), i);
+            }
+            simulation = MonteCarloSimulation.create(copies, distribution);
         }
 
-        return monteCarloValues;
+        MonteCarloSimulation.Result result =
+                simulation.run(iterations, seed != null ? seed : new Date().getTime(), iterationProgress);
+        criticalityIndexes = toCriticalityIndexes(result, simulationIndexes);
+
+        return result.getEndDateProbabilities();
     }
 
-    private List<MonteCarloTask> copyOf(List<MonteCarloTask> tasks) {
-        List<MonteCarloTask> result = new ArrayList<>();
+    private Map<Task, BigDecimal> toCriticalityIndexes(MonteCarloSimulation.Result result,
+                                                       Map<Task, Integer> simulationIndexes) {
 
-        for (MonteCarloTask each: tasks) {
-            result.add(MonteCarloTask.copy(each));
-        }
+        List<Task> tasks = new ArrayList<>(simulationIndexes.keySet());
+        tasks.sort(Comparator.comparingDouble(
+                (Task each) -> result.getCriticalityIndex(simulationIndexes.get(each))).reversed());
 
-        return result;
+        Map<Task, BigDecimal> sorted = new LinkedHashMap<>();
+        for (Task each : tasks) {
+            sorted.put(each, BigDecimal.valueOf(result.getCriticalityIndex(simulationIndexes.get(each)))
+                    .setScale(4, RoundingMode.HALF_UP));
+        }
+        return sorted;
     }
 
     @Override
-    public String getOrderName() {
-        return orderName;
+    public Map<Task, BigDecimal> getCriticalityIndexes() {
+        return criticalityIndexes;
     }
 
-    private static class MonteCarloCalculation {
-
-        private Map<MonteCarloTask, Set<EstimationRange>> estimationRangesForTasks = new HashMap<>();
-
-        private List<MonteCarloTask> tasks;
-
-        private int iterations;
-
-        private IDesktopUpdatesEmitter<Integer> iterationProgress;
-
-        public MonteCarloCalculation(List<MonteCarloTask> tasks,
-                                     int iterations,
-                                     IDesktopUpdatesEmitter<Integer> iterationProgress) {
-
-            adjustDurationDays(tasks);
-            initializeEstimationRanges(tasks);
-            this.tasks = tasks;
-            this.iterations = iterations;
-            this.iterationProgress = iterationProgress;
-        }
-
-        public Map<LocalDate, BigDecimal> doCalculation() {
-            Map<LocalDate, BigDecimal> result = new HashMap<>();
-
-            final int onePercent = iterations / 100;
-            Random randomGenerator = new Random((new Date()).getTime());
-
-            // Calculate number of times a date is repeated
-            for (int i = 0; i < iterations; i++) {
-                LocalDate endDate = calculateEndDateFor(tasks, randomGenerator);
-                BigDecimal times = result.get(endDate);
-
-                times = times != null ? times.add(BigDecimal.ONE) : BigDecimal.ONE;
-
-                result.put(endDate, times);
-
-                if (i % onePercent == 0) {
-                    increaseProgressMeter((i * 100) / iterations);
-                }
-            }
-
-            return result;
-        }
-
-        private void increaseProgressMeter(int completedPercent) {
-            iterationProgress.doUpdate(completedPercent);
+    private void adjustDurationDays(Collection<MonteCarloTask> tasks) {
+        for (MonteCarloTask each : tasks) {
+            each.setPessimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getPessimisticDuration()));
+            each.setNormalDuration(MonteCarloTask.calculateRealDurationFor(each, each.getNormalDuration()));
+            each.setOptimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getOptimisticDuration()));
         }
+    }
 
-        private LocalDate calculateEndDateFor(List<MonteCarloTask> tasks, Random randomGenerator) {
-            Validate.notEmpty(tasks);
-            BigDecimal durationDays = BigDecimal.ZERO;
-            MonteCarloTask first = tasks.get(0);
-
-            for (MonteCarloTask each : tasks) {
-                BigDecimal randomNumber = generate(randomGenerator);
-                durationDays = durationDays.add(getDuration(each, randomNumber));
-            }
-
-            return first.getStartDate().plusDays(durationDays.intValue());
-        }
-
-        private BigDecimal generate(Random randomGenerator) {
-            return BigDecimal.valueOf(randomGenerator.nextDouble());
-        }
-
-        private BigDecimal getDuration(MonteCarloTask each, BigDecimal random) {
-            ESTIMATION_TYPE type = getEstimationType(each, random);
-            Validate.notNull(type);
-            switch (type) {
-
-                case PESSIMISTIC:
-                    return each.getPessimisticDuration();
-
-                case NORMAL:
-                    return each.getNormalDuration();
-
-                case OPTIMISTIC:
-                    return each.getOptimisticDuration();
-
-                default:
-                    break;
-            }
-
-            return BigDecimal.ZERO;
-        }
-
-        private void adjustDurationDays(List<MonteCarloTask> tasks) {
-            for (MonteCarloTask each : tasks) {
-                each.setPessimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getPessimisticDuration()));
-                each.setNormalDuration(MonteCarloTask.calculateRealDurationFor(each, each.getNormalDuration()));
-                each.setOptimisticDuration(MonteCarloTask.calculateRealDurationFor(each, each.getOptimisticDuration()));
-            }
-        }
-
-        private void initializeEstimationRanges(List<MonteCarloTask> tasks) {
-            estimationRangesForTasks.clear();
-
-            for (MonteCarloTask each : tasks) {
-                createEstimationRangesFor(each);
-            }
-        }
+    private List<MonteCarloTask> copyOf(List<MonteCarloTask> tasks) {
+        List<MonteCarloTask> result = new ArrayList<>();
 
-        private void createEstimationRangesFor(MonteCarloTask task) {
-            Set<EstimationRange> estimationRanges = new HashSet<>();
-            estimationRanges.add(EstimationRange.pessimisticRangeFor(task));
-            estimationRanges.add(EstimationRange.normalRangeFor(task));
-            estimationRanges.add(EstimationRange.optimisticRangeFor(task));
-            estimationRangesForTasks.put(task, estimationRanges);
+        for (MonteCarloTask each: tasks) {
+            result.add(MonteCarloTask.copy(each));
         }
 
-        public ESTIMATION_TYPE getEstimationType(MonteCarloTask task, BigDecimal random) {
-            Set<EstimationRange> estimationRanges = estimationRangesForTasks.get(task);
-
-            for (EstimationRange each : estimationRanges) {
-                if (each.contains(random)) {
-                    return each.getEstimationType();
-                }
-            }
-
-            return null;
-        }
+        return result;
+    }
 
+    @Override
+    public String getOrderName() {
+        return orderName;
     }
 
 }
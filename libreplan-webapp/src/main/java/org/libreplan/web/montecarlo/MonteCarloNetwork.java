@@ -0,0 +1,173 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.montecarlo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.Dependency;
+import org.libreplan.business.planner.entities.Dependency.Type;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.entities.TaskElement;
+
+/**
+ * Snapshot of all the tasks of a project and the dependencies between them,
+ * taken while the session is open, so a {@link MonteCarloSimulation} of the
+ * whole project can be built later. <br />
+ *
+ * Every group of tasks becomes two milestones, its start and its end, with
+ * every child starting after the start and ending before the end. The tasks
+ * that do not depend on anything, neither directly nor through the groups
+ * containing them, cannot start before their planned start.
+ */
+public class MonteCarloNetwork {
+
+    public static MonteCarloNetwork create(TaskElement root) {
+        return new MonteCarloNetwork(root);
+    }
+
+    private static class Element {
+
+        private final TaskElement taskElement;
+
+        private final Element parent;
+
+        private final boolean constrained;
+
+        private Element(TaskElement taskElement, Element parent) {
+            this.taskElement = taskElement;
+            this.parent = parent;
+            this.constrained = !taskElement.getDependenciesWithThisDestination().isEmpty() ||
+                    (parent != null && parent.constrained);
+        }
+
+    }
+
+    private final LocalDate start;
+
+    private final List<Element> elements = new ArrayList<>();
+
+    private final Map<Task, MonteCarloTask> estimations = new HashMap<>();
+
+    private final List<Dependency> dependencies = new ArrayList<>();
+
+    private MonteCarloNetwork(TaskElement root) {
+        this.start = root.getStartAsLocalDate();
+        add(root, null);
+    }
+
+    private void add(TaskElement taskElement, Element parent) {
+        Element element = new Element(taskElement, parent);
+        elements.add(element);
+        dependencies.addAll(taskElement.getDependenciesWithThisDestination());
+
+        if ( taskElement instanceof Task ) {
+            estimations.put((Task) taskElement, MonteCarloTask.create((Task) taskElement));
+        }
+        if ( !taskElement.isLeaf() ) {
+            for (TaskElement each : taskElement.getChildren()) {
+                add(each, element);
+            }
+        }
+    }
+
+    public LocalDate getStart() {
+        return start;
+    }
+
+    /**
+     * @return the estimation of every task with the default durations
+     */
+    public Map<Task, MonteCarloTask> getEstimations() {
+        return estimations;
+    }
+
+    /**
+     * Builds the simulation of the whole project.
+     *
+     * @param estimations
+     *            the estimation of each task, with the durations already in
+     *            calendar days
+     * @param simulationIndexes
+     *            filled with the index in the simulation of every task
+     */
+    public MonteCarloSimulation toSimulation(Map<Task, MonteCarloTask> estimations,
+                                             DurationDistribution distribution,
+                                             Map<Task, Integer> simulationIndexes) {
+
+        MonteCarloSimulation.Builder builder = MonteCarloSimulation.builder(start, distribution);
+        Map<TaskElement, int[]> nodes = new IdentityHashMap<>();
+
+        for (Element each : elements) {
+            double startOffset = each.constrained ? Double.NEGATIVE_INFINITY : offsetOf(each.taskElement);
+            int[] node;
+
+            if ( each.taskElement instanceof Task ) {
+                int index = builder.addTask(estimations.get(each.taskElement), startOffset);
+                simulationIndexes.put((Task) each.taskElement, index);
+                node = new int[] { index, index };
+            } else if ( each.taskElement.isLeaf() ) {
+                int index = builder.addMilestone(startOffset);
+                node = new int[] { index, index };
+            } else {
+                node = new int[] { builder.addMilestone(startOffset), builder.addMilestone(Double.NEGATIVE_INFINITY) };
+                builder.addDependency(node[0], node[1], Type.START_START);
+            }
+            nodes.put(each.taskElement, node);
+
+            if ( each.parent != null ) {
+                int[] parentNode = nodes.get(each.parent.taskElement);
+                builder.addDependency(parentNode[0], node[0], Type.START_START);
+                builder.addDependency(node[1], parentNode[1], Type.END_END);
+            }
+        }
+
+        for (Dependency each : dependencies) {
+            int[] origin = nodes.get(each.getOrigin());
+            int[] destination = nodes.get(each.getDestination());
+            if ( origin != null && destination != null ) {
+                builder.addDependency(startsFrom(each.getType()) ? origin[0] : origin[1],
+                        endsIn(each.getType()) ? destination[1] : destination[0],
+                        each.getType());
+            }
+        }
+
+        return builder.build();
+    }
+
+    private double offsetOf(TaskElement taskElement) {
+        return Days.daysBetween(start, taskElement.getStartAsLocalDate()).getDays();
+    }
+
+    private static boolean startsFrom(Type type) {
+        return type == Type.START_START || type == Type.START_END;
+    }
+
+    private static boolean endsIn(Type type) {
+        return type == Type.END_END || type == Type.START_END;
+    }
+
+}
@@ -0,0 +1,563 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.montecarlo;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+import org.libreplan.business.planner.entities.Dependency.Type;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
+
+/**
+ * Calculates the probability of every end date of a network of tasks linked
+ * by dependencies, sampling the duration of each task with a
+ * {@link DurationDistribution}, and how often every task is critical. <br />
+ *
+ * The network is kept in arrays, with the tasks sorted in topological order
+ * and the dependencies of every task stored after the ones of the previous
+ * task, so every iteration is just a forward and a backward pass over the
+ * arrays. A list of tasks done one after the other, like a critical path, is
+ * just a network where every task depends on the previous one. <br />
+ *
+ * The iterations are split in {@link #JOBS} jobs run in parallel, each one
+ * with its own random generator split from the one created with the seed and
+ * counting the end dates in its own histogram indexed by the days since the
+ * start. As the jobs do not depend on how they are scheduled, the same seed
+ * always gives the same result.
+ */
+public class MonteCarloSimulation {
+
+    /**
+     * Number of jobs the iterations are split into. The progress is notified
+     * every time a job is finished.
+     */
+    static final int JOBS = 100;
+
+    /**
+     * Maximum slack, in days, of a task to be considered critical
+     */
+    private static final double CRITICAL_SLACK = 1e-6;
+
+    private static final byte END_START = 0;
+
+    private static final byte START_START = 1;
+
+    private static final byte END_END = 2;
+
+    private static final byte START_END = 3;
+
+    public static Builder builder(LocalDate start, DurationDistribution distribution) {
+        return new Builder(start, distribution);
+    }
+
+    /**
+     * @return a simulation of the tasks done one after the other from the
+     *         start of the first one
+     */
+    public static MonteCarloSimulation create(List<MonteCarloTask> tasks, DurationDistribution distribution) {
+        Validate.notEmpty(tasks);
+
+        Builder builder = builder(tasks.get(0).getStartDate(), distribution);
+        int previous = builder.addTask(tasks.get(0), 0);
+        for (MonteCarloTask each : tasks.subList(1, tasks.size())) {
+            int current = builder.addTask(each, Double.NEGATIVE_INFINITY);
+            builder.addDependency(previous, current, Type.END_START);
+            previous = current;
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Builds the arrays of a {@link MonteCarloSimulation}. The tasks are
+     * identified by the index returned when they are added.
+     */
+    public static class Builder {
+
+        private final LocalDate start;
+
+        private final DurationDistribution distribution;
+
+        private final List<double[]> tasks = new ArrayList<>();
+
+        private final List<int[]> dependencies = new ArrayList<>();
+
+        private Builder(LocalDate start, DurationDistribution distribution) {
+            Validate.notNull(start);
+            Validate.notNull(distribution);
+            this.start = start;
+            this.distribution = distribution;
+        }
+
+        /**
+         * @param startOffset
+         *            days since the start before which the task cannot start,
+         *            or {@link Double#NEGATIVE_INFINITY} if it only depends on
+         *            its dependencies
+         */
+        public int addTask(MonteCarloTask task, double startOffset) {
+            int pessimisticPercentage = task.getPessimisticDurationPercentage();
+            int normalPercentage = task.getNormalDurationPercentage();
+
+            return addTask(task.getOptimisticDuration().doubleValue(), task.getNormalDuration().doubleValue(),
+                    task.getPessimisticDuration().doubleValue(), pessimisticPercentage / 100.0,
+                    (pessimisticPercentage + normalPercentage) / 100.0, startOffset);
+        }
+
+        /**
+         * Adds a task without duration, like a milestone or the start or the
+         * end of a group of tasks.
+         */
+        public int addMilestone(double startOffset) {
+            return addTask(0, 0, 0, 1, 1, startOffset);
+        }
+
+        /**
+         * @throws IllegalArgumentException
+         *             if a duration is negative or not finite, the limits are
+         *             not ordered probabilities or the start offset is
+         *             neither finite nor {@link Double#NEGATIVE_INFINITY}
+         */
+        int addTask(double optimistic, double normal, double pessimistic, double pessimisticLimit,
+                    double normalLimit, double startOffset) {
+
+            validateDuration(optimistic);
+            validateDuration(normal);
+            validateDuration(pessimistic);
+            Validate.isTrue(0 <= pessimisticLimit && pessimisticLimit <= normalLimit && normalLimit <= 1,
+                    "invalid probability limits: " + pessimisticLimit + ", " + normalLimit);
+            Validate.isTrue(startOffset == Double.NEGATIVE_INFINITY || isFinite(startOffset),
+                    "invalid start offset: " + startOffset);
+
+            tasks.add(new double[] { optimistic, normal, pessimistic, pessimisticLimit, normalLimit, startOffset });
+            return tasks.size() - 1;
+        }
+
+        private static void validateDuration(double duration) {
+            Validate.isTrue(isFinite(duration) && duration >= 0, "invalid duration: " + duration);
+        }
+
+        private static boolean isFinite(double value) {
+            return !Double.isNaN(value) && !Double.isInfinite(value);
+        }
+
+        public void addDependency(int origin, int destination, Type type) {
+            Validate.isTrue(origin != destination);
+            Validate.isTrue(origin >= 0 && origin < tasks.size());
+            Validate.isTrue(destination >= 0 && destination < tasks.size());
+            dependencies.add(new int[] { origin, destination, toCode(type) });
+        }
+
+        private static byte toCode(Type type) {
+            switch (type) {
+
+                case END_START:
+                    return END_START;
+
+                case START_START:
+                    return START_START;
+
+                case END_END:
+                    return END_END;
+
+                case START_END:
+                    return START_END;
+
+                default:
+                    throw new IllegalArgumentException("unsupported dependency type: " + type);
+            }
+        }
+
+        /**
+         * @throws IllegalArgumentException
+         *             if the dependencies have a cycle
+         */
+        public MonteCarloSimulation build() {
+            int[] order = topologicalOrder();
+            int[] position = new int[order.length];
+            for (int i = 0; i < order.length; i++) {
+                position[order[i]] = i;
+            }
+
+            int[] predecessorsStart = new int[order.length + 1];
+            for (int[] each : dependencies) {
+                predecessorsStart[position[each[1]] + 1]++;
+            }
+            for (int i = 0; i < order.length; i++) {
+                predecessorsStart[i + 1] += predecessorsStart[i];
+            }
+            int[] predecessors = new int[dependencies.size()];
+            byte[] types = new byte[dependencies.size()];
+            int[] filled = Arrays.copyOf(predecessorsStart, order.length);
+            for (int[] each : dependencies) {
+                int slot = filled[position[each[1]]]++;
+                predecessors[slot] = position[each[0]];
+                types[slot] = (byte) each[2];
+            }
+
+            double[][] values = new double[6][order.length];
+            for (int i = 0; i < order.length; i++) {
+                double[] task = tasks.get(order[i]);
+                for (int j = 0; j < values.length; j++) {
+                    values[j][i] = task[j];
+                }
+            }
+
+            return new MonteCarloSimulation(start, distribution, values, predecessorsStart, predecessors, types,
+                    position);
+        }
+
+        private int[] topologicalOrder() {
+            int size = tasks.size();
+            int[] pending = new int[size];
+            List<List<Integer>> successors = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                successors.add(new ArrayList<>());
+            }
+            for (int[] each : dependencies) {
+                successors.get(each[0]).add(each[1]);
+                pending[each[1]]++;
+            }
+
+            int[] result = new int[size];
+            int added = 0;
+            for (int i = 0; i < size; i++) {
+                if ( pending[i] == 0 ) {
+                    result[added++] = i;
+                }
+            }
+            for (int next = 0; next < added; next++) {
+                for (int each : successors.get(result[next])) {
+                    if ( --pending[each] == 0 ) {
+                        result[added++] = each;
+                    }
+                }
+            }
+            if ( added < size ) {
+                throw new IllegalArgumentException("there is a cycle in the dependencies");
+            }
+            return result;
+        }
+
+    }
+
+    /**
+     * Result of {@link MonteCarloSimulation#run(int, long, IDesktopUpdatesEmitter)}
+     */
+    public static class Result {
+
+        private final Map<LocalDate, BigDecimal> endDateProbabilities;
+
+        private final double[] criticality;
+
+        private Result(Map<LocalDate, BigDecimal> endDateProbabilities, double[] criticality) {
+            this.endDateProbabilities = endDateProbabilities;
+            this.criticality = criticality;
+        }
+
+        /**
+         * @return the probability of each end date, only including the dates
+         *         reached in some iteration
+         */
+        public Map<LocalDate, BigDecimal> getEndDateProbabilities() {
+            return endDateProbabilities;
+        }
+
+        /**
+         * @return the fraction of the iterations in which the task, identified
+         *         by the index returned by the {@link Builder}, had no slack
+         */
+        public double getCriticalityIndex(int task) {
+            return criticality[task];
+        }
+
+    }
+
+    private final LocalDate start;
+
+    private final DurationDistribution distribution;
+
+    private final double[] optimistic;
+
+    private final double[] normal;
+
+    private final double[] pessimistic;
+
+    private final double[] pessimisticLimit;
+
+    private final double[] normalLimit;
+
+    private final double[] startOffset;
+
+    /**
+     * The dependencies of the task at position <code>i</code> of the
+     * topological order are the ones between
+     * <code>predecessorsStart[i]</code>, inclusive, and
+     * <code>predecessorsStart[i + 1]</code>, exclusive
+     */
+    private final int[] predecessorsStart;
+
+    private final int[] predecessors;
+
+    private final byte[] types;
+
+    /**
+     * Position in the topological order of every task added to the
+     * {@link Builder}
+     */
+    private final int[] position;
+
+    /**
+     * Bounds of the days since the start of the possible end dates. An end
+     * belongs to the day of its floor, so they are the floors of the bounds
+     * of the end.
+     */
+    private final int minOffset;
+
+    private final int maxOffset;
+
+    private MonteCarloSimulation(LocalDate start, DurationDistribution distribution, double[][] values,
+                                 int[] predecessorsStart, int[] predecessors, byte[] types, int[] position) {
+        this.start = start;
+        this.distribution = distribution;
+        this.optimistic = values[0];
+        this.normal = values[1];
+        this.pessimistic = values[2];
+        this.pessimisticLimit = values[3];
+        this.normalLimit = values[4];
+        this.startOffset = values[5];
+        this.predecessorsStart = predecessorsStart;
+        this.predecessors = predecessors;
+        this.types = types;
+        this.position = position;
+        this.minOffset = (int) Math.floor(endBound(true));
+        this.maxOffset = (int) Math.floor(endBound(false));
+    }
+
+    /**
+     * Propagates the shortest or the longest durations so the result is a
+     * bound of the end. In the dependencies restricting the end of the
+     * destination it starts earlier the longer it is, so the opposite duration
+     * is used for them.
+     */
+    private double endBound(boolean lower) {
+        int size = optimistic.length;
+        double[] earlyStart = new double[size];
+        double[] earlyEnd = new double[size];
+        double result = Double.NEGATIVE_INFINITY;
+
+        for (int t = 0; t < size; t++) {
+            double min = DurationDistribution.min(optimistic[t], normal[t], pessimistic[t]);
+            double max = DurationDistribution.max(optimistic[t], normal[t], pessimistic[t]);
+
+            double taskStart = startOffset[t];
+            for (int k = predecessorsStart[t]; k < predecessorsStart[t + 1]; k++) {
+                taskStart = Math.max(taskStart, constraint(types[k], earlyStart, earlyEnd, predecessors[k],
+                        lower ? max : min));
+            }
+            earlyStart[t] = initial(taskStart);
+            earlyEnd[t] = earlyStart[t] + (lower ? min : max);
+            result = Math.max(result, earlyEnd[t]);
+        }
+        return size == 0 ? 0 : result;
+    }
+
+    private static double constraint(byte type, double[] earlyStart, double[] earlyEnd, int predecessor,
+                                     double duration) {
+        switch (type) {
+
+            case START_START:
+                return earlyStart[predecessor];
+
+            case END_END:
+                return earlyEnd[predecessor] - duration;
+
+            case START_END:
+                return earlyStart[predecessor] - duration;
+
+            default:
+                return earlyEnd[predecessor];
+        }
+    }
+
+    private static double initial(double taskStart) {
+        return taskStart == Double.NEGATIVE_INFINITY ? 0 : taskStart;
+    }
+
+    public Result run(int iterations, long seed, IDesktopUpdatesEmitter<Integer> progress) {
+        Validate.isTrue(iterations > 0);
+
+        SplittableRandom random = new SplittableRandom(seed);
+        int jobs = Math.min(JOBS, iterations);
+
+        List<ForkJoinTask<Job>> submitted = new ArrayList<>(jobs);
+        for (int i = 0; i < jobs; i++) {
+            final Job job = new Job(iterations / jobs + (i < iterations % jobs ? 1 : 0), random.split());
+            submitted.add(ForkJoinPool.commonPool().submit(job::run, job));
+        }
+
+        int[] endDates = new int[maxOffset - minOffset + 1];
+        long[] critical = new long[optimistic.length];
+        for (int i = 0; i < jobs; i++) {
+            Job job = submitted.get(i).join();
+            for (int j = 0; j < endDates.length; j++) {
+                endDates[j] += job.endDates[j];
+            }
+            for (int j = 0; j < critical.length; j++) {
+                critical[j] += job.critical[j];
+            }
+            progress.doUpdate(((i + 1) * 100) / jobs);
+        }
+
+        return new Result(toProbabilities(endDates, iterations), toCriticality(critical, iterations));
+    }
+
+    private Map<LocalDate, BigDecimal> toProbabilities(int[] endDates, int iterations) {
+        Map<LocalDate, BigDecimal> result = new HashMap<>();
+        BigDecimal total = BigDecimal.valueOf(iterations);
+        for (int i = 0; i < endDates.length; i++) {
+            if ( endDates[i] > 0 ) {
+                result.put(start.plusDays(minOffset + i),
+                        BigDecimal.valueOf(endDates[i]).divide(total, 8, RoundingMode.HALF_UP));
+            }
+        }
+        return result;
+    }
+
+    private double[] toCriticality(long[] critical, int iterations) {
+        double[] result = new double[position.length];
+        for (int i = 0; i < position.length; i++) {
+            result[i] = (double) critical[position[i]] / iterations;
+        }
+        return result;
+    }
+
+    /**
+     * Iterations run by a thread, with all the arrays they need allocated
+     * once.
+     */
+    private class Job {
+
+        private final int iterations;
+
+        private final SplittableRandom random;
+
+        private final int[] endDates = new int[maxOffset - minOffset + 1];
+
+        private final long[] critical = new long[optimistic.length];
+
+        private final double[] duration = new double[optimistic.length];
+
+        private final double[] earlyStart = new double[optimistic.length];
+
+        private final double[] earlyEnd = new double[optimistic.length];
+
+        private final double[] lateEnd = new double[optimistic.length];
+
+        private Job(int iterations, SplittableRandom random) {
+            this.iterations = iterations;
+            this.random = random;
+        }
+
+        private void run() {
+            for (int i = 0; i < iterations; i++) {
+                double end = forwardPass();
+                endDates[dayOf(end) - minOffset]++;
+                backwardPass(end);
+            }
+        }
+
+        private int dayOf(double end) {
+            int result = (int) Math.floor(end);
+            Validate.isTrue(minOffset <= result && result <= maxOffset,
+                    "end %s out of the bounds [%s, %s]", end, minOffset, maxOffset);
+            return result;
+        }
+
+        private double forwardPass() {
+            double result = Double.NEGATIVE_INFINITY;
+            for (int t = 0; t < duration.length; t++) {
+                double taskDuration = distribution.sample(random, optimistic[t], normal[t], pessimistic[t],
+                        pessimisticLimit[t], normalLimit[t]);
+
+                double taskStart = startOffset[t];
+                for (int k = predecessorsStart[t]; k < predecessorsStart[t + 1]; k++) {
+                    taskStart = Math.max(taskStart,
+                            constraint(types[k], earlyStart, earlyEnd, predecessors[k], taskDuration));
+                }
+
+                duration[t] = taskDuration;
+                earlyStart[t] = initial(taskStart);
+                earlyEnd[t] = earlyStart[t] + taskDuration;
+                result = Math.max(result, earlyEnd[t]);
+            }
+            return duration.length == 0 ? 0 : result;
+        }
+
+        /**
+         * The tasks are visited in reverse topological order, so when a task
+         * is visited all its successors have already restricted its late end.
+         */
+        private void backwardPass(double end) {
+            Arrays.fill(lateEnd, end);
+            for (int t = duration.length - 1; t >= 0; t--) {
+                double lateStart = lateEnd[t] - duration[t];
+                if ( lateStart - earlyStart[t] < CRITICAL_SLACK ) {
+                    critical[t]++;
+                }
+
+                for (int k = predecessorsStart[t]; k < predecessorsStart[t + 1]; k++) {
+                    int p = predecessors[k];
+                    switch (types[k]) {
+
+                        case START_START:
+                            lateEnd[p] = Math.min(lateEnd[p], lateStart + duration[p]);
+                            break;
+
+                        case END_END:
+                            lateEnd[p] = Math.min(lateEnd[p], lateEnd[t]);
+                            break;
+
+                        case START_END:
+                            lateEnd[p] = Math.min(lateEnd[p], lateEnd[t] + duration[p]);
+                            break;
+
+                        default:
+                            lateEnd[p] = Math.min(lateEnd[p], lateStart);
+                            break;
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -49,15 +49,15 @@ public abstract class StandardLoadChartFiller extends LoadChartFiller {
     }
 
     private SortedMap<LocalDate, EffortDuration> getLoad(ILoadChartData data) {
-        return groupAsNeededByZoom(data.getLoad());
+        return groupAsNeededByZoom(data.getLoad().toSortedMap());
     }
 
     private SortedMap<LocalDate, EffortDuration> getOverload(ILoadChartData data) {
-        return groupAsNeededByZoom(data.getOverload());
+        return groupAsNeededByZoom(data.getOverload().toSortedMap());
     }
 
     private SortedMap<LocalDate, EffortDuration> getCalendarMaximumAvailability(ILoadChartData data) {
-        return groupAsNeededByZoom(data.getAvailability());
+        return groupAsNeededByZoom(data.getAvailability().toSortedMap());
     }
 
 }
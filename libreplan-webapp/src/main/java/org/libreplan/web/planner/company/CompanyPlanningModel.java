@@ -577,6 +577,9 @@ public class CompanyPlanningModel implements ICompanyPlanningModel {
         configuration.setTreeEditable(false);
         configuration.setShowAllResourcesEnabled(false);
         configuration.setMoneyCostBarEnabled(false);
+
+        // There can be many projects, only the ones being looked at are rendered
+        configuration.setWindowedRenderingEnabled(true);
     }
 
     private void addAdditionalCommands(Collection<ICommandOnTask<TaskElement>> additional,
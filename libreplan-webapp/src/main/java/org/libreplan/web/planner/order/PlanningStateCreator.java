@@ -92,6 +92,8 @@ import org.springframework.stereotype.Component;
 import org.zkoss.ganttz.adapters.IAdapterToTaskFundamentalProperties;
 import org.zkoss.ganttz.adapters.IStructureNavigator;
 import org.zkoss.ganttz.adapters.PlannerConfiguration;
+import org.zkoss.ganttz.util.ProfilingMetrics;
+import org.zkoss.ganttz.util.ProfilingMetrics.ITiming;
 import org.zkoss.zk.ui.Desktop;
 
 /**
@@ -196,11 +198,13 @@ public class PlanningStateCreator {
     public PlanningState createOn(Desktop desktop, Order order) {
         Validate.notNull(desktop);
         Validate.notNull(order);
-        setupScenario(order);
-        PlanningState result = createPlanning(order);
-        desktop.setAttribute(ATTRIBUTE_NAME, result);
+        try (ITiming timing = ProfilingMetrics.time("planning.state.create")) {
+            setupScenario(order);
+            PlanningState result = createPlanning(order);
+            desktop.setAttribute(ATTRIBUTE_NAME, result);
 
-        return result;
+            return result;
+        }
     }
 
     void setupScenario(Order order) {
@@ -98,6 +98,8 @@ import org.zkoss.ganttz.data.DependencyType.Point;
 import org.zkoss.ganttz.data.GanttDate;
 import org.zkoss.ganttz.data.constraint.Constraint;
 import org.zkoss.ganttz.extensions.IContext;
+import org.zkoss.ganttz.util.ProfilingMetrics;
+import org.zkoss.ganttz.util.ProfilingMetrics.ITiming;
 import org.zkoss.zk.ui.Executions;
 import org.zkoss.zul.Label;
 import org.zkoss.zul.Messagebox;
@@ -281,7 +283,9 @@ public class SaveCommandBuilder {
                         if (beforeSaveActions != null) {
                             beforeSaveActions.doActions();
                         }
-                        doTheSaving();
+                        try (ITiming timing = ProfilingMetrics.time("planning.save")) {
+                            doTheSaving();
+                        }
 
                         return null;
                     });
@@ -21,7 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.reports.dtos.LabelFilterType;
 import org.libreplan.business.resources.entities.Criterion;
@@ -111,14 +110,18 @@ public class HoursWorkedPerWorkerController extends LibrePlanReportController {
     }
 
     @Override
-    protected JRDataSource getDataSource() {
-        return hoursWorkedPerWorkerModel.getHoursWorkedPerWorkerReport(
-                getSelectedResources(),
-                getSelectedLabels(),
-                getSelectedFilterLabels(),
-                getSelectedCriterions(),
-                getStartingDate(),
-                getEndingDate());
+    protected ReportDataSource prepareDataSource() {
+        final List<Resource> resources = getSelectedResources();
+        final List<Label> labels = getSelectedLabels();
+        final LabelFilterType labelFilterType = getSelectedFilterLabels();
+        final List<Criterion> criterions = getSelectedCriterions();
+        final Date startingDate = getStartingDate();
+        final Date endingDate = getEndingDate();
+
+        return ReportDataSource.create(
+                () -> hoursWorkedPerWorkerModel.getHoursWorkedPerWorkerReport(
+                        resources, labels, labelFilterType, criterions, startingDate, endingDate),
+                resources, labels, labelFilterType, criterions, startingDate, endingDate);
     }
 
     private LabelFilterType getSelectedFilterLabels() {
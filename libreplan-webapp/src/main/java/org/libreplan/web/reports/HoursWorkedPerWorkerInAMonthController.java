@@ -21,7 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import net.sf.jasperreports.engine.JRDataSource;
 import org.zkoss.util.Locales;
 import org.zkoss.zk.ui.Component;
 import org.zkoss.zkplus.spring.SpringUtil;
@@ -123,9 +122,13 @@ public class HoursWorkedPerWorkerInAMonthController extends LibrePlanReportContr
     }
 
     @Override
-    protected JRDataSource getDataSource() {
-        return hoursWorkedPerWorkerInAMonthModel.getHoursWorkedPerWorkerReport(
-                asInt(getSelectedYear()), asInt(getSelectedMonth()));
+    protected ReportDataSource prepareDataSource() {
+        final Integer year = asInt(getSelectedYear());
+        final Integer month = asInt(getSelectedMonth());
+
+        return ReportDataSource.create(
+                () -> hoursWorkedPerWorkerInAMonthModel.getHoursWorkedPerWorkerReport(year, month),
+                year, month);
     }
 
     private Integer asInt(String str) {
@@ -21,25 +21,39 @@
 
 package org.libreplan.web.reports;
 
+import static org.libreplan.web.I18nHelper._;
+
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JRParameter;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.libreplan.business.common.Registry;
 import org.springframework.web.context.ContextLoaderListener;
+import org.zkoss.ganttz.util.LongOperationFeedback;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdate;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
 import org.zkoss.util.Locales;
+import org.zkoss.util.media.AMedia;
 import org.zkoss.zk.au.out.AuDownload;
 import org.zkoss.zk.ui.Component;
+import org.zkoss.zk.ui.Desktop;
 import org.zkoss.zk.ui.Executions;
+import org.zkoss.zk.ui.util.Clients;
 import org.zkoss.zk.ui.util.GenericForwardComposer;
+import org.zkoss.zkplus.spring.SpringUtil;
 import org.zkoss.zul.A;
 import org.zkoss.zul.Hbox;
-
-import com.libreplan.java.zk.components.JasperreportComponent;
+import org.zkoss.zul.Messagebox;
 
 /**
  *
@@ -48,6 +62,8 @@ import com.libreplan.java.zk.components.JasperreportComponent;
  * All reports consists of several input components and a show button which
  * retrieves the necessary data to build resulting report.
  * The method showReport takes care of this behaviour.
+ * The report is generated in background by {@link ReportJobRunner}, so the
+ * desktop is not blocked meanwhile.
  * In addition, when a new report is shown, a link to the report shows up as well.
  *
  * @author Diego Pino Garcia <dpino@igalia.com>
@@ -56,7 +72,11 @@ import com.libreplan.java.zk.components.JasperreportComponent;
  */
 public abstract class LibrePlanReportController extends GenericForwardComposer<Component> {
 
-    private static final String HTML = "html";
+    private static final Log LOG = LogFactory.getLog(LibrePlanReportController.class);
+
+    private static final long PARAMETERS_TIMEOUT_SECONDS = 60;
+
+    private static final long DESKTOP_CHECK_MILLISECONDS = 500;
 
     protected ComboboxOutputFormat outputFormat;
 
@@ -64,26 +84,121 @@ public abstract class LibrePlanReportController extends GenericForwardComposer<C
 
     protected A URIlink;
 
-    public void showReport(JasperreportComponent jasperreport) {
+    private ReportJobRunner reportJobRunner;
+
+    private boolean generatingReport = false;
+
+    protected LibrePlanReportController() {
+        reportJobRunner = (ReportJobRunner) SpringUtil.getBean("reportJobRunner");
+    }
+
+    public void showReport(final ReportOutput report) {
+        if ( generatingReport ) {
+            return;
+        }
+
         final String type = outputFormat.getOutputFormat();
+        final ReportJob job = ReportJob.create(getReportName(), type, prepareDataSource());
 
-        jasperreport.setSrc(getReportName());
-        jasperreport.setDatasource(getDataSource());
-        jasperreport.setParameters(getParameters());
-        jasperreport.setType(type);
+        byte[] cached = reportJobRunner.getCached(job);
+        if ( cached != null ) {
+            show(report, type, cached);
+            return;
+        }
+
+        generatingReport = true;
+        Clients.showBusy(self, _("Waiting for other reports to be generated"));
+
+        final Desktop desktop = self.getDesktop();
+        LongOperationFeedback.progressive(desktop, emitter -> {
+            try {
+                byte[] output = reportJobRunner.run(
+                        job,
+                        () -> getParametersFromDesktop(desktop, emitter),
+                        description -> emitter.doUpdate(() -> Clients.showBusy(self, description)));
+
+                emitter.doUpdate(() -> show(report, type, output));
+
+            } catch (RejectedExecutionException e) {
+                emitter.doUpdate(() -> showError(_("There are too many reports being generated, please try again later")));
 
-        if ( type.equals(HTML) ) {
-            URItext.setStyle("display: none");
-            Executions.getCurrent().sendRedirect(jasperreport.getReportUrl(), "_blank");
+            } catch (Exception e) {
+                LOG.error("error generating report " + job.getReportName(), e);
+                emitter.doUpdate(() -> showError(_("The report could not be generated: {0}", e.getMessage())));
+
+            } finally {
+                emitter.doUpdate(() -> {
+                    generatingReport = false;
+                    Clients.clearBusy(self);
+                });
+            }
+        });
+    }
+
+    /**
+     * Some parameters are read from the input components or from data
+     * computed by the model while building the data source, so they are
+     * retrieved inside the desktop once the data source is built.
+     *
+     * The updates are no longer run once the desktop is gone, so the report
+     * is abandoned as soon as that happens instead of waiting for the timeout.
+     */
+    private Map<String, Object> getParametersFromDesktop(Desktop desktop,
+                                                         IDesktopUpdatesEmitter<IDesktopUpdate> emitter)
+            throws Exception {
+
+        final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        emitter.doUpdate(() -> {
+            try {
+                result.complete(getParameters());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        });
+
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(PARAMETERS_TIMEOUT_SECONDS);
+        while (true) {
+            try {
+                return result.get(DESKTOP_CHECK_MILLISECONDS, TimeUnit.MILLISECONDS);
+
+            } catch (ExecutionException e) {
+                if ( e.getCause() instanceof Exception ) {
+                    throw (Exception) e.getCause();
+                }
+                throw e;
+
+            } catch (TimeoutException e) {
+                if ( !desktop.isAlive() || !desktop.isServerPushEnabled() ) {
+                    result.completeExceptionally(new IllegalStateException(
+                            "the desktop that requested the report " + getReportName() + " is no longer available"));
+
+                } else if ( System.currentTimeMillis() >= deadline ) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void show(ReportOutput report, String type, byte[] output) {
+        report.setReport(new AMedia(getReportName() + "." + type, type, ReportJobRunner.getContentType(type), output));
+
+        if ( type.equals(ReportJobRunner.HTML) ) {
+            Executions.getCurrent().sendRedirect(report.getReportUrl(), "_blank");
         } else {
             /*
              * We cant use FileDownload.save(<url>) as it creates a new url
              * where the resource can't be find so we have to create ourselves the download request
              */
-            Executions.getCurrent().addAuResponse(new AuDownload(jasperreport.getReportUrl()));
-            URItext.setStyle("display: inline");
-            URIlink.setHref(jasperreport.getReportUrl());
+            Executions.getCurrent().addAuResponse(new AuDownload(report.getReportUrl()));
         }
+
+        /* The browser can block the new window as it is not opened right after the click */
+        URItext.setStyle("display: inline");
+        URIlink.setHref(report.getReportUrl());
+    }
+
+    private void showError(String message) {
+        Messagebox.show(message, _("Error"), Messagebox.OK, Messagebox.ERROR);
     }
 
     protected Map<String, Object> getParameters() {
@@ -105,7 +220,7 @@ public abstract class LibrePlanReportController extends GenericForwardComposer<C
                 .getConfigurationWithReadOnlyTransaction()
                 .getCompanyLogoURL();
 
-        if ( outputFormat.getOutputFormat().equals(HTML) ) {
+        if ( outputFormat.getOutputFormat().equals(ReportJobRunner.HTML) ) {
 
             /* If we need to send image to HTML page, we should use web application namespace */
             if ( StringUtils.isBlank(companyLogo) ) {
@@ -166,7 +281,11 @@ public abstract class LibrePlanReportController extends GenericForwardComposer<C
         return companyLogo;
     }
 
-    protected abstract JRDataSource getDataSource();
+    /**
+     * Reads the filters of the report from the input components, the returned
+     * data source is built out of the desktop.
+     */
+    protected abstract ReportDataSource prepareDataSource();
 
     protected abstract String getReportName();
 }
@@ -21,7 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.resources.entities.Criterion;
@@ -78,10 +77,16 @@ public class OrderCostsPerResourceController extends LibrePlanReportController {
         orderCostsPerResourceModel.init();
     }
 
-    protected JRDataSource getDataSource() {
-        return orderCostsPerResourceModel.getOrderReport(getSelectedOrders(),
-                getStartingDate(), getEndingDate(), getSelectedLabels(),
-                getSelectedCriterions());
+    protected ReportDataSource prepareDataSource() {
+        final List<Order> orders = getSelectedOrders();
+        final Date startingDate = getStartingDate();
+        final Date endingDate = getEndingDate();
+        final List<Label> labels = getSelectedLabels();
+        final List<Criterion> criterions = getSelectedCriterions();
+
+        return ReportDataSource.create(
+                () -> orderCostsPerResourceModel.getOrderReport(orders, startingDate, endingDate, labels, criterions),
+                orders, startingDate, endingDate, labels, criterions);
     }
 
     @Override
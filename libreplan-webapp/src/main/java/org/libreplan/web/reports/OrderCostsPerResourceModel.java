@@ -51,7 +51,6 @@ import org.libreplan.business.planner.daos.ITaskElementDAO;
 import org.libreplan.business.reports.dtos.CostExpenseSheetDTO;
 import org.libreplan.business.reports.dtos.OrderCostMasterDTO;
 import org.libreplan.business.reports.dtos.OrderCostsPerResourceDTO;
-import org.libreplan.business.reports.dtos.ReportPerOrderElementDTO;
 import org.libreplan.business.resources.daos.ICriterionTypeDAO;
 import org.libreplan.business.resources.entities.Criterion;
 import org.libreplan.business.resources.entities.CriterionType;
@@ -133,17 +132,15 @@ public class OrderCostsPerResourceModel implements IOrderCostsPerResourceModel {
 
         // List to the WorkReportLine subreport
         List<OrderCostsPerResourceDTO> workingHoursPerWorkerList =
-                orderDAO.getOrderCostsPerResource(orders, startingDate, endingDate, criterions);
+                orderDAO.getOrderCostsPerResource(orders, startingDate, endingDate, criterions, labels);
 
-        filteredOrderElementsByLabels(workingHoursPerWorkerList, labels);
         Collections.sort(workingHoursPerWorkerList);
         Map<OrderElement, List<OrderCostsPerResourceDTO>> mapWRL = groupWorkReportLinesByOrderElement(workingHoursPerWorkerList);
 
         // List to the ExpenseSheet subreport
         List<CostExpenseSheetDTO> costExpenseSheetList =
-                orderDAO.getCostExpenseSheet(orders, startingDate, endingDate, criterions);
+                orderDAO.getCostExpenseSheet(orders, startingDate, endingDate, criterions, labels);
 
-        filteredOrderElementsByLabels(costExpenseSheetList, labels);
         Map<OrderElement, List<CostExpenseSheetDTO>> mapES = groupExpensesByOrderElement(costExpenseSheetList);
 
         Set<OrderElement> listOrderElement = new HashSet<>(mapWRL.keySet());
@@ -341,43 +338,6 @@ public class OrderCostsPerResourceModel implements IOrderCostsPerResourceModel {
         loadAllCriterions();
     }
 
-    @Transactional(readOnly = true)
-    private void filteredOrderElementsByLabels(List<? extends ReportPerOrderElementDTO> listExpenses, List<Label> labels) {
-        List<ReportPerOrderElementDTO> listExpensesCopy = new ArrayList<>(listExpenses);
-
-        if (labels != null && !labels.isEmpty()) {
-            for (ReportPerOrderElementDTO dto : listExpensesCopy) {
-                List<Label> inheritedLabels = getInheritedLabels(dto.getOrderElement());
-
-                if (!containsAny(labels, inheritedLabels)) {
-                    listExpenses.remove(dto);
-                }
-            }
-        }
-    }
-
-    private boolean containsAny(List<Label> labelsA, List<Label> labelsB) {
-        for (Label label : labelsB) {
-            if (labelsA.contains(label)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    public List<Label> getInheritedLabels(OrderElement orderElement) {
-        List<Label> result = new ArrayList<>();
-        if (orderElement != null) {
-            result.addAll(orderElement.getLabels());
-            OrderElement parent = orderElement.getParent();
-            while (parent != null) {
-                result.addAll(parent.getLabels());
-                parent = parent.getParent();
-            }
-        }
-        return result;
-    }
-
     private void reattachLabels() {
         for (Label label : getAllLabels()) {
             labelDAO.reattach(label);
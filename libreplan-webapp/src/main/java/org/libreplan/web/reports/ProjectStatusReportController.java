@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import net.sf.jasperreports.engine.JRDataSource;
 import net.sf.jasperreports.engine.JREmptyDataSource;
 import net.sf.jasperreports.engine.data.JRBeanCollectionDataSource;
 
@@ -47,8 +46,6 @@ import org.zkoss.zk.ui.WrongValueException;
 import org.zkoss.zkplus.spring.SpringUtil;
 import org.zkoss.zul.Listbox;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
-
 /**
  * Controller for UI operations of Project Satus report.
  *
@@ -99,21 +96,25 @@ public class ProjectStatusReportController extends LibrePlanReportController {
     }
 
     @Override
-    protected JRDataSource getDataSource() {
-        List<ProjectStatusReportDTO> dtos = projectStatusReportModel.getProjectStatusReportDTOs(getSelectedOrder());
+    protected ReportDataSource prepareDataSource() {
+        final Order order = getSelectedOrder();
+
+        return ReportDataSource.create(() -> {
+            List<ProjectStatusReportDTO> dtos = projectStatusReportModel.getProjectStatusReportDTOs(order);
 
-        return dtos.isEmpty()
-                ? new JREmptyDataSource()
-                : new JRBeanCollectionDataSource(dtos);
+            return dtos.isEmpty()
+                    ? new JREmptyDataSource()
+                    : new JRBeanCollectionDataSource(dtos);
+        }, order, getSelectedLabels(), getSelectedCriteria());
     }
 
     @Override
-    public void showReport(JasperreportComponent jasperreport) {
+    public void showReport(ReportOutput report) {
         final Order order = getSelectedOrder();
         if (order == null && projectStatusReportModel.isNotFiltering()) {
             messagesForUser.showMessage(Level.ERROR, _("You should filter the report by project, labels or criteria"));
         } else {
-            super.showReport(jasperreport);
+            super.showReport(report);
         }
     }
 
@@ -0,0 +1,63 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.reports;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import net.sf.jasperreports.engine.JRDataSource;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Data source of a report whose filters have already been read from the
+ * input components, so it can be built out of the desktop.
+ *
+ * The filters must be all the values the data depends on, as they identify
+ * the already generated reports that can be reused.
+ */
+public class ReportDataSource {
+
+    public static ReportDataSource create(Callable<JRDataSource> builder, Object... filters) {
+        return new ReportDataSource(builder, Arrays.asList(filters));
+    }
+
+    private final Callable<JRDataSource> builder;
+
+    private final List<Object> filters;
+
+    private ReportDataSource(Callable<JRDataSource> builder, List<Object> filters) {
+        Validate.notNull(builder);
+        this.builder = builder;
+        this.filters = Collections.unmodifiableList(filters);
+    }
+
+    public List<Object> getFilters() {
+        return filters;
+    }
+
+    public JRDataSource build() throws Exception {
+        return builder.call();
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.reports;
+
+import java.util.Locale;
+
+import org.apache.commons.lang3.Validate;
+import org.libreplan.web.security.SecurityUtils;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.zkoss.util.Locales;
+
+/**
+ * Report requested from a desktop and run by {@link ReportJobRunner}.
+ *
+ * It keeps the locale and the security context of the user that requested it,
+ * so the report is built as if it was done inside the request of that user.
+ * It must be created from a ZK execution.
+ */
+public class ReportJob {
+
+    public static ReportJob create(String reportName, String type, ReportDataSource dataSource) {
+        return new ReportJob(
+                reportName,
+                type,
+                dataSource,
+                Locales.getCurrent(),
+                SecurityUtils.getSessionUserLoginName(),
+                SecurityContextHolder.getContext());
+    }
+
+    private final String reportName;
+
+    private final String type;
+
+    private final ReportDataSource dataSource;
+
+    private final Locale locale;
+
+    private final String userLogin;
+
+    private final SecurityContext securityContext;
+
+    ReportJob(String reportName, String type, ReportDataSource dataSource, Locale locale,
+                      String userLogin, SecurityContext securityContext) {
+
+        Validate.notEmpty(reportName);
+        Validate.notEmpty(type);
+        Validate.notNull(dataSource);
+
+        this.reportName = reportName;
+        this.type = type;
+        this.dataSource = dataSource;
+        this.locale = locale;
+        this.userLogin = userLogin;
+        this.securityContext = securityContext;
+    }
+
+    public String getReportName() {
+        return reportName;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public ReportDataSource getDataSource() {
+        return dataSource;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public String getUserLogin() {
+        return userLogin;
+    }
+
+    public SecurityContext getSecurityContext() {
+        return securityContext;
+    }
+
+}
@@ -0,0 +1,413 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.reports;
+
+import static org.libreplan.web.I18nHelper._;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PreDestroy;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperExportManager;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.oasis.JROdtExporter;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.libreplan.business.common.BaseEntity;
+import org.libreplan.business.hibernate.notification.ISnapshotRefresherService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Scope;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.zkoss.util.Locales;
+
+/**
+ * Generates the reports out of the desktops that request them.
+ *
+ * Only a few reports are filled at the same time, the rest wait in a bounded
+ * queue and new requests are rejected when it is full. The pages of the report
+ * being filled are swapped to disk once there are too many in memory.
+ *
+ * The generated outputs are kept while they fit in
+ * {@link #MAX_CACHED_BYTES}. They are reused by the requests with the same
+ * report, output type, locale, user and filters as long as no modification has
+ * been committed to the database since they were generated.
+ */
+@Component
+@Scope(BeanDefinition.SCOPE_SINGLETON)
+public class ReportJobRunner {
+
+    public interface IReportProgress {
+
+        void step(String description);
+
+    }
+
+    private static final Log LOG = LogFactory.getLog(ReportJobRunner.class);
+
+    public static final String HTML = "html";
+
+    public static final String ODT = "odt";
+
+    public static final String PDF = "pdf";
+
+    private static final int MAX_RUNNING_JOBS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+    private static final int MAX_QUEUED_JOBS = 16;
+
+    /**
+     * Pages of a report kept in memory while it is filled, the rest are
+     * written to a swap file in the temporary directory.
+     */
+    private static final int PAGES_IN_MEMORY = 50;
+
+    private static final int SWAP_BLOCK_SIZE = 4096;
+
+    private static final int SWAP_MIN_GROW_COUNT = 100;
+
+    private static final long MAX_CACHED_BYTES = 64L * 1024 * 1024;
+
+    @Autowired
+    private ISnapshotRefresherService snapshotRefresherService;
+
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            MAX_RUNNING_JOBS, MAX_RUNNING_JOBS,
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_JOBS),
+            new ReportThreadFactory());
+
+    private final ConcurrentMap<String, JasperReport> compiledReports = new ConcurrentHashMap<>();
+
+    private final OutputCache cache = new OutputCache(MAX_CACHED_BYTES);
+
+    public static String getContentType(String type) {
+        switch (type) {
+            case HTML:
+                return "text/html";
+
+            case ODT:
+                return "application/vnd.oasis.opendocument.text";
+
+            case PDF:
+                return "application/pdf";
+
+            default:
+                throw new IllegalArgumentException("unknown report type: " + type);
+        }
+    }
+
+    /**
+     * @return the output of an equivalent job already generated with the
+     *         current data or <code>null</code> if there is none
+     */
+    public byte[] getCached(ReportJob job) {
+        return cache.get(new OutputKey(job, snapshotRefresherService.getDataVersion()));
+    }
+
+    /**
+     * Generates the report and waits until it is done.
+     * It must not be called from a ZK execution.
+     *
+     * @param parameters
+     *            called once the data source is built, as some parameters are
+     *            computed along with the data
+     * @throws RejectedExecutionException
+     *             if there are too many reports waiting to be generated
+     */
+    public byte[] run(final ReportJob job,
+                      final Callable<Map<String, Object>> parameters,
+                      final IReportProgress progress) throws Exception {
+
+        OutputKey key = new OutputKey(job, snapshotRefresherService.getDataVersion());
+        byte[] result = cache.get(key);
+        if ( result != null ) {
+            return result;
+        }
+
+        Future<byte[]> future = executor.submit(() -> runAsRequester(job, parameters, progress));
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            if ( e.getCause() instanceof Exception ) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+
+        cache.put(key, result);
+
+        return result;
+    }
+
+    private byte[] runAsRequester(ReportJob job,
+                                  Callable<Map<String, Object>> parameters,
+                                  IReportProgress progress) throws Exception {
+
+        SecurityContextHolder.setContext(job.getSecurityContext());
+        Locales.setThreadLocal(job.getLocale());
+        try {
+            return generate(job, parameters, progress);
+        } finally {
+            Locales.setThreadLocal(null);
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private byte[] generate(ReportJob job,
+                            Callable<Map<String, Object>> parametersSource,
+                            IReportProgress progress) throws Exception {
+
+        long start = System.currentTimeMillis();
+
+        progress.step(_("Retrieving report data"));
+        JRDataSource dataSource = job.getDataSource().build();
+        Map<String, Object> parameters = new HashMap<>(parametersSource.call());
+
+        JRSwapFileVirtualizer virtualizer = new JRSwapFileVirtualizer(
+                PAGES_IN_MEMORY,
+                new JRSwapFile(System.getProperty("java.io.tmpdir"), SWAP_BLOCK_SIZE, SWAP_MIN_GROW_COUNT),
+                true);
+
+        try {
+            parameters.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+
+            progress.step(_("Filling report"));
+            JasperPrint print = JasperFillManager.fillReport(
+                    getCompiledReport(job.getReportName()), parameters, dataSource);
+            virtualizer.setReadOnly(true);
+
+            progress.step(_("Exporting report"));
+            byte[] result = export(print, job.getType());
+
+            LOG.info("report " + job.getReportName() + " with " + print.getPages().size() + " pages generated in " +
+                    (System.currentTimeMillis() - start) + " ms");
+
+            return result;
+        } finally {
+            virtualizer.cleanup();
+        }
+    }
+
+    private JasperReport getCompiledReport(String reportName) throws JRException {
+        JasperReport result = compiledReports.get(reportName);
+        if ( result == null ) {
+            InputStream compiled = getClass().getClassLoader().getResourceAsStream(reportName + ".jasper");
+            if ( compiled == null ) {
+                throw new IllegalArgumentException("there is no compiled report called " + reportName);
+            }
+            result = (JasperReport) JRLoader.loadObject(compiled);
+            compiledReports.putIfAbsent(reportName, result);
+        }
+
+        return result;
+    }
+
+    private static byte[] export(JasperPrint print, String type) throws JRException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        switch (type) {
+            case HTML:
+                HtmlExporter htmlExporter = new HtmlExporter();
+                htmlExporter.setExporterInput(new SimpleExporterInput(print));
+                htmlExporter.setExporterOutput(new SimpleHtmlExporterOutput(output));
+                htmlExporter.exportReport();
+                break;
+
+            case ODT:
+                JROdtExporter odtExporter = new JROdtExporter();
+                odtExporter.setExporterInput(new SimpleExporterInput(print));
+                odtExporter.setExporterOutput(new SimpleOutputStreamExporterOutput(output));
+                odtExporter.exportReport();
+                break;
+
+            case PDF:
+                JasperExportManager.exportReportToPdfStream(print, output);
+                break;
+
+            default:
+                throw new IllegalArgumentException("unknown report type: " + type);
+        }
+
+        return output.toByteArray();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static class ReportThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread result = new Thread(runnable, "report-job-" + count.incrementAndGet());
+            result.setDaemon(true);
+            /* The compiled reports, their resource bundles and scriptlets are loaded from the webapp */
+            result.setContextClassLoader(ReportJobRunner.class.getClassLoader());
+
+            return result;
+        }
+
+    }
+
+    /**
+     * Identifies the output of a job generated with some version of the data.
+     * Entities are compared by their id and dates by their time, as they are
+     * read again from the input components on each request.
+     */
+    static class OutputKey {
+
+        private final long dataVersion;
+
+        private final List<Object> values = new ArrayList<>();
+
+        OutputKey(ReportJob job, long dataVersion) {
+            this.dataVersion = dataVersion;
+            values.add(job.getReportName());
+            values.add(job.getType());
+            values.add(job.getLocale());
+            values.add(job.getUserLogin());
+            values.add(dataVersion);
+            for (Object each : job.getDataSource().getFilters()) {
+                values.add(normalize(each));
+            }
+        }
+
+        static Object normalize(Object value) {
+            if ( value instanceof BaseEntity ) {
+                BaseEntity entity = (BaseEntity) value;
+
+                /* Not saved entities can't be identified, so the key won't be equal to any other */
+                return entity.getId() == null ? new Object() : entity.getClass().getName() + "#" + entity.getId();
+            }
+
+            if ( value instanceof Collection ) {
+                List<Object> result = new ArrayList<>();
+                for (Object each : (Collection<?>) value) {
+                    result.add(normalize(each));
+                }
+
+                return result;
+            }
+
+            if ( value instanceof Date ) {
+                return ((Date) value).getTime();
+            }
+
+            return value;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof OutputKey && values.equals(((OutputKey) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+
+    }
+
+    /**
+     * Least recently used outputs are discarded when the total size exceeds
+     * the maximum. The ones generated with older data are discarded as soon as
+     * an output for newer data is added, as they can't be requested again.
+     */
+    static class OutputCache {
+
+        private final long maxBytes;
+
+        private final LinkedHashMap<OutputKey, byte[]> outputs = new LinkedHashMap<>(16, 0.75f, true);
+
+        private long bytes = 0;
+
+        OutputCache(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        synchronized byte[] get(OutputKey key) {
+            return outputs.get(key);
+        }
+
+        synchronized void put(OutputKey key, byte[] output) {
+            if ( output.length > maxBytes ) {
+                return;
+            }
+
+            Iterator<Map.Entry<OutputKey, byte[]>> iterator = outputs.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<OutputKey, byte[]> each = iterator.next();
+                if ( each.getKey().dataVersion < key.dataVersion || each.getKey().equals(key) ) {
+                    bytes -= each.getValue().length;
+                    iterator.remove();
+                }
+            }
+
+            outputs.put(key, output);
+            bytes += output.length;
+
+            Iterator<byte[]> leastRecentlyUsed = outputs.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= leastRecentlyUsed.next().length;
+                leastRecentlyUsed.remove();
+            }
+        }
+
+    }
+
+}
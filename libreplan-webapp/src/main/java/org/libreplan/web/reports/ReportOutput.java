@@ -0,0 +1,70 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.reports;
+
+import org.zkoss.util.media.Media;
+import org.zkoss.zk.ui.HtmlBasedComponent;
+import org.zkoss.zk.ui.ext.render.DynamicMedia;
+import org.zkoss.zul.Div;
+import org.zkoss.zul.impl.Utils;
+
+/**
+ * Invisible component holding the last generated report of a page, so it can
+ * be downloaded or opened from the URL returned by {@link #getReportUrl()}.
+ */
+public class ReportOutput extends Div {
+
+    private Media report;
+
+    private int version = 0;
+
+    public ReportOutput() {
+        setVisible(false);
+    }
+
+    public void setReport(Media report) {
+        this.report = report;
+        version++;
+    }
+
+    public String getReportUrl() {
+        if ( report == null ) {
+            return null;
+        }
+
+        return Utils.getDynamicMediaURI(this, version, report.getName(), report.getFormat());
+    }
+
+    @Override
+    public Object getExtraCtrl() {
+        return new ExtraCtrl();
+    }
+
+    protected class ExtraCtrl extends HtmlBasedComponent.ExtraCtrl implements DynamicMedia {
+
+        @Override
+        public Media getMedia(String pathInfo) {
+            return report;
+        }
+
+    }
+
+}
@@ -21,8 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
-import net.sf.jasperreports.engine.JRDataSource;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.LocalDate;
 import org.libreplan.business.advance.entities.AdvanceType;
@@ -120,15 +118,17 @@ public class SchedulingProgressPerOrderController extends LibrePlanReportControl
         return REPORT_NAME;
     }
 
-    protected JRDataSource getDataSource() {
-        List<Order> orders = getSelectedOrdersToFilter();
+    protected ReportDataSource prepareDataSource() {
+        final List<Order> orders = getSelectedOrdersToFilter();
+        final AdvanceType advanceType = getAdvanceType();
+        final Date starting = startingDate.getValue();
+        final Date ending = endingDate.getValue();
+        final LocalDate referenceDate = new LocalDate(getReferenceDate());
 
-        return schedulingProgressPerOrderModel.getSchedulingProgressPerOrderReport(
-                orders,
-                getAdvanceType(),
-                startingDate.getValue(),
-                endingDate.getValue(),
-                new LocalDate(getReferenceDate()));
+        return ReportDataSource.create(
+                () -> schedulingProgressPerOrderModel.getSchedulingProgressPerOrderReport(
+                        orders, advanceType, starting, ending, referenceDate),
+                orders, advanceType, starting, ending, referenceDate);
     }
 
     public Date getReferenceDate() {
@@ -215,9 +215,9 @@ public class SchedulingProgressPerOrderController extends LibrePlanReportControl
         }
     }
 
-    public void showReport(JasperreportComponent jasperreport){
+    public void showReport(ReportOutput report){
         checkCannotBeHigher(startingDate, endingDate);
-        super.showReport(jasperreport);
+        super.showReport(report);
     }
 
     public static class AdvanceTypeDTO {
@@ -21,8 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
-import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.materials.entities.Material;
 import org.libreplan.business.materials.entities.MaterialCategory;
 import org.libreplan.business.materials.entities.MaterialStatusEnum;
@@ -128,14 +126,18 @@ public class TimeLineRequiredMaterialController extends LibrePlanReportControlle
     }
 
     @Override
-    protected JRDataSource getDataSource() {
-        return timeLineRequiredMaterialModel.getTimeLineRequiredMaterial(
-                getStartingDate(),
-                getEndingDate(),
-                getCorrespondentStatus(selectedStatus),
-                getSelectedOrders(),
-                getSelectedCategories(),
-                getSelectedMaterials());
+    protected ReportDataSource prepareDataSource() {
+        final Date startingDate = getStartingDate();
+        final Date endingDate = getEndingDate();
+        final MaterialStatusEnum status = getCorrespondentStatus(selectedStatus);
+        final List<Order> orders = getSelectedOrders();
+        final List<MaterialCategory> categories = getSelectedCategories();
+        final List<Material> materials = getSelectedMaterials();
+
+        return ReportDataSource.create(
+                () -> timeLineRequiredMaterialModel.getTimeLineRequiredMaterial(
+                        startingDate, endingDate, status, orders, categories, materials),
+                startingDate, endingDate, status, orders, categories, materials);
     }
 
     public Date getStartingDate() {
@@ -194,8 +196,8 @@ public class TimeLineRequiredMaterialController extends LibrePlanReportControlle
         return result;
     }
 
-    public void showReport(JasperreportComponent jasperreport) {
-        super.showReport(jasperreport);
+    public void showReport(ReportOutput report) {
+        super.showReport(report);
     }
 
     public List<String> getMaterialStatus() {
@@ -21,8 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
-import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.planner.entities.TaskStatusEnum;
@@ -105,13 +103,17 @@ public class WorkingArrangementsPerOrderController extends LibrePlanReportContro
         return REPORT_NAME;
     }
 
-    protected JRDataSource getDataSource() {
-        return workingArrangementsPerOrderModel.getWorkingArrangementsPerOrderReportReport(
-                getSelectedOrder(),
-                getSelectedTaskStatus(),
-                showDependencies(),
-                getSelectedLabels(),
-                getSelectedCriterions());
+    protected ReportDataSource prepareDataSource() {
+        final Order order = getSelectedOrder();
+        final TaskStatusEnum taskStatus = getSelectedTaskStatus();
+        final boolean showDependencies = showDependencies();
+        final List<Label> labels = getSelectedLabels();
+        final List<Criterion> criterions = getSelectedCriterions();
+
+        return ReportDataSource.create(
+                () -> workingArrangementsPerOrderModel.getWorkingArrangementsPerOrderReportReport(
+                        order, taskStatus, showDependencies, labels, criterions),
+                order, taskStatus, showDependencies, labels, criterions);
     }
 
     private boolean showDependencies() {
@@ -142,11 +144,11 @@ public class WorkingArrangementsPerOrderController extends LibrePlanReportContro
         return result;
     }
 
-    public void showReport(JasperreportComponent jasperreport){
+    public void showReport(ReportOutput report){
         if (getSelectedOrder() == null) {
             throw new WrongValueException(bdOrder, _("Please, select a project"));
         }
-        super.showReport(jasperreport);
+        super.showReport(report);
     }
 
     private List<TaskStatusEnum> getTasksStatus() {
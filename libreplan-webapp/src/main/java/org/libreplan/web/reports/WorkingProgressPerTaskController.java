@@ -21,8 +21,6 @@
 
 package org.libreplan.web.reports;
 
-import com.libreplan.java.zk.components.JasperreportComponent;
-import net.sf.jasperreports.engine.JRDataSource;
 import org.libreplan.business.labels.entities.Label;
 import org.libreplan.business.orders.entities.Order;
 import org.libreplan.business.resources.entities.Criterion;
@@ -81,9 +79,16 @@ public class WorkingProgressPerTaskController extends LibrePlanReportController
         return REPORT_NAME;
     }
 
-    protected JRDataSource getDataSource() {
-        return workingProgressPerTaskModel.getWorkingProgressPerTaskReport(
-                getSelectedOrder(), getDeadlineDate(), getSelectedLabels(), getSelectedCriterions());
+    protected ReportDataSource prepareDataSource() {
+        final Order order = getSelectedOrder();
+        final Date deadlineDate = getDeadlineDate();
+        final List<Label> labels = getSelectedLabels();
+        final List<Criterion> criterions = getSelectedCriterions();
+
+        return ReportDataSource.create(
+                () -> workingProgressPerTaskModel.getWorkingProgressPerTaskReport(
+                        order, deadlineDate, labels, criterions),
+                order, deadlineDate, labels, criterions);
     }
 
     private Order getSelectedOrder() {
@@ -110,12 +115,12 @@ public class WorkingProgressPerTaskController extends LibrePlanReportController
         return result;
     }
 
-    public void showReport(JasperreportComponent jasperreport){
+    public void showReport(ReportOutput report){
         final Order order = getSelectedOrder();
         if (order == null) {
             throw new WrongValueException(bandboxSelectOrder, _("Please, select a project"));
         }
-        super.showReport(jasperreport);
+        super.showReport(report);
     }
 
     public List<Label> getAllLabels() {
@@ -0,0 +1,160 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.resourceload;
+
+import org.apache.commons.lang3.Validate;
+import org.joda.time.LocalDate;
+import org.libreplan.business.calendars.entities.ICalendar;
+import org.libreplan.business.resources.entities.ICriterion;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.EpochDays;
+import org.libreplan.business.workingday.IntraDayDate;
+import org.libreplan.business.workingday.IntraDayDate.PartialDay;
+
+/**
+ * Calculates the same as {@link Resource#getTotalEffortFor(IntraDayDate, IntraDayDate, ICriterion)} keeping the sums
+ * of the capacities of the whole days, so only the first and the last days of each interval, that can be partial,
+ * are calculated on each call. <br />
+ *
+ * The days are added on demand, when an interval not covered yet is requested, doubling the covered length so the
+ * capacities are retrieved from the calendar a few times.
+ */
+class CapacityPrefixSums {
+
+    private final Resource resource;
+
+    private final ICriterion criterion;
+
+    private final ICalendar calendar;
+
+    private LocalDate firstDay;
+
+    /**
+     * <code>sums[i]</code> is the capacity in seconds of the days from <code>firstDay</code>, inclusive, to
+     * <code>firstDay + i</code>, exclusive
+     */
+    private long[] sums;
+
+    /**
+     * @param criterion
+     *            the criterion the resource must satisfy on a day for its capacity to be counted. It can be
+     *            <code>null</code>
+     */
+    CapacityPrefixSums(Resource resource, ICriterion criterion) {
+        Validate.notNull(resource);
+        this.resource = resource;
+        this.criterion = criterion;
+        this.calendar = resource.getCalendarOrDefault();
+    }
+
+    EffortDuration getTotalEffortFor(IntraDayDate startInclusive, IntraDayDate endExclusive) {
+        if ( startInclusive.compareTo(endExclusive) >= 0 ) {
+            return EffortDuration.zero();
+        }
+
+        LocalDate startDay = startInclusive.getDate();
+        LocalDate endDay = endExclusive.getDate();
+        if ( startDay.equals(endDay) ) {
+            return capacityOn(new PartialDay(startInclusive, endExclusive));
+        }
+
+        LocalDate firstWholeDay = startDay.plusDays(1);
+        EffortDuration result = capacityOn(new PartialDay(startInclusive, IntraDayDate.startOfDay(firstWholeDay)))
+                .plus(sumBetween(firstWholeDay, endDay));
+
+        if ( !endExclusive.getEffortDuration().isZero() ) {
+            result = result.plus(capacityOn(new PartialDay(IntraDayDate.startOfDay(endDay), endExclusive)));
+        }
+
+        return result;
+    }
+
+    private EffortDuration capacityOn(PartialDay day) {
+        EffortDuration capacity = calendar.getCapacityOn(day);
+        if ( capacity != null && satisfiesCriterionAt(day.getDate()) ) {
+            return capacity;
+        }
+        return EffortDuration.zero();
+    }
+
+    private boolean satisfiesCriterionAt(LocalDate day) {
+        return criterion == null || criterion.isSatisfiedBy(resource, day);
+    }
+
+    private EffortDuration sumBetween(LocalDate startInclusive, LocalDate endExclusive) {
+        if ( !startInclusive.isBefore(endExclusive) ) {
+            return EffortDuration.zero();
+        }
+        ensureCovered(startInclusive, endExclusive);
+
+        long seconds = sums[EpochDays.daysBetween(firstDay, endExclusive)] -
+                sums[EpochDays.daysBetween(firstDay, startInclusive)];
+
+        return EffortDuration.seconds(seconds);
+    }
+
+    private void ensureCovered(LocalDate startInclusive, LocalDate endExclusive) {
+        if ( sums == null ) {
+            fill(startInclusive, endExclusive);
+            return;
+        }
+
+        int coveredDays = sums.length - 1;
+        LocalDate coveredEnd = firstDay.plusDays(coveredDays);
+        if ( !startInclusive.isBefore(firstDay) && !endExclusive.isAfter(coveredEnd) ) {
+            return;
+        }
+
+        LocalDate newFirstDay = firstDay;
+        if ( startInclusive.isBefore(firstDay) ) {
+            newFirstDay = min(startInclusive, firstDay.minusDays(coveredDays));
+        }
+        LocalDate newEnd = coveredEnd;
+        if ( endExclusive.isAfter(coveredEnd) ) {
+            newEnd = max(endExclusive, coveredEnd.plusDays(coveredDays));
+        }
+        fill(newFirstDay, newEnd);
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private void fill(LocalDate startInclusive, LocalDate endExclusive) {
+        int[] capacities = calendar.getCapacitiesBetween(startInclusive, endExclusive);
+
+        long[] result = new long[capacities.length + 1];
+        LocalDate day = startInclusive;
+        for (int i = 0; i < capacities.length; i++) {
+            result[i + 1] = result[i] + (satisfiesCriterionAt(day) ? capacities[i] : 0);
+            day = day.plusDays(1);
+        }
+
+        this.firstDay = startInclusive;
+        this.sums = result;
+    }
+
+}
@@ -21,13 +21,13 @@
 
 package org.libreplan.web.resourceload;
 
-import static org.libreplan.business.workingday.IntraDayDate.max;
-import static org.libreplan.business.workingday.IntraDayDate.min;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.lang3.Validate;
 import org.apache.commons.lang3.math.Fraction;
@@ -84,6 +84,8 @@ abstract class LoadPeriodGenerator {
 
         private final ICriterion criterion;
 
+        private final CapacityPrefixSums capacities;
+
         public OnResourceFactory(Resource resource) {
             this(resource, Collections.emptyList());
         }
@@ -92,11 +94,12 @@ abstract class LoadPeriodGenerator {
             Validate.notNull(resource);
             this.resource = resource;
             this.criterion = CriterionCompounder.buildAnd(criterionsToSatisfy).getResult();
+            this.capacities = new CapacityPrefixSums(resource, criterion);
         }
 
         @Override
         public LoadPeriodGenerator create(ResourceAllocation<?> allocation) {
-            return new LoadPeriodGeneratorOnResource(resource, allocation, criterion);
+            return new LoadPeriodGeneratorOnResource(resource, allocation, criterion, capacities);
         }
 
     }
@@ -107,69 +110,129 @@ abstract class LoadPeriodGenerator {
         final List<Resource> potentialResources =
                 resourceSearch.searchBoth().byCriteria(Collections.singletonList(criterion)).execute();
 
-        return allocation -> new LoadPeriodGeneratorOnCriterion(criterion, allocation, potentialResources);
+        final List<CapacityPrefixSums> capacities = new ArrayList<>();
+        for (Resource each : potentialResources) {
+            capacities.add(new CapacityPrefixSums(each, criterion));
+        }
+
+        return allocation -> new LoadPeriodGeneratorOnCriterion(criterion, allocation, capacities);
     }
 
-    public List<LoadPeriodGenerator> join(LoadPeriodGenerator next) {
-        if (!overlaps(next)) {
-            return stripEmpty(this, next);
+    /**
+     * Splits the generators in the intervals between all their starts and ends, each one with the allocations of all
+     * the generators including it, sweeping the starts and the ends in order. The result is the same as joining every
+     * two overlapping generators until none overlaps, but each generator is only added and removed once from the
+     * ones including the current interval. <br />
+     *
+     * As when joining them, a generator without length in the middle of another one is dropped and only splits the
+     * interval at its point, while the ones not in the middle of another generator are kept.
+     *
+     * @param sortedByStartDate
+     *            the generators of single allocations
+     * @return the generators not overlapping, sorted by start date
+     */
+    static List<LoadPeriodGenerator> joinAll(List<LoadPeriodGenerator> sortedByStartDate) {
+        List<LoadPeriodGenerator> withLength = new ArrayList<>();
+        List<LoadPeriodGenerator> withoutLength = new ArrayList<>();
+        List<LoadPeriodGenerator> result = new ArrayList<>();
+        for (LoadPeriodGenerator each : sortedByStartDate) {
+            int comparison = each.start.compareTo(each.end);
+            if ( comparison < 0 ) {
+                withLength.add(each);
+            } else if ( comparison == 0 ) {
+                withoutLength.add(each);
+            } else {
+                // Kept as it is so it is reported when built
+                result.add(each);
+            }
         }
-
-        if (isIncluded(next)) {
-            return stripEmpty(this.until(next.start), intersect(next), this.from(next.end));
+        if ( withLength.isEmpty() ) {
+            result.addAll(withoutLength);
+            return result;
         }
-        assert overlaps(next) && !isIncluded(next);
-        return stripEmpty(this.until(next.start), intersect(next), next.from(end));
-    }
 
-    protected List<ResourceAllocation<?>> getAllocationsOnInterval() {
-        return allocationsOnInterval;
-    }
+        withoutLength.sort((a, b) -> a.start.compareTo(b.start));
+        List<LoadPeriodGenerator> byStart = new ArrayList<>(withLength);
+        byStart.sort((a, b) -> a.start.compareTo(b.start));
+        List<LoadPeriodGenerator> byEnd = new ArrayList<>(withLength);
+        byEnd.sort((a, b) -> a.end.compareTo(b.end));
+        List<IntraDayDate> points = sortedPoints(withLength, withoutLength);
+
+        LoadPeriodGenerator prototype = withLength.get(0);
+        Set<LoadPeriodGenerator> including = new LinkedHashSet<>();
+        int nextStart = 0;
+        int nextEnd = 0;
+        int nextWithoutLength = 0;
+        for (int i = 0; i < points.size(); i++) {
+            IntraDayDate point = points.get(i);
+
+            while (nextEnd < byEnd.size() && byEnd.get(nextEnd).end.equals(point)) {
+                including.remove(byEnd.get(nextEnd++));
+            }
+            while (nextWithoutLength < withoutLength.size() &&
+                    withoutLength.get(nextWithoutLength).start.equals(point)) {
 
-    private List<LoadPeriodGenerator> stripEmpty(LoadPeriodGenerator... generators) {
-        List<LoadPeriodGenerator> result = new ArrayList<>();
-        for (LoadPeriodGenerator loadPeriodGenerator : generators) {
-            if (!loadPeriodGenerator.isEmpty()) {
-                result.add(loadPeriodGenerator);
+                addIfNotIncluded(result, withoutLength.get(nextWithoutLength++), including);
+            }
+            while (nextStart < byStart.size() && byStart.get(nextStart).start.equals(point)) {
+                including.add(byStart.get(nextStart++));
+            }
+
+            if ( !including.isEmpty() ) {
+                result.add(prototype.create(point, points.get(i + 1), allocationsOf(including)));
             }
         }
+
         return result;
     }
 
-    private boolean isEmpty() {
-        return start.equals(end);
+    private static void addIfNotIncluded(List<LoadPeriodGenerator> result,
+                                         LoadPeriodGenerator withoutLength,
+                                         Set<LoadPeriodGenerator> including) {
+        if ( including.isEmpty() ) {
+            result.add(withoutLength);
+        }
     }
 
-    protected abstract LoadPeriodGenerator create(
-            IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval);
+    /**
+     * @return the starts and ends of the generators with length and the points of the ones without it, sorted and
+     *         without repetitions
+     */
+    private static List<IntraDayDate> sortedPoints(List<LoadPeriodGenerator> withLength,
+                                                   List<LoadPeriodGenerator> withoutLength) {
+        List<IntraDayDate> all = new ArrayList<>();
+        for (LoadPeriodGenerator each : withLength) {
+            all.add(each.start);
+            all.add(each.end);
+        }
+        for (LoadPeriodGenerator each : withoutLength) {
+            all.add(each.start);
+        }
+        Collections.sort(all);
 
-    private LoadPeriodGenerator intersect(LoadPeriodGenerator other) {
-        return create(max(this.start, other.start), min(this.end, other.end), plusAllocations(other));
+        List<IntraDayDate> result = new ArrayList<>();
+        for (IntraDayDate each : all) {
+            if ( result.isEmpty() || !result.get(result.size() - 1).equals(each) ) {
+                result.add(each);
+            }
+        }
+        return result;
     }
 
-    private List<ResourceAllocation<?>> plusAllocations(LoadPeriodGenerator other) {
+    private static List<ResourceAllocation<?>> allocationsOf(Collection<LoadPeriodGenerator> generators) {
         List<ResourceAllocation<?>> result = new ArrayList<>();
-        result.addAll(allocationsOnInterval);
-        result.addAll(other.allocationsOnInterval);
-
+        for (LoadPeriodGenerator each : generators) {
+            result.addAll(each.allocationsOnInterval);
+        }
         return result;
     }
 
-    private LoadPeriodGenerator from(IntraDayDate newStart) {
-        return create(newStart, end, allocationsOnInterval);
-    }
-
-    private LoadPeriodGenerator until(IntraDayDate newEnd) {
-        return create(start, newEnd, allocationsOnInterval);
-    }
-
-    boolean overlaps(LoadPeriodGenerator other) {
-        return start.compareTo(other.end) < 0 && other.start.compareTo(this.end) < 0;
+    protected List<ResourceAllocation<?>> getAllocationsOnInterval() {
+        return allocationsOnInterval;
     }
 
-    private boolean isIncluded(LoadPeriodGenerator other) {
-        return other.start.compareTo(start) >= 0 && other.end.compareTo(end) <= 0;
-    }
+    protected abstract LoadPeriodGenerator create(
+            IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval);
 
     /**
      * @return <code>null</code> if the data is invalid
@@ -252,33 +315,42 @@ class LoadPeriodGeneratorOnResource extends LoadPeriodGenerator {
 
     private final ICriterion criterion;
 
+    private final CapacityPrefixSums capacities;
+
     LoadPeriodGeneratorOnResource(Resource resource,
                                   IntraDayDate start,
                                   IntraDayDate end,
                                   List<ResourceAllocation<?>> allocationsOnInterval,
-                                  ICriterion criterion) {
+                                  ICriterion criterion,
+                                  CapacityPrefixSums capacities) {
 
         super(start, end, allocationsOnInterval);
         this.resource = resource;
         this.criterion = criterion;
+        this.capacities = capacities;
     }
 
-    LoadPeriodGeneratorOnResource(Resource resource, ResourceAllocation<?> initial, ICriterion criterion) {
+    LoadPeriodGeneratorOnResource(Resource resource,
+                                  ResourceAllocation<?> initial,
+                                  ICriterion criterion,
+                                  CapacityPrefixSums capacities) {
+
         super(initial.getIntraDayStartDate(), initial.getIntraDayEndDate(), Collections.singletonList(initial));
         this.resource = resource;
         this.criterion = criterion;
+        this.capacities = capacities;
     }
 
     @Override
     protected LoadPeriodGenerator create(
             IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
 
-        return new LoadPeriodGeneratorOnResource(resource, start, end, allocationsOnInterval, criterion);
+        return new LoadPeriodGeneratorOnResource(resource, start, end, allocationsOnInterval, criterion, capacities);
     }
 
     @Override
     protected EffortDuration getTotalAvailableEffort() {
-        return resource.getTotalEffortFor(start, end, criterion);
+        return capacities.getTotalEffortFor(start, end);
     }
 
     @Override
@@ -297,36 +369,38 @@ class LoadPeriodGeneratorOnCriterion extends LoadPeriodGenerator {
 
     private final Criterion criterion;
 
-    private final List<Resource> resourcesSatisfyingCriterionAtSomePoint;
+    /**
+     * Capacities of the resources satisfying the criterion at some point
+     */
+    private final List<CapacityPrefixSums> capacities;
 
     public LoadPeriodGeneratorOnCriterion(Criterion criterion,
                                           ResourceAllocation<?> allocation,
-                                          List<Resource> resourcesSatisfyingCriterionAtSomePoint) {
+                                          List<CapacityPrefixSums> capacities) {
 
         this(
                 criterion,
                 allocation.getIntraDayStartDate(),
                 allocation.getIntraDayEndDate(),
                 Collections.singletonList(allocation),
-                resourcesSatisfyingCriterionAtSomePoint);
+                capacities);
     }
 
     public LoadPeriodGeneratorOnCriterion(Criterion criterion,
                                           IntraDayDate startDate, IntraDayDate endDate,
                                           List<ResourceAllocation<?>> allocations,
-                                          List<Resource> resourcesSatisfyingCriterionAtSomePoint) {
+                                          List<CapacityPrefixSums> capacities) {
 
         super(startDate, endDate, allocations);
         this.criterion = criterion;
-        this.resourcesSatisfyingCriterionAtSomePoint = resourcesSatisfyingCriterionAtSomePoint;
+        this.capacities = capacities;
     }
 
     @Override
     protected LoadPeriodGenerator create(
             IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
 
-        return new LoadPeriodGeneratorOnCriterion(
-                criterion, start, end, allocationsOnInterval, resourcesSatisfyingCriterionAtSomePoint);
+        return new LoadPeriodGeneratorOnCriterion(criterion, start, end, allocationsOnInterval, capacities);
     }
 
     @Override
@@ -336,8 +410,7 @@ class LoadPeriodGeneratorOnCriterion extends LoadPeriodGenerator {
 
     @Override
     protected EffortDuration getTotalAvailableEffort() {
-        return EffortDuration.sum(
-                resourcesSatisfyingCriterionAtSomePoint, resource -> resource.getTotalEffortFor(start, end, criterion));
+        return EffortDuration.sum(capacities, each -> each.getTotalEffortFor(start, end));
     }
 
     @Override
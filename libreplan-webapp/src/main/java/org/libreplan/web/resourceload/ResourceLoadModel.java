@@ -33,9 +33,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -86,6 +84,8 @@ import org.zkoss.ganttz.data.GanttDate;
 import org.zkoss.ganttz.data.resourceload.LoadPeriod;
 import org.zkoss.ganttz.data.resourceload.LoadTimeLine;
 import org.zkoss.ganttz.data.resourceload.TimeLineRole;
+import org.zkoss.ganttz.util.ProfilingMetrics;
+import org.zkoss.ganttz.util.ProfilingMetrics.ITiming;
 
 @Component
 @Scope(BeanDefinition.SCOPE_PROTOTYPE)
@@ -120,22 +120,23 @@ public class ResourceLoadModel implements IResourceLoadModel {
     @Override
     @Transactional(readOnly = true)
     public ResourceLoadDisplayData calculateDataToDisplay(ResourceLoadParameters parameters) {
+        try (ITiming timing = ProfilingMetrics.time("resourceload.calculate")) {
+            PlanningState planningState = parameters.getPlanningState();
 
-        PlanningState planningState = parameters.getPlanningState();
-
-        if ( planningState != null ) {
-            planningState.reattach();
-            planningState.reassociateResourcesWithSession();
-        }
+            if ( planningState != null ) {
+                planningState.reattach();
+                planningState.reassociateResourcesWithSession();
+            }
 
-        ResourceAllocationsFinder<?> allocationsFinder = create(parameters);
-        List<LoadTimeLine> loadTimeLines = allocationsFinder.buildTimeLines();
+            ResourceAllocationsFinder<?> allocationsFinder = create(parameters);
+            List<LoadTimeLine> loadTimeLines = allocationsFinder.buildTimeLines();
 
-        return new ResourceLoadDisplayData(
-                loadTimeLines,
-                allocationsFinder.getPaginator(),
-                allocationsFinder.lazilyGetResourcesIncluded(),
-                allocationsFinder.lazilyGetAssignmentsShown());
+            return new ResourceLoadDisplayData(
+                    loadTimeLines,
+                    allocationsFinder.getPaginator(),
+                    allocationsFinder.lazilyGetResourcesIncluded(),
+                    allocationsFinder.lazilyGetAssignmentsShown());
+        }
     }
 
 
@@ -1115,8 +1116,6 @@ class PeriodsBuilder {
 
     private final List<? extends ResourceAllocation<?>> sortedByStartDate;
 
-    private final List<LoadPeriodGenerator> loadPeriodsGenerators = new LinkedList<>();
-
     private final LoadPeriodGeneratorFactory factory;
 
     private PeriodsBuilder(
@@ -1174,12 +1173,12 @@ class PeriodsBuilder {
     }
 
     private List<LoadPeriod> buildPeriods() {
+        List<LoadPeriodGenerator> loadPeriodsGenerators = new ArrayList<>();
         for (ResourceAllocation<?> resourceAllocation : sortedByStartDate) {
             loadPeriodsGenerators.add(factory.create(resourceAllocation));
         }
-        joinPeriodGenerators();
 
-        return toGenerators(loadPeriodsGenerators);
+        return toGenerators(LoadPeriodGenerator.joinAll(loadPeriodsGenerators));
     }
 
     private List<LoadPeriod> toGenerators(List<LoadPeriodGenerator> generators) {
@@ -1195,107 +1194,4 @@ class PeriodsBuilder {
         return result;
     }
 
-    private void joinPeriodGenerators() {
-        ListIterator<LoadPeriodGenerator> iterator = loadPeriodsGenerators.listIterator();
-
-        while (iterator.hasNext()) {
-            final LoadPeriodGenerator current = findNextOneOverlapping(iterator);
-
-            if ( current != null ) {
-                rewind(iterator, current);
-                iterator.remove();
-                LoadPeriodGenerator next = iterator.next();
-                iterator.remove();
-                List<LoadPeriodGenerator> generated = current.join(next);
-                final LoadPeriodGenerator positionToComeBack = generated.get(0);
-
-                final List<LoadPeriodGenerator> remaining =
-                        loadPeriodsGenerators.subList(iterator.nextIndex(), loadPeriodsGenerators.size());
-
-                List<LoadPeriodGenerator> generatorsSortedByStartDate =
-                        mergeListsKeepingByStartSortOrder(generated, remaining);
-
-                final int takenFromRemaining = generatorsSortedByStartDate.size() - generated.size();
-                removeNextElements(iterator, takenFromRemaining);
-                addAtCurrentPosition(iterator, generatorsSortedByStartDate);
-                rewind(iterator, positionToComeBack);
-            }
-        }
-    }
-
-    private LoadPeriodGenerator findNextOneOverlapping(ListIterator<LoadPeriodGenerator> iterator) {
-        while (iterator.hasNext()) {
-            LoadPeriodGenerator current = iterator.next();
-
-            if ( !iterator.hasNext() ) {
-                return null;
-            }
-
-            LoadPeriodGenerator next = peekNext(iterator);
-            if ( current.overlaps(next) ) {
-                return current;
-            }
-        }
-
-        return null;
-    }
-
-    private void addAtCurrentPosition(
-            ListIterator<LoadPeriodGenerator> iterator, List<LoadPeriodGenerator> sortedByStartDate) {
-
-        for (LoadPeriodGenerator l : sortedByStartDate) {
-            iterator.add(l);
-        }
-    }
-
-    private void removeNextElements(ListIterator<LoadPeriodGenerator> iterator, final int elementsNumber) {
-        for (int i = 0; i < elementsNumber; i++) {
-            iterator.next();
-            iterator.remove();
-        }
-    }
-
-    private void rewind(ListIterator<LoadPeriodGenerator> iterator, LoadPeriodGenerator nextOne) {
-        while (peekNext(iterator) != nextOne) {
-            iterator.previous();
-        }
-    }
-
-    private List<LoadPeriodGenerator> mergeListsKeepingByStartSortOrder(
-            List<LoadPeriodGenerator> joined, List<LoadPeriodGenerator> remaining) {
-
-        List<LoadPeriodGenerator> result = new ArrayList<>();
-        ListIterator<LoadPeriodGenerator> joinedIterator = joined.listIterator();
-        ListIterator<LoadPeriodGenerator> remainingIterator = remaining.listIterator();
-
-        while (joinedIterator.hasNext() && remainingIterator.hasNext()) {
-            LoadPeriodGenerator fromJoined = peekNext(joinedIterator);
-            LoadPeriodGenerator fromRemaining = peekNext(remainingIterator);
-
-            if ( fromJoined.getStart().compareTo(fromRemaining.getStart()) <= 0 ) {
-                result.add(fromJoined);
-                joinedIterator.next();
-            } else {
-                result.add(fromRemaining);
-                remainingIterator.next();
-            }
-        }
-        if ( joinedIterator.hasNext() ) {
-            result.addAll(joined.subList(joinedIterator.nextIndex(), joined.size()));
-        }
-
-        return result;
-    }
-
-    private LoadPeriodGenerator peekNext(ListIterator<LoadPeriodGenerator> iterator) {
-        if ( !iterator.hasNext() ) {
-            return null;
-        }
-
-        LoadPeriodGenerator result = iterator.next();
-        iterator.previous();
-
-        return result;
-    }
-
 }
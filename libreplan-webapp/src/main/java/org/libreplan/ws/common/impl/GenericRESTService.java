@@ -22,12 +22,26 @@
 package org.libreplan.ws.common.impl;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Function;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.format.ISODateTimeFormat;
 import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.ILastModificationDateTracked;
 import org.libreplan.business.common.IOnTransaction;
 import org.libreplan.business.common.IntegrationEntity;
 import org.libreplan.business.common.daos.IIntegrationEntityDAO;
@@ -36,6 +50,7 @@ import org.libreplan.business.common.exceptions.ValidationException;
 import org.libreplan.ws.common.api.InstanceConstraintViolationsDTO;
 import org.libreplan.ws.common.api.InstanceConstraintViolationsListDTO;
 import org.libreplan.ws.common.api.IntegrationEntityDTO;
+import org.libreplan.ws.common.impl.StreamingListOutput.Format;
 import org.springframework.beans.factory.annotation.Autowired;
 
 /**
@@ -47,6 +62,18 @@ import org.springframework.beans.factory.annotation.Autowired;
 public abstract class GenericRESTService<E extends IntegrationEntity,
     DTO extends IntegrationEntityDTO> {
 
+    /**
+     * Number of entities saved in the same transaction by
+     * {@link #saveInBulk(List)}.
+     */
+    protected static final int BULK_CHUNK_SIZE = 200;
+
+    /**
+     * Number of entities retrieved and converted in the same transaction by
+     * {@link #findAllStreamed(String, Integer, String, HttpHeaders, Function)}.
+     */
+    protected static final int STREAMING_BATCH_SIZE = 100;
+
     @Autowired
     protected IAdHocTransactionService transactionService;
 
@@ -57,6 +84,101 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
         return toDTO(getIntegrationEntityDAO().findAll());
     }
 
+    /**
+     * It retrieves the entities like {@link #findAll()} but writing them to
+     * the response while they are retrieved, in batches of
+     * {@link #STREAMING_BATCH_SIZE} entities read in their own transaction,
+     * instead of keeping all of them in memory. The response is in XML or
+     * JSON depending on the media types accepted by the request.
+     *
+     * @param afterCode
+     *            if not blank only the entities with a code after it are
+     *            returned, so the next page can be asked passing the code of
+     *            the last entity received
+     * @param limit
+     *            if not <code>null</code>, the maximum number of entities
+     *            returned
+     * @param modifiedSince
+     *            if not blank, an ISO 8601 date time. Only the entities
+     *            modified since then are returned
+     * @param listDTOFactory
+     *            creates the list DTO written for each batch of DTOs
+     * @return The {@link Response} streaming the DTOs or 400 HTTP status code
+     *         (BAD_REQUEST) if the parameters are not valid
+     */
+    protected Response findAllStreamed(final String afterCode, final Integer limit, String modifiedSince,
+                                       HttpHeaders headers, final Function<List<DTO>, ?> listDTOFactory) {
+        final Date since;
+        try {
+            since = StringUtils.isBlank(modifiedSince)
+                    ? null
+                    : ISODateTimeFormat.dateTimeParser().parseDateTime(modifiedSince.trim()).toDate();
+        } catch (IllegalArgumentException e) {
+            return Response.status(Status.BAD_REQUEST).build();
+        }
+        boolean trackedEntities = ILastModificationDateTracked.class.isAssignableFrom(
+                getIntegrationEntityDAO().getEntityClass());
+        if ( (limit != null && limit <= 0) || (since != null && !trackedEntities) ) {
+            return Response.status(Status.BAD_REQUEST).build();
+        }
+
+        StreamingListOutput<DTO> output = new StreamingListOutput<DTO>(Format.acceptedBy(headers)) {
+
+            private String lastCode = afterCode;
+
+            private int remaining = limit != null ? limit : Integer.MAX_VALUE;
+
+            private boolean finished = false;
+
+            @Override
+            protected List<DTO> nextBatch() {
+                if ( finished || remaining == 0 ) {
+                    return Collections.emptyList();
+                }
+                return transactionService.runOnReadOnlyTransaction(new IOnTransaction<List<DTO>>() {
+                    @Override
+                    public List<DTO> execute() {
+                        return readBatch();
+                    }
+                });
+            }
+
+            private List<DTO> readBatch() {
+                List<DTO> result = new ArrayList<>();
+                while (result.isEmpty() && !finished) {
+                    int size = Math.min(STREAMING_BATCH_SIZE, remaining);
+                    List<E> entities = getIntegrationEntityDAO().findAfterCode(lastCode, since, size);
+                    finished = entities.size() < size;
+
+                    for (E each : entities) {
+                        lastCode = each.getCode();
+                        if ( isStreamed(each) ) {
+                            result.add(toDTO(each));
+                            remaining--;
+                        }
+                    }
+                    finished = finished || remaining == 0;
+                }
+                return result;
+            }
+
+            @Override
+            protected Object toListDTO(List<DTO> dtos) {
+                return listDTOFactory.apply(dtos);
+            }
+
+        };
+        return Response.ok(output, output.getFormat().getMediaType()).build();
+    }
+
+    /**
+     * It allows to exclude entities returned by the DAO from
+     * {@link #findAllStreamed(String, Integer, String, HttpHeaders, Function)}.
+     */
+    protected boolean isStreamed(E entity) {
+        return true;
+    }
+
     /**
      * It saves (inserts or updates) a list of entities. Each entity is
      * saved in a separate transaction.
@@ -71,26 +193,7 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
         for (DTO entityDTO : entityDTOs) {
 
             InstanceConstraintViolationsDTO instanceConstraintViolationsDTO =
-                null;
-
-            try {
-                insertOrUpdate(entityDTO);
-            } catch (ValidationException e) {
-                instanceConstraintViolationsDTO =
-                    ConstraintViolationConverter.toDTO(
-                        Util.generateInstanceConstraintViolationsDTOId(
-                            numItem, entityDTO), e);
-            } catch (RecoverableErrorException e) {
-                instanceConstraintViolationsDTO =
-                    ConstraintViolationConverter.toDTO(
-                        Util.generateInstanceConstraintViolationsDTOId(
-                            numItem, entityDTO), e);
-            } catch (RuntimeException e) {
-                instanceConstraintViolationsDTO =
-                    ConstraintViolationConverter.toDTO(
-                        Util.generateInstanceConstraintViolationsDTOId(
-                            numItem, entityDTO), e);
-            }
+                tryInsertOrUpdate(numItem, entityDTO);
 
             if (instanceConstraintViolationsDTO != null) {
                 instanceConstraintViolationsList.add(
@@ -106,6 +209,223 @@ public abstract class GenericRESTService<E extends IntegrationEntity,
 
     }
 
+    /**
+     * It saves an entity DTO by using a new transaction.
+     *
+     * @return the constraint violations if the entity could not be saved
+     *         or <code>null</code> otherwise
+     */
+    private InstanceConstraintViolationsDTO tryInsertOrUpdate(long numItem,
+        DTO entityDTO) {
+
+        try {
+            insertOrUpdate(entityDTO);
+            return null;
+        } catch (ValidationException e) {
+            return ConstraintViolationConverter.toDTO(
+                Util.generateInstanceConstraintViolationsDTOId(
+                    numItem, entityDTO), e);
+        } catch (RecoverableErrorException e) {
+            return ConstraintViolationConverter.toDTO(
+                Util.generateInstanceConstraintViolationsDTOId(
+                    numItem, entityDTO), e);
+        } catch (RuntimeException e) {
+            return ConstraintViolationConverter.toDTO(
+                Util.generateInstanceConstraintViolationsDTOId(
+                    numItem, entityDTO), e);
+        }
+
+    }
+
+    /**
+     * It saves (inserts or updates) a list of entities like
+     * {@link #save(List)} but, instead of using a transaction per entity,
+     * the entities are saved in chunks of {@link #BULK_CHUNK_SIZE} sharing
+     * the same transaction. The existing entities of every chunk are
+     * retrieved together and the inserts and updates are sent to the
+     * database in JDBC batches when the transaction is committed.
+     *
+     * The entities not passing the validations are reported like in
+     * {@link #save(List)} and the rest of the chunk is saved again without
+     * them. If the chunk cannot be committed, its entities are saved one by
+     * one in order to report the ones causing the error.
+     */
+    protected InstanceConstraintViolationsListDTO saveInBulk(
+        List<? extends DTO> entityDTOs) {
+
+        SortedMap<Long, InstanceConstraintViolationsDTO> violations =
+            new TreeMap<Long, InstanceConstraintViolationsDTO>();
+
+        for (int start = 0; start < entityDTOs.size();
+            start += BULK_CHUNK_SIZE) {
+
+            int end = Math.min(start + BULK_CHUNK_SIZE, entityDTOs.size());
+            Map<Long, DTO> chunk = new LinkedHashMap<Long, DTO>();
+            for (int i = start; i < end; i++) {
+                chunk.put((long) i + 1, entityDTOs.get(i));
+            }
+            saveChunk(chunk, violations);
+
+        }
+
+        return new InstanceConstraintViolationsListDTO(
+            new ArrayList<InstanceConstraintViolationsDTO>(
+                violations.values()));
+
+    }
+
+    private void saveChunk(Map<Long, DTO> chunk,
+        Map<Long, InstanceConstraintViolationsDTO> violations) {
+
+        Map<Long, DTO> pending = new LinkedHashMap<Long, DTO>(chunk);
+
+        while (!pending.isEmpty()) {
+
+            Map<Long, InstanceConstraintViolationsDTO> chunkViolations =
+                new HashMap<Long, InstanceConstraintViolationsDTO>();
+
+            try {
+                transactionService.runOnAnotherTransaction(
+                    insertOrUpdateAll(pending, chunkViolations));
+                return;
+            } catch (ChunkWithViolationsException e) {
+                violations.putAll(chunkViolations);
+                pending.keySet().removeAll(chunkViolations.keySet());
+            } catch (RuntimeException e) {
+                for (Entry<Long, DTO> each : pending.entrySet()) {
+                    InstanceConstraintViolationsDTO violation =
+                        tryInsertOrUpdate(each.getKey(), each.getValue());
+                    if (violation != null) {
+                        violations.put(each.getKey(), violation);
+                    }
+                }
+                return;
+            }
+
+        }
+
+    }
+
+    /**
+     * It saves all the entity DTOs in the current transaction. If some of
+     * them do not pass the validations, their constraint violations are added
+     * to <code>violations</code> and {@link ChunkWithViolationsException} is
+     * thrown so the transaction is rolled back. Any other exception is not
+     * caught, as the session may not be usable anymore, so the chunk is saved
+     * one by one.
+     */
+    private IOnTransaction<Void> insertOrUpdateAll(
+        final Map<Long, DTO> entityDTOs,
+        final Map<Long, InstanceConstraintViolationsDTO> violations) {
+
+        return new IOnTransaction<Void>() {
+
+            @Override
+            public Void execute() {
+
+                IIntegrationEntityDAO<E> entityDAO =
+                    getIntegrationEntityDAO();
+                Map<String, E> existing = byCode(
+                    entityDAO.findByCodes(codesOf(entityDTOs.values())));
+
+                for (Entry<Long, DTO> each : entityDTOs.entrySet()) {
+
+                    DTO entityDTO = each.getValue();
+                    Long numItem = each.getKey();
+
+                    try {
+                        E entity = insertOrUpdate(existing, entityDTO);
+                        String code = codeKey(entity.getCode());
+                        if (code != null) {
+                            existing.put(code, entity);
+                        }
+                    } catch (ValidationException e) {
+                        violations.put(numItem,
+                            ConstraintViolationConverter.toDTO(
+                                Util.generateInstanceConstraintViolationsDTOId(
+                                    numItem, entityDTO), e));
+                    } catch (RecoverableErrorException e) {
+                        violations.put(numItem,
+                            ConstraintViolationConverter.toDTO(
+                                Util.generateInstanceConstraintViolationsDTOId(
+                                    numItem, entityDTO), e));
+                    }
+
+                }
+
+                if (!violations.isEmpty()) {
+                    throw new ChunkWithViolationsException();
+                }
+
+                return null;
+
+            }
+
+        };
+
+    }
+
+    private E insertOrUpdate(Map<String, E> existing, DTO entityDTO)
+        throws ValidationException, RecoverableErrorException {
+
+        String code = codeKey(entityDTO.code);
+        E entity = code != null ? existing.get(code) : null;
+
+        /* Insert or update? */
+        if (entity != null) {
+            updateEntity(entity, entityDTO);
+        } else {
+            entity = toEntity(entityDTO);
+        }
+
+        entity.validate();
+        beforeSaving(entity);
+        getIntegrationEntityDAO().saveWithoutValidating(entity);
+        afterSaving(entity);
+
+        return entity;
+
+    }
+
+    private static List<String> codesOf(
+        Collection<? extends IntegrationEntityDTO> entityDTOs) {
+
+        List<String> result = new ArrayList<String>();
+        for (IntegrationEntityDTO each : entityDTOs) {
+            result.add(each.code);
+        }
+        return result;
+
+    }
+
+    private Map<String, E> byCode(List<E> entities) {
+
+        Map<String, E> result = new HashMap<String, E>();
+        for (E each : entities) {
+            result.put(codeKey(each.getCode()), each);
+        }
+        return result;
+
+    }
+
+    /**
+     * Codes are compared like in {@link IIntegrationEntityDAO#findByCode}.
+     *
+     * @return <code>null</code> if the code is blank
+     */
+    private static String codeKey(String code) {
+        return StringUtils.isBlank(code) ? null : code.trim().toLowerCase();
+    }
+
+    /**
+     * Used to roll back the transaction of a chunk when some of its entities
+     * cannot be saved.
+     */
+    private static class ChunkWithViolationsException extends
+        RuntimeException {
+
+    }
+
     /**
      * It saves (inserts or updates) an entity DTO by using a new transaction.
      *
@@ -0,0 +1,79 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.ws.common.impl;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.ResourceInfo;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.ext.Provider;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.zkoss.ganttz.util.ProfilingMetrics;
+
+/**
+ * Measures the time taken by each REST service method with
+ * {@link ProfilingMetrics}. It does nothing while the metrics are disabled.
+ */
+@Provider
+@Component("profilingMetricsFilter")
+public class ProfilingMetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String START_PROPERTY = ProfilingMetricsFilter.class.getName() + ".start";
+
+    @Context
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if ( ProfilingMetrics.isEnabled() ) {
+            requestContext.setProperty(START_PROPERTY, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        Object start = requestContext.getProperty(START_PROPERTY);
+        if ( start == null ) {
+            return;
+        }
+
+        String name = "rest." + getServiceMethodName();
+        ProfilingMetrics.timer(name).update(System.nanoTime() - (Long) start);
+        if ( responseContext.getStatus() >= 400 ) {
+            ProfilingMetrics.count(name + ".errors");
+        }
+    }
+
+    private String getServiceMethodName() {
+        if ( resourceInfo.getResourceClass() == null || resourceInfo.getResourceMethod() == null ) {
+            return "unmatched";
+        }
+        // The services are proxied by Spring because of the transactions
+        Class<?> serviceClass = ClassUtils.getUserClass(resourceInfo.getResourceClass());
+
+        return serviceClass.getSimpleName() + "." + resourceInfo.getResourceMethod().getName();
+    }
+
+}
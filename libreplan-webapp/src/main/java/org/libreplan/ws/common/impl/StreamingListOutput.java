@@ -0,0 +1,280 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.ws.common.impl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.StreamingOutput;
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.jaxb.JaxbAnnotationModule;
+
+/**
+ * {@link StreamingOutput} that writes a list of DTOs while it is being
+ * retrieved in batches, instead of building the whole list in memory before
+ * writing it. <br />
+ *
+ * In XML the document written is the same one that would be written for the
+ * list DTO containing all the DTOs. In JSON the DTOs are written as an array.
+ */
+public abstract class StreamingListOutput<DTO> implements StreamingOutput {
+
+    public enum Format {
+
+        XML(MediaType.APPLICATION_XML_TYPE),
+        JSON(MediaType.APPLICATION_JSON_TYPE);
+
+        private final MediaType mediaType;
+
+        Format(MediaType mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public MediaType getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * @return the first format accepted by the request, XML by default
+         */
+        public static Format acceptedBy(HttpHeaders headers) {
+            for (MediaType each : headers.getAcceptableMediaTypes()) {
+                for (Format format : values()) {
+                    if ( format.mediaType.isCompatible(each) ) {
+                        return format;
+                    }
+                }
+            }
+            return XML;
+        }
+
+    }
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final XMLEventFactory EVENTS = XMLEventFactory.newInstance();
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JaxbAnnotationModule());
+
+    private static final ConcurrentMap<Class<?>, JAXBContext> contexts = new ConcurrentHashMap<>();
+
+    private final Format format;
+
+    protected StreamingListOutput(Format format) {
+        this.format = format;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the next DTOs to write or an empty list if there are no more
+     */
+    protected abstract List<DTO> nextBatch();
+
+    /**
+     * @return the JAXB list DTO containing the DTOs, whose root element is the
+     *         root element of the XML document
+     */
+    protected abstract Object toListDTO(List<DTO> dtos);
+
+    @Override
+    public void write(OutputStream output) throws IOException, WebApplicationException {
+        try {
+            if ( format == Format.JSON ) {
+                writeJSON(output);
+            } else {
+                writeXML(output);
+            }
+        } catch (XMLStreamException | JAXBException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void writeJSON(OutputStream output) throws IOException {
+        JsonGenerator generator = MAPPER.getFactory().createGenerator(output, JsonEncoding.UTF8);
+        generator.writeStartArray();
+        for (List<DTO> batch = nextBatch(); !batch.isEmpty(); batch = nextBatch()) {
+            for (DTO each : batch) {
+                MAPPER.writeValue(generator, each);
+            }
+            generator.flush();
+        }
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    /**
+     * Every batch is marshalled as a list DTO, keeping only the root element
+     * of the first one and closing it after the last one.
+     */
+    private void writeXML(OutputStream output) throws XMLStreamException, JAXBException {
+        XMLEventWriter writer = XMLOutputFactory.newInstance().createXMLEventWriter(output, ENCODING);
+        writer.add(EVENTS.createStartDocument(ENCODING, "1.0", true));
+
+        ListElementsWriter elements = new ListElementsWriter(writer);
+        List<DTO> batch = nextBatch();
+        do {
+            Object listDTO = toListDTO(batch);
+            Marshaller marshaller = contextFor(listDTO.getClass()).createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            marshaller.marshal(listDTO, elements);
+            writer.flush();
+            batch = nextBatch();
+        } while (!batch.isEmpty());
+
+        writer.add(EVENTS.createEndElement(elements.getRoot().getName(), null));
+        writer.add(EVENTS.createEndDocument());
+        writer.flush();
+        writer.close();
+    }
+
+    private static JAXBContext contextFor(Class<?> listDTOClass) throws JAXBException {
+        JAXBContext result = contexts.get(listDTOClass);
+        if ( result == null ) {
+            result = JAXBContext.newInstance(listDTOClass);
+            contexts.putIfAbsent(listDTOClass, result);
+        }
+        return result;
+    }
+
+    /**
+     * Writes the events of the marshalled list DTOs but the documents and
+     * their root elements, except the start of the first root element with
+     * its namespace declarations.
+     */
+    private static class ListElementsWriter implements XMLEventWriter {
+
+        private final XMLEventWriter writer;
+
+        private StartElement root;
+
+        private int depth = 0;
+
+        private boolean skippingRootStart = false;
+
+        ListElementsWriter(XMLEventWriter writer) {
+            this.writer = writer;
+        }
+
+        StartElement getRoot() {
+            return root;
+        }
+
+        @Override
+        public void add(XMLEvent event) throws XMLStreamException {
+            if ( event.isStartDocument() || event.isEndDocument() ) {
+                return;
+            }
+            if ( event.isNamespace() || event.isAttribute() ) {
+                if ( !skippingRootStart ) {
+                    writer.add(event);
+                }
+                return;
+            }
+            skippingRootStart = false;
+
+            if ( event.isStartElement() ) {
+                depth++;
+                if ( depth == 1 ) {
+                    if ( root != null ) {
+                        skippingRootStart = true;
+                        return;
+                    }
+                    root = event.asStartElement();
+                }
+            } else if ( event.isEndElement() ) {
+                depth--;
+                if ( depth == 0 ) {
+                    return;
+                }
+            }
+            writer.add(event);
+        }
+
+        @Override
+        public void add(XMLEventReader reader) throws XMLStreamException {
+            while (reader.hasNext()) {
+                add(reader.nextEvent());
+            }
+        }
+
+        @Override
+        public String getPrefix(String uri) throws XMLStreamException {
+            return writer.getPrefix(uri);
+        }
+
+        @Override
+        public void setPrefix(String prefix, String uri) throws XMLStreamException {
+            writer.setPrefix(prefix, uri);
+        }
+
+        @Override
+        public void setDefaultNamespace(String uri) throws XMLStreamException {
+            writer.setDefaultNamespace(uri);
+        }
+
+        @Override
+        public void setNamespaceContext(NamespaceContext context) throws XMLStreamException {
+            writer.setNamespaceContext(context);
+        }
+
+        @Override
+        public NamespaceContext getNamespaceContext() {
+            return writer.getNamespaceContext();
+        }
+
+        @Override
+        public void flush() throws XMLStreamException {
+            writer.flush();
+        }
+
+        /**
+         * The underlying writer is closed once all the batches are written.
+         */
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
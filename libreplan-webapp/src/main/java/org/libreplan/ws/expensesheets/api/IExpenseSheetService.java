@@ -19,6 +19,7 @@
 
 package org.libreplan.ws.expensesheets.api;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.libreplan.business.expensesheet.entities.ExpenseSheet;
@@ -33,6 +34,13 @@ public interface IExpenseSheetService {
 
     ExpenseSheetListDTO getExpenseSheets();
 
+    /**
+     * Like {@link #getExpenseSheets()} but writing the expense sheets while
+     * they are retrieved, optionally only the ones after a code and up to a
+     * limit.
+     */
+    Response getExpenseSheetsStreamed(String afterCode, Integer limit, HttpHeaders headers);
+
     InstanceConstraintViolationsListDTO addExpenseSheets(
             ExpenseSheetListDTO expenseSheetListDTO);
 
@@ -19,12 +19,16 @@
 
 package org.libreplan.ws.expensesheets.impl;
 
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.libreplan.business.common.daos.IIntegrationEntityDAO;
@@ -73,7 +77,7 @@ public class ExpenseSheetServiceREST extends
     @Transactional
     public InstanceConstraintViolationsListDTO addExpenseSheets(
             ExpenseSheetListDTO expenseSheetListDTO) {
-        return save(expenseSheetListDTO.expenseSheets);
+        return saveInBulk(expenseSheetListDTO.expenseSheets);
     }
 
     @Override
@@ -113,4 +117,14 @@ public class ExpenseSheetServiceREST extends
     public ExpenseSheetListDTO getExpenseSheets() {
         return new ExpenseSheetListDTO(findAll());
     }
+
+    @Override
+    @GET
+    @Path("/stream/")
+    @Produces({ "application/xml", "application/json" })
+    public Response getExpenseSheetsStreamed(@QueryParam("after") String afterCode,
+            @QueryParam("limit") Integer limit,
+            @Context HttpHeaders headers) {
+        return findAllStreamed(afterCode, limit, null, headers, ExpenseSheetListDTO::new);
+    }
 }
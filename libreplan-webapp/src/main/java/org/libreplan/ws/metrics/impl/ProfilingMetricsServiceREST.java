@@ -0,0 +1,50 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.ws.metrics.impl;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+import org.libreplan.ws.metrics.api.IProfilingMetricsService;
+import org.springframework.stereotype.Service;
+import org.zkoss.ganttz.util.ProfilingMetrics;
+
+/**
+ * REST-based implementation of {@link IProfilingMetricsService}.
+ */
+@Path("/metrics/")
+@Produces("text/plain")
+@Service("profilingMetricsServiceREST")
+public class ProfilingMetricsServiceREST implements IProfilingMetricsService {
+
+    @Override
+    @GET
+    public String getMetrics() {
+        if ( !ProfilingMetrics.isEnabled() ) {
+            return "# profiling metrics are disabled, set the " + ProfilingMetrics.ENABLED_PROPERTY
+                    + " system property or enable them through JMX\n" + ProfilingMetrics.getReport();
+        }
+
+        return ProfilingMetrics.getReport();
+    }
+
+}
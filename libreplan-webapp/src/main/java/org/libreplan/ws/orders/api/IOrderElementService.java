@@ -21,6 +21,7 @@
 
 package org.libreplan.ws.orders.api;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.libreplan.business.orders.entities.OrderElement;
@@ -37,6 +38,14 @@ public interface IOrderElementService {
 
     OrderListDTO getOrders();
 
+    /**
+     * Like {@link #getOrders()} but writing the orders while they are
+     * retrieved, optionally only the ones after a code, up to a limit or
+     * modified since a given moment, so they can be synchronized
+     * incrementally.
+     */
+    Response getOrdersStreamed(String afterCode, Integer limit, String modifiedSince, HttpHeaders headers);
+
     Response getOrderElement(String code);
 
     Response removeOrderElement(String code);
@@ -30,6 +30,9 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -83,6 +86,17 @@ public class OrderElementServiceREST
         return new OrderListDTO(findAll());
     }
 
+    @Override
+    @GET
+    @Path("/stream/")
+    @Produces({ "application/xml", "application/json" })
+    public Response getOrdersStreamed(@QueryParam("after") String afterCode,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("modifiedSince") String modifiedSince,
+            @Context HttpHeaders headers) {
+        return findAllStreamed(afterCode, limit, modifiedSince, headers, OrderListDTO::new);
+    }
+
     @Override
     @POST
     @Consumes("application/xml")
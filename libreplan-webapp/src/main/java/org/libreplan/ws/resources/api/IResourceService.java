@@ -21,6 +21,7 @@
 
 package org.libreplan.ws.resources.api;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.libreplan.ws.common.api.InstanceConstraintViolationsListDTO;
@@ -43,6 +44,14 @@ public interface IResourceService {
 
     public ResourceListDTO getResources();
 
+    /**
+     * Like {@link #getResources()} but writing the resources while they are
+     * retrieved, optionally only the ones after a code, up to a limit or
+     * modified since a given moment, so they can be synchronized
+     * incrementally.
+     */
+    public Response getResourcesStreamed(String afterCode, Integer limit, String modifiedSince, HttpHeaders headers);
+
     Response getResource(String code);
 
 }
@@ -31,6 +31,9 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.apache.commons.lang3.StringUtils;
@@ -79,7 +82,7 @@ public class ResourceServiceREST
     public InstanceConstraintViolationsListDTO addResources(
         ResourceListDTO resources) {
 
-        return save(resources.resources);
+        return saveInBulk(resources.resources);
 
     }
 
@@ -131,6 +134,25 @@ public class ResourceServiceREST
         return new ResourceListDTO(findAll());
     }
 
+    @Override
+    @GET
+    @Path("/stream/")
+    @Produces({ "application/xml", "application/json" })
+    public Response getResourcesStreamed(@QueryParam("after") String afterCode,
+            @QueryParam("limit") Integer limit,
+            @QueryParam("modifiedSince") String modifiedSince,
+            @Context HttpHeaders headers) {
+        return findAllStreamed(afterCode, limit, modifiedSince, headers, ResourceListDTO::new);
+    }
+
+    /**
+     * Virtual workers are not exported, like in {@link #findAll()}.
+     */
+    @Override
+    protected boolean isStreamed(Resource resource) {
+        return !resource.isVirtual();
+    }
+
     @Override
     protected List<ResourceDTO> findAll() {
         List<Resource> result = new ArrayList<Resource>();
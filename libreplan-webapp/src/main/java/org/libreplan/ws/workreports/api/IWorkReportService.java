@@ -21,6 +21,7 @@
 
 package org.libreplan.ws.workreports.api;
 
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import org.libreplan.ws.common.api.InstanceConstraintViolationsListDTO;
@@ -34,6 +35,13 @@ public interface IWorkReportService {
 
     public WorkReportListDTO getWorkReports();
 
+    /**
+     * Like {@link #getWorkReports()} but writing the work reports while
+     * they are retrieved, optionally only the ones after a code and up to a
+     * limit.
+     */
+    public Response getWorkReportsStreamed(String afterCode, Integer limit, HttpHeaders headers);
+
     public InstanceConstraintViolationsListDTO addWorkReports(
             WorkReportListDTO workReportListDTO);
 
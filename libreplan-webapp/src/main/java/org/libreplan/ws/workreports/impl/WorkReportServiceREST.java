@@ -32,6 +32,9 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -81,11 +84,21 @@ public class WorkReportServiceREST extends GenericRESTService<WorkReport, WorkRe
         return new WorkReportListDTO(findAll());
     }
 
+    @Override
+    @GET
+    @Path("/stream/")
+    @Produces({ "application/xml", "application/json" })
+    public Response getWorkReportsStreamed(@QueryParam("after") String afterCode,
+            @QueryParam("limit") Integer limit,
+            @Context HttpHeaders headers) {
+        return findAllStreamed(afterCode, limit, null, headers, WorkReportListDTO::new);
+    }
+
     @Override
     @POST
     @Consumes("application/xml")
     public InstanceConstraintViolationsListDTO addWorkReports(WorkReportListDTO workReportListDTO) {
-        return save(workReportListDTO.workReports);
+        return saveInBulk(workReportListDTO.workReports);
     }
 
     @Override
@@ -0,0 +1,197 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package org.libreplan.web.limitingresources;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.Capacity;
+import org.libreplan.business.calendars.entities.CalendarData.Days;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.planner.entities.Dependency;
+import org.libreplan.business.planner.entities.SpecificResourceAllocation;
+import org.libreplan.business.planner.entities.Task;
+import org.libreplan.business.planner.limiting.entities.DateAndHour;
+import org.libreplan.business.planner.limiting.entities.LimitingResourceQueueElement;
+import org.libreplan.business.resources.entities.LimitingResourceQueue;
+import org.libreplan.business.resources.entities.Worker;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
+
+/**
+ * Tests the assignment of all the unassigned elements of
+ * {@link LimitingResourceQueueModel}, with a queue of a worker working eight
+ * hours every day.
+ */
+public class LimitingResourceQueueModelTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    private static final IDesktopUpdatesEmitter<Integer> NO_PROGRESS = percentage -> {
+    };
+
+    private Worker worker;
+
+    private LimitingResourceQueue queue;
+
+    private long lastId = 0;
+
+    @Before
+    public void createQueue() {
+        ResourceCalendar calendar = ResourceCalendar.create();
+        for (Days each : Days.values()) {
+            calendar.setCapacityAt(each, Capacity.create(hours(8)));
+        }
+        calendar.getLastCalendarAvailability().setStartDate(START);
+        worker = createNiceMock(Worker.class);
+        expect(worker.getCalendar()).andReturn(calendar).anyTimes();
+        replay(worker);
+
+        queue = LimitingResourceQueue.create();
+        queue.setResource(worker);
+    }
+
+    /**
+     * @param earliestStartDay
+     *            <code>null</code> if the element has no earliest start
+     */
+    private LimitingResourceQueueElement element(int hours, Integer earliestStartDay) {
+        Task task = createNiceMock(Task.class);
+        expect(task.getDependenciesWithThisOrigin()).andReturn(Collections.<Dependency> emptySet()).anyTimes();
+        SpecificResourceAllocation allocation = createNiceMock(SpecificResourceAllocation.class);
+        expect(allocation.getIntendedTotalHours()).andReturn(hours).anyTimes();
+        expect(allocation.getTask()).andReturn(task).anyTimes();
+        expect(allocation.getResource()).andReturn(worker).anyTimes();
+        replay(task, allocation);
+
+        LimitingResourceQueueElement result = LimitingResourceQueueElement.create();
+        result.setResourceAllocation(allocation);
+        ReflectionTestUtils.setField(result, "id", ++lastId);
+        if ( earliestStartDay != null ) {
+            result.setEarlierStartDateBecauseOfGantt(START.plusDays(earliestStartDay).toDate());
+        }
+        return result;
+    }
+
+    private LimitingResourceQueueElement elementOnQueue(int startDay, int endDay) {
+        LimitingResourceQueueElement result = element((endDay - startDay) * 8, startDay);
+        result.setStartDate(START.plusDays(startDay));
+        result.setEndDate(START.plusDays(endDay));
+        queue.addLimitingResourceQueueElement(result);
+        return result;
+    }
+
+    private LimitingResourceQueueModel model(LimitingResourceQueueElement... unassigned) {
+        LimitingResourceQueueModel result = new LimitingResourceQueueModel();
+        ReflectionTestUtils.setField(result, "queuesState",
+                new QueuesState(Collections.singletonList(queue), asList(unassigned)));
+        return result;
+    }
+
+    private static DateAndHour day(int day) {
+        return DateAndHour.from(START.plusDays(day));
+    }
+
+    private static DateAndHour endOfDay(int day) {
+        return new DateAndHour(START.plusDays(day), 8);
+    }
+
+    @Test
+    public void theElementsThatCanStartEarlierAndTheLongestOnesGoFirst() {
+        elementOnQueue(1, 2);
+        LimitingResourceQueueElement shorter = element(8, 0);
+        LimitingResourceQueueElement longer = element(16, 0);
+        LimitingResourceQueueElement later = element(8, 3);
+
+        BatchAllocationReport report =
+                model(later, shorter, longer).assignAllUnassigned(false, NO_PROGRESS);
+
+        assertThat(report.getAssigned(), equalTo(asList(longer, shorter, later)));
+        assertThat(report.getNotAssigned().isEmpty(), equalTo(true));
+        assertThat(longer.getStartTime(), equalTo(day(2)));
+        assertThat(longer.getEndTime(), equalTo(endOfDay(3)));
+        assertThat(shorter.getStartTime(), equalTo(day(0)));
+        assertThat(later.getStartTime(), equalTo(longer.getEndTime()));
+        assertThat(report.getMakespans().get(queue), equalTo(endOfDay(4)));
+        assertThat(queue.getLimitingResourceQueueElements().size(), equalTo(4));
+    }
+
+    @Test
+    public void theElementsWithoutEarliestStartAreNotAssigned() {
+        LimitingResourceQueueElement withoutStart = element(8, null);
+        LimitingResourceQueueElement withStart = element(8, 0);
+
+        BatchAllocationReport report = model(withoutStart, withStart).assignAllUnassigned(false, NO_PROGRESS);
+
+        assertThat(report.getAssigned(), equalTo(Collections.singletonList(withStart)));
+        assertThat(report.getNotAssigned(), equalTo(Collections.singletonList(withoutStart)));
+        assertThat(withoutStart.getLimitingResourceQueue(), nullValue());
+    }
+
+    @Test
+    public void inADryRunTheElementsArePlacedTemporarily() {
+        LimitingResourceQueueElement existing = elementOnQueue(0, 1);
+        LimitingResourceQueueElement first = element(16, 0);
+        LimitingResourceQueueElement second = element(8, 0);
+        LimitingResourceQueueModel model = model(first, second);
+
+        BatchAllocationReport report = model.assignAllUnassigned(true, NO_PROGRESS);
+
+        // The second one is placed after the first one, that was on the queue
+        // when it was assigned
+        assertThat(report.isDryRun(), equalTo(true));
+        assertThat(report.getAssigned(), equalTo(asList(first, second)));
+        assertThat(report.getMakespans().get(queue), equalTo(endOfDay(3)));
+
+        assertThat(new ArrayList<>(queue.getLimitingResourceQueueElements()),
+                equalTo(Collections.singletonList(existing)));
+        assertThat(model.getUnassignedLimitingResourceQueueElements().size(), equalTo(2));
+        for (LimitingResourceQueueElement each : asList(first, second)) {
+            assertThat(each.getLimitingResourceQueue(), nullValue());
+            assertThat(each.getStartDate(), nullValue());
+            assertThat(each.getEndDate(), nullValue());
+        }
+    }
+
+    @Test
+    public void aDryRunCanBeRepeatedWithTheSameResult() {
+        elementOnQueue(0, 1);
+        LimitingResourceQueueModel model = model(element(16, 0), element(8, 2));
+
+        BatchAllocationReport first = model.assignAllUnassigned(true, NO_PROGRESS);
+        BatchAllocationReport second = model.assignAllUnassigned(true, NO_PROGRESS);
+
+        assertThat(second.getAssigned(), equalTo(first.getAssigned()));
+        assertThat(second.getMakespans(), equalTo(first.getMakespans()));
+    }
+
+}
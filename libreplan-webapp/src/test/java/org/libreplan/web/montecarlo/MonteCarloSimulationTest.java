@@ -0,0 +1,224 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.montecarlo;
+
+import static java.util.Collections.singleton;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.joda.time.Days;
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.entities.Dependency.Type;
+import org.zkoss.ganttz.util.LongOperationFeedback.IDesktopUpdatesEmitter;
+
+/**
+ * Tests for {@link MonteCarloSimulation} and {@link DurationDistribution}.
+ */
+public class MonteCarloSimulationTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    private static final int ITERATIONS = 200000;
+
+    private static final IDesktopUpdatesEmitter<Integer> NO_PROGRESS = percentage -> {
+    };
+
+    /**
+     * Two tasks of 2, 4 or 6 days, with probabilities 20%, 50% and 30%.
+     */
+    private static MonteCarloSimulation simulation(DurationDistribution distribution) {
+        MonteCarloSimulation.Builder builder = MonteCarloSimulation.builder(START, distribution);
+        int first = builder.addTask(2, 4, 6, 0.3, 0.8, 0);
+        int second = builder.addTask(2, 4, 6, 0.3, 0.8, Double.NEGATIVE_INFINITY);
+        builder.addDependency(first, second, Type.END_START);
+
+        return builder.build();
+    }
+
+    private static int fixedTask(MonteCarloSimulation.Builder builder, double duration) {
+        return builder.addTask(duration, duration, duration, 0.3, 0.8, Double.NEGATIVE_INFINITY);
+    }
+
+    private static Map<LocalDate, BigDecimal> endDates(MonteCarloSimulation simulation, int iterations,
+                                                       long seed) {
+        return simulation.run(iterations, seed, NO_PROGRESS).getEndDateProbabilities();
+    }
+
+    private static double mean(Map<LocalDate, BigDecimal> probabilities) {
+        double result = 0;
+        for (Entry<LocalDate, BigDecimal> each : probabilities.entrySet()) {
+            result += Days.daysBetween(START, each.getKey()).getDays() * each.getValue().doubleValue();
+        }
+        return result;
+    }
+
+    private static double sum(Map<LocalDate, BigDecimal> probabilities) {
+        double result = 0;
+        for (BigDecimal each : probabilities.values()) {
+            result += each.doubleValue();
+        }
+        return result;
+    }
+
+    @Test
+    public void theSameSeedGivesTheSameResult() {
+        for (DurationDistribution each : DurationDistribution.values()) {
+            assertThat(endDates(simulation(each), ITERATIONS, 42),
+                    equalTo(endDates(simulation(each), ITERATIONS, 42)));
+        }
+    }
+
+    @Test
+    public void theThreePointEstimationOnlyUsesTheEstimations() {
+        Map<LocalDate, BigDecimal> result = endDates(simulation(DurationDistribution.THREE_POINT), ITERATIONS, 1);
+
+        assertThat(result.keySet().size(), equalTo(5));
+        assertEquals(0.04, result.get(START.plusDays(4)).doubleValue(), 0.005);
+        assertEquals(0.09, result.get(START.plusDays(12)).doubleValue(), 0.005);
+        assertEquals(2 * (0.2 * 2 + 0.5 * 4 + 0.3 * 6), mean(result), 0.05);
+    }
+
+    @Test
+    public void theEndDatesAreBetweenTheOptimisticAndPessimisticOnes() {
+        for (DurationDistribution each : DurationDistribution.values()) {
+            Map<LocalDate, BigDecimal> result = endDates(simulation(each), ITERATIONS, 7);
+
+            assertEquals(1, sum(result), 0.0001);
+            for (LocalDate endDate : result.keySet()) {
+                assertTrue(!endDate.isBefore(START.plusDays(4)) && !endDate.isAfter(START.plusDays(12)));
+            }
+        }
+    }
+
+    @Test
+    public void theContinuousDistributionsHaveTheExpectedMean() {
+        // The end date is the integer part of the sum of the durations
+        assertEquals(2 * 4 - 0.5, mean(endDates(simulation(DurationDistribution.TRIANGULAR), ITERATIONS, 3)),
+                0.05);
+        assertEquals(2 * 4 - 0.5, mean(endDates(simulation(DurationDistribution.PERT), ITERATIONS, 3)),
+                0.05);
+    }
+
+    @Test
+    public void theProgressIsNotifiedUntilCompleted() {
+        final int[] last = { 0 };
+        simulation(DurationDistribution.PERT).run(1000, 5, percentage -> {
+            assertTrue(percentage >= last[0]);
+            last[0] = percentage;
+        });
+
+        assertThat(last[0], equalTo(100));
+    }
+
+    @Test
+    public void theEndIsTheLongestBranch() {
+        MonteCarloSimulation.Builder builder = MonteCarloSimulation.builder(START, DurationDistribution.PERT);
+        int shorter = fixedTask(builder, 2);
+        int longer = fixedTask(builder, 3);
+        int last = fixedTask(builder, 1);
+        builder.addDependency(shorter, last, Type.END_START);
+        builder.addDependency(longer, last, Type.END_START);
+
+        MonteCarloSimulation.Result result = builder.build().run(1000, 11, NO_PROGRESS);
+
+        assertThat(result.getEndDateProbabilities().keySet(), equalTo(singleton(START.plusDays(4))));
+        assertEquals(0, result.getCriticalityIndex(shorter), 0);
+        assertEquals(1, result.getCriticalityIndex(longer), 0);
+        assertEquals(1, result.getCriticalityIndex(last), 0);
+    }
+
+    @Test
+    public void theStartAndEndDependenciesAreFollowed() {
+        MonteCarloSimulation.Builder builder = MonteCarloSimulation.builder(START, DurationDistribution.TRIANGULAR);
+        int first = builder.addTask(4, 4, 4, 0.3, 0.8, 0);
+        int startingWithIt = fixedTask(builder, 2);
+        int endingWithIt = fixedTask(builder, 1);
+        int milestone = builder.addMilestone(6);
+        builder.addDependency(first, startingWithIt, Type.START_START);
+        builder.addDependency(first, endingWithIt, Type.END_END);
+
+        MonteCarloSimulation.Result result = builder.build().run(1000, 13, NO_PROGRESS);
+
+        assertThat(result.getEndDateProbabilities().keySet(), equalTo(singleton(START.plusDays(6))));
+        assertEquals(0, result.getCriticalityIndex(first), 0);
+        assertEquals(0, result.getCriticalityIndex(startingWithIt), 0);
+        assertEquals(0, result.getCriticalityIndex(endingWithIt), 0);
+        assertEquals(1, result.getCriticalityIndex(milestone), 0);
+    }
+
+    @Test
+    public void theCriticalityIsSharedBetweenEquivalentBranches() {
+        MonteCarloSimulation.Builder builder = MonteCarloSimulation.builder(START, DurationDistribution.PERT);
+        int first = builder.addTask(2, 4, 6, 0.3, 0.8, Double.NEGATIVE_INFINITY);
+        int second = builder.addTask(2, 4, 6, 0.3, 0.8, Double.NEGATIVE_INFINITY);
+
+        MonteCarloSimulation.Result result = builder.build().run(ITERATIONS, 17, NO_PROGRESS);
+
+        assertEquals(0.5, result.getCriticalityIndex(first), 0.01);
+        assertEquals(1, result.getCriticalityIndex(first) + result.getCriticalityIndex(second), 0.0001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theDependenciesCannotHaveCycles() {
+        MonteCarloSimulation.Builder builder = MonteCarloSimulation.builder(START, DurationDistribution.PERT);
+        int first = fixedTask(builder, 1);
+        int second = fixedTask(builder, 1);
+        builder.addDependency(first, second, Type.END_START);
+        builder.addDependency(second, first, Type.START_START);
+
+        builder.build();
+    }
+
+    @Test
+    public void theEndsBeforeTheStartAreRoundedDown() {
+        MonteCarloSimulation.Builder builder = MonteCarloSimulation.builder(START, DurationDistribution.TRIANGULAR);
+        builder.addTask(0.25, 0.5, 0.75, 0.3, 0.8, -1.5);
+
+        Map<LocalDate, BigDecimal> result = endDates(builder.build(), ITERATIONS, 19);
+
+        assertThat(result.keySet().size(), equalTo(2));
+        assertEquals(0.5, result.get(START.minusDays(2)).doubleValue(), 0.01);
+        assertEquals(0.5, result.get(START.minusDays(1)).doubleValue(), 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theDurationsCannotBeNegative() {
+        MonteCarloSimulation.builder(START, DurationDistribution.PERT).addTask(-1, 2, 3, 0.3, 0.8, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theProbabilityLimitsMustBeOrdered() {
+        MonteCarloSimulation.builder(START, DurationDistribution.THREE_POINT).addTask(1, 2, 3, 0.8, 0.3, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void theStartOffsetCannotBeNaN() {
+        MonteCarloSimulation.builder(START, DurationDistribution.PERT).addMilestone(Double.NaN);
+    }
+
+}
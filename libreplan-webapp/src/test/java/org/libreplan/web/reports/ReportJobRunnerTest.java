@@ -0,0 +1,147 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.reports;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.Test;
+import org.libreplan.business.resources.entities.CriterionType;
+import org.libreplan.web.reports.ReportJobRunner.OutputCache;
+import org.libreplan.web.reports.ReportJobRunner.OutputKey;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests for the keys and the cache of the outputs generated by
+ * {@link ReportJobRunner}.
+ */
+public class ReportJobRunnerTest {
+
+    private static CriterionType entity(Long id) {
+        CriterionType result = CriterionType.create("type", "");
+        ReflectionTestUtils.setField(result, "id", id);
+
+        return result;
+    }
+
+    private static OutputKey key(long dataVersion, Object... filters) {
+        ReportDataSource dataSource = ReportDataSource.create(() -> null, filters);
+        ReportJob job = new ReportJob("report", ReportJobRunner.PDF, dataSource, Locale.ENGLISH, "user",
+                new SecurityContextImpl());
+
+        return new OutputKey(job, dataVersion);
+    }
+
+    @Test
+    public void theSavedEntitiesAreIdentifiedByTheirClassAndId() {
+        assertThat(OutputKey.normalize(entity(1L)), equalTo(OutputKey.normalize(entity(1L))));
+        assertThat(OutputKey.normalize(entity(1L)), not(equalTo(OutputKey.normalize(entity(2L)))));
+    }
+
+    @Test
+    public void theNotSavedEntitiesAreNeverEqual() {
+        CriterionType notSaved = entity(null);
+
+        assertThat(OutputKey.normalize(notSaved), not(equalTo(OutputKey.normalize(notSaved))));
+        assertThat(key(1, notSaved), not(equalTo(key(1, notSaved))));
+    }
+
+    @Test
+    public void theDatesAreComparedByTheirTime() {
+        assertThat(OutputKey.normalize(new Date(1000)), equalTo((Object) 1000L));
+    }
+
+    @Test
+    public void theCollectionsAreNormalizedElementByElement() {
+        Object normalized = OutputKey.normalize(Arrays.asList(entity(1L), new Date(1000), "text"));
+
+        assertThat(normalized, equalTo((Object) Arrays.asList(CriterionType.class.getName() + "#1", 1000L, "text")));
+    }
+
+    @Test
+    public void theKeysWithTheSameFiltersAndDataVersionAreEqual() {
+        assertThat(key(1, entity(1L), new Date(1000)), equalTo(key(1, entity(1L), new Date(1000))));
+        assertThat(key(1, entity(1L)).hashCode(), equalTo(key(1, entity(1L)).hashCode()));
+
+        assertThat(key(1, entity(1L)), not(equalTo(key(2, entity(1L)))));
+        assertThat(key(1, entity(1L)), not(equalTo(key(1, entity(2L)))));
+    }
+
+    @Test
+    public void theLeastRecentlyUsedOutputsAreDiscarded() {
+        OutputCache cache = new OutputCache(10);
+        cache.put(key(1, "a"), new byte[4]);
+        cache.put(key(1, "b"), new byte[4]);
+        cache.get(key(1, "a"));
+
+        cache.put(key(1, "c"), new byte[4]);
+
+        assertThat(cache.get(key(1, "a")).length, equalTo(4));
+        assertThat(cache.get(key(1, "b")), nullValue());
+        assertThat(cache.get(key(1, "c")).length, equalTo(4));
+    }
+
+    @Test
+    public void replacingAnOutputDoesNotCountItTwice() {
+        OutputCache cache = new OutputCache(10);
+        cache.put(key(1, "a"), new byte[4]);
+        cache.put(key(1, "a"), new byte[5]);
+
+        cache.put(key(1, "b"), new byte[5]);
+
+        assertThat(cache.get(key(1, "a")).length, equalTo(5));
+        assertThat(cache.get(key(1, "b")).length, equalTo(5));
+    }
+
+    @Test
+    public void theOutputsBiggerThanTheMaximumAreNotKept() {
+        OutputCache cache = new OutputCache(10);
+        cache.put(key(1, "a"), new byte[4]);
+
+        cache.put(key(1, "b"), new byte[11]);
+
+        assertThat(cache.get(key(1, "a")).length, equalTo(4));
+        assertThat(cache.get(key(1, "b")), nullValue());
+    }
+
+    @Test
+    public void theOutputsOfOlderDataAreDiscardedWhenNewerDataIsAdded() {
+        OutputCache cache = new OutputCache(100);
+        cache.put(key(1, "a"), new byte[4]);
+        cache.put(key(2, "b"), new byte[4]);
+
+        assertThat(cache.get(key(1, "a")), nullValue());
+        assertThat(cache.get(key(2, "b")).length, equalTo(4));
+
+        cache.put(key(2, "a"), new byte[4]);
+
+        assertThat(cache.get(key(2, "a")).length, equalTo(4));
+        assertThat(cache.get(key(2, "b")).length, equalTo(4));
+    }
+
+}
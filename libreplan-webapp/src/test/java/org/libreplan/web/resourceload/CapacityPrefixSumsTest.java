@@ -0,0 +1,164 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.resourceload;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.libreplan.business.workingday.EffortDuration.hours;
+
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.calendars.entities.CalendarData.Days;
+import org.libreplan.business.calendars.entities.Capacity;
+import org.libreplan.business.calendars.entities.ResourceCalendar;
+import org.libreplan.business.resources.entities.ICriterion;
+import org.libreplan.business.resources.entities.Resource;
+import org.libreplan.business.resources.entities.Worker;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate;
+
+/**
+ * Tests for {@link CapacityPrefixSums}, comparing it with
+ * {@link Resource#getTotalEffortFor(IntraDayDate, IntraDayDate, ICriterion)}.
+ */
+public class CapacityPrefixSumsTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    /**
+     * Satisfied on the even days of the month
+     */
+    private static final ICriterion EVEN_DAYS = new ICriterion() {
+
+        @Override
+        public boolean isSatisfiedBy(Resource resource) {
+            return true;
+        }
+
+        @Override
+        public boolean isSatisfiedBy(Resource resource, LocalDate start, LocalDate end) {
+            return true;
+        }
+
+        @Override
+        public boolean isSatisfiedBy(Resource resource, LocalDate atThisDate) {
+            return atThisDate.getDayOfMonth() % 2 == 0;
+        }
+    };
+
+    private Worker worker;
+
+    @Before
+    public void createWorker() {
+        ResourceCalendar calendar = ResourceCalendar.create();
+        int capacity = 8;
+        for (Days each : Days.values()) {
+            calendar.setCapacityAt(each, Capacity.create(hours(capacity--)));
+        }
+        calendar.getLastCalendarAvailability().setStartDate(START);
+
+        worker = Worker.create();
+        worker.setCalendar(calendar);
+    }
+
+    private static IntraDayDate day(int day) {
+        return IntraDayDate.startOfDay(START.plusDays(day));
+    }
+
+    private static IntraDayDate hour(int day, int hour) {
+        return IntraDayDate.create(START.plusDays(day), hours(hour));
+    }
+
+    private static void checkSameAsResource(CapacityPrefixSums capacities, Resource resource, ICriterion criterion,
+                                            IntraDayDate start, IntraDayDate end) {
+
+        assertThat(capacities.getTotalEffortFor(start, end), equalTo(resource.getTotalEffortFor(start, end, criterion)));
+    }
+
+    @Test
+    public void theWholeDaysAreAddedUp() {
+        CapacityPrefixSums capacities = new CapacityPrefixSums(worker, null);
+
+        assertThat(capacities.getTotalEffortFor(day(0), day(1)), equalTo(hours(8)));
+        assertThat(capacities.getTotalEffortFor(day(0), day(7)), equalTo(hours(8 + 7 + 6 + 5 + 4 + 3 + 2)));
+        assertThat(capacities.getTotalEffortFor(day(2), day(9)), equalTo(hours(8 + 7 + 6 + 5 + 4 + 3 + 2)));
+    }
+
+    @Test
+    public void theFirstAndLastDaysCanBePartial() {
+        CapacityPrefixSums capacities = new CapacityPrefixSums(worker, null);
+
+        assertThat(capacities.getTotalEffortFor(hour(0, 2), hour(0, 5)), equalTo(hours(3)));
+        assertThat(capacities.getTotalEffortFor(hour(0, 6), hour(2, 1)), equalTo(hours(2 + 7 + 1)));
+        assertThat(capacities.getTotalEffortFor(hour(0, 6), day(2)), equalTo(hours(2 + 7)));
+    }
+
+    @Test
+    public void theEmptyAndInvertedIntervalsHaveNoCapacity() {
+        CapacityPrefixSums capacities = new CapacityPrefixSums(worker, null);
+
+        assertThat(capacities.getTotalEffortFor(day(3), day(3)), equalTo(EffortDuration.zero()));
+        assertThat(capacities.getTotalEffortFor(hour(3, 2), hour(3, 2)), equalTo(EffortDuration.zero()));
+        assertThat(capacities.getTotalEffortFor(day(5), day(3)), equalTo(EffortDuration.zero()));
+    }
+
+    @Test
+    public void theDaysNotSatisfyingTheCriterionAreNotCounted() {
+        CapacityPrefixSums capacities = new CapacityPrefixSums(worker, EVEN_DAYS);
+
+        /* START is the 4th of January, a Monday */
+        assertThat(capacities.getTotalEffortFor(day(0), day(7)), equalTo(hours(8 + 6 + 4 + 2)));
+        assertThat(capacities.getTotalEffortFor(hour(1, 1), hour(3, 2)), equalTo(hours(6)));
+        assertThat(capacities.getTotalEffortFor(hour(0, 1), hour(1, 2)), equalTo(hours(7)));
+    }
+
+    @Test
+    public void theCoveredDaysCanGrowInBothDirections() {
+        CapacityPrefixSums capacities = new CapacityPrefixSums(worker, EVEN_DAYS);
+
+        checkSameAsResource(capacities, worker, EVEN_DAYS, day(10), day(12));
+        checkSameAsResource(capacities, worker, EVEN_DAYS, day(5), day(11));
+        checkSameAsResource(capacities, worker, EVEN_DAYS, day(11), day(40));
+        checkSameAsResource(capacities, worker, EVEN_DAYS, day(-30), day(100));
+        checkSameAsResource(capacities, worker, EVEN_DAYS, day(-200), day(-150));
+    }
+
+    @Test
+    public void theResultIsTheSameAsTheResourceForRandomIntervals() {
+        Random random = new Random(0);
+        for (ICriterion criterion : new ICriterion[] { null, EVEN_DAYS }) {
+            CapacityPrefixSums capacities = new CapacityPrefixSums(worker, criterion);
+            for (int i = 0; i < 500; i++) {
+                int startDay = random.nextInt(400) - 100;
+                int endDay = startDay + random.nextInt(60);
+                IntraDayDate first = hour(startDay, random.nextInt(10));
+                IntraDayDate second = hour(endDay, random.nextInt(10));
+
+                checkSameAsResource(capacities, worker, criterion,
+                        IntraDayDate.min(first, second), IntraDayDate.max(first, second));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,387 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.resourceload;
+
+import static java.util.Arrays.asList;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import org.joda.time.LocalDate;
+import org.junit.Test;
+import org.libreplan.business.planner.entities.ResourceAllocation;
+import org.libreplan.business.workingday.EffortDuration;
+import org.libreplan.business.workingday.IntraDayDate;
+
+/**
+ * Tests for {@link LoadPeriodGenerator#joinAll(List)}, comparing it with joining
+ * every two overlapping generators as it was done before.
+ */
+public class LoadPeriodGeneratorTest {
+
+    private static final LocalDate START = new LocalDate(2010, 1, 4);
+
+    private final List<ResourceAllocation<?>> allocations = new ArrayList<>();
+
+    private static class Generator extends LoadPeriodGenerator {
+
+        Generator(IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
+            super(start, end, allocationsOnInterval);
+        }
+
+        @Override
+        protected LoadPeriodGenerator create(
+                IntraDayDate start, IntraDayDate end, List<ResourceAllocation<?>> allocationsOnInterval) {
+
+            return new Generator(start, end, allocationsOnInterval);
+        }
+
+        @Override
+        protected EffortDuration getTotalAvailableEffort() {
+            return EffortDuration.zero();
+        }
+
+        @Override
+        protected EffortDuration getEffortAssigned() {
+            return EffortDuration.zero();
+        }
+
+        @Override
+        protected EffortDuration getAssignedEffortFor(ResourceAllocation<?> resourceAllocation) {
+            return EffortDuration.zero();
+        }
+
+    }
+
+    private static IntraDayDate day(int day) {
+        return IntraDayDate.startOfDay(START.plusDays(day));
+    }
+
+    private static IntraDayDate hour(int day, int hour) {
+        return IntraDayDate.create(START.plusDays(day), EffortDuration.hours(hour));
+    }
+
+    private LoadPeriodGenerator generator(IntraDayDate start, IntraDayDate end) {
+        ResourceAllocation<?> allocation = createNiceMock(ResourceAllocation.class);
+        expect(allocation.isSatisfied()).andReturn(true).anyTimes();
+        replay(allocation);
+        allocations.add(allocation);
+
+        return new Generator(start, end, Collections.<ResourceAllocation<?>> singletonList(allocation));
+    }
+
+    private LoadPeriodGenerator generator(int startDay, int endDay) {
+        return generator(day(startDay), day(endDay));
+    }
+
+    private static List<LoadPeriodGenerator> sortedByStartDate(List<LoadPeriodGenerator> generators) {
+        List<LoadPeriodGenerator> result = new ArrayList<>(generators);
+        result.sort((a, b) -> a.getStart().compareTo(b.getStart()));
+
+        return result;
+    }
+
+    /**
+     * @return each generator as its interval and the indexes of its allocations
+     */
+    private List<String> describe(List<LoadPeriodGenerator> generators) {
+        List<String> result = new ArrayList<>();
+        for (LoadPeriodGenerator each : generators) {
+            List<Integer> indexes = new ArrayList<>();
+            for (ResourceAllocation<?> allocation : each.getAllocationsOnInterval()) {
+                indexes.add(allocations.indexOf(allocation));
+            }
+            Collections.sort(indexes);
+            result.add(each.getStart() + " - " + each.getEnd() + " " + indexes);
+        }
+        return result;
+    }
+
+    private static void assertSortedByStartDate(List<LoadPeriodGenerator> generators) {
+        for (int i = 1; i < generators.size(); i++) {
+            assertTrue(generators.get(i - 1).getStart().compareTo(generators.get(i).getStart()) <= 0);
+        }
+    }
+
+    private List<String> checkSameAsJoiningPairs(LoadPeriodGenerator... generators) {
+        return checkSameAsJoiningPairs(asList(generators));
+    }
+
+    private List<String> checkSameAsJoiningPairs(List<LoadPeriodGenerator> generators) {
+        List<LoadPeriodGenerator> sorted = sortedByStartDate(generators);
+        List<LoadPeriodGenerator> joined = LoadPeriodGenerator.joinAll(sorted);
+        assertSortedByStartDate(joined);
+
+        List<String> result = describe(joined);
+        List<String> expected = describe(PairwiseJoin.joinAll(sorted));
+        Collections.sort(result);
+        Collections.sort(expected);
+        assertThat(result, equalTo(expected));
+
+        return describe(joined);
+    }
+
+    private static String period(IntraDayDate start, IntraDayDate end, Integer... allocations) {
+        return start + " - " + end + " " + asList(allocations);
+    }
+
+    private static String period(int startDay, int endDay, Integer... allocations) {
+        return period(day(startDay), day(endDay), allocations);
+    }
+
+    @Test
+    public void theOverlappingGeneratorsAreSplit() {
+        List<String> joined = checkSameAsJoiningPairs(generator(0, 4), generator(2, 6));
+
+        assertThat(joined, equalTo(asList(period(0, 2, 0), period(2, 4, 0, 1), period(4, 6, 1))));
+    }
+
+    @Test
+    public void theNestedGeneratorsAreSplit() {
+        List<String> joined = checkSameAsJoiningPairs(generator(0, 6), generator(2, 4), generator(2, 3));
+
+        assertThat(joined, equalTo(asList(
+                period(0, 2, 0), period(2, 3, 0, 1, 2), period(3, 4, 0, 1), period(4, 6, 0))));
+    }
+
+    @Test
+    public void theGeneratorsWithTheSameIntervalAreJoined() {
+        List<String> joined = checkSameAsJoiningPairs(generator(0, 2), generator(0, 2));
+
+        assertThat(joined, equalTo(asList(period(0, 2, 0, 1))));
+    }
+
+    @Test
+    public void theAdjacentGeneratorsAreKept() {
+        List<String> joined = checkSameAsJoiningPairs(generator(0, 2), generator(2, 4), generator(5, 6));
+
+        assertThat(joined, equalTo(asList(period(0, 2, 0), period(2, 4, 1), period(5, 6, 2))));
+    }
+
+    @Test
+    public void aGeneratorWithoutLengthInTheMiddleOfAnotherOneOnlySplitsIt() {
+        List<String> joined = checkSameAsJoiningPairs(generator(0, 4), generator(hour(1, 3), hour(1, 3)));
+
+        assertThat(joined, equalTo(asList(period(day(0), hour(1, 3), 0), period(hour(1, 3), day(4), 0))));
+    }
+
+    @Test
+    public void aGeneratorWithoutLengthInTheMiddleOfSeveralOnesOnlySplitsThem() {
+        List<String> joined = checkSameAsJoiningPairs(
+                generator(0, 4), generator(1, 3), generator(hour(2, 3), hour(2, 3)));
+
+        assertThat(joined, equalTo(asList(
+                period(0, 1, 0),
+                period(day(1), hour(2, 3), 0, 1),
+                period(hour(2, 3), day(3), 0, 1),
+                period(3, 4, 0))));
+    }
+
+    @Test
+    public void theGeneratorsWithoutLengthNotInTheMiddleOfAnotherOneAreKept() {
+        List<String> joined = checkSameAsJoiningPairs(
+                generator(0, 0), generator(0, 2), generator(2, 2), generator(4, 4), generator(6, 6));
+
+        assertThat(joined, equalTo(asList(
+                period(0, 0, 0), period(0, 2, 1), period(2, 2, 2), period(4, 4, 3), period(6, 6, 4))));
+    }
+
+    /**
+     * The generators without length are placed at different hours, as when
+     * several of them or a generator with length share their point the
+     * result of joining pairs depended on their order.
+     */
+    @Test
+    public void theResultIsTheSameAsJoiningPairsForRandomGenerators() {
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; i++) {
+            allocations.clear();
+            List<LoadPeriodGenerator> generators = new ArrayList<>();
+            int count = 1 + random.nextInt(8);
+            for (int j = 0; j < count; j++) {
+                int start = random.nextInt(10);
+                int length = random.nextInt(5);
+                if ( length == 0 ) {
+                    IntraDayDate point = hour(start, 1 + j);
+                    generators.add(generator(point, point));
+                } else {
+                    generators.add(generator(start, start + length));
+                }
+            }
+            checkSameAsJoiningPairs(generators);
+        }
+    }
+
+    /**
+     * The previous way of joining the generators, taking two overlapping
+     * ones at a time until none overlaps.
+     */
+    private static class PairwiseJoin {
+
+        static List<LoadPeriodGenerator> joinAll(List<LoadPeriodGenerator> sortedByStartDate) {
+            List<LoadPeriodGenerator> generators = new LinkedList<>(sortedByStartDate);
+            ListIterator<LoadPeriodGenerator> iterator = generators.listIterator();
+
+            while (iterator.hasNext()) {
+                final LoadPeriodGenerator current = findNextOneOverlapping(iterator);
+
+                if ( current != null ) {
+                    rewind(iterator, current);
+                    iterator.remove();
+                    LoadPeriodGenerator next = iterator.next();
+                    iterator.remove();
+                    List<LoadPeriodGenerator> generated = join(current, next);
+                    final LoadPeriodGenerator positionToComeBack = generated.get(0);
+
+                    final List<LoadPeriodGenerator> remaining =
+                            generators.subList(iterator.nextIndex(), generators.size());
+
+                    List<LoadPeriodGenerator> generatorsSortedByStartDate =
+                            mergeListsKeepingByStartSortOrder(generated, remaining);
+
+                    final int takenFromRemaining = generatorsSortedByStartDate.size() - generated.size();
+                    for (int i = 0; i < takenFromRemaining; i++) {
+                        iterator.next();
+                        iterator.remove();
+                    }
+                    for (LoadPeriodGenerator each : generatorsSortedByStartDate) {
+                        iterator.add(each);
+                    }
+                    rewind(iterator, positionToComeBack);
+                }
+            }
+            return generators;
+        }
+
+        private static List<LoadPeriodGenerator> join(LoadPeriodGenerator current, LoadPeriodGenerator next) {
+            if ( !overlaps(current, next) ) {
+                return stripEmpty(current, next);
+            }
+
+            if ( isIncluded(current, next) ) {
+                return stripEmpty(
+                        until(current, next.getStart()), intersect(current, next), from(current, next.getEnd()));
+            }
+            return stripEmpty(until(current, next.getStart()), intersect(current, next), from(next, current.getEnd()));
+        }
+
+        private static boolean overlaps(LoadPeriodGenerator a, LoadPeriodGenerator b) {
+            return a.getStart().compareTo(b.getEnd()) < 0 && b.getStart().compareTo(a.getEnd()) < 0;
+        }
+
+        private static boolean isIncluded(LoadPeriodGenerator container, LoadPeriodGenerator other) {
+            return other.getStart().compareTo(container.getStart()) >= 0 &&
+                    other.getEnd().compareTo(container.getEnd()) <= 0;
+        }
+
+        private static List<LoadPeriodGenerator> stripEmpty(LoadPeriodGenerator... generators) {
+            List<LoadPeriodGenerator> result = new ArrayList<>();
+            for (LoadPeriodGenerator each : generators) {
+                if ( !each.getStart().equals(each.getEnd()) ) {
+                    result.add(each);
+                }
+            }
+            return result;
+        }
+
+        private static LoadPeriodGenerator intersect(LoadPeriodGenerator a, LoadPeriodGenerator b) {
+            List<ResourceAllocation<?>> allocations = new ArrayList<>(a.getAllocationsOnInterval());
+            allocations.addAll(b.getAllocationsOnInterval());
+
+            return a.create(
+                    IntraDayDate.max(a.getStart(), b.getStart()), IntraDayDate.min(a.getEnd(), b.getEnd()), allocations);
+        }
+
+        private static LoadPeriodGenerator from(LoadPeriodGenerator generator, IntraDayDate newStart) {
+            return generator.create(newStart, generator.getEnd(), generator.getAllocationsOnInterval());
+        }
+
+        private static LoadPeriodGenerator until(LoadPeriodGenerator generator, IntraDayDate newEnd) {
+            return generator.create(generator.getStart(), newEnd, generator.getAllocationsOnInterval());
+        }
+
+        private static LoadPeriodGenerator findNextOneOverlapping(ListIterator<LoadPeriodGenerator> iterator) {
+            while (iterator.hasNext()) {
+                LoadPeriodGenerator current = iterator.next();
+                if ( !iterator.hasNext() ) {
+                    return null;
+                }
+                if ( overlaps(current, peekNext(iterator)) ) {
+                    return current;
+                }
+            }
+            return null;
+        }
+
+        private static void rewind(ListIterator<LoadPeriodGenerator> iterator, LoadPeriodGenerator nextOne) {
+            while (peekNext(iterator) != nextOne) {
+                iterator.previous();
+            }
+        }
+
+        private static List<LoadPeriodGenerator> mergeListsKeepingByStartSortOrder(
+                List<LoadPeriodGenerator> joined, List<LoadPeriodGenerator> remaining) {
+
+            List<LoadPeriodGenerator> result = new ArrayList<>();
+            ListIterator<LoadPeriodGenerator> joinedIterator = joined.listIterator();
+            ListIterator<LoadPeriodGenerator> remainingIterator = remaining.listIterator();
+
+            while (joinedIterator.hasNext() && remainingIterator.hasNext()) {
+                LoadPeriodGenerator fromJoined = peekNext(joinedIterator);
+                LoadPeriodGenerator fromRemaining = peekNext(remainingIterator);
+
+                if ( fromJoined.getStart().compareTo(fromRemaining.getStart()) <= 0 ) {
+                    result.add(fromJoined);
+                    joinedIterator.next();
+                } else {
+                    result.add(fromRemaining);
+                    remainingIterator.next();
+                }
+            }
+            if ( joinedIterator.hasNext() ) {
+                result.addAll(joined.subList(joinedIterator.nextIndex(), joined.size()));
+            }
+            return result;
+        }
+
+        private static LoadPeriodGenerator peekNext(ListIterator<LoadPeriodGenerator> iterator) {
+            if ( !iterator.hasNext() ) {
+                return null;
+            }
+            LoadPeriodGenerator result = iterator.next();
+            iterator.previous();
+
+            return result;
+        }
+
+    }
+
+}
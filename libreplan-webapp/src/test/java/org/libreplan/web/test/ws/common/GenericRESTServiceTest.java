@@ -0,0 +1,255 @@
+/*
+ * This file is part of LibrePlan
+ *
+ * Copyright (C) 2026 LibrePlan
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package org.libreplan.web.test.ws.common;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createNiceMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.expectLastCall;
+import static org.easymock.EasyMock.getCurrentArguments;
+import static org.easymock.EasyMock.replay;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.easymock.IAnswer;
+import org.junit.Before;
+import org.junit.Test;
+import org.libreplan.business.common.IAdHocTransactionService;
+import org.libreplan.business.common.IOnTransaction;
+import org.libreplan.business.common.IntegrationEntity;
+import org.libreplan.business.common.daos.IIntegrationEntityDAO;
+import org.libreplan.business.common.exceptions.InstanceNotFoundException;
+import org.libreplan.business.common.exceptions.ValidationException;
+import org.libreplan.ws.common.api.InstanceConstraintViolationsDTO;
+import org.libreplan.ws.common.api.InstanceConstraintViolationsListDTO;
+import org.libreplan.ws.common.api.IntegrationEntityDTO;
+import org.libreplan.ws.common.impl.GenericRESTService;
+import org.springframework.dao.DataIntegrityViolationException;
+
+/**
+ * Tests for the bulk mode of {@link GenericRESTService}. The transactions
+ * are simulated, so the entities saved in a transaction are only stored when
+ * it is committed. Like Hibernate does before running some statements, the
+ * saved entities are flushed before saving another one and when committing,
+ * and flushing fails if an entity marked as failing has been saved.
+ */
+public class GenericRESTServiceTest {
+
+    private static final String INVALID = "invalid";
+
+    private static final String FAILING_ON_FLUSH = "failing-on-flush";
+
+    private static class Item extends IntegrationEntity {
+
+        Item(String code) {
+            setCode(code);
+        }
+
+        @Override
+        public void validate() throws ValidationException {
+            if (getCode().startsWith(INVALID)) {
+                throw new ValidationException("invalid item");
+            }
+        }
+
+        @Override
+        protected IIntegrationEntityDAO<? extends IntegrationEntity> getIntegrationEntityDAO() {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+    private static class ItemDTO extends IntegrationEntityDTO {
+
+        ItemDTO(String code) {
+            super(code);
+        }
+
+        @Override
+        public String getEntityType() {
+            return "item";
+        }
+
+    }
+
+    private class FakeTransactionService implements IAdHocTransactionService {
+
+        @Override
+        public <T> T runOnTransaction(IOnTransaction<T> onTransaction) {
+            return runOnAnotherTransaction(onTransaction);
+        }
+
+        @Override
+        public <T> T runOnReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return runOnAnotherTransaction(onTransaction);
+        }
+
+        @Override
+        public <T> T runOnAnotherTransaction(IOnTransaction<T> onTransaction) {
+            transactions++;
+            saved = new ArrayList<>();
+            T result = onTransaction.execute();
+            flush();
+            committed.addAll(saved);
+
+            return result;
+        }
+
+        @Override
+        public <T> T runOnAnotherReadOnlyTransaction(IOnTransaction<T> onTransaction) {
+            return runOnAnotherTransaction(onTransaction);
+        }
+
+    }
+
+    private class ItemService extends GenericRESTService<Item, ItemDTO> {
+
+        ItemService() {
+            transactionService = new FakeTransactionService();
+        }
+
+        InstanceConstraintViolationsListDTO saveAll(List<ItemDTO> itemDTOs) {
+            return saveInBulk(itemDTOs);
+        }
+
+        @Override
+        protected Item toEntity(ItemDTO entityDTO) {
+            return new Item(entityDTO.code);
+        }
+
+        @Override
+        protected ItemDTO toDTO(Item entity) {
+            return new ItemDTO(entity.getCode());
+        }
+
+        @Override
+        protected IIntegrationEntityDAO<Item> getIntegrationEntityDAO() {
+            return itemDAO;
+        }
+
+        @Override
+        protected void updateEntity(Item entity, ItemDTO entityDTO) {
+        }
+
+    }
+
+    private IIntegrationEntityDAO<Item> itemDAO;
+
+    private List<Item> saved;
+
+    private List<Item> committed;
+
+    private int transactions;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void createItemDAO() throws InstanceNotFoundException {
+        committed = new ArrayList<>();
+        transactions = 0;
+
+        itemDAO = createNiceMock(IIntegrationEntityDAO.class);
+        expect(itemDAO.findByCodes(anyObject(Collection.class))).andReturn(Collections.<Item> emptyList())
+                .anyTimes();
+        expect(itemDAO.findByCode(anyObject(String.class))).andThrow(new InstanceNotFoundException(null, "item"))
+                .anyTimes();
+        itemDAO.saveWithoutValidating(anyObject(Item.class));
+        expectLastCall().andAnswer(new IAnswer<Void>() {
+            @Override
+            public Void answer() {
+                flush();
+                saved.add((Item) getCurrentArguments()[0]);
+                return null;
+            }
+        }).anyTimes();
+        replay(itemDAO);
+    }
+
+    private void flush() {
+        for (Item each : saved) {
+            if (each.getCode().startsWith(FAILING_ON_FLUSH)) {
+                throw new DataIntegrityViolationException("cannot insert " + each.getCode());
+            }
+        }
+    }
+
+    private static List<ItemDTO> itemDTOs(String... codes) {
+        List<ItemDTO> result = new ArrayList<>();
+        for (String each : codes) {
+            result.add(new ItemDTO(each));
+        }
+
+        return result;
+    }
+
+    private List<String> committedCodes() {
+        List<String> result = new ArrayList<>();
+        for (Item each : committed) {
+            result.add(each.getCode());
+        }
+
+        return result;
+    }
+
+    @Test
+    public void allTheItemsOfAChunkAreSavedInTheSameTransaction() {
+        InstanceConstraintViolationsListDTO violations = new ItemService().saveAll(itemDTOs("a", "b", "c"));
+
+        assertThat(violations.instanceConstraintViolationsList.isEmpty(), equalTo(true));
+        assertThat(committedCodes(), equalTo(Arrays.asList("a", "b", "c")));
+        assertThat(transactions, equalTo(1));
+    }
+
+    @Test
+    public void theInvalidItemsAreReportedAndTheRestOfTheChunkIsSavedAgain() {
+        InstanceConstraintViolationsListDTO violations =
+                new ItemService().saveAll(itemDTOs("a", "b", INVALID, "d", "e"));
+
+        assertThat(violations.instanceConstraintViolationsList.size(), equalTo(1));
+        InstanceConstraintViolationsDTO violation = violations.instanceConstraintViolationsList.get(0);
+        assertThat(violation.numItem, equalTo(3L));
+        assertThat(violation.constraintViolations, notNullValue());
+
+        assertThat(committedCodes(), equalTo(Arrays.asList("a", "b", "d", "e")));
+        assertThat(transactions, equalTo(2));
+    }
+
+    @Test
+    public void anItemFailingWhenFlushedIsReportedAndTheOthersAreSaved() {
+        InstanceConstraintViolationsListDTO violations =
+                new ItemService().saveAll(itemDTOs("a", "b", FAILING_ON_FLUSH, "d", "e"));
+
+        assertThat(violations.instanceConstraintViolationsList.size(), equalTo(1));
+        InstanceConstraintViolationsDTO violation = violations.instanceConstraintViolationsList.get(0);
+        assertThat(violation.numItem, equalTo(3L));
+        assertThat(violation.code, equalTo(FAILING_ON_FLUSH));
+        assertThat(violation.internalError, notNullValue());
+
+        assertThat(committedCodes(), equalTo(Arrays.asList("a", "b", "d", "e")));
+    }
+
+}